@@ -1,12 +1,16 @@
 package com.homeride.backend.config;
 
 import com.google.maps.GeoApiContext; // <-- IMPORT ADDED
+import com.google.maps.OkHttpRequestHandler;
+import okhttp3.ConnectionPool;
 import org.springframework.beans.factory.annotation.Value; // <-- IMPORT ADDED
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.util.concurrent.TimeUnit;
+
 @Configuration
 public class ApplicationConfig {
 
@@ -14,6 +18,9 @@ public class ApplicationConfig {
     @Value("${google.maps.api.key:}")
     private String apiKey;
 
+    @Value("${google.maps.query-rate-limit:50}")
+    private int queryRateLimit;
+
     @Bean
     public PasswordEncoder passwordEncoder() {
         return new BCryptPasswordEncoder();
@@ -22,8 +29,20 @@ public class ApplicationConfig {
     // This bean creates the Google Maps client for your application
     @Bean
     public GeoApiContext geoApiContext() {
-        return new GeoApiContext.Builder()
+        return mapsContextBuilder(apiKey, queryRateLimit).build();
+    }
+
+    /**
+     * The rate limit also caps the client's concurrent calls, whatever the number of request threads.
+     * OkHttp keeps only 5 idle connections by default; keeping as many as can be in flight means a
+     * burst of route lookups does not pay a new TLS handshake per call.
+     */
+    public static GeoApiContext.Builder mapsContextBuilder(String apiKey, int queryRateLimit) {
+        OkHttpRequestHandler.Builder requestHandler = new OkHttpRequestHandler.Builder();
+        requestHandler.okHttpClientBuilder()
+                .connectionPool(new ConnectionPool(queryRateLimit, 5, TimeUnit.MINUTES));
+        return new GeoApiContext.Builder(requestHandler)
                 .apiKey(apiKey)
-                .build();
+                .queryRateLimit(queryRateLimit);
     }
 }
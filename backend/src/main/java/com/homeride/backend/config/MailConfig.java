@@ -2,7 +2,6 @@ package com.homeride.backend.config;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.JavaMailSenderImpl;
 
 import java.util.Properties;
@@ -10,8 +9,9 @@ import java.util.Properties;
 @Configuration
 public class MailConfig {
 
+    // Declared as the implementation: EmailOutboxSender opens its own (reused) connection from its session
     @Bean
-    public JavaMailSender javaMailSender() {
+    public JavaMailSenderImpl javaMailSender() {
         JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
         mailSender.setHost("smtp.gmail.com");
         mailSender.setPort(587);
@@ -0,0 +1,22 @@
+package com.homeride.backend.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Overrides the default SQL budget (query-budget.*) for one HTTP handler method, for endpoints that
+ * legitimately need more statements or time, such as exports and backfills. A negative value keeps
+ * the default.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface QueryBudget {
+
+    int maxStatements() default -1;
+
+    long maxTimeMs() default -1;
+}
@@ -0,0 +1,238 @@
+package com.homeride.backend.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.annotation.support.SimpAnnotationMethodMessageHandler;
+import org.springframework.messaging.support.ExecutorChannelInterceptor;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Per-request SQL guardrails. Every statement that goes through the DataSource (JPA, JdbcTemplate)
+ * is counted against the HTTP request or STOMP message being handled on the current thread; see
+ * QueryBudgetFilter and {@link #stompInterceptor()}.
+ * <ul>
+ *   <li>sql.statements{type,operation} - statements per request or message</li>
+ *   <li>sql.budget.exceeded{type,operation,budget} - requests over query-budget.max-statements or
+ *   query-budget.max-time-ms of total statement time (also logged); {@link QueryBudget} overrides
+ *   both per handler</li>
+ *   <li>sql.slow.queries - single statements slower than query-budget.slow-query-ms (also logged)</li>
+ * </ul>
+ * Work handed to another thread (event listeners on an executor, async pools) is not counted.
+ */
+@Component
+public class QueryBudgetMonitor implements QueryExecutionListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(QueryBudgetMonitor.class);
+
+    private static final ThreadLocal<Scope> CURRENT = new ThreadLocal<>();
+    private static final int MAX_LOGGED_SQL_LENGTH = 500;
+
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final int maxStatements;
+    private final long maxTimeMs;
+    private final long slowQueryMs;
+    private final Counter slowQueries;
+
+    @Autowired
+    public QueryBudgetMonitor(MeterRegistry meterRegistry,
+                              @Value("${query-budget.enabled:true}") boolean enabled,
+                              @Value("${query-budget.max-statements:25}") int maxStatements,
+                              @Value("${query-budget.max-time-ms:500}") long maxTimeMs,
+                              @Value("${query-budget.slow-query-ms:200}") long slowQueryMs) {
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.maxStatements = maxStatements;
+        this.maxTimeMs = maxTimeMs;
+        this.slowQueryMs = slowQueryMs;
+        this.slowQueries = Counter.builder("sql.slow.queries")
+                .description("Single SQL statements slower than query-budget.slow-query-ms")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Starts counting the statements run on this thread until the scope is closed. Scopes nest: a
+     * closed scope's counts are added to the one it was opened in.
+     */
+    public static Scope open() {
+        Scope scope = new Scope(CURRENT.get());
+        CURRENT.set(scope);
+        return scope;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        long elapsedMs = execInfo.getElapsedTime();
+        Scope scope = CURRENT.get();
+        if (scope != null) {
+            scope.record(elapsedMs);
+        }
+        if (enabled && elapsedMs >= slowQueryMs) {
+            slowQueries.increment();
+            logger.warn("Slow SQL statement ({} ms): {}", elapsedMs, sql(queryInfoList));
+        }
+    }
+
+    /**
+     * Records a finished request or message and reports it when it went over its budget. The
+     * override may be null.
+     */
+    public void check(String type, String operation, Scope scope, QueryBudget override) {
+        if (!enabled) {
+            return;
+        }
+        DistributionSummary.builder("sql.statements")
+                .description("SQL statements per request or message")
+                .tag("type", type)
+                .tag("operation", operation)
+                .register(meterRegistry)
+                .record(scope.getStatements());
+
+        int statementBudget = override != null && override.maxStatements() >= 0 ? override.maxStatements() : maxStatements;
+        long timeBudget = override != null && override.maxTimeMs() >= 0 ? override.maxTimeMs() : maxTimeMs;
+        boolean overStatements = scope.getStatements() > statementBudget;
+        boolean overTime = scope.getElapsedMs() > timeBudget;
+        if (overStatements) {
+            exceeded(type, operation, "statements");
+        }
+        if (overTime) {
+            exceeded(type, operation, "time");
+        }
+        if (overStatements || overTime) {
+            logger.warn("{} {} ran {} SQL statements (budget {}) taking {} ms in the database (budget {} ms)",
+                    type, operation, scope.getStatements(), statementBudget, scope.getElapsedMs(), timeBudget);
+        }
+    }
+
+    /**
+     * Applies the budget to each SEND frame handled by a @MessageMapping method. Register on the
+     * client inbound channel.
+     */
+    public ExecutorChannelInterceptor stompInterceptor() {
+        return new ExecutorChannelInterceptor() {
+            @Override
+            public Message<?> beforeHandle(Message<?> message, MessageChannel channel, MessageHandler handler) {
+                if (isApplicationMessage(message, handler)) {
+                    open();
+                }
+                return message;
+            }
+
+            @Override
+            public void afterMessageHandled(Message<?> message, MessageChannel channel, MessageHandler handler, Exception ex) {
+                if (isApplicationMessage(message, handler)) {
+                    Scope scope = CURRENT.get();
+                    if (scope != null) {
+                        scope.close();
+                        check("stomp", operation((SimpAnnotationMethodMessageHandler) handler, message), scope, null);
+                    }
+                }
+            }
+        };
+    }
+
+    private static boolean isApplicationMessage(Message<?> message, MessageHandler handler) {
+        return handler instanceof SimpAnnotationMethodMessageHandler
+                && SimpMessageHeaderAccessor.getMessageType(message.getHeaders()) == SimpMessageType.MESSAGE
+                && SimpMessageHeaderAccessor.getDestination(message.getHeaders()) != null;
+    }
+
+    // The @MessageMapping pattern the destination matched, e.g. /app/chat.{rideId}, so the tag stays
+    // bounded when destinations carry ids; clients can send to any destination
+    private static String operation(SimpAnnotationMethodMessageHandler handler, Message<?> message) {
+        String destination = SimpMessageHeaderAccessor.getDestination(message.getHeaders());
+        for (String prefix : handler.getDestinationPrefixes()) {
+            if (destination.startsWith(prefix)) {
+                // Mappings keep their leading slash; the handler stores prefixes with a trailing one
+                String base = prefix.endsWith("/") ? prefix.substring(0, prefix.length() - 1) : prefix;
+                String lookup = destination.substring(base.length());
+                Optional<String> pattern = handler.getHandlerMethods().keySet().stream()
+                        .flatMap(mapping -> mapping.getDestinationConditions().getPatterns().stream())
+                        .filter(candidate -> handler.getPathMatcher().match(candidate, lookup))
+                        .findFirst();
+                if (pattern.isPresent()) {
+                    return base + pattern.get();
+                }
+            }
+        }
+        return "UNKNOWN";
+    }
+
+    private void exceeded(String type, String operation, String budget) {
+        Counter.builder("sql.budget.exceeded")
+                .description("Requests and messages over their SQL statement or time budget")
+                .tag("type", type)
+                .tag("operation", operation)
+                .tag("budget", budget)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private static String sql(List<QueryInfo> queryInfoList) {
+        String sql = queryInfoList.isEmpty() ? "" : queryInfoList.get(0).getQuery();
+        return sql.length() > MAX_LOGGED_SQL_LENGTH ? sql.substring(0, MAX_LOGGED_SQL_LENGTH) + "..." : sql;
+    }
+
+    /**
+     * Statements and their total execution time since {@link #open()}. Batches count as one
+     * statement per execution.
+     */
+    public static class Scope implements AutoCloseable {
+        private final Scope parent;
+        private int statements;
+        private long elapsedMs;
+        private boolean closed;
+
+        private Scope(Scope parent) {
+            this.parent = parent;
+        }
+
+        private void record(long statementMs) {
+            statements++;
+            elapsedMs += statementMs;
+        }
+
+        public int getStatements() {
+            return statements;
+        }
+
+        public long getElapsedMs() {
+            return elapsedMs;
+        }
+
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            if (parent != null) {
+                parent.statements += statements;
+                parent.elapsedMs += elapsedMs;
+                CURRENT.set(parent);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+}
@@ -7,6 +7,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
@@ -16,6 +17,7 @@ import org.springframework.security.config.annotation.web.configuration.EnableWe
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.HttpStatusEntryPoint;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
@@ -54,6 +56,13 @@ public class SecurityConfig {
                         .requestMatchers("/api/places/**").permitAll()
                         .requestMatchers("/api/maps/**").permitAll()
                         .requestMatchers("/ws/**").permitAll()
+                        // Health group exposed on the application port for load balancers (status only)
+                        .requestMatchers("/healthz").permitAll()
+                        // The actuator is served only on the internal management port (management.server.port).
+                        // Prometheus scrapes it without a user token; the meters include per-route and
+                        // per-endpoint data, so that port must not be reachable from outside.
+                        .requestMatchers("/actuator/health").permitAll()
+                        .requestMatchers("/actuator/prometheus").permitAll()
                         .requestMatchers("/api/rides/travel-info").permitAll()
                         .requestMatchers("/api/rides/calculate-price").permitAll()
                         .requestMatchers(HttpMethod.GET, "/api/employees/{id}").permitAll()
@@ -68,7 +77,7 @@ public class SecurityConfig {
                         .requestMatchers(HttpMethod.DELETE, "/api/rides/{rideId}").authenticated()
                         .requestMatchers("/api/rides/**").authenticated()
                         .requestMatchers("/api/ratings/**").authenticated()
-                        //.requestMatchers("/api/admin/**").hasRole("ADMIN")
+                        .requestMatchers("/api/admin/**").hasRole("ADMIN")
                         .requestMatchers(HttpMethod.POST, "/api/employees/me/profile-picture").authenticated()
                         .requestMatchers(HttpMethod.DELETE, "/api/employees/me/profile-picture").authenticated()
                         .requestMatchers(HttpMethod.PUT, "/api/employees/me").authenticated()
@@ -78,6 +87,8 @@ public class SecurityConfig {
                         .anyRequest().authenticated()
                 )
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                // Answer 401 (not 403) for missing/expired access tokens so clients know to refresh
+                .exceptionHandling(ex -> ex.authenticationEntryPoint(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED)))
                 .authenticationProvider(authenticationProvider())
                 .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class);
         return http.build();
@@ -0,0 +1,65 @@
+package com.homeride.backend.config;
+
+import com.homeride.backend.service.TokenRevocationService;
+import com.homeride.backend.util.JwtUtil;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+
+/**
+ * Authenticates STOMP sessions from the "Authorization: Bearer ..." header of the CONNECT frame.
+ * The resulting user (email) is what /user/{email}/queue/... destinations are resolved against.
+ * Sessions that connect without a token stay anonymous and can still use public topics.
+ */
+@Component
+public class StompAuthChannelInterceptor implements ChannelInterceptor {
+
+    private final JwtUtil jwtUtil;
+    private final TokenRevocationService tokenRevocationService;
+
+    @Autowired
+    public StompAuthChannelInterceptor(JwtUtil jwtUtil, TokenRevocationService tokenRevocationService) {
+        this.jwtUtil = jwtUtil;
+        this.tokenRevocationService = tokenRevocationService;
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || !StompCommand.CONNECT.equals(accessor.getCommand())) {
+            return message;
+        }
+
+        String authHeader = accessor.getFirstNativeHeader("Authorization");
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            return message;
+        }
+
+        try {
+            Claims claims = jwtUtil.parseToken(authHeader.substring(7));
+            String sessionId = claims.get(JwtUtil.SESSION_CLAIM, String.class);
+            if (sessionId != null && tokenRevocationService.isRevoked(sessionId)) {
+                throw new MessageDeliveryException("Session has been revoked");
+            }
+            String role = claims.get(JwtUtil.ROLE_CLAIM, String.class);
+            accessor.setUser(new UsernamePasswordAuthenticationToken(claims.getSubject(), null,
+                    Collections.singletonList(new SimpleGrantedAuthority(role))));
+        } catch (JwtException | IllegalArgumentException e) {
+            // Rejecting the CONNECT makes the client refresh its access token and reconnect
+            throw new MessageDeliveryException("Invalid access token");
+        }
+        return message;
+    }
+}
@@ -0,0 +1,120 @@
+package com.homeride.backend.config;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.homeride.backend.service.ClusterMessageBus;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeType;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Broker mode "pg": every node keeps its simple in-memory broker, and this interceptor on the
+ * broker channel copies what the application publishes to /topic/** and /user/** to all other
+ * nodes over the cluster bus (PostgreSQL LISTEN/NOTIFY). Each node then delivers the copy to its
+ * own subscribers; /user destinations are resolved on the node where the user is connected.
+ * /user messages addressed to one session (a simpSessionId header, e.g. chatbot stream chunks or
+ * {@code @SendToUser(broadcast = false)} replies) are not fanned out: that session is on this node,
+ * and the copy would lose the session id and reach the user's sessions on other nodes.
+ * Copies are marked with a header so they are not forwarded again.
+ */
+@Component
+@ConditionalOnProperty(name = "websocket.broker.mode", havingValue = "pg")
+public class StompClusterFanout implements ChannelInterceptor {
+
+    private static final Logger logger = LoggerFactory.getLogger(StompClusterFanout.class);
+
+    static final String CHANNEL = "stomp_fanout";
+    static final String RELAYED_HEADER = "clusterRelayed";
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final ClusterMessageBus clusterMessageBus;
+    private final ObjectProvider<MessageChannel> brokerChannel;
+
+    @Autowired
+    public StompClusterFanout(ClusterMessageBus clusterMessageBus,
+                              @Qualifier("brokerChannel") ObjectProvider<MessageChannel> brokerChannel) {
+        this.clusterMessageBus = clusterMessageBus;
+        this.brokerChannel = brokerChannel;
+    }
+
+    @PostConstruct
+    public void init() {
+        clusterMessageBus.subscribe(CHANNEL, this::onRemoteMessage);
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.wrap(message);
+        String destination = accessor.getDestination();
+        if (accessor.getMessageType() != SimpMessageType.MESSAGE
+                || destination == null
+                || !(destination.startsWith("/topic/") || destination.startsWith("/user/"))
+                || destination.startsWith("/user/") && accessor.getSessionId() != null
+                || accessor.getHeader(RELAYED_HEADER) != null
+                || !(message.getPayload() instanceof byte[] body)
+                || !clusterMessageBus.isEnabled()) {
+            return message;
+        }
+
+        Map<String, String> envelope = new LinkedHashMap<>();
+        envelope.put("node", clusterMessageBus.getNodeId());
+        envelope.put("destination", destination);
+        MimeType contentType = accessor.getContentType();
+        if (contentType != null) {
+            envelope.put("contentType", contentType.toString());
+        }
+        envelope.put("body", Base64.getEncoder().encodeToString(body));
+        try {
+            String payload = MAPPER.writeValueAsString(envelope);
+            if (payload.getBytes(StandardCharsets.UTF_8).length > clusterMessageBus.getMaxPayloadBytes()) {
+                logger.warn("Message to {} is too large to fan out ({} bytes); delivered on this node only",
+                        destination, body.length);
+            } else {
+                clusterMessageBus.publish(CHANNEL, payload);
+            }
+        } catch (JsonProcessingException | RuntimeException e) {
+            logger.warn("Could not fan out message to {}: {}", destination, e.getMessage());
+        }
+        return message;
+    }
+
+    private void onRemoteMessage(String payload) {
+        Map<String, String> envelope;
+        try {
+            envelope = MAPPER.readValue(payload, MAPPER.getTypeFactory().constructMapType(Map.class, String.class, String.class));
+        } catch (JsonProcessingException e) {
+            logger.warn("Ignoring malformed fan-out payload: {}", e.getMessage());
+            return;
+        }
+        if (clusterMessageBus.getNodeId().equals(envelope.get("node"))) {
+            return; // already delivered locally
+        }
+
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setDestination(envelope.get("destination"));
+        if (envelope.get("contentType") != null) {
+            accessor.setContentType(MimeType.valueOf(envelope.get("contentType")));
+        }
+        accessor.setHeader(RELAYED_HEADER, Boolean.TRUE);
+        byte[] body = Base64.getDecoder().decode(envelope.get("body"));
+        brokerChannel.getObject().send(MessageBuilder.createMessage(body, accessor.getMessageHeaders()));
+    }
+}
@@ -1,23 +1,127 @@
 package com.homeride.backend.config;
 
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
 
 @Configuration
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    /**
+     * simple: in-memory broker, single node.
+     * relay:  external STOMP broker (e.g. RabbitMQ with the STOMP plugin) shared by all nodes.
+     * pg:     in-memory broker on each node, fanned out between nodes with PostgreSQL LISTEN/NOTIFY.
+     */
+    public enum BrokerMode { SIMPLE, RELAY, PG }
+
+    private final StompAuthChannelInterceptor stompAuthChannelInterceptor;
+    private final ObjectProvider<StompClusterFanout> stompClusterFanout;
+    private final WebSocketMetrics webSocketMetrics;
+    private final QueryBudgetMonitor queryBudgetMonitor;
+
+    @Value("${websocket.broker.mode:simple}")
+    private String brokerMode;
+
+    @Value("${websocket.broker.relay.host:localhost}")
+    private String relayHost;
+
+    @Value("${websocket.broker.relay.port:61613}")
+    private int relayPort;
+
+    @Value("${websocket.broker.relay.virtual-host:}")
+    private String relayVirtualHost;
+
+    @Value("${websocket.broker.relay.client-login:guest}")
+    private String relayClientLogin;
+
+    @Value("${websocket.broker.relay.client-passcode:guest}")
+    private String relayClientPasscode;
+
+    @Value("${websocket.broker.relay.system-login:guest}")
+    private String relaySystemLogin;
+
+    @Value("${websocket.broker.relay.system-passcode:guest}")
+    private String relaySystemPasscode;
+
+    // Frames from clients (SEND/SUBSCRIBE/...) are handled on this pool
+    @Value("${websocket.inbound.core-pool-size:8}")
+    private int inboundCorePoolSize;
+
+    @Value("${websocket.inbound.max-pool-size:32}")
+    private int inboundMaxPoolSize;
+
+    @Value("${websocket.inbound.queue-capacity:2000}")
+    private int inboundQueueCapacity;
+
+    // Messages to clients are written to their sessions on this pool
+    @Value("${websocket.outbound.core-pool-size:8}")
+    private int outboundCorePoolSize;
+
+    @Value("${websocket.outbound.max-pool-size:32}")
+    private int outboundMaxPoolSize;
+
+    @Value("${websocket.outbound.queue-capacity:2000}")
+    private int outboundQueueCapacity;
+
+    // Slow consumers: a session whose pending writes exceed either limit is closed
+    @Value("${websocket.transport.send-time-limit-ms:10000}")
+    private int sendTimeLimitMs;
+
+    @Value("${websocket.transport.send-buffer-size-limit:524288}")
+    private int sendBufferSizeLimit;
+
+    @Value("${websocket.transport.message-size-limit:65536}")
+    private int messageSizeLimit;
+
+    @Autowired
+    public WebSocketConfig(StompAuthChannelInterceptor stompAuthChannelInterceptor,
+                           ObjectProvider<StompClusterFanout> stompClusterFanout,
+                           WebSocketMetrics webSocketMetrics,
+                           QueryBudgetMonitor queryBudgetMonitor) {
+        this.stompAuthChannelInterceptor = stompAuthChannelInterceptor;
+        this.stompClusterFanout = stompClusterFanout;
+        this.webSocketMetrics = webSocketMetrics;
+        this.queryBudgetMonitor = queryBudgetMonitor;
+    }
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
-        // Use a simple in-memory message broker
-        config.enableSimpleBroker("/topic", "/user");
+        BrokerMode mode = BrokerMode.valueOf(brokerMode.trim().toUpperCase());
+        if (mode == BrokerMode.RELAY) {
+            // Needs reactor-netty (TCP client). Sessions on every node share the broker's destinations.
+            config.enableStompBrokerRelay("/topic", "/queue")
+                    .setRelayHost(relayHost)
+                    .setRelayPort(relayPort)
+                    .setVirtualHost(relayVirtualHost.isEmpty() ? null : relayVirtualHost)
+                    .setClientLogin(relayClientLogin)
+                    .setClientPasscode(relayClientPasscode)
+                    .setSystemLogin(relaySystemLogin)
+                    .setSystemPasscode(relaySystemPasscode)
+                    // Let /user/{email}/... reach users connected to other nodes
+                    .setUserDestinationBroadcast("/topic/unresolved-user-destination")
+                    .setUserRegistryBroadcast("/topic/simp-user-registry");
+        } else {
+            // Use a simple in-memory message broker
+            // ("/queue" carries per-user destinations after /user/... is resolved to a session)
+            config.enableSimpleBroker("/topic", "/queue", "/user");
+            if (mode == BrokerMode.PG) {
+                config.configureBrokerChannel().interceptors(stompClusterFanout.getObject());
+            }
+        }
         // Prefix for all application-specific messages
         config.setApplicationDestinationPrefixes("/app");
         // Use a destination prefix for user-specific messages
         config.setUserDestinationPrefix("/user");
+        // The outbound pool has several threads; keep each session's messages in publish order
+        config.setPreservePublishOrder(true);
     }
 
     @Override
@@ -25,4 +129,34 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
         // Register a STOMP endpoint to which clients can connect
         registry.addEndpoint("/ws").setAllowedOriginPatterns("*").withSockJS();
     }
-}
\ No newline at end of file
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        // Attach the JWT user to the STOMP session on CONNECT
+        registration.interceptors(stompAuthChannelInterceptor, webSocketMetrics.inboundInterceptor(),
+                queryBudgetMonitor.stompInterceptor());
+        registration.taskExecutor()
+                .corePoolSize(inboundCorePoolSize)
+                .maxPoolSize(inboundMaxPoolSize)
+                .queueCapacity(inboundQueueCapacity);
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        registration.interceptors(webSocketMetrics.outboundInterceptor());
+        registration.taskExecutor()
+                .corePoolSize(outboundCorePoolSize)
+                .maxPoolSize(outboundMaxPoolSize)
+                .queueCapacity(outboundQueueCapacity);
+    }
+
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        // A client that cannot keep up is disconnected (it reconnects and resumes) instead of
+        // buffering without bound and holding an outbound thread.
+        registration.setSendTimeLimit(sendTimeLimitMs)
+                .setSendBufferSizeLimit(sendBufferSizeLimit)
+                .setMessageSizeLimit(messageSizeLimit)
+                .addDecoratorFactory(webSocketMetrics);
+    }
+}
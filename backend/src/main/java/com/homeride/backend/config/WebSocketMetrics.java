@@ -0,0 +1,239 @@
+package com.homeride.backend.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+import org.springframework.web.socket.handler.WebSocketHandlerDecoratorFactory;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Micrometer metrics for the STOMP endpoint:
+ * <ul>
+ *   <li>websocket.sessions.active / websocket.sessions.evicted (closed as slow consumers)</li>
+ *   <li>websocket.subscriptions, websocket.ride.topics and websocket.ride.subscriptions (distribution of
+ *   subscribers per ride topic; no per-ride series, so ride ids are not exposed and cardinality stays fixed)</li>
+ *   <li>websocket.messages{direction} - rate of frames received from and sent to clients</li>
+ *   <li>websocket.channel.queue.depth{channel} - tasks waiting on the inbound/outbound executors</li>
+ * </ul>
+ * Subscriptions are tracked from the client inbound channel, so the numbers are the same whichever
+ * broker mode is active; they describe this node only.
+ */
+@Component
+public class WebSocketMetrics implements WebSocketHandlerDecoratorFactory {
+
+    private static final Logger logger = LoggerFactory.getLogger(WebSocketMetrics.class);
+
+    private static final String RIDE_TOPIC_PREFIX = "/topic/ride.";
+
+    private final MeterRegistry meterRegistry;
+    private final ObjectProvider<ThreadPoolTaskExecutor> inboundExecutor;
+    private final ObjectProvider<ThreadPoolTaskExecutor> outboundExecutor;
+
+    private final AtomicInteger activeSessions = new AtomicInteger();
+    // sessionId -> (subscriptionId -> destination)
+    private final Map<String, Map<String, String>> subscriptions = new ConcurrentHashMap<>();
+    // ride id -> number of subscriptions to its chat topic
+    private final Map<String, AtomicInteger> rideSubscriptions = new ConcurrentHashMap<>();
+
+    private Counter inboundMessages;
+    private Counter outboundMessages;
+    private Counter evictedSessions;
+    private DistributionSummary rideSubscriptionSummary;
+
+    @Autowired
+    public WebSocketMetrics(MeterRegistry meterRegistry,
+                            @Qualifier("clientInboundChannelExecutor") ObjectProvider<ThreadPoolTaskExecutor> inboundExecutor,
+                            @Qualifier("clientOutboundChannelExecutor") ObjectProvider<ThreadPoolTaskExecutor> outboundExecutor) {
+        this.meterRegistry = meterRegistry;
+        this.inboundExecutor = inboundExecutor;
+        this.outboundExecutor = outboundExecutor;
+    }
+
+    @PostConstruct
+    public void registerMeters() {
+        Gauge.builder("websocket.sessions.active", activeSessions, AtomicInteger::get)
+                .description("Open WebSocket/SockJS sessions on this node")
+                .register(meterRegistry);
+        evictedSessions = Counter.builder("websocket.sessions.evicted")
+                .description("Sessions closed because they could not keep up with outbound messages")
+                .register(meterRegistry);
+        Gauge.builder("websocket.subscriptions", subscriptions,
+                        map -> map.values().stream().mapToInt(Map::size).sum())
+                .description("Active STOMP subscriptions on this node")
+                .register(meterRegistry);
+        Gauge.builder("websocket.ride.topics", rideSubscriptions, Map::size)
+                .description("Ride chat topics with at least one subscriber")
+                .register(meterRegistry);
+        rideSubscriptionSummary = DistributionSummary.builder("websocket.ride.subscriptions")
+                .description("Subscribers per ride chat topic, one sample per topic each refresh interval")
+                .baseUnit("subscriptions")
+                .register(meterRegistry);
+        inboundMessages = Counter.builder("websocket.messages").tag("direction", "inbound")
+                .description("STOMP SEND frames received from clients")
+                .register(meterRegistry);
+        outboundMessages = Counter.builder("websocket.messages").tag("direction", "outbound")
+                .description("STOMP MESSAGE frames handed to client sessions")
+                .register(meterRegistry);
+        // The executors are created by the broker configuration, which itself depends on this bean
+        Gauge.builder("websocket.channel.queue.depth", inboundExecutor, WebSocketMetrics::queueDepth)
+                .tag("channel", "inbound")
+                .register(meterRegistry);
+        Gauge.builder("websocket.channel.queue.depth", outboundExecutor, WebSocketMetrics::queueDepth)
+                .tag("channel", "outbound")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Counts SEND frames and keeps the subscription tables up to date. Register on the client inbound channel.
+     */
+    public ChannelInterceptor inboundInterceptor() {
+        return new ChannelInterceptor() {
+            @Override
+            public Message<?> preSend(Message<?> message, MessageChannel channel) {
+                SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.wrap(message);
+                SimpMessageType type = accessor.getMessageType();
+                String sessionId = accessor.getSessionId();
+                if (type == SimpMessageType.MESSAGE) {
+                    inboundMessages.increment();
+                } else if (type == SimpMessageType.SUBSCRIBE && sessionId != null) {
+                    onSubscribe(sessionId, accessor.getSubscriptionId(), accessor.getDestination());
+                } else if (type == SimpMessageType.UNSUBSCRIBE && sessionId != null) {
+                    onUnsubscribe(sessionId, accessor.getSubscriptionId());
+                } else if (type == SimpMessageType.DISCONNECT && sessionId != null) {
+                    onDisconnect(sessionId);
+                }
+                return message;
+            }
+        };
+    }
+
+    /**
+     * Counts MESSAGE frames delivered to sessions. Register on the client outbound channel.
+     */
+    public ChannelInterceptor outboundInterceptor() {
+        return new ChannelInterceptor() {
+            @Override
+            public Message<?> preSend(Message<?> message, MessageChannel channel) {
+                if (SimpMessageHeaderAccessor.getMessageType(message.getHeaders()) == SimpMessageType.MESSAGE) {
+                    outboundMessages.increment();
+                }
+                return message;
+            }
+        };
+    }
+
+    @Override
+    public WebSocketHandler decorate(WebSocketHandler handler) {
+        return new WebSocketHandlerDecorator(handler) {
+            @Override
+            public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+                activeSessions.incrementAndGet();
+                super.afterConnectionEstablished(session);
+            }
+
+            @Override
+            public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
+                activeSessions.decrementAndGet();
+                if (closeStatus.equalsCode(CloseStatus.SESSION_NOT_RELIABLE)) {
+                    // Raised when a session exceeds the send time or buffer limit (see WebSocketConfig)
+                    evictedSessions.increment();
+                    logger.warn("Closed slow WebSocket session {} ({})", session.getId(), closeStatus);
+                }
+                super.afterConnectionClosed(session, closeStatus);
+            }
+        };
+    }
+
+    /**
+     * Samples every ride topic's subscriber count into one distribution (count, total, max), so busy
+     * rooms show up without a time series per ride.
+     */
+    @Scheduled(fixedDelayString = "${websocket.metrics.refresh-interval-ms:15000}")
+    public void sampleRideSubscriptions() {
+        rideSubscriptions.values().forEach(count -> rideSubscriptionSummary.record(count.get()));
+    }
+
+    public int getActiveSessions() {
+        return activeSessions.get();
+    }
+
+    public int getRideSubscriptions(String rideId) {
+        AtomicInteger count = rideSubscriptions.get(rideId);
+        return count == null ? 0 : count.get();
+    }
+
+    private void onSubscribe(String sessionId, String subscriptionId, String destination) {
+        if (subscriptionId == null || destination == null) {
+            return;
+        }
+        String previous = subscriptions.computeIfAbsent(sessionId, id -> new ConcurrentHashMap<>())
+                .put(subscriptionId, destination);
+        if (previous != null) {
+            decrementRide(previous);
+        }
+        if (destination.startsWith(RIDE_TOPIC_PREFIX)) {
+            rideSubscriptions.computeIfAbsent(destination.substring(RIDE_TOPIC_PREFIX.length()), id -> new AtomicInteger())
+                    .incrementAndGet();
+        }
+    }
+
+    private void onUnsubscribe(String sessionId, String subscriptionId) {
+        Map<String, String> sessionSubscriptions = subscriptions.get(sessionId);
+        if (sessionSubscriptions == null || subscriptionId == null) {
+            return;
+        }
+        String destination = sessionSubscriptions.remove(subscriptionId);
+        if (destination != null) {
+            decrementRide(destination);
+        }
+    }
+
+    private void onDisconnect(String sessionId) {
+        Map<String, String> sessionSubscriptions = subscriptions.remove(sessionId);
+        if (sessionSubscriptions != null) {
+            sessionSubscriptions.values().forEach(this::decrementRide);
+        }
+    }
+
+    private void decrementRide(String destination) {
+        if (!destination.startsWith(RIDE_TOPIC_PREFIX)) {
+            return;
+        }
+        rideSubscriptions.computeIfPresent(destination.substring(RIDE_TOPIC_PREFIX.length()),
+                (rideId, count) -> count.decrementAndGet() <= 0 ? null : count);
+    }
+
+    private static double queueDepth(ObjectProvider<ThreadPoolTaskExecutor> executor) {
+        ThreadPoolTaskExecutor taskExecutor = executor.getIfAvailable();
+        if (taskExecutor == null) {
+            return 0;
+        }
+        try {
+            return taskExecutor.getThreadPoolExecutor().getQueue().size();
+        } catch (IllegalStateException e) {
+            return 0; // not initialized yet, or already shut down
+        }
+    }
+}
@@ -1,13 +1,19 @@
 package com.homeride.backend.controller;
 
-import com.homeride.backend.dto.AdminEmployeeViewDTO;
+import com.homeride.backend.config.QueryBudget;
+import com.homeride.backend.dto.AdminEmployeePageDTO;
 import com.homeride.backend.dto.AdminUserUpdateDTO;
+import com.homeride.backend.dto.RideStatsBucketDTO;
+import com.homeride.backend.dto.RouteStatsDTO;
 import com.homeride.backend.model.Employee;
 import com.homeride.backend.service.AnalyticsService;
 import com.homeride.backend.service.EmployeeService;
+import com.homeride.backend.service.RideStatsRollupService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
 
@@ -17,17 +23,29 @@ public class AdminController {
 
     private final EmployeeService employeeService;
     private final AnalyticsService analyticsService;
+    private final RideStatsRollupService rideStatsRollupService;
 
     @Autowired
-    public AdminController(EmployeeService employeeService, AnalyticsService analyticsService) {
+    public AdminController(EmployeeService employeeService, AnalyticsService analyticsService,
+                           RideStatsRollupService rideStatsRollupService) {
         this.employeeService = employeeService;
         this.analyticsService = analyticsService;
+        this.rideStatsRollupService = rideStatsRollupService;
     }
 
+    /**
+     * One page of employees with ride counts. {@code sort} is one of id, name, email, role,
+     * travelCredit, ridesTraveled; {@code search} filters by name or email.
+     */
     @GetMapping("/employees")
-    public ResponseEntity<List<AdminEmployeeViewDTO>> getAllEmployees() {
-        List<AdminEmployeeViewDTO> employeesWithCounts = analyticsService.getAllEmployeesWithRideCounts();
-        return ResponseEntity.ok(employeesWithCounts);
+    public ResponseEntity<AdminEmployeePageDTO> getAllEmployees(@RequestParam(defaultValue = "0") int page,
+                                                                @RequestParam(defaultValue = "" + AnalyticsService.DEFAULT_PAGE_SIZE) int size,
+                                                                @RequestParam(defaultValue = "name") String sort,
+                                                                @RequestParam(defaultValue = "asc") String direction,
+                                                                @RequestParam(required = false) String search) {
+        int pageSize = Math.max(1, Math.min(size, AnalyticsService.MAX_PAGE_SIZE));
+        return ResponseEntity.ok(analyticsService.getEmployeesWithRideCounts(
+                Math.max(0, page), pageSize, sort, "desc".equalsIgnoreCase(direction), search));
     }
 
     @GetMapping("/stats")
@@ -35,6 +53,48 @@ public class AdminController {
         return ResponseEntity.ok(analyticsService.getBasicStats());
     }
 
+    /**
+     * Ride statistics by travel date, per day, week or month. Reads only the rollup tables.
+     */
+    @GetMapping("/reports/rides")
+    public ResponseEntity<List<RideStatsBucketDTO>> getRideReport(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                                  @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                                  @RequestParam(defaultValue = "day") String granularity) {
+        try {
+            return ResponseEntity.ok(rideStatsRollupService.getRideStats(from, to, granularity));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/reports/top-routes")
+    public ResponseEntity<List<RouteStatsDTO>> getTopRoutes(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                            @RequestParam(defaultValue = "10") int limit) {
+        try {
+            return ResponseEntity.ok(rideStatsRollupService.getTopRoutes(from, to, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Rebuilds the rollups of a range of travel days (at most a year) from the ride tables
+     * (cancellation counts are kept).
+     */
+    @PostMapping("/reports/backfill")
+    // One transaction of four statements per day; writers wait for one day at most
+    @QueryBudget(maxStatements = 4 * RideStatsRollupService.MAX_BACKFILL_DAYS, maxTimeMs = 120_000)
+    public ResponseEntity<Void> backfillReports(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        try {
+            rideStatsRollupService.backfill(from, to);
+            return ResponseEntity.noContent().build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @PutMapping("/employees/{userId}")
     public ResponseEntity<Employee> updateUser(@PathVariable Long userId, @RequestBody AdminUserUpdateDTO updateRequest) {
         Employee updatedEmployee = employeeService.updateUserAsAdmin(userId, updateRequest);
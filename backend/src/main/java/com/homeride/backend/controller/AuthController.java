@@ -2,15 +2,16 @@ package com.homeride.backend.controller;
 
 import com.homeride.backend.dto.LoginRequestDTO;
 import com.homeride.backend.dto.LoginResponseDTO;
+import com.homeride.backend.dto.RefreshTokenRequestDTO;
 import com.homeride.backend.dto.RegisterRequestDTO;
 import com.homeride.backend.model.Employee;
 import com.homeride.backend.service.EmployeeService;
-import com.homeride.backend.util.JwtUtil;
+import com.homeride.backend.service.RefreshTokenService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 import java.util.Map;
 
@@ -19,13 +20,13 @@ import java.util.Map;
 public class AuthController {
 
     private final EmployeeService employeeService;
-    private final JwtUtil jwtUtil;
+    private final RefreshTokenService refreshTokenService;
     private final AuthenticationManager authenticationManager;
 
     @Autowired
-    public AuthController(EmployeeService employeeService, JwtUtil jwtUtil, AuthenticationManager authenticationManager) {
+    public AuthController(EmployeeService employeeService, RefreshTokenService refreshTokenService, AuthenticationManager authenticationManager) {
         this.employeeService = employeeService;
-        this.jwtUtil = jwtUtil;
+        this.refreshTokenService = refreshTokenService;
         this.authenticationManager = authenticationManager;
     }
 
@@ -45,11 +46,30 @@ public class AuthController {
             authenticationManager.authenticate(
                     new UsernamePasswordAuthenticationToken(loginRequest.getEmail(), loginRequest.getPassword())
             );
-            final UserDetails userDetails = employeeService.loadUserByUsername(loginRequest.getEmail());
-            final String token = jwtUtil.generateToken(userDetails);
-            return ResponseEntity.ok(new LoginResponseDTO(token));
+            LoginResponseDTO tokens = refreshTokenService.startSession(loginRequest.getEmail());
+            return ResponseEntity.ok(tokens);
         } catch (Exception e) {
             return ResponseEntity.status(401).body("Error: Invalid credentials");
         }
     }
+
+    @PostMapping("/refresh")
+    public ResponseEntity<?> refreshToken(@RequestBody RefreshTokenRequestDTO refreshRequest) {
+        if (refreshRequest.getRefreshToken() == null || refreshRequest.getRefreshToken().isBlank()) {
+            return ResponseEntity.status(401).body("Error: Refresh token is required");
+        }
+        try {
+            return ResponseEntity.ok(refreshTokenService.rotate(refreshRequest.getRefreshToken()));
+        } catch (BadCredentialsException e) {
+            return ResponseEntity.status(401).body("Error: " + e.getMessage());
+        }
+    }
+
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(@RequestBody RefreshTokenRequestDTO logoutRequest) {
+        if (logoutRequest.getRefreshToken() != null && !logoutRequest.getRefreshToken().isBlank()) {
+            refreshTokenService.logout(logoutRequest.getRefreshToken());
+        }
+        return ResponseEntity.ok().build();
+    }
 }
\ No newline at end of file
@@ -1,77 +1,105 @@
 package com.homeride.backend.controller;
 
 import com.homeride.backend.dto.ChatMessageDTO;
+import com.homeride.backend.dto.ChatPresenceEventDTO;
 import com.homeride.backend.model.ChatMessage;
-import com.homeride.backend.model.Employee;
-import com.homeride.backend.model.RideParticipant;
-import com.homeride.backend.model.RideRequest;
-import com.homeride.backend.repository.ChatMessageRepository;
-import com.homeride.backend.repository.EmployeeRepository;
-import com.homeride.backend.repository.RideRequestRepository;
+import com.homeride.backend.service.ChatMessageIdAllocator;
+import com.homeride.backend.service.ChatMessageWriter;
+import com.homeride.backend.service.ChatPresenceService;
+import com.homeride.backend.service.ChatRoomService;
 import com.homeride.backend.service.NotificationService;
+import io.micrometer.observation.annotation.Observed;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Controller;
+import java.security.Principal;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 
 @Controller
+@Observed(name = "chat.messages.handling")
 public class ChatController {
 
     private final SimpMessagingTemplate messagingTemplate;
-    private final ChatMessageRepository chatMessageRepository;
-    private final EmployeeRepository employeeRepository;
-    private final RideRequestRepository rideRequestRepository;
+    private final ChatMessageIdAllocator chatMessageIdAllocator;
+    private final ChatMessageWriter chatMessageWriter;
+    private final ChatRoomService chatRoomService;
     private final NotificationService notificationService;
+    private final ChatPresenceService chatPresenceService;
+    private final int maxMessageLength;
 
 
-    public ChatController(SimpMessagingTemplate messagingTemplate, ChatMessageRepository chatMessageRepository, EmployeeRepository employeeRepository, RideRequestRepository rideRequestRepository, NotificationService notificationService) {
+    public ChatController(SimpMessagingTemplate messagingTemplate, ChatMessageIdAllocator chatMessageIdAllocator, ChatMessageWriter chatMessageWriter, ChatRoomService chatRoomService, NotificationService notificationService, ChatPresenceService chatPresenceService,
+                          @Value("${chat.max-message-length:500}") int maxMessageLength) {
         this.messagingTemplate = messagingTemplate;
-        this.chatMessageRepository = chatMessageRepository;
-        this.employeeRepository = employeeRepository;
-        this.rideRequestRepository = rideRequestRepository;
+        this.chatMessageIdAllocator = chatMessageIdAllocator;
+        this.chatMessageWriter = chatMessageWriter;
+        this.chatRoomService = chatRoomService;
         this.notificationService = notificationService;
+        this.chatPresenceService = chatPresenceService;
+        this.maxMessageLength = maxMessageLength;
     }
 
     @MessageMapping("/chat.sendMessage")
-    public void sendMessage(@Payload ChatMessageDTO chatMessageDTO) {
-        // Look up the sender's details from the database
-        Employee sender = employeeRepository.findByEmail(chatMessageDTO.getSenderEmail())
+    public void sendMessage(@Payload ChatMessageDTO chatMessageDTO, Principal principal) {
+        // Trust the authenticated STOMP user over the email in the payload when there is one
+        String senderEmail = principal != null ? principal.getName() : chatMessageDTO.getSenderEmail();
+        Long rideId = chatMessageDTO.getRideId();
+        if (chatMessageDTO.getContent() != null && chatMessageDTO.getContent().length() > maxMessageLength) {
+            throw new IllegalArgumentException("Chat message is longer than " + maxMessageLength + " characters");
+        }
+
+        // Sender display data comes from the cached chat room, not a query per message
+        ChatRoomService.ChatMember sender = chatRoomService.findSender(rideId, senderEmail)
                 .orElseThrow(() -> new RuntimeException("Sender not found for chat message"));
 
         // Convert the DTO to a JPA entity
         ChatMessage chatMessage = new ChatMessage();
+        chatMessage.setId(chatMessageIdAllocator.nextId());
         chatMessage.setSenderName(sender.getName()); // Use retrieved name
         chatMessage.setSenderEmail(sender.getEmail());
         chatMessage.setSenderProfilePictureUrl(sender.getProfilePictureUrl()); // Set the profile picture URL
         chatMessage.setContent(chatMessageDTO.getContent());
-        chatMessage.setRideId(chatMessageDTO.getRideId());
+        chatMessage.setRideId(rideId);
         chatMessage.setType(chatMessageDTO.getType());
-        chatMessage.setTimestamp(LocalDateTime.now());
-
-        // Save message to database
-        ChatMessage savedMessage = chatMessageRepository.save(chatMessage);
+        // Microseconds, as stored: the timestamp is part of the history cursor, also for buffered messages
+        chatMessage.setTimestamp(LocalDateTime.now().truncatedTo(ChronoUnit.MICROS));
 
-        // Broadcast the saved message to the ride's group topic
-        messagingTemplate.convertAndSend("/topic/ride." + savedMessage.getRideId(), savedMessage);
+        // Save message to database (immediately or write-behind, see chat.persistence.mode)
+        chatMessageWriter.persist(chatMessage);
 
-        // Create notifications for all ride participants except the sender
-        RideRequest ride = rideRequestRepository.findById(chatMessageDTO.getRideId()).orElse(null);
-        if (ride != null) {
-            String message = "You have a new message in the chat for your ride from " + ride.getOriginCity() + " to " + ride.getDestinationCity();
-            String link = "/ride/" + ride.getId();
+        // Broadcast the message to the ride's group topic
+        messagingTemplate.convertAndSend("/topic/ride." + chatMessage.getRideId(), chatMessage);
 
-            // Notify the driver
-            if (!ride.getRequester().getEmail().equals(chatMessageDTO.getSenderEmail())) {
-                notificationService.createOrUpdateChatNotification(ride.getRequester(), message, link, ride.getId());
-            }
+        // Notify the driver and participants, except the sender (written in the background)
+        chatRoomService.getRoom(rideId).ifPresent(room -> {
+            String message = "You have a new message in the chat for your ride from " + room.getOriginCity() + " to " + room.getDestinationCity();
+            String link = "/ride/" + room.getRideId();
+            notificationService.createOrUpdateChatNotifications(room.recipientsExcept(sender.getEmail()), message, link, room.getRideId());
+        });
+    }
 
-            // Notify participants
-            for (RideParticipant participant : ride.getParticipants()) {
-                if (!participant.getParticipant().getEmail().equals(chatMessageDTO.getSenderEmail())) {
-                    notificationService.createOrUpdateChatNotification(participant.getParticipant(), message, link, ride.getId());
-                }
-            }
+    @MessageMapping("/chat.presence")
+    public void updatePresence(@Payload ChatPresenceEventDTO presenceEvent, Principal principal,
+                               SimpMessageHeaderAccessor headerAccessor) {
+        // Presence is in-memory only (ChatPresenceService); ignore anonymous sessions and non-members
+        if (principal == null || presenceEvent.getRideId() == null || presenceEvent.getEvent() == null) {
+            return;
+        }
+        ChatPresenceService.PresenceEvent event;
+        try {
+            event = ChatPresenceService.PresenceEvent.valueOf(presenceEvent.getEvent());
+        } catch (IllegalArgumentException e) {
+            return;
+        }
+        boolean member = chatRoomService.getRoom(presenceEvent.getRideId())
+                .map(room -> room.getMembers().containsKey(principal.getName()))
+                .orElse(false);
+        if (member) {
+            chatPresenceService.onEvent(presenceEvent.getRideId(), principal.getName(), headerAccessor.getSessionId(), event);
         }
     }
-}
\ No newline at end of file
+}
@@ -1,29 +1,84 @@
 package com.homeride.backend.controller;
 
+import com.homeride.backend.dto.ChatHistoryPageDTO;
 import com.homeride.backend.model.ChatMessage;
 import com.homeride.backend.repository.ChatMessageRepository;
+import com.homeride.backend.service.ChatHistoryService;
+import com.homeride.backend.service.ChatMessageWriter;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/chat")
 public class ChatHistoryController {
 
     private final ChatMessageRepository chatMessageRepository;
+    private final ChatMessageWriter chatMessageWriter;
+    private final ChatHistoryService chatHistoryService;
 
     @Autowired
-    public ChatHistoryController(ChatMessageRepository chatMessageRepository) {
+    public ChatHistoryController(ChatMessageRepository chatMessageRepository, ChatMessageWriter chatMessageWriter,
+                                 ChatHistoryService chatHistoryService) {
         this.chatMessageRepository = chatMessageRepository;
+        this.chatMessageWriter = chatMessageWriter;
+        this.chatHistoryService = chatHistoryService;
     }
 
+    /**
+     * Full history in one response. Kept for older clients; use /rides/{rideId}/messages instead.
+     */
     @GetMapping("/history/{rideId}")
     public ResponseEntity<List<ChatMessage>> getChatHistory(@PathVariable Long rideId) {
-        List<ChatMessage> history = chatMessageRepository.findByRideIdOrderByTimestampAsc(rideId);
+        List<ChatMessage> history = new ArrayList<>(chatMessageRepository.findByRideIdOrderByTimestampAsc(rideId));
+
+        // Include messages that were broadcast but are still waiting to be written
+        List<ChatMessage> pending = chatMessageWriter.pendingForRide(rideId);
+        if (!pending.isEmpty()) {
+            Set<Long> storedIds = history.stream().map(ChatMessage::getId).collect(Collectors.toSet());
+            pending.stream().filter(message -> !storedIds.contains(message.getId())).forEach(history::add);
+            history.sort(Comparator.comparing(ChatMessage::getTimestamp));
+        }
         return ResponseEntity.ok(history);
     }
+
+    /**
+     * Latest {@code limit} messages before the {@code before} cursor (a previous page's nextCursor),
+     * oldest first. Answers 304 when the client's ETag still matches, without loading any messages,
+     * and 400 for a malformed cursor.
+     */
+    @GetMapping("/rides/{rideId}/messages")
+    public ResponseEntity<ChatHistoryPageDTO> getChatHistoryPage(@PathVariable Long rideId,
+                                                                 @RequestParam(required = false) String before,
+                                                                 @RequestParam(defaultValue = "" + ChatHistoryService.DEFAULT_PAGE_SIZE) int limit,
+                                                                 @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        int pageSize = Math.max(1, Math.min(limit, ChatHistoryService.MAX_PAGE_SIZE));
+        ChatHistoryService.Cursor cursor;
+        try {
+            cursor = before != null ? ChatHistoryService.Cursor.parse(before) : null;
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        String etag = chatHistoryService.historyETag(rideId, cursor, pageSize);
+        if (etag.equals(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(chatHistoryService.getPage(rideId, cursor, pageSize));
+    }
 }
\ No newline at end of file
@@ -2,24 +2,33 @@ package com.homeride.backend.controller;
 
 import com.homeride.backend.dto.ChatbotRequestDTO;
 import com.homeride.backend.dto.ChatbotResponseDTO;
+import com.homeride.backend.dto.ChatbotStreamRequestDTO;
 import com.homeride.backend.service.ChatbotService;
+import com.homeride.backend.service.ChatbotStreamService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
+import java.security.Principal;
+
 @RestController
 @RequestMapping("/api/chatbot")
 @CrossOrigin(origins = "*")
 public class ChatbotController {
 
     private final ChatbotService chatbotService;
+    private final ChatbotStreamService chatbotStreamService;
 
     @Autowired
-    public ChatbotController(ChatbotService chatbotService) {
+    public ChatbotController(ChatbotService chatbotService, ChatbotStreamService chatbotStreamService) {
         this.chatbotService = chatbotService;
+        this.chatbotStreamService = chatbotStreamService;
     }
 
     @PostMapping("/message")
@@ -38,4 +47,23 @@ public class ChatbotController {
         ChatbotResponseDTO response = chatbotService.generateResponse(request);
         return ResponseEntity.ok(response);
     }
-}
\ No newline at end of file
+
+    // Streaming over STOMP: chunks arrive on /user/queue/chatbot tagged with the client's requestId
+    @MessageMapping("/chatbot.stream")
+    public void streamMessage(@Payload ChatbotStreamRequestDTO request, Principal principal,
+                              SimpMessageHeaderAccessor headerAccessor) {
+        if (principal == null || request.getRequestId() == null
+                || request.getMessage() == null || request.getMessage().isBlank()) {
+            return;
+        }
+        chatbotStreamService.start(principal.getName(), headerAccessor.getSessionId(),
+                request.getRequestId(), request.getMessage());
+    }
+
+    @MessageMapping("/chatbot.cancel")
+    public void cancelStream(@Payload ChatbotStreamRequestDTO request, SimpMessageHeaderAccessor headerAccessor) {
+        if (request.getRequestId() != null) {
+            chatbotStreamService.cancel(headerAccessor.getSessionId(), request.getRequestId());
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.homeride.backend.controller;
 
+import com.homeride.backend.dto.ProfilePictureStatusDTO;
 import com.homeride.backend.dto.PublicProfileDTO; // NEW IMPORT
 import com.homeride.backend.dto.UserProfileUpdateDTO;
 import com.homeride.backend.model.Employee;
@@ -39,11 +40,21 @@ public class EmployeeController {
         return ResponseEntity.ok(updatedEmployee);
     }
 
+    // 200 with the updated employee when the image was already known, otherwise 202 while it is
+    // processed; poll GET /me/profile-picture/status until it is DONE or FAILED.
     @PostMapping("/me/profile-picture")
     public ResponseEntity<?> uploadProfilePicture(@RequestParam("file") MultipartFile file, Principal principal) {
         try {
-            Employee updatedEmployee = employeeService.updateProfilePicture(principal.getName(), file);
-            return ResponseEntity.ok(updatedEmployee);
+            ProfilePictureStatusDTO status = employeeService.updateProfilePicture(principal.getName(), file);
+            if ("DONE".equals(status.getStatus())) {
+                return ResponseEntity.ok(employeeService.findEmployeeByEmail(principal.getName()));
+            }
+            if ("FAILED".equals(status.getStatus())) {
+                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of("message", status.getMessage()));
+            }
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(status);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity
                     .status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -51,6 +62,11 @@ public class EmployeeController {
         }
     }
 
+    @GetMapping("/me/profile-picture/status")
+    public ResponseEntity<ProfilePictureStatusDTO> getProfilePictureStatus(Principal principal) {
+        return ResponseEntity.ok(employeeService.getProfilePictureStatus(principal.getName()));
+    }
+
     @DeleteMapping("/me/profile-picture")
     public ResponseEntity<Employee> removeProfilePicture(Principal principal) {
         Employee updatedEmployee = employeeService.removeProfilePicture(principal.getName());
@@ -0,0 +1,58 @@
+package com.homeride.backend.controller;
+
+import com.homeride.backend.config.QueryBudget;
+import com.homeride.backend.service.ArrowExportService;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/admin/exports")
+public class ExportController {
+
+    private final ArrowExportService arrowExportService;
+
+    @Autowired
+    public ExportController(ArrowExportService arrowExportService) {
+        this.arrowExportService = arrowExportService;
+    }
+
+    /**
+     * Streams rides, bookings, stopovers or ratings between from and to (inclusive; travel date,
+     * or creation date for ratings) as an Arrow IPC stream. {@code columns} limits the export to
+     * the given columns. Written on the request thread rather than as an async response, so
+     * large exports are not cut off by the async request timeout.
+     */
+    @GetMapping("/{dataset}")
+    @QueryBudget(maxTimeMs = 60_000) // one query, but over the whole date range
+    public void export(@PathVariable String dataset,
+                       @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                       @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                       @RequestParam(required = false) List<String> columns,
+                       HttpServletResponse response) throws IOException, SQLException {
+        List<String> selected;
+        try {
+            selected = arrowExportService.resolveColumns(dataset, columns, from, to);
+        } catch (IllegalArgumentException e) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+            return;
+        }
+        response.setContentType(ArrowExportService.CONTENT_TYPE);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename(dataset + "-" + from + "-" + to + ".arrows").build().toString());
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-store");
+        arrowExportService.export(dataset, selected, from, to, response.getOutputStream());
+    }
+}
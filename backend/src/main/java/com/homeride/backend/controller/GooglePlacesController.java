@@ -1,6 +1,8 @@
 package com.homeride.backend.controller;
 
 import com.homeride.backend.service.GooglePlacesService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -15,6 +17,8 @@ import java.util.List;
 @RequestMapping("/api/places")
 public class GooglePlacesController {
 
+    private static final Logger logger = LoggerFactory.getLogger(GooglePlacesController.class);
+
     private final GooglePlacesService googlePlacesService;
 
     @Autowired
@@ -36,11 +40,10 @@ public class GooglePlacesController {
                 return ResponseEntity.ok(Collections.emptyList());
             }
 
-            System.out.println("Returning " + suggestions.size() + " suggestions for query: " + query);
+            logger.debug("Returning {} suggestions for query: {}", suggestions.size(), query);
             return ResponseEntity.ok(suggestions);
         } catch (Exception e) {
-            System.err.println("Error in autocomplete controller: " + e.getMessage());
-            e.printStackTrace();
+            logger.error("Error in autocomplete controller", e);
             // Return empty list instead of error to prevent frontend crashes
             return ResponseEntity.ok(Collections.emptyList());
         }
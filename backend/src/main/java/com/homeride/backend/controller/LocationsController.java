@@ -14,11 +14,15 @@ import java.util.stream.Collectors;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 @RestController
 @RequestMapping("/api/locations")
 public class LocationsController {
 
+    private static final Logger logger = LoggerFactory.getLogger(LocationsController.class);
+
     // This is a free, open-source alternative to Google Places API.
     // It's great for development and non-commercial projects.
     private static final String NOMINATIM_API_URL = "https://nominatim.openstreetmap.org/search";
@@ -46,7 +50,7 @@ public class LocationsController {
             return ResponseEntity.ok(suggestions);
         } catch (Exception e) {
             // Log the error in a real application
-            System.err.println("Error fetching autocomplete suggestions: " + e.getMessage());
+            logger.error("Error fetching autocomplete suggestions: {}", e.getMessage());
             return ResponseEntity.status(500).body(Collections.singletonList("Error fetching locations"));
         }
     }
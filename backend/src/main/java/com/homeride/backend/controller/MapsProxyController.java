@@ -2,6 +2,8 @@ package com.homeride.backend.controller;
 
 import com.google.maps.model.LatLng;
 import com.homeride.backend.service.GoogleMapsService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -11,6 +13,8 @@ import java.util.Map;
 @RequestMapping("/api/maps")
 public class MapsProxyController {
 
+    private static final Logger logger = LoggerFactory.getLogger(MapsProxyController.class);
+
     private final GoogleMapsService googleMapsService;
 
     @Autowired
@@ -27,7 +31,7 @@ public class MapsProxyController {
             }
             return ResponseEntity.notFound().build();
         } catch (Exception e) {
-            System.err.println("Geocoding error: " + e.getMessage());
+            logger.error("Geocoding error: {}", e.getMessage());
             return ResponseEntity.status(500).build();
         }
     }
@@ -46,8 +50,7 @@ public class MapsProxyController {
             }
             return ResponseEntity.ok(Map.of("address", "Location not found"));
         } catch (Exception e) {
-            System.err.println("Reverse geocoding error: " + e.getMessage());
-            e.printStackTrace();
+            logger.error("Reverse geocoding error", e);
             return ResponseEntity.status(500)
                     .body(Map.of("address", "Error retrieving address"));
         }
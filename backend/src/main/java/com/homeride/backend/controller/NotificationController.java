@@ -1,15 +1,23 @@
 package com.homeride.backend.controller;
 
-import com.homeride.backend.model.Employee;
+import com.homeride.backend.dto.NotificationDTO;
+import com.homeride.backend.dto.NotificationResumeDTO;
+import com.homeride.backend.dto.NotificationSyncDTO;
 import com.homeride.backend.model.Notification;
 import com.homeride.backend.repository.NotificationRepository;
-import com.homeride.backend.service.EmployeeService;
+import com.homeride.backend.service.NotificationService;
+import com.homeride.backend.service.UnreadNotificationCounter;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.messaging.simp.annotation.SendToUser;
 import org.springframework.web.bind.annotation.*;
 
 import java.security.Principal;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/notifications")
@@ -19,29 +27,54 @@ public class NotificationController {
     private NotificationRepository notificationRepository;
 
     @Autowired
-    private EmployeeService employeeService;
+    private NotificationService notificationService;
+
+    @Autowired
+    private UnreadNotificationCounter unreadNotificationCounter;
 
     @GetMapping
     public ResponseEntity<List<Notification>> getUserNotifications(Principal principal) {
-        Long userId = employeeService.findEmployeeByEmail(principal.getName()).getId();
-        return ResponseEntity.ok(notificationRepository.findByUser_IdAndIsReadFalseOrderByCreatedAtDesc(userId));
+        return ResponseEntity.ok(notificationRepository.findByUser_EmailAndIsReadFalseOrderByCreatedAtDesc(principal.getName()));
+    }
+
+    /**
+     * O(1): served from the in-memory counter, not a COUNT query.
+     */
+    @GetMapping("/unread-count")
+    public ResponseEntity<Map<String, Long>> getUnreadCount(Principal principal) {
+        return ResponseEntity.ok(Map.of("unreadCount", unreadNotificationCounter.get(principal.getName())));
     }
 
     @PostMapping("/{id}/read")
-    public ResponseEntity<Void> markAsRead(@PathVariable Long id) {
-        notificationRepository.findById(id).ifPresent(notification -> {
-            notification.setRead(true);
-            notificationRepository.save(notification);
-        });
+    public ResponseEntity<Void> markAsRead(@PathVariable Long id, Principal principal) {
+        notificationService.markAsRead(id, principal.getName());
         return ResponseEntity.ok().build();
     }
 
     @PostMapping("/read-all")
     public ResponseEntity<Void> markAllAsRead(Principal principal) {
-        Long userId = employeeService.findEmployeeByEmail(principal.getName()).getId();
-        List<Notification> unreadNotifications = notificationRepository.findByUser_IdAndIsReadFalseOrderByCreatedAtDesc(userId);
-        unreadNotifications.forEach(notification -> notification.setRead(true));
-        notificationRepository.saveAll(unreadNotifications);
+        notificationService.markAllAsRead(principal.getName());
         return ResponseEntity.ok().build();
     }
-}
\ No newline at end of file
+
+    /**
+     * Sent by the client right after it (re)subscribes. Replies with the unread notifications it
+     * missed while disconnected and the exact unread count, read from the database (this also
+     * resyncs the in-memory counter); live pushes take over from there.
+     */
+    @MessageMapping("/notifications.resume")
+    @SendToUser(value = "/queue/notifications.sync", broadcast = false)
+    public NotificationSyncDTO resume(@Payload NotificationResumeDTO request, Principal principal) {
+        if (principal == null) {
+            throw new IllegalStateException("Notification resume requires an authenticated STOMP session");
+        }
+        long lastSeenId = request.getLastSeenId() != null ? request.getLastSeenId() : 0L;
+        List<NotificationDTO> missed = notificationRepository
+                .findByUser_EmailAndIsReadFalseAndIdGreaterThanOrderByIdAsc(principal.getName(), lastSeenId)
+                .stream()
+                .map(NotificationDTO::from)
+                .collect(Collectors.toList());
+        long unreadCount = unreadNotificationCounter.reload(principal.getName());
+        return new NotificationSyncDTO(missed, unreadCount);
+    }
+}
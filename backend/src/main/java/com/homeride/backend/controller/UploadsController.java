@@ -0,0 +1,200 @@
+package com.homeride.backend.controller;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.util.UriUtils;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.regex.Pattern;
+
+/**
+ * Serves the local uploads directory (written by LocalImageStorageBackend) at /uploads/**.
+ * <p>
+ * Files under a content-hash directory (avatars/&lt;sha-256&gt;/...) are never rewritten, so their ETag
+ * is derived from the path (strong, no file read needed) and they may be cached for a year as
+ * immutable. Anything else (uploads stored under other names) gets a weak ETag from its size and
+ * modification time and must be revalidated.
+ * <p>
+ * Single byte ranges are supported. Bodies of at least storage.local.sendfile-min-size bytes are
+ * handed to Tomcat's sendfile and never pass through the JVM heap; smaller ones are copied through
+ * the response stream, where the per-request setup of sendfile would cost more than the copy.
+ */
+@RestController
+public class UploadsController {
+
+    private static final String PATH_PREFIX = "/uploads/";
+    private static final String IMMUTABLE = "public, max-age=31536000, immutable";
+    private static final String REVALIDATE = "public, no-cache";
+    // A directory named by the SHA-256 of the content, as ProfilePictureService stores avatars
+    private static final Pattern CONTENT_ADDRESSED = Pattern.compile("(?:.+/)?[0-9a-f]{64}/[^/]+");
+
+    // Tomcat request attributes (org.apache.catalina.Globals); the connector does the copy after we return
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final Path directory;
+    private final long sendfileMinSize;
+
+    public UploadsController(@Value("${storage.local.directory:uploads}") String directory,
+                             @Value("${storage.local.sendfile-min-size:49152}") long sendfileMinSize) {
+        this.directory = Paths.get(directory).toAbsolutePath().normalize();
+        this.sendfileMinSize = sendfileMinSize;
+    }
+
+    @RequestMapping(value = "/uploads/**", method = {RequestMethod.GET, RequestMethod.HEAD})
+    public void serve(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String relative = UriUtils.decode(
+                request.getRequestURI().substring(request.getContextPath().length() + PATH_PREFIX.length()),
+                StandardCharsets.UTF_8);
+        Path file = directory.resolve(relative).normalize();
+        if (!file.startsWith(directory) || !Files.isRegularFile(file)) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        long length = Files.size(file);
+        String relativePath = directory.relativize(file).toString().replace('\\', '/');
+        boolean immutable = isContentAddressed(relativePath);
+        String etag = immutable ? etag(relativePath)
+                : "W/\"" + Long.toHexString(length) + "-" + Long.toHexString(Files.getLastModifiedTime(file).toMillis()) + "\"";
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, immutable ? IMMUTABLE : REVALIDATE);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setContentType(MediaTypeFactory.getMediaType(file.getFileName().toString())
+                .orElse(MediaType.APPLICATION_OCTET_STREAM).toString());
+
+        if (matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        long start = 0;
+        long end = length - 1;
+        String range = request.getHeader(HttpHeaders.RANGE);
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        // If-Range needs a strong validator; with a weak one the whole file is sent
+        if (range != null && (ifRange == null || immutable && ifRange.equals(etag))) {
+            long[] bounds = parseRange(range, length);
+            if (bounds == null) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            }
+            if (bounds.length == 2) {
+                start = bounds[0];
+                end = bounds[1];
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+            }
+        }
+        response.setContentLengthLong(end - start + 1);
+        if ("HEAD".equals(request.getMethod()) || length == 0) {
+            return;
+        }
+        send(request, response, file, start, end);
+    }
+
+    private void send(HttpServletRequest request, HttpServletResponse response, Path file, long start, long end) throws IOException {
+        long count = end - start + 1;
+        if (count >= sendfileMinSize && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            request.setAttribute(SENDFILE_FILENAME, file.toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1); // exclusive
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            while (count > 0) {
+                long written = channel.transferTo(position, count, out);
+                if (written <= 0) {
+                    break;
+                }
+                position += written;
+                count -= written;
+            }
+        }
+    }
+
+    /**
+     * Returns {start, end} for a single satisfiable range, an empty array when the header should be
+     * ignored (multiple ranges, other units, malformed), or null when the range is unsatisfiable.
+     */
+    static long[] parseRange(String header, long length) {
+        if (!header.startsWith("bytes=") || header.indexOf(',') >= 0) {
+            return new long[0];
+        }
+        String spec = header.substring("bytes=".length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return new long[0];
+        }
+        try {
+            String first = spec.substring(0, dash).trim();
+            String last = spec.substring(dash + 1).trim();
+            if (first.isEmpty()) {
+                // Suffix range: the last N bytes
+                long suffix = Long.parseLong(last);
+                if (suffix <= 0 || length == 0) {
+                    return null;
+                }
+                return new long[]{Math.max(0, length - suffix), length - 1};
+            }
+            long start = Long.parseLong(first);
+            long end = last.isEmpty() ? length - 1 : Math.min(Long.parseLong(last), length - 1);
+            if (start >= length) {
+                return null;
+            }
+            return start <= end ? new long[]{start, end} : new long[0];
+        } catch (NumberFormatException e) {
+            return new long[0];
+        }
+    }
+
+    static boolean isContentAddressed(String relativePath) {
+        return CONTENT_ADDRESSED.matcher(relativePath).matches();
+    }
+
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.equals("*") || value.equals(etag) || value.equals("W/" + etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String etag(String relativePath) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(relativePath.getBytes(StandardCharsets.UTF_8));
+            return "\"" + HexFormat.of().formatHex(hash, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
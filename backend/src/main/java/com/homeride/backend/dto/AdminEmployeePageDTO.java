@@ -0,0 +1,16 @@
+package com.homeride.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class AdminEmployeePageDTO {
+    private List<AdminEmployeeViewDTO> employees;
+    private int page;                // zero-based
+    private int size;
+    private long totalElements;      // matching the search, across all pages
+    private int totalPages;
+}
@@ -0,0 +1,16 @@
+package com.homeride.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@AllArgsConstructor
+public class ChatHistoryPageDTO {
+    private List<ChatMessageSummaryDTO> messages; // oldest first
+    private Map<String, ChatSenderDTO> senders;   // sender email -> display data, once per page
+    private boolean hasMore;
+    private String nextCursor;                    // opaque; pass as "before" to load the previous page
+}
@@ -0,0 +1,25 @@
+package com.homeride.backend.dto;
+
+import com.homeride.backend.model.ChatMessage;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * A chat message without the sender's display data; see ChatHistoryPageDTO.senders.
+ */
+@Data
+@AllArgsConstructor
+public class ChatMessageSummaryDTO {
+    private Long id;
+    private String senderEmail;
+    private String content;
+    private String type;
+    private LocalDateTime timestamp;
+
+    public static ChatMessageSummaryDTO from(ChatMessage message) {
+        return new ChatMessageSummaryDTO(message.getId(), message.getSenderEmail(), message.getContent(),
+                message.getType(), message.getTimestamp());
+    }
+}
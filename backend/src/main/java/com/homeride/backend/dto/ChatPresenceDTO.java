@@ -0,0 +1,20 @@
+package com.homeride.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Presence snapshot broadcast on /topic/ride.{id}. Each node sends its own view; clients merge
+ * snapshots by node.
+ */
+@Data
+@AllArgsConstructor
+public class ChatPresenceDTO {
+    private final String type = "PRESENCE";
+    private Long rideId;
+    private String node;
+    private List<String> online; // emails
+    private List<String> typing; // emails
+}
@@ -0,0 +1,9 @@
+package com.homeride.backend.dto;
+
+import lombok.Data;
+
+@Data
+public class ChatPresenceEventDTO {
+    private Long rideId;
+    private String event; // JOIN, LEAVE, HEARTBEAT, TYPING or STOPPED_TYPING
+}
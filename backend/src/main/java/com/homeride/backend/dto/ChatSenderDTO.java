@@ -0,0 +1,11 @@
+package com.homeride.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class ChatSenderDTO {
+    private String name;
+    private String profilePictureUrl;
+}
@@ -0,0 +1,17 @@
+package com.homeride.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Part of a streamed chatbot reply, sent to /user/queue/chatbot. The last chunk has done = true
+ * and, if the reply failed, an error message instead of more text.
+ */
+@Data
+@AllArgsConstructor
+public class ChatbotStreamChunkDTO {
+    private String requestId;
+    private String delta;
+    private boolean done;
+    private String error;
+}
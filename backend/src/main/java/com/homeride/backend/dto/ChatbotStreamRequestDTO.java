@@ -0,0 +1,9 @@
+package com.homeride.backend.dto;
+
+import lombok.Data;
+
+@Data
+public class ChatbotStreamRequestDTO {
+    private String requestId; // chosen by the client, echoed on every chunk
+    private String message;
+}
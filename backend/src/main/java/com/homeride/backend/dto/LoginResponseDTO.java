@@ -8,5 +8,7 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @AllArgsConstructor
 public class LoginResponseDTO {
-    private String token;
-}
\ No newline at end of file
+    private String token; // Short-lived access token
+    private String refreshToken;
+    private long expiresIn; // Access token lifetime in seconds
+}
@@ -0,0 +1,26 @@
+package com.homeride.backend.dto;
+
+import com.homeride.backend.model.Notification;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationDTO {
+    private Long id;
+    private String message;
+    private String link;
+    private String type;
+    private Long rideId;
+    private boolean read;
+    private LocalDateTime createdAt;
+
+    public static NotificationDTO from(Notification notification) {
+        return new NotificationDTO(notification.getId(), notification.getMessage(), notification.getLink(),
+                notification.getType(), notification.getRideId(), notification.isRead(), notification.getCreatedAt());
+    }
+}
@@ -0,0 +1,8 @@
+package com.homeride.backend.dto;
+
+import lombok.Data;
+
+@Data
+public class NotificationResumeDTO {
+    private Long lastSeenId; // highest notification id the client already has; null on first connect
+}
@@ -0,0 +1,13 @@
+package com.homeride.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class NotificationSyncDTO {
+    private List<NotificationDTO> notifications;
+    private long unreadCount;
+}
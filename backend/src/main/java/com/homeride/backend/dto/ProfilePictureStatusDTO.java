@@ -0,0 +1,16 @@
+package com.homeride.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * State of the caller's latest profile picture upload: PROCESSING while it is resized and stored,
+ * then DONE with the new URL, or FAILED with a message.
+ */
+@Data
+@AllArgsConstructor
+public class ProfilePictureStatusDTO {
+    private String status;
+    private String profilePictureUrl;
+    private String message;
+}
@@ -0,0 +1,8 @@
+package com.homeride.backend.dto;
+
+import lombok.Data;
+
+@Data
+public class RefreshTokenRequestDTO {
+    private String refreshToken;
+}
@@ -0,0 +1,21 @@
+package com.homeride.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+@Data
+@AllArgsConstructor
+public class RideStatsBucketDTO {
+    private LocalDate periodStart;   // first day of the day/week/month
+    private long ridesOffered;
+    private long seatsOffered;
+    private long bookings;
+    private long seatsBooked;
+    private double occupancyPercent; // seats booked / seats offered
+    private double revenue;
+    private long ridesCancelled;
+    private long bookingsCancelled;
+    private long seatsCancelled;
+}
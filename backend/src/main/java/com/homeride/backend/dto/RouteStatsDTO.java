@@ -0,0 +1,14 @@
+package com.homeride.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class RouteStatsDTO {
+    private String originCity;
+    private String destinationCity;
+    private long ridesOffered;
+    private long seatsBooked;
+    private double revenue;
+}
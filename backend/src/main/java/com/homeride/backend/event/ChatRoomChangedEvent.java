@@ -0,0 +1,14 @@
+package com.homeride.backend.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Published when a ride or its passengers are written (join, cancellation, ride updated or deleted);
+ * see ChatRoomEntityListener.
+ */
+@Getter
+@AllArgsConstructor
+public class ChatRoomChangedEvent {
+    private final Long rideId;
+}
@@ -0,0 +1,13 @@
+package com.homeride.backend.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Published when an employee's name or profile picture changes.
+ */
+@Getter
+@AllArgsConstructor
+public class EmployeeProfileChangedEvent {
+    private final String email;
+}
@@ -0,0 +1,22 @@
+package com.homeride.backend.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Published when one or more users should receive the same in-app notification.
+ * Delivered to NotificationDispatcher after the publishing transaction commits.
+ */
+@Getter
+@AllArgsConstructor
+public class NotificationEvent {
+    private final Map<Long, String> recipients; // user id -> email (push destination)
+    private final String message;
+    private final String link;
+    private final String type;
+    private final Long rideId;
+    private final LocalDateTime createdAt;
+}
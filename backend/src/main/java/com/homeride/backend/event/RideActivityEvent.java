@@ -0,0 +1,73 @@
+package com.homeride.backend.event;
+
+import com.homeride.backend.model.RideParticipant;
+import com.homeride.backend.model.RideRequest;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDate;
+
+/**
+ * A change to the ride statistics of one travel day and city pair, as deltas.
+ * Applied to the rollup tables by RideStatsRollupService in the publishing transaction.
+ */
+@Getter
+@AllArgsConstructor
+public class RideActivityEvent {
+    private final LocalDate travelDate;
+    private final String originCity;
+    private final String destinationCity;
+    private final long ridesOffered;
+    private final long seatsOffered;
+    private final long bookings;
+    private final long seatsBooked;
+    private final double revenue;
+    private final long ridesCancelled;
+    private final long bookingsCancelled;
+    private final long seatsCancelled;
+
+    public static RideActivityEvent rideOffered(RideRequest ride) {
+        return new RideActivityEvent(travelDate(ride), ride.getOriginCity(), ride.getDestinationCity(),
+                1, capacity(ride), 0, 0, 0, 0, 0, 0);
+    }
+
+    /**
+     * The ride and all of its bookings are removed.
+     */
+    public static RideActivityEvent rideCancelled(RideRequest ride) {
+        long bookings = ride.getParticipants().size();
+        long seats = ride.getParticipants().stream().mapToLong(RideActivityEvent::seats).sum();
+        double revenue = ride.getParticipants().stream().mapToDouble(RideActivityEvent::price).sum();
+        return new RideActivityEvent(travelDate(ride), ride.getOriginCity(), ride.getDestinationCity(),
+                -1, -capacity(ride), -bookings, -seats, -revenue, 1, bookings, seats);
+    }
+
+    public static RideActivityEvent bookingAdded(RideParticipant booking) {
+        RideRequest ride = booking.getRideRequest();
+        return new RideActivityEvent(travelDate(ride), ride.getOriginCity(), ride.getDestinationCity(),
+                0, 0, 1, seats(booking), price(booking), 0, 0, 0);
+    }
+
+    public static RideActivityEvent bookingCancelled(RideParticipant booking) {
+        RideRequest ride = booking.getRideRequest();
+        return new RideActivityEvent(travelDate(ride), ride.getOriginCity(), ride.getDestinationCity(),
+                0, 0, -1, -seats(booking), -price(booking), 0, 1, seats(booking));
+    }
+
+    private static LocalDate travelDate(RideRequest ride) {
+        return ride.getTravelDateTime().toLocalDate();
+    }
+
+    private static long capacity(RideRequest ride) {
+        return ride.getVehicleCapacity() != null ? ride.getVehicleCapacity() : 0;
+    }
+
+    // Same defaults as the backfill query
+    private static long seats(RideParticipant booking) {
+        return booking.getNumberOfSeats() != null ? booking.getNumberOfSeats() : 1;
+    }
+
+    private static double price(RideParticipant booking) {
+        return booking.getPrice() != null ? booking.getPrice() : 0;
+    }
+}
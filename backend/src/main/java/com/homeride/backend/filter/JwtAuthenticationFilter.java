@@ -1,27 +1,36 @@
 package com.homeride.backend.filter; // Note the new package name
 
-import com.homeride.backend.service.EmployeeService; // Use EmployeeService
+import com.homeride.backend.service.TokenRevocationService;
 import com.homeride.backend.util.JwtUtil;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 import java.io.IOException;
+import java.util.Collections;
 
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
+    private static final Logger logger = LoggerFactory.getLogger(JwtAuthenticationFilter.class);
+
     @Autowired
     private JwtUtil jwtUtil;
     @Autowired
-    private EmployeeService employeeService; // Changed from MyUserDetailsService
+    private TokenRevocationService tokenRevocationService;
 
 
     @Override
@@ -29,17 +38,13 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             throws ServletException, IOException {
 
         final String authHeader = request.getHeader("Authorization");
-        String username = null;
-        String jwt = null;
-
-        if (authHeader != null && authHeader.startsWith("Bearer ")) {
-            jwt = authHeader.substring(7);
-            username = jwtUtil.extractUsername(jwt);
-        }
 
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = this.employeeService.loadUserByUsername(username); // Changed here
-            if (jwtUtil.validateToken(jwt, userDetails)) {
+        if (authHeader != null && authHeader.startsWith("Bearer ")
+                && SecurityContextHolder.getContext().getAuthentication() == null) {
+            // Access tokens are short-lived and self-contained, so authentication only needs the
+            // HMAC check and an in-memory revocation probe -- no database lookup per request.
+            UserDetails userDetails = authenticate(authHeader.substring(7));
+            if (userDetails != null) {
                 UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                         userDetails, null, userDetails.getAuthorities());
                 authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
@@ -48,4 +53,19 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
         filterChain.doFilter(request, response);
     }
-}
\ No newline at end of file
+
+    private UserDetails authenticate(String jwt) {
+        try {
+            Claims claims = jwtUtil.parseToken(jwt);
+            String sessionId = claims.get(JwtUtil.SESSION_CLAIM, String.class);
+            if (sessionId != null && tokenRevocationService.isRevoked(sessionId)) {
+                return null;
+            }
+            String role = claims.get(JwtUtil.ROLE_CLAIM, String.class);
+            return new User(claims.getSubject(), "", Collections.singletonList(new SimpleGrantedAuthority(role)));
+        } catch (JwtException | IllegalArgumentException e) {
+            logger.debug("Rejected JWT: {}", e.getMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.homeride.backend.filter;
+
+import com.homeride.backend.config.QueryBudget;
+import com.homeride.backend.config.QueryBudgetMonitor;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Counts the SQL statements of each HTTP request, including those run by the security filters, and
+ * checks them against the request's budget (see QueryBudgetMonitor). Runs just inside the
+ * http.server.requests observation, so budget warnings carry the request's trace ID.
+ * <p>
+ * The counts are left on the request under {@link #SCOPE_ATTRIBUTE} for tests.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 2)
+public class QueryBudgetFilter extends OncePerRequestFilter {
+
+    public static final String SCOPE_ATTRIBUTE = QueryBudgetFilter.class.getName() + ".scope";
+
+    private final QueryBudgetMonitor queryBudgetMonitor;
+
+    @Autowired
+    public QueryBudgetFilter(QueryBudgetMonitor queryBudgetMonitor) {
+        this.queryBudgetMonitor = queryBudgetMonitor;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        QueryBudgetMonitor.Scope scope = QueryBudgetMonitor.open();
+        request.setAttribute(SCOPE_ATTRIBUTE, scope);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            scope.close();
+            queryBudgetMonitor.check("http", operation(request), scope, budget(request));
+        }
+    }
+
+    // Same value as the uri tag of http.server.requests: the mapped pattern, never the raw path
+    private static String operation(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return request.getMethod() + " " + (pattern != null ? pattern : "UNKNOWN");
+    }
+
+    private static QueryBudget budget(HttpServletRequest request) {
+        Object handler = request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE);
+        return handler instanceof HandlerMethod handlerMethod ? handlerMethod.getMethodAnnotation(QueryBudget.class) : null;
+    }
+}
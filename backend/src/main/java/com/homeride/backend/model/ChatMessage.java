@@ -1,28 +1,44 @@
 package com.homeride.backend.model;
 
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import lombok.Data;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "chat_messages")
+@Table(name = "chat_messages", indexes = {
+        // "latest N before cursor" per ride; also answers MAX(id)/COUNT(*) for the history ETag
+        @Index(name = "idx_chat_messages_ride_id_id", columnList = "ride_id, id"),
+        // History pages, newest first (ChatHistoryService)
+        @Index(name = "idx_chat_messages_ride_id_timestamp_id", columnList = "ride_id, timestamp, id")
+})
 @Data
 public class ChatMessage {
 
+    // Ids are reserved in blocks from chat_messages_seq (pooled), so messages can be numbered
+    // before they are written and inserted in JDBC batches. ChatMessageIdAllocator uses the same blocks.
+    public static final String ID_SEQUENCE = "chat_messages_seq";
+    public static final int ID_ALLOCATION_SIZE = 50;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = ID_SEQUENCE)
+    @SequenceGenerator(name = ID_SEQUENCE, sequenceName = ID_SEQUENCE, allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
     private String senderName;
     private String senderEmail;
+    @Column(columnDefinition = "TEXT") // length limited in ChatController (chat.max-message-length, as the chat input)
     private String content;
+    @Column(name = "ride_id")
     private Long rideId;
     private String recipientEmail; // Null for group messages
     private String type; // GROUP or PRIVATE
     private String senderProfilePictureUrl;
     private LocalDateTime timestamp;
-}
\ No newline at end of file
+}
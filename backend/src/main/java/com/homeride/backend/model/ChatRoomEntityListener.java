@@ -0,0 +1,83 @@
+package com.homeride.backend.model;
+
+import com.homeride.backend.event.ChatRoomChangedEvent;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Publishes a ChatRoomChangedEvent whenever a ride (cities, driver, requester) or its passenger list
+ * is written, whichever service does it, so the cached chat room can never outlive the data it was
+ * built from. At most one event per ride per transaction: deleting a ride also removes each of its
+ * participants. Created by Hibernate through Spring, hence the injection.
+ */
+public class ChatRoomEntityListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    public ChatRoomEntityListener(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    // A new ride has no cached room yet; a new passenger joins one
+    @PostPersist
+    public void onPersist(Object entity) {
+        if (entity instanceof RideParticipant participant) {
+            publish(rideId(participant));
+        }
+    }
+
+    @PostUpdate
+    public void onUpdate(Object entity) {
+        publish(rideId(entity));
+    }
+
+    @PostRemove
+    public void onRemove(Object entity) {
+        publish(rideId(entity));
+    }
+
+    private static Long rideId(Object entity) {
+        if (entity instanceof RideRequest ride) {
+            return ride.getId();
+        }
+        if (entity instanceof RideParticipant participant && participant.getRideRequest() != null) {
+            return participant.getRideRequest().getId();
+        }
+        return null;
+    }
+
+    private void publish(Long rideId) {
+        if (rideId == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive() && !publishedInTransaction().add(rideId)) {
+            return;
+        }
+        eventPublisher.publishEvent(new ChatRoomChangedEvent(rideId));
+    }
+
+    // Kept on a synchronization rather than a bound resource, so a REQUIRES_NEW transaction gets its own
+    private static Set<Long> publishedInTransaction() {
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof PublishedRides published) {
+                return published.rideIds;
+            }
+        }
+        PublishedRides published = new PublishedRides();
+        TransactionSynchronizationManager.registerSynchronization(published);
+        return published.rideIds;
+    }
+
+    private static class PublishedRides implements TransactionSynchronization {
+        private final Set<Long> rideIds = new HashSet<>();
+    }
+}
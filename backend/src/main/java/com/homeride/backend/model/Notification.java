@@ -9,7 +9,10 @@ import java.time.LocalDateTime;
 
 @Data
 @Entity
-@Table(name = "notifications")
+@Table(name = "notifications", indexes = {
+        // Unread list / count per user, newest first
+        @Index(name = "idx_notifications_user_read_created", columnList = "user_id, is_read, created_at")
+})
 public class Notification {
 
     @Id
@@ -23,11 +26,11 @@ public class Notification {
     @Column(nullable = false)
     private String message;
 
-    @Column(nullable = false)
+    @Column(name = "is_read", nullable = false)
     private boolean isRead = false;
 
     @CreationTimestamp
-    @Column(updatable = false)
+    @Column(name = "created_at", updatable = false)
     private LocalDateTime createdAt;
 
     private String link; // Link to the relevant page (e.g., /ride/{rideId})
@@ -0,0 +1,62 @@
+package com.homeride.backend.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * A row of the mail outbox. Requests only insert rows; EmailOutboxSender delivers them in the
+ * background. The index on due PENDING rows is a partial index in schema.sql.
+ */
+@Data
+@NoArgsConstructor
+@Entity
+@Table(name = "email_outbox")
+public class OutboundEmail {
+
+    public enum Status { PENDING, SENT, DEAD }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "to_address", nullable = false)
+    private String toAddress;
+
+    @Column(name = "from_address")
+    private String fromAddress;
+
+    @Column(name = "reply_to")
+    private String replyTo;
+
+    @Column(nullable = false)
+    private String subject;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String body;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Status status = Status.PENDING;
+
+    // Delivery attempts started so far (counted when a row is claimed)
+    @Column(nullable = false)
+    private int attempts;
+
+    // When the row is next due; while a sender holds it, the end of its lease
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "sent_at")
+    private LocalDateTime sentAt;
+}
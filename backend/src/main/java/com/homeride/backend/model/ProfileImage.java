@@ -0,0 +1,44 @@
+package com.homeride.backend.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * A processed profile picture, keyed by the SHA-256 of the uploaded file. Uploading the same
+ * file again (by anyone) reuses these URLs instead of resizing and uploading it again.
+ */
+@Data
+@NoArgsConstructor
+@Entity
+@Table(name = "profile_images", indexes = {
+        @Index(name = "idx_profile_images_content_hash", columnList = "content_hash", unique = true)
+})
+public class ProfileImage {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "content_hash", nullable = false, length = 64)
+    private String contentHash;
+
+    // 64 x 64
+    @Column(name = "small_url", nullable = false)
+    private String smallUrl;
+
+    // 128 x 128
+    @Column(name = "medium_url", nullable = false)
+    private String mediumUrl;
+
+    // 256 x 256, used as Employee.profilePictureUrl
+    @Column(name = "large_url", nullable = false)
+    private String largeUrl;
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+}
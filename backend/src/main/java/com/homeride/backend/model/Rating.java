@@ -12,7 +12,10 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "ratings")
+@Table(name = "ratings", indexes = {
+        // Covers rating aggregates per ratee without touching the table
+        @Index(name = "idx_ratings_ratee", columnList = "ratee_id, score")
+})
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class Rating {
 
@@ -35,7 +38,7 @@ public class Rating {
     @JoinColumn(name = "ride_request_id", nullable = false)
     private RideRequest rideRequest;
 
-    @Column(nullable = false)
+    @Column(name = "score", nullable = false)
     private int score; // e.g., 1 to 5 stars
 
     @Column(columnDefinition = "TEXT")
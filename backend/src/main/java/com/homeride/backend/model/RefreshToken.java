@@ -0,0 +1,50 @@
+package com.homeride.backend.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@Entity
+@Table(name = "refresh_tokens", indexes = {
+        @Index(name = "idx_refresh_tokens_token_hash", columnList = "token_hash", unique = true),
+        @Index(name = "idx_refresh_tokens_session_id", columnList = "session_id"),
+        @Index(name = "idx_refresh_tokens_revoked_at", columnList = "revoked_at")
+})
+public class RefreshToken {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Only the SHA-256 hash of the token is stored, never the token itself
+    @Column(name = "token_hash", nullable = false, length = 64)
+    private String tokenHash;
+
+    // All tokens produced by rotating the same login share a session id
+    @Column(name = "session_id", nullable = false, length = 36)
+    private String sessionId;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "employee_id", nullable = false)
+    private Employee employee;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    // Set when this token has been exchanged for a new one
+    @Column(name = "rotated_at")
+    private LocalDateTime rotatedAt;
+
+    // Set when the whole session is revoked (logout or token reuse)
+    @Column(name = "revoked_at")
+    private LocalDateTime revokedAt;
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,46 @@
+package com.homeride.backend.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Ride activity per travel day, maintained by RideStatsRollupService as rides and bookings change.
+ * The first five counters describe the rides and bookings that currently exist and can be rebuilt
+ * from the base tables (backfill). Cancelled rides and bookings are deleted from the base tables,
+ * so the cancellation counters are only ever incremented here and survive a backfill.
+ */
+@Data
+@NoArgsConstructor
+@Entity
+@Table(name = "ride_daily_stats")
+public class RideDailyStats {
+
+    @Id
+    @Column(name = "stat_date")
+    private LocalDate statDate;
+
+    @Column(name = "rides_offered")
+    private long ridesOffered;
+
+    @Column(name = "seats_offered")
+    private long seatsOffered;
+
+    private long bookings;
+
+    @Column(name = "seats_booked")
+    private long seatsBooked;
+
+    private double revenue;
+
+    @Column(name = "rides_cancelled")
+    private long ridesCancelled;
+
+    @Column(name = "bookings_cancelled")
+    private long bookingsCancelled;
+
+    @Column(name = "seats_cancelled")
+    private long seatsCancelled;
+}
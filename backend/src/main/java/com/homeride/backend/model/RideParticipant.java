@@ -11,7 +11,11 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "ride_participants")
+@Table(name = "ride_participants", indexes = {
+        @Index(name = "idx_ride_participants_participant", columnList = "participant_id, ride_request_id"),
+        @Index(name = "idx_ride_participants_ride", columnList = "ride_request_id")
+})
+@EntityListeners(ChatRoomEntityListener.class)
 public class RideParticipant {
 
     @Id
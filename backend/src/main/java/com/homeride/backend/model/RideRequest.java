@@ -17,8 +17,14 @@ import java.util.Set;
 @Data
 @NoArgsConstructor
 @Entity
-@Table(name = "ride_requests")
+@Table(name = "ride_requests", indexes = {
+        // A user's rides in date order (chatbot context, my rides)
+        @Index(name = "idx_ride_requests_requester_travel", columnList = "requester_id, travel_date_time"),
+        // Date-range reads: report backfill, data exports
+        @Index(name = "idx_ride_requests_travel", columnList = "travel_date_time")
+})
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
+@EntityListeners(ChatRoomEntityListener.class)
 public class RideRequest {
 
     @Id
@@ -51,7 +57,7 @@ public class RideRequest {
     @Column(nullable = false)
     private String rideType;
 
-    @Column(nullable = false)
+    @Column(name = "travel_date_time", nullable = false)
     private LocalDateTime travelDateTime;
 
     private String status;
@@ -0,0 +1,41 @@
+package com.homeride.backend.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Ride activity per travel day and city pair (top routes). Only current rides and bookings are
+ * counted, so a backfill simply replaces the rows of the range.
+ */
+@Data
+@NoArgsConstructor
+@Entity
+@Table(name = "ride_route_daily_stats", uniqueConstraints = {
+        @UniqueConstraint(name = "uq_ride_route_daily_stats", columnNames = {"stat_date", "origin_city", "destination_city"})
+})
+public class RideRouteDailyStats {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "stat_date", nullable = false)
+    private LocalDate statDate;
+
+    @Column(name = "origin_city", nullable = false)
+    private String originCity;
+
+    @Column(name = "destination_city", nullable = false)
+    private String destinationCity;
+
+    @Column(name = "rides_offered")
+    private long ridesOffered;
+
+    @Column(name = "seats_booked")
+    private long seatsBooked;
+
+    private double revenue;
+}
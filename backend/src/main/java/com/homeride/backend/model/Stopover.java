@@ -8,7 +8,9 @@ import lombok.NoArgsConstructor;
 @Data
 @NoArgsConstructor
 @Entity
-@Table(name = "ride_stopovers")
+@Table(name = "ride_stopovers", indexes = {
+        @Index(name = "idx_ride_stopovers_ride", columnList = "ride_request_id")
+})
 public class Stopover {
 
     @Id
@@ -1,12 +1,36 @@
 package com.homeride.backend.repository;
 
 import com.homeride.backend.model.ChatMessage;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
 public interface ChatMessageRepository extends JpaRepository<ChatMessage, Long> {
     List<ChatMessage> findByRideIdOrderByTimestampAsc(Long rideId);
+
+    // Cursor pagination on (ride_id, timestamp, id), newest first. Not by id alone: ids come in
+    // per-node blocks, so they do not follow the order messages were sent in.
+    List<ChatMessage> findByRideIdOrderByTimestampDescIdDesc(Long rideId, Limit limit);
+
+    @Query("SELECT m FROM ChatMessage m WHERE m.rideId = :rideId " +
+            "AND (m.timestamp < :timestamp OR (m.timestamp = :timestamp AND m.id < :id)) " +
+            "ORDER BY m.timestamp DESC, m.id DESC")
+    List<ChatMessage> findPageBefore(@Param("rideId") Long rideId, @Param("timestamp") LocalDateTime timestamp,
+                                     @Param("id") Long id, Limit limit);
+
+    // Version of a ride's history for ETags. Ids from different nodes' blocks are not strictly
+    // increasing, so the count is included alongside the max.
+    @Query("SELECT COUNT(m) AS count, MAX(m.id) AS maxId FROM ChatMessage m WHERE m.rideId = :rideId")
+    HistoryVersion findHistoryVersion(@Param("rideId") Long rideId);
+
+    interface HistoryVersion {
+        long getCount();
+        Long getMaxId();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,59 @@
+package com.homeride.backend.repository;
+
+import com.homeride.backend.model.RideRequest;
+import com.homeride.backend.repository.projection.RatingSummaryView;
+import com.homeride.backend.repository.projection.RideRoleCountView;
+import com.homeride.backend.repository.projection.UpcomingRideView;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Per-user queries for the chatbot's prompt context. Each one is driven by an index on the user's id
+ * (idx_ride_requests_requester_travel, idx_ride_participants_participant, idx_ratings_ratee) and
+ * returns a few scalar rows, so building the context does not grow with the size of the tables.
+ */
+public interface ChatbotContextRepository extends org.springframework.data.repository.Repository<RideRequest, Long> {
+
+    @Query(value = "SELECT 'DRIVER' AS role, COUNT(*) AS total, " +
+            "COUNT(*) FILTER (WHERE r.travel_date_time < :now) AS completed, " +
+            "COUNT(*) FILTER (WHERE r.travel_date_time > :now) AS upcoming " +
+            "FROM ride_requests r WHERE r.requester_id = :userId " +
+            "UNION ALL " +
+            "SELECT 'PASSENGER', COUNT(*), " +
+            "COUNT(*) FILTER (WHERE r.travel_date_time < :now), " +
+            "COUNT(*) FILTER (WHERE r.travel_date_time > :now) " +
+            "FROM ride_participants p JOIN ride_requests r ON r.id = p.ride_request_id " +
+            "WHERE p.participant_id = :userId AND r.requester_id <> :userId",
+            nativeQuery = true)
+    List<RideRoleCountView> countRidesByRole(@Param("userId") Long userId, @Param("now") LocalDateTime now);
+
+    // Each branch reads at most :limit rows from its index; only those rides are joined and aggregated
+    @Query(value = "WITH upcoming AS (" +
+            "  (SELECT r.id FROM ride_requests r WHERE r.requester_id = :userId AND r.travel_date_time > :now " +
+            "   ORDER BY r.travel_date_time LIMIT :limit) " +
+            "  UNION " +
+            "  (SELECT r.id FROM ride_participants p JOIN ride_requests r ON r.id = p.ride_request_id " +
+            "   WHERE p.participant_id = :userId AND r.travel_date_time > :now " +
+            "   ORDER BY r.travel_date_time LIMIT :limit)) " +
+            "SELECT r.id AS id, r.origin_city AS originCity, r.destination_city AS destinationCity, " +
+            "r.travel_date_time AS travelDateTime, r.ride_type AS rideType, (r.requester_id = :userId) AS userIsDriver, " +
+            "r.price AS price, r.distance AS distance, r.duration AS duration, r.vehicle_model AS vehicleModel, " +
+            "r.vehicle_capacity AS vehicleCapacity, r.gender_preference AS genderPreference, r.driver_note AS driverNote, " +
+            "(SELECT COALESCE(SUM(COALESCE(p.number_of_seats, 1)), 0) FROM ride_participants p " +
+            " WHERE p.ride_request_id = r.id) AS bookedSeats, " +
+            "(SELECT string_agg(s.city, ' → ' ORDER BY s.id) FROM ride_stopovers s " +
+            " WHERE s.ride_request_id = r.id) AS stopovers, " +
+            "d.name AS driverName, " +
+            "(SELECT AVG(rt.score) FROM ratings rt WHERE rt.ratee_id = r.requester_id) AS driverRating " +
+            "FROM upcoming u JOIN ride_requests r ON r.id = u.id JOIN employees d ON d.id = r.requester_id " +
+            "ORDER BY r.travel_date_time LIMIT :limit",
+            nativeQuery = true)
+    List<UpcomingRideView> findUpcomingRides(@Param("userId") Long userId, @Param("now") LocalDateTime now,
+                                             @Param("limit") int limit);
+
+    @Query("SELECT COUNT(r) AS count, AVG(r.score) AS average FROM Rating r WHERE r.ratee.id = :userId")
+    RatingSummaryView summarizeRatings(@Param("userId") Long userId);
+}
@@ -1,9 +1,23 @@
 package com.homeride.backend.repository;
 
 import com.homeride.backend.model.Employee;
+import com.homeride.backend.repository.projection.ChatMemberView;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 import java.util.Optional;
 
 public interface EmployeeRepository extends JpaRepository<Employee, Long> {
     Optional<Employee> findByEmail(String email);
+
+    @Query("SELECT e.id AS id, e.email AS email, e.name AS name, e.profilePictureUrl AS profilePictureUrl FROM Employee e WHERE e.email = :email")
+    Optional<ChatMemberView> findChatMemberByEmail(@Param("email") String email);
+
+    // Only the picture column: a background upload must not overwrite other profile edits made meanwhile
+    @Transactional
+    @Modifying
+    @Query("UPDATE Employee e SET e.profilePictureUrl = :url WHERE e.email = :email")
+    int updateProfilePictureUrl(@Param("email") String email, @Param("url") String url);
 }
\ No newline at end of file
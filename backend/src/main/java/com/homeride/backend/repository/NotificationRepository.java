@@ -1,17 +1,34 @@
 package com.homeride.backend.repository;
 
-import com.homeride.backend.model.Employee;
 import com.homeride.backend.model.Notification;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
-import java.util.Optional;
 
 @Repository
 public interface NotificationRepository extends JpaRepository<Notification, Long> {
     List<Notification> findByUser_IdAndIsReadFalseOrderByCreatedAtDesc(Long userId);
 
-    // NEW METHOD
-    Optional<Notification> findFirstByUserAndRideIdAndTypeAndIsReadFalse(Employee user, Long rideId, String type);
-}
\ No newline at end of file
+    List<Notification> findByUser_EmailAndIsReadFalseOrderByCreatedAtDesc(String email);
+
+    // Resume handshake: unread notifications the client has not seen yet
+    List<Notification> findByUser_EmailAndIsReadFalseAndIdGreaterThanOrderByIdAsc(String email, Long lastSeenId);
+
+    long countByUser_EmailAndIsReadFalse(String email);
+
+    // Set-based updates: one statement, no entities loaded. The email is resolved in a subquery.
+    @Transactional
+    @Modifying
+    @Query("UPDATE Notification n SET n.isRead = true WHERE n.user.id = (SELECT e.id FROM Employee e WHERE e.email = :email) AND n.isRead = false")
+    int markAllAsRead(@Param("email") String email);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE Notification n SET n.isRead = true WHERE n.id = :id AND n.user.id = (SELECT e.id FROM Employee e WHERE e.email = :email) AND n.isRead = false")
+    int markAsRead(@Param("id") Long id, @Param("email") String email);
+}
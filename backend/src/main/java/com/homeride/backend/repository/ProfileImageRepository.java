@@ -0,0 +1,10 @@
+package com.homeride.backend.repository;
+
+import com.homeride.backend.model.ProfileImage;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Optional;
+
+public interface ProfileImageRepository extends JpaRepository<ProfileImage, Long> {
+    Optional<ProfileImage> findByContentHash(String contentHash);
+}
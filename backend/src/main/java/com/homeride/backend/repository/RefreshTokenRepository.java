@@ -0,0 +1,39 @@
+package com.homeride.backend.repository;
+
+import com.homeride.backend.model.RefreshToken;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
+
+    @Query("SELECT t FROM RefreshToken t JOIN FETCH t.employee WHERE t.tokenHash = :tokenHash")
+    Optional<RefreshToken> findByTokenHashWithEmployee(@Param("tokenHash") String tokenHash);
+
+    // SELECT ... FOR UPDATE: concurrent rotations of the same token run one after the other. The
+    // employee is loaded separately so its row is not locked too.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT t FROM RefreshToken t WHERE t.tokenHash = :tokenHash")
+    Optional<RefreshToken> findForUpdate(@Param("tokenHash") String tokenHash);
+
+    @Modifying
+    @Query("UPDATE RefreshToken t SET t.revokedAt = :revokedAt WHERE t.sessionId = :sessionId AND t.revokedAt IS NULL")
+    int revokeSession(@Param("sessionId") String sessionId, @Param("revokedAt") LocalDateTime revokedAt);
+
+    // Sessions revoked recently enough that their access tokens may still be unexpired
+    @Query("SELECT DISTINCT t.sessionId FROM RefreshToken t WHERE t.revokedAt > :since")
+    List<String> findSessionIdsRevokedSince(@Param("since") LocalDateTime since);
+
+    @Modifying
+    @Query("DELETE FROM RefreshToken t WHERE t.expiresAt < :cutoff")
+    int deleteExpiredBefore(@Param("cutoff") LocalDateTime cutoff);
+}
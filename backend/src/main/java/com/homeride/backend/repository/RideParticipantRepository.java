@@ -3,8 +3,10 @@ package com.homeride.backend.repository;
 import com.homeride.backend.model.Employee;
 import com.homeride.backend.model.RideParticipant;
 import com.homeride.backend.model.RideRequest;
+import com.homeride.backend.repository.projection.ChatMemberView;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -16,4 +18,9 @@ public interface RideParticipantRepository extends JpaRepository<RideParticipant
 
     @Query("SELECT p FROM RideParticipant p JOIN FETCH p.participant WHERE p.rideRequest.id = :rideRequestId")
     List<RideParticipant> findByRideRequestIdWithParticipant(Long rideRequestId);
+
+    // Chat room membership: scalar projection, no participant entity graph
+    @Query("SELECT e.id AS id, e.email AS email, e.name AS name, e.profilePictureUrl AS profilePictureUrl " +
+            "FROM RideParticipant p JOIN p.participant e WHERE p.rideRequest.id = :rideId")
+    List<ChatMemberView> findChatRoomPassengers(@Param("rideId") Long rideId);
 }
\ No newline at end of file
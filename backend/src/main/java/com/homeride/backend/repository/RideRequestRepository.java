@@ -3,6 +3,8 @@ package com.homeride.backend.repository;
 import com.homeride.backend.model.Employee;
 import com.homeride.backend.model.RideRequest;
 import com.homeride.backend.model.Stopover;
+import com.homeride.backend.repository.projection.ChatMemberView;
+import com.homeride.backend.repository.projection.ChatRoomRideView;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -148,4 +150,12 @@ public interface RideRequestRepository extends JpaRepository<RideRequest, Long>,
             return (root, query, cb) -> cb.equal(root.get("genderPreference"), "FEMALE_ONLY");
         }
     }
-}
\ No newline at end of file
+
+    // Chat room header and driver as scalar projections, without the eager stopover/price/participant graph
+    @Query("SELECT r.id AS id, r.originCity AS originCity, r.destinationCity AS destinationCity FROM RideRequest r WHERE r.id = :rideId")
+    Optional<ChatRoomRideView> findChatRoomRide(@Param("rideId") Long rideId);
+
+    @Query("SELECT e.id AS id, e.email AS email, e.name AS name, e.profilePictureUrl AS profilePictureUrl " +
+            "FROM RideRequest r JOIN r.requester e WHERE r.id = :rideId")
+    Optional<ChatMemberView> findChatRoomDriver(@Param("rideId") Long rideId);
+}
@@ -0,0 +1,11 @@
+package com.homeride.backend.repository.projection;
+
+/**
+ * The few employee columns the chat needs (sender display data and notification recipient).
+ */
+public interface ChatMemberView {
+    Long getId();
+    String getEmail();
+    String getName();
+    String getProfilePictureUrl();
+}
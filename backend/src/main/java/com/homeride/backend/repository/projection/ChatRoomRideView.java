@@ -0,0 +1,7 @@
+package com.homeride.backend.repository.projection;
+
+public interface ChatRoomRideView {
+    Long getId();
+    String getOriginCity();
+    String getDestinationCity();
+}
@@ -0,0 +1,6 @@
+package com.homeride.backend.repository.projection;
+
+public interface RatingSummaryView {
+    long getCount();
+    Double getAverage(); // null when there are no ratings
+}
@@ -0,0 +1,11 @@
+package com.homeride.backend.repository.projection;
+
+/**
+ * Ride counts for one user in one role (DRIVER = rides they posted, PASSENGER = rides they joined).
+ */
+public interface RideRoleCountView {
+    String getRole();
+    long getTotal();
+    long getCompleted();
+    long getUpcoming();
+}
@@ -0,0 +1,27 @@
+package com.homeride.backend.repository.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * One upcoming ride as the chatbot describes it, with seat, stopover and driver rating data
+ * aggregated in the query.
+ */
+public interface UpcomingRideView {
+    Long getId();
+    String getOriginCity();
+    String getDestinationCity();
+    LocalDateTime getTravelDateTime();
+    String getRideType();
+    boolean getUserIsDriver();
+    Double getPrice();
+    Double getDistance();
+    Integer getDuration();
+    String getVehicleModel();
+    Integer getVehicleCapacity();
+    String getGenderPreference();
+    String getDriverNote();
+    long getBookedSeats();
+    String getStopovers(); // cities joined with " → ", null when there are none
+    String getDriverName();
+    Double getDriverRating();
+}
@@ -1,29 +1,58 @@
 package com.homeride.backend.service;
 
+import com.homeride.backend.dto.AdminEmployeePageDTO;
 import com.homeride.backend.dto.AdminEmployeeViewDTO;
-import com.homeride.backend.model.Employee;
 import com.homeride.backend.repository.EmployeeRepository;
-import com.homeride.backend.repository.RideParticipantRepository;
 import com.homeride.backend.repository.RideRequestRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 @Service
 public class AnalyticsService {
 
+    public static final int DEFAULT_PAGE_SIZE = 25;
+    public static final int MAX_PAGE_SIZE = 200;
+
+    // Sort keys accepted from the client -> SQL expression. Anything else falls back to name.
+    private static final Map<String, String> SORT_COLUMNS = Map.of(
+            "id", "e.id",
+            "name", "e.name",
+            "email", "e.email",
+            "role", "e.role",
+            "travelCredit", "e.travel_credit",
+            "ridesTraveled", "rides_traveled");
+
+    // Each ride table is aggregated once per request and joined by employee id, instead of three
+    // count queries per employee. The window count gives the total for the pagination in the same
+    // round-trip.
+    private static final String EMPLOYEES_SQL =
+            "SELECT e.id, e.name, e.email, e.role, e.travel_credit, " +
+            "COALESCE(rq.rides, 0) + COALESCE(dr.rides, 0) + COALESCE(rp.rides, 0) AS rides_traveled, " +
+            "COUNT(*) OVER () AS total " +
+            "FROM employees e " +
+            "LEFT JOIN (SELECT requester_id AS employee_id, COUNT(*) AS rides FROM ride_requests GROUP BY requester_id) rq " +
+            "ON rq.employee_id = e.id " +
+            "LEFT JOIN (SELECT driver_id AS employee_id, COUNT(*) AS rides FROM ride_requests WHERE driver_id IS NOT NULL GROUP BY driver_id) dr " +
+            "ON dr.employee_id = e.id " +
+            "LEFT JOIN (SELECT participant_id AS employee_id, COUNT(*) AS rides FROM ride_participants GROUP BY participant_id) rp " +
+            "ON rp.employee_id = e.id ";
+
+    private static final String SEARCH_CONDITION = "WHERE e.name ILIKE ? OR e.email ILIKE ? ";
+
     private final EmployeeRepository employeeRepository;
     private final RideRequestRepository rideRequestRepository;
-    private final RideParticipantRepository rideParticipantRepository;
+    private final JdbcTemplate jdbcTemplate;
 
     @Autowired
-    public AnalyticsService(EmployeeRepository employeeRepository, RideRequestRepository rideRequestRepository, RideParticipantRepository rideParticipantRepository) {
+    public AnalyticsService(EmployeeRepository employeeRepository, RideRequestRepository rideRequestRepository, JdbcTemplate jdbcTemplate) {
         this.employeeRepository = employeeRepository;
         this.rideRequestRepository = rideRequestRepository;
-        this.rideParticipantRepository = rideParticipantRepository;
+        this.jdbcTemplate = jdbcTemplate;
     }
 
     public Map<String, Long> getBasicStats() {
@@ -31,13 +60,61 @@ public class AnalyticsService {
         long totalRides = rideRequestRepository.count();
         return Map.of("totalUsers", totalUsers, "totalRides", totalRides);
     }
-    public List<AdminEmployeeViewDTO> getAllEmployeesWithRideCounts() {
-        List<Employee> employees = employeeRepository.findAll();
-        return employees.stream().map(employee -> {
-            long ridesAsRequester = rideRequestRepository.countByRequester(employee);
-            long ridesAsDriver = rideRequestRepository.countByDriver(employee);
-            long ridesAsParticipant = rideParticipantRepository.countByParticipant(employee);
-            return AdminEmployeeViewDTO.from(employee, ridesAsRequester + ridesAsDriver + ridesAsParticipant);
-        }).collect(Collectors.toList());
+
+    /**
+     * One page of employees with their ride counts (as requester, driver and participant), in a
+     * single query. {@code search} matches name or email, case-insensitive; blank means everyone.
+     */
+    public AdminEmployeePageDTO getEmployeesWithRideCounts(int page, int size, String sort, boolean descending, String search) {
+        String sortColumn = SORT_COLUMNS.getOrDefault(sort, "e.name");
+        String direction = descending ? "DESC" : "ASC";
+
+        StringBuilder sql = new StringBuilder(EMPLOYEES_SQL);
+        List<Object> args = new ArrayList<>();
+        if (search != null && !search.isBlank()) {
+            String pattern = "%" + escapeLike(search.trim()) + "%";
+            sql.append(SEARCH_CONDITION);
+            args.add(pattern);
+            args.add(pattern);
+        }
+        sql.append("ORDER BY ").append(sortColumn).append(' ').append(direction)
+                .append(", e.id ").append(direction)
+                .append(" LIMIT ? OFFSET ?");
+        args.add(size);
+        args.add((long) page * size);
+
+        long[] total = {0};
+        List<AdminEmployeeViewDTO> employees = jdbcTemplate.query(sql.toString(), (rs, rowNum) -> {
+            total[0] = rs.getLong("total");
+            AdminEmployeeViewDTO dto = new AdminEmployeeViewDTO();
+            dto.setId(rs.getLong("id"));
+            dto.setName(rs.getString("name"));
+            dto.setEmail(rs.getString("email"));
+            dto.setRole(rs.getString("role"));
+            dto.setTravelCredit(rs.getDouble("travel_credit"));
+            dto.setRidesTraveled(rs.getLong("rides_traveled"));
+            return dto;
+        }, args.toArray());
+
+        if (employees.isEmpty() && page > 0) {
+            // Past the last page the window count has no row to ride on
+            total[0] = countEmployees(search);
+        }
+        int totalPages = (int) ((total[0] + size - 1) / size);
+        return new AdminEmployeePageDTO(employees, page, size, total[0], totalPages);
+    }
+
+    private long countEmployees(String search) {
+        if (search == null || search.isBlank()) {
+            return employeeRepository.count();
+        }
+        String pattern = "%" + escapeLike(search.trim()) + "%";
+        Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM employees e " + SEARCH_CONDITION,
+                Long.class, pattern, pattern);
+        return count == null ? 0 : count;
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
     }
-}
\ No newline at end of file
+}
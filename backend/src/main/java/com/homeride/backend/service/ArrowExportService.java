@@ -0,0 +1,320 @@
+package com.homeride.backend.service;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.TimeStampMicroVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.ipc.ArrowStreamWriter;
+import org.apache.arrow.vector.types.FloatingPointPrecision;
+import org.apache.arrow.vector.types.TimeUnit;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Streams ride data as Apache Arrow IPC (stream format) for offline analysis.
+ * <p>
+ * Rows are read through a server-side cursor ({@code export.fetch-size} rows per round-trip) and
+ * written as one record batch per fetch, so memory use depends on the fetch size only, not on the
+ * size of the export. Only the requested columns are selected, and the date range is part of the
+ * WHERE clause.
+ */
+@Service
+public class ArrowExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ArrowExportService.class);
+
+    public static final String CONTENT_TYPE = "application/vnd.apache.arrow.stream";
+
+    private static final Map<String, Dataset> DATASETS = Map.of(
+            "rides", new Dataset("ride_requests r", "r.travel_date_time",
+                    new Column("id", "r.id", Kind.BIGINT),
+                    new Column("requester_id", "r.requester_id", Kind.BIGINT),
+                    new Column("driver_id", "r.driver_id", Kind.BIGINT),
+                    new Column("ride_type", "r.ride_type", Kind.VARCHAR),
+                    new Column("status", "r.status", Kind.VARCHAR),
+                    new Column("origin_city", "r.origin_city", Kind.VARCHAR),
+                    new Column("origin", "r.origin", Kind.VARCHAR),
+                    new Column("destination_city", "r.destination_city", Kind.VARCHAR),
+                    new Column("destination", "r.destination", Kind.VARCHAR),
+                    new Column("travel_date_time", "r.travel_date_time", Kind.TIMESTAMP),
+                    new Column("vehicle_model", "r.vehicle_model", Kind.VARCHAR),
+                    new Column("vehicle_capacity", "r.vehicle_capacity", Kind.INT),
+                    new Column("gender_preference", "r.gender_preference", Kind.VARCHAR),
+                    new Column("price", "r.price", Kind.DOUBLE),
+                    new Column("price_per_km", "r.price_per_km", Kind.DOUBLE),
+                    new Column("distance_km", "r.distance", Kind.DOUBLE),
+                    new Column("duration_minutes", "r.duration", Kind.INT)),
+            "bookings", new Dataset("ride_participants p JOIN ride_requests r ON r.id = p.ride_request_id", "r.travel_date_time",
+                    new Column("id", "p.id", Kind.BIGINT),
+                    new Column("ride_id", "p.ride_request_id", Kind.BIGINT),
+                    new Column("participant_id", "p.participant_id", Kind.BIGINT),
+                    new Column("pickup_point", "p.pickup_point", Kind.VARCHAR),
+                    new Column("dropoff_point", "p.dropoff_point", Kind.VARCHAR),
+                    new Column("number_of_seats", "p.number_of_seats", Kind.INT),
+                    new Column("price", "p.price", Kind.DOUBLE),
+                    new Column("joined_at", "p.joined_at", Kind.TIMESTAMP),
+                    new Column("travel_date_time", "r.travel_date_time", Kind.TIMESTAMP)),
+            "stopovers", new Dataset("ride_stopovers s JOIN ride_requests r ON r.id = s.ride_request_id", "r.travel_date_time",
+                    new Column("id", "s.id", Kind.BIGINT),
+                    new Column("ride_id", "s.ride_request_id", Kind.BIGINT),
+                    new Column("city", "s.city", Kind.VARCHAR),
+                    new Column("point", "s.point", Kind.VARCHAR),
+                    new Column("lat", "s.lat", Kind.DOUBLE),
+                    new Column("lng", "s.lng", Kind.DOUBLE),
+                    new Column("travel_date_time", "r.travel_date_time", Kind.TIMESTAMP)),
+            "ratings", new Dataset("ratings g", "g.created_at",
+                    new Column("id", "g.id", Kind.BIGINT),
+                    new Column("ride_id", "g.ride_request_id", Kind.BIGINT),
+                    new Column("rater_id", "g.rater_id", Kind.BIGINT),
+                    new Column("ratee_id", "g.ratee_id", Kind.BIGINT),
+                    new Column("score", "g.score", Kind.INT),
+                    new Column("comment", "g.comment", Kind.VARCHAR),
+                    new Column("created_at", "g.created_at", Kind.TIMESTAMP)));
+
+    private final DataSource dataSource;
+
+    @Value("${export.fetch-size:10000}")
+    private int fetchSize;
+
+    @Value("${export.memory-limit-bytes:268435456}")
+    private long memoryLimitBytes;
+
+    @Autowired
+    public ArrowExportService(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    public static Set<String> datasets() {
+        return DATASETS.keySet();
+    }
+
+    /**
+     * Checks the request before anything is written: unknown datasets or columns and inverted
+     * ranges throw IllegalArgumentException. Returns the columns to export, in dataset order
+     * when {@code columns} is empty.
+     */
+    public List<String> resolveColumns(String dataset, List<String> columns, LocalDate from, LocalDate to) {
+        Dataset definition = DATASETS.get(dataset);
+        if (definition == null) {
+            throw new IllegalArgumentException("Unknown dataset '" + dataset + "'. Available: " + DATASETS.keySet());
+        }
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("'to' must not be before 'from'.");
+        }
+        if (columns == null || columns.isEmpty()) {
+            return new ArrayList<>(definition.columns.keySet());
+        }
+        for (String column : columns) {
+            if (!definition.columns.containsKey(column)) {
+                throw new IllegalArgumentException("Unknown column '" + column + "' for " + dataset + ". Available: "
+                        + definition.columns.keySet());
+            }
+        }
+        return columns;
+    }
+
+    /**
+     * Writes the rows of {@code dataset} whose date lies between from and to (inclusive) as an
+     * Arrow stream. {@code columns} must come from resolveColumns.
+     */
+    public long export(String dataset, List<String> columns, LocalDate from, LocalDate to, OutputStream out)
+            throws IOException, SQLException {
+        Dataset definition = DATASETS.get(dataset);
+        List<Column> selected = columns.stream().map(definition.columns::get).toList();
+
+        StringBuilder sql = new StringBuilder("SELECT ");
+        for (int i = 0; i < selected.size(); i++) {
+            sql.append(i == 0 ? "" : ", ").append(selected.get(i).expression);
+        }
+        sql.append(" FROM ").append(definition.from)
+                .append(" WHERE ").append(definition.dateExpression).append(" >= ? AND ")
+                .append(definition.dateExpression).append(" < ?");
+
+        long startedAt = System.currentTimeMillis();
+        long rows = 0;
+        try (Connection connection = dataSource.getConnection()) {
+            // pgjdbc only uses a cursor (honours the fetch size) inside a transaction
+            connection.setAutoCommit(false);
+            connection.setReadOnly(true);
+            try (PreparedStatement statement = connection.prepareStatement(sql.toString(),
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                statement.setFetchSize(fetchSize);
+                statement.setTimestamp(1, Timestamp.valueOf(from.atStartOfDay()));
+                statement.setTimestamp(2, Timestamp.valueOf(to.plusDays(1).atStartOfDay()));
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    rows = write(resultSet, selected, out);
+                }
+            } finally {
+                connection.rollback();
+                connection.setReadOnly(false);
+                connection.setAutoCommit(true);
+            }
+        }
+        logger.info("Exported {} rows of {} ({} to {}) in {} ms", rows, dataset, from, to, System.currentTimeMillis() - startedAt);
+        return rows;
+    }
+
+    long write(ResultSet resultSet, List<Column> columns, OutputStream out) throws IOException, SQLException {
+        List<Field> fields = columns.stream().map(column -> Field.nullable(column.name, column.kind.arrowType())).toList();
+        long rows = 0;
+        try (BufferAllocator allocator = new RootAllocator(memoryLimitBytes);
+             VectorSchemaRoot root = VectorSchemaRoot.create(new Schema(fields), allocator);
+             ArrowStreamWriter writer = new ArrowStreamWriter(root, null, Channels.newChannel(out))) {
+            writer.start();
+            boolean more = resultSet.next();
+            while (more) {
+                // Fresh buffers per batch; the previous batch's are released here
+                root.allocateNew();
+                int batchRows = 0;
+                while (more && batchRows < fetchSize) {
+                    for (int i = 0; i < columns.size(); i++) {
+                        columns.get(i).kind.set(root.getVector(i), batchRows, resultSet, i + 1);
+                    }
+                    batchRows++;
+                    more = resultSet.next();
+                }
+                root.setRowCount(batchRows);
+                writer.writeBatch();
+                rows += batchRows;
+            }
+            writer.end();
+        }
+        return rows;
+    }
+
+    enum Kind {
+        BIGINT {
+            ArrowType arrowType() {
+                return new ArrowType.Int(64, true);
+            }
+
+            void set(FieldVector vector, int row, ResultSet rs, int column) throws SQLException {
+                long value = rs.getLong(column);
+                if (rs.wasNull()) {
+                    ((BigIntVector) vector).setNull(row);
+                } else {
+                    ((BigIntVector) vector).setSafe(row, value);
+                }
+            }
+        },
+        INT {
+            ArrowType arrowType() {
+                return new ArrowType.Int(32, true);
+            }
+
+            void set(FieldVector vector, int row, ResultSet rs, int column) throws SQLException {
+                int value = rs.getInt(column);
+                if (rs.wasNull()) {
+                    ((IntVector) vector).setNull(row);
+                } else {
+                    ((IntVector) vector).setSafe(row, value);
+                }
+            }
+        },
+        DOUBLE {
+            ArrowType arrowType() {
+                return new ArrowType.FloatingPoint(FloatingPointPrecision.DOUBLE);
+            }
+
+            void set(FieldVector vector, int row, ResultSet rs, int column) throws SQLException {
+                double value = rs.getDouble(column);
+                if (rs.wasNull()) {
+                    ((Float8Vector) vector).setNull(row);
+                } else {
+                    ((Float8Vector) vector).setSafe(row, value);
+                }
+            }
+        },
+        VARCHAR {
+            ArrowType arrowType() {
+                return ArrowType.Utf8.INSTANCE;
+            }
+
+            void set(FieldVector vector, int row, ResultSet rs, int column) throws SQLException {
+                String value = rs.getString(column);
+                if (value == null) {
+                    ((VarCharVector) vector).setNull(row);
+                } else {
+                    ((VarCharVector) vector).setSafe(row, value.getBytes(StandardCharsets.UTF_8));
+                }
+            }
+        },
+        // Local date-time as stored (no time zone), microsecond precision like PostgreSQL
+        TIMESTAMP {
+            ArrowType arrowType() {
+                return new ArrowType.Timestamp(TimeUnit.MICROSECOND, null);
+            }
+
+            void set(FieldVector vector, int row, ResultSet rs, int column) throws SQLException {
+                Timestamp value = rs.getTimestamp(column);
+                if (value == null) {
+                    ((TimeStampMicroVector) vector).setNull(row);
+                } else {
+                    LocalDateTime dateTime = value.toLocalDateTime();
+                    ((TimeStampMicroVector) vector).setSafe(row,
+                            dateTime.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + dateTime.getNano() / 1_000);
+                }
+            }
+        };
+
+        abstract ArrowType arrowType();
+
+        abstract void set(FieldVector vector, int row, ResultSet rs, int column) throws SQLException;
+    }
+
+    static class Column {
+        private final String name;
+        private final String expression;
+        private final Kind kind;
+
+        Column(String name, String expression, Kind kind) {
+            this.name = name;
+            this.expression = expression;
+            this.kind = kind;
+        }
+    }
+
+    private static class Dataset {
+        private final String from;
+        private final String dateExpression;
+        private final Map<String, Column> columns = new LinkedHashMap<>();
+
+        Dataset(String from, String dateExpression, Column... columns) {
+            this.from = from;
+            this.dateExpression = dateExpression;
+            for (Column column : columns) {
+                this.columns.put(column.name, column);
+            }
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.homeride.backend.service;
+
+import com.homeride.backend.dto.ChatHistoryPageDTO;
+import com.homeride.backend.dto.ChatMessageSummaryDTO;
+import com.homeride.backend.dto.ChatSenderDTO;
+import com.homeride.backend.model.ChatMessage;
+import com.homeride.backend.repository.ChatMessageRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Cursor-paginated chat history: the latest {@code limit} messages of a ride before a cursor,
+ * merged with messages still waiting in this node's write-behind buffer. Pages are ordered by
+ * (timestamp, id), the order messages were sent in; ids alone are not, since each node numbers
+ * messages from its own block.
+ * <p>
+ * Known gap: a message can be stored after a page that covers its position was read (write-behind on
+ * another node, or a slow insert). Only the newest page is exposed to that in practice, since stores
+ * lag by seconds at most; clients re-read the newest page when they (re)subscribe to the ride's topic
+ * and merge it by id, and get everything after that live.
+ */
+@Service
+public class ChatHistoryService {
+
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 200;
+
+    private static final Comparator<ChatMessage> SENT_ORDER =
+            Comparator.comparing(ChatMessage::getTimestamp).thenComparing(ChatMessage::getId);
+
+    private final ChatMessageRepository chatMessageRepository;
+    private final ChatMessageWriter chatMessageWriter;
+
+    @Autowired
+    public ChatHistoryService(ChatMessageRepository chatMessageRepository, ChatMessageWriter chatMessageWriter) {
+        this.chatMessageRepository = chatMessageRepository;
+        this.chatMessageWriter = chatMessageWriter;
+    }
+
+    /**
+     * Changes whenever a message is added to the ride, without reading any message rows
+     * (index-only on (ride_id, id)).
+     */
+    public String historyETag(Long rideId, Cursor before, int limit) {
+        ChatMessageRepository.HistoryVersion version = chatMessageRepository.findHistoryVersion(rideId);
+        List<ChatMessage> pending = chatMessageWriter.pendingForRide(rideId);
+        long pendingMaxId = pending.stream().mapToLong(ChatMessage::getId).max().orElse(0L);
+        return "W/\"" + rideId + "-" + version.getCount() + "-" + version.getMaxId() + "-" + pending.size() + "-"
+                + pendingMaxId + "-" + before + "-" + limit + "\"";
+    }
+
+    public ChatHistoryPageDTO getPage(Long rideId, Cursor before, int limit) {
+        // One extra row tells whether an older page exists
+        Limit fetch = Limit.of(limit + 1);
+        List<ChatMessage> newestFirst = new ArrayList<>(before == null
+                ? chatMessageRepository.findByRideIdOrderByTimestampDescIdDesc(rideId, fetch)
+                : chatMessageRepository.findPageBefore(rideId, before.timestamp, before.id, fetch));
+
+        List<ChatMessage> pending = chatMessageWriter.pendingForRide(rideId);
+        if (!pending.isEmpty()) {
+            Set<Long> storedIds = newestFirst.stream().map(ChatMessage::getId).collect(Collectors.toSet());
+            pending.stream()
+                    .filter(message -> before == null || before.isAfter(message))
+                    .filter(message -> !storedIds.contains(message.getId()))
+                    .forEach(newestFirst::add);
+            newestFirst.sort(SENT_ORDER.reversed());
+        }
+
+        boolean hasMore = newestFirst.size() > limit;
+        List<ChatMessage> page = new ArrayList<>(newestFirst.subList(0, Math.min(limit, newestFirst.size())));
+        page.sort(SENT_ORDER);
+
+        // Display data once per sender; later messages carry the most recent name/picture
+        Map<String, ChatSenderDTO> senders = new LinkedHashMap<>();
+        page.forEach(message -> senders.put(message.getSenderEmail(),
+                new ChatSenderDTO(message.getSenderName(), message.getSenderProfilePictureUrl())));
+
+        List<ChatMessageSummaryDTO> messages = page.stream()
+                .map(ChatMessageSummaryDTO::from)
+                .collect(Collectors.toList());
+        String nextCursor = hasMore && !page.isEmpty() ? Cursor.of(page.get(0)).toString() : null;
+        return new ChatHistoryPageDTO(messages, senders, hasMore, nextCursor);
+    }
+
+    /**
+     * Position of a message in a ride's history, sent to clients as "timestamp_id"
+     * (e.g. 2025-06-02T07:30:15.123456_4711).
+     */
+    public static class Cursor {
+        private final LocalDateTime timestamp;
+        private final long id;
+
+        Cursor(LocalDateTime timestamp, long id) {
+            this.timestamp = timestamp;
+            this.id = id;
+        }
+
+        static Cursor of(ChatMessage message) {
+            return new Cursor(message.getTimestamp(), message.getId());
+        }
+
+        public static Cursor parse(String value) {
+            int separator = value.lastIndexOf('_');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Malformed history cursor: " + value);
+            }
+            try {
+                return new Cursor(LocalDateTime.parse(value.substring(0, separator)),
+                        Long.parseLong(value.substring(separator + 1)));
+            } catch (DateTimeParseException | NumberFormatException e) {
+                throw new IllegalArgumentException("Malformed history cursor: " + value, e);
+            }
+        }
+
+        // True if the message comes before this position
+        boolean isAfter(ChatMessage message) {
+            int byTime = message.getTimestamp().compareTo(timestamp);
+            return byTime < 0 || (byTime == 0 && message.getId() < id);
+        }
+
+        @Override
+        public String toString() {
+            return timestamp + "_" + id;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.homeride.backend.service;
+
+import com.homeride.backend.model.ChatMessage;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Hands out chat message ids without a database round trip per message. Each nextval on
+ * chat_messages_seq reserves a block of ID_ALLOCATION_SIZE ids ending at the returned value,
+ * which is the same "pooled" scheme Hibernate uses for the entity, so both can share the sequence.
+ */
+@Component
+public class ChatMessageIdAllocator {
+
+    private final JdbcTemplate jdbcTemplate;
+    // A lock rather than synchronized: the refill does blocking JDBC I/O
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private long next;
+    private long max = -1;
+
+    @Autowired
+    public ChatMessageIdAllocator(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public long nextId() {
+        lock.lock();
+        try {
+            if (next > max) {
+                long hi = fetchSequenceValue();
+                if (hi < ChatMessage.ID_ALLOCATION_SIZE) {
+                    // Fresh sequence (starts at 1): its first block would contain ids below 1
+                    hi = fetchSequenceValue();
+                }
+                next = hi - ChatMessage.ID_ALLOCATION_SIZE + 1;
+                max = hi;
+            }
+            return next++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private long fetchSequenceValue() {
+        return jdbcTemplate.queryForObject("SELECT nextval('" + ChatMessage.ID_SEQUENCE + "')", Long.class);
+    }
+}
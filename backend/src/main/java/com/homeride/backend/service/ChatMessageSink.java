@@ -0,0 +1,13 @@
+package com.homeride.backend.service;
+
+import com.homeride.backend.model.ChatMessage;
+
+import java.util.List;
+
+/**
+ * Where ChatMessageWriter stores messages. Messages arrive with their ids already assigned.
+ */
+public interface ChatMessageSink {
+
+    void insert(List<ChatMessage> messages);
+}
@@ -0,0 +1,200 @@
+package com.homeride.backend.service;
+
+import com.homeride.backend.model.ChatMessage;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.stream.Collectors;
+
+/**
+ * Persists chat messages. The durability mode is chosen per deployment (chat.persistence.mode):
+ * <ul>
+ *     <li>SYNC: the message is inserted before it is broadcast.</li>
+ *     <li>WRITE_BEHIND: the message goes into a bounded buffer and is broadcast right away; one
+ *     writer thread inserts buffered messages in JDBC batches, waiting up to the flush interval when
+ *     idle. A crash can lose what is still buffered. A full buffer makes the sender insert its own message.</li>
+ * </ul>
+ * A batch that fails is retried with backoff. If it still fails, its messages are inserted one at a
+ * time, and a message that cannot be stored on its own is written to the dead-letter log
+ * (logger {@value #DEAD_LETTER_LOGGER}) with its full content, since it has already been broadcast.
+ */
+@Service
+public class ChatMessageWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChatMessageWriter.class);
+
+    public static final String DEAD_LETTER_LOGGER = "com.homeride.backend.chat.deadletter";
+    private static final Logger deadLetters = LoggerFactory.getLogger(DEAD_LETTER_LOGGER);
+
+    public enum Mode { SYNC, WRITE_BEHIND }
+
+    private final ChatMessageSink sink;
+    private final Mode mode;
+    private final int batchSize;
+    private final long flushIntervalMs;
+    private final int writeAttempts;
+    private final long retryBackoffMs;
+    private final BlockingQueue<ChatMessage> buffer;
+
+    private volatile boolean running;
+    private Thread worker;
+
+    @Autowired
+    public ChatMessageWriter(ChatMessageSink sink,
+                             @Value("${chat.persistence.mode:SYNC}") Mode mode,
+                             @Value("${chat.persistence.buffer-capacity:8192}") int bufferCapacity,
+                             @Value("${chat.persistence.batch-size:500}") int batchSize,
+                             @Value("${chat.persistence.flush-interval-ms:50}") long flushIntervalMs,
+                             @Value("${chat.persistence.write-attempts:3}") int writeAttempts,
+                             @Value("${chat.persistence.retry-backoff-ms:200}") long retryBackoffMs) {
+        this.sink = sink;
+        this.mode = mode;
+        this.batchSize = batchSize;
+        this.flushIntervalMs = flushIntervalMs;
+        this.writeAttempts = writeAttempts;
+        this.retryBackoffMs = retryBackoffMs;
+        this.buffer = new ArrayBlockingQueue<>(bufferCapacity);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (mode != Mode.WRITE_BEHIND) {
+            return;
+        }
+        running = true;
+        worker = new Thread(this::drainLoop, "chat-message-writer");
+        worker.setDaemon(true);
+        worker.start();
+        logger.info("Chat persistence in WRITE_BEHIND mode (batch size {}, flush interval {} ms)", batchSize, flushIntervalMs);
+    }
+
+    /**
+     * Stores a message that already has its id. Returns once the message is stored (SYNC) or buffered.
+     */
+    public void persist(ChatMessage message) {
+        if (mode == Mode.SYNC || !running || !buffer.offer(message)) {
+            sink.insert(List.of(message));
+        }
+    }
+
+    /**
+     * Messages for a ride that are accepted but not stored yet, so history stays read-your-writes.
+     */
+    public List<ChatMessage> pendingForRide(Long rideId) {
+        if (mode == Mode.SYNC) {
+            return Collections.emptyList();
+        }
+        return buffer.stream()
+                .filter(message -> Objects.equals(message.getRideId(), rideId))
+                .collect(Collectors.toList());
+    }
+
+    public int getBufferDepth() {
+        return buffer.size();
+    }
+
+    /**
+     * Messages stay in the buffer while their batch is written and are removed only afterwards,
+     * so a history read never misses a message that is neither buffered nor stored yet.
+     * This thread is the only consumer, so the head of the buffer is exactly the batch it copied.
+     */
+    private void drainLoop() {
+        while (running) {
+            List<ChatMessage> batch = new ArrayList<>(batchSize);
+            Iterator<ChatMessage> head = buffer.iterator();
+            while (head.hasNext() && batch.size() < batchSize) {
+                batch.add(head.next());
+            }
+            if (batch.isEmpty()) {
+                try {
+                    Thread.sleep(flushIntervalMs);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+                continue;
+            }
+            write(batch);
+            for (int i = 0; i < batch.size(); i++) {
+                buffer.poll();
+            }
+        }
+    }
+
+    private void write(List<ChatMessage> batch) {
+        if (!insertWithRetry(batch)) {
+            writeOneByOne(batch);
+        }
+    }
+
+    private boolean insertWithRetry(List<ChatMessage> batch) {
+        long backoffMs = retryBackoffMs;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                sink.insert(batch);
+                return true;
+            } catch (Exception e) {
+                if (attempt >= writeAttempts) {
+                    logger.error("Failed to write {} chat messages after {} attempt(s); writing them one by one",
+                            batch.size(), attempt, e);
+                    return false;
+                }
+                logger.warn("Failed to write {} chat messages (attempt {}), retrying in {} ms: {}",
+                        batch.size(), attempt, backoffMs, e.getMessage());
+                try {
+                    Thread.sleep(backoffMs);
+                } catch (InterruptedException interrupted) {
+                    // No more waiting; the messages are still tried one by one
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+                backoffMs *= 2;
+            }
+        }
+    }
+
+    // So that one bad message (e.g. a constraint violation) does not take the rest of its batch with it
+    private void writeOneByOne(List<ChatMessage> batch) {
+        for (ChatMessage message : batch) {
+            try {
+                sink.insert(List.of(message));
+            } catch (Exception e) {
+                deadLetters.error("Chat message {} could not be stored: ride={} sender={} type={} timestamp={} content={} ({})",
+                        message.getId(), message.getRideId(), message.getSenderEmail(), message.getType(),
+                        message.getTimestamp(), message.getContent(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Lets the writer thread finish the batch it is writing (retries included) before flushing the
+     * rest here: the buffer has a single consumer at any time, so no batch is written twice.
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (worker != null) {
+            worker.join();
+        }
+        List<ChatMessage> remaining = new ArrayList<>();
+        buffer.drainTo(remaining);
+        for (int from = 0; from < remaining.size(); from += batchSize) {
+            write(remaining.subList(from, Math.min(from + batchSize, remaining.size())));
+        }
+        if (!remaining.isEmpty()) {
+            logger.info("Flushed {} buffered chat messages on shutdown", remaining.size());
+        }
+    }
+}
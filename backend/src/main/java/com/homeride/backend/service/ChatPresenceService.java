@@ -0,0 +1,180 @@
+package com.homeride.backend.service;
+
+import com.homeride.backend.dto.ChatPresenceDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * Who is in a ride chat right now and who is typing. Purely in memory and never persisted:
+ * entries expire when their session stops sending heartbeats.
+ * <p>
+ * Events only update the map and mark the ride dirty; a scheduled tick sends at most one snapshot
+ * per ride per interval on the ride's chat topic, so a burst of typing events costs one broadcast.
+ * Rides with members are re-broadcast at least every keepalive interval so that clients can drop
+ * snapshots from nodes that went away.
+ */
+@Service
+public class ChatPresenceService {
+
+    public enum PresenceEvent { JOIN, LEAVE, HEARTBEAT, TYPING, STOPPED_TYPING }
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final ClusterMessageBus clusterMessageBus;
+
+    private final Map<Long, RidePresence> rides = new ConcurrentHashMap<>();
+    // STOMP session -> rides it has joined, to clean up on disconnect
+    private final Map<String, Set<Long>> sessionRides = new ConcurrentHashMap<>();
+
+    @Value("${chat.presence.ttl-ms:30000}")
+    private long ttlMs;
+
+    @Value("${chat.presence.typing-ttl-ms:5000}")
+    private long typingTtlMs;
+
+    @Value("${chat.presence.keepalive-ms:15000}")
+    private long keepaliveMs;
+
+    @Autowired
+    public ChatPresenceService(SimpMessagingTemplate messagingTemplate, ClusterMessageBus clusterMessageBus) {
+        this.messagingTemplate = messagingTemplate;
+        this.clusterMessageBus = clusterMessageBus;
+    }
+
+    /**
+     * Records an event from a member's session. Membership must already have been checked.
+     */
+    public void onEvent(Long rideId, String email, String sessionId, PresenceEvent event) {
+        long now = System.currentTimeMillis();
+        if (event == PresenceEvent.LEAVE) {
+            leave(rideId, email, sessionId);
+            return;
+        }
+        sessionRides.computeIfAbsent(sessionId, id -> ConcurrentHashMap.newKeySet()).add(rideId);
+        // Updates run inside compute on the ride's entry so they cannot race with its removal
+        rides.compute(rideId, (id, ride) -> {
+            RidePresence presence = ride != null ? ride : new RidePresence();
+            presence.members.compute(email, (key, current) -> {
+                Set<String> sessions = new HashSet<>(current == null ? Set.of() : current.sessions);
+                sessions.add(sessionId);
+                long typingUntil = switch (event) {
+                    case TYPING -> now + typingTtlMs;
+                    case STOPPED_TYPING -> 0;
+                    default -> current == null ? 0 : current.typingUntil;
+                };
+                if (current == null || (typingUntil > 0) != (current.typingUntil > 0)) {
+                    presence.dirty.set(true);
+                }
+                return new Presence(Set.copyOf(sessions), now, typingUntil);
+            });
+            return presence;
+        });
+    }
+
+    @EventListener
+    public void onSessionDisconnect(SessionDisconnectEvent event) {
+        Set<Long> joined = sessionRides.remove(event.getSessionId());
+        if (joined == null || event.getUser() == null) {
+            return;
+        }
+        joined.forEach(rideId -> leave(rideId, event.getUser().getName(), event.getSessionId()));
+    }
+
+    /**
+     * Expires silent members and stale typing flags, then broadcasts rides that changed.
+     */
+    @Scheduled(fixedDelayString = "${chat.presence.broadcast-interval-ms:1000}")
+    public void broadcastChanges() {
+        long now = System.currentTimeMillis();
+        for (Map.Entry<Long, RidePresence> entry : rides.entrySet()) {
+            RidePresence ride = entry.getValue();
+            for (String email : ride.members.keySet()) {
+                ride.members.computeIfPresent(email, (key, presence) -> {
+                    if (presence.lastSeenAt < now - ttlMs) {
+                        ride.dirty.set(true);
+                        return null;
+                    }
+                    if (presence.typingUntil > 0 && presence.typingUntil < now) {
+                        ride.dirty.set(true);
+                        return new Presence(presence.sessions, presence.lastSeenAt, 0);
+                    }
+                    return presence;
+                });
+            }
+            boolean keepalive = !ride.members.isEmpty() && now - ride.lastBroadcastAt >= keepaliveMs;
+            if (ride.dirty.getAndSet(false) || keepalive) {
+                ride.lastBroadcastAt = now;
+                broadcast(entry.getKey(), ride);
+            }
+            rides.computeIfPresent(entry.getKey(), (id, current) -> current.members.isEmpty() ? null : current);
+        }
+    }
+
+    public List<String> getOnline(Long rideId) {
+        RidePresence ride = rides.get(rideId);
+        return ride == null ? List.of() : List.copyOf(ride.members.keySet());
+    }
+
+    private void leave(Long rideId, String email, String sessionId) {
+        Set<Long> joined = sessionRides.get(sessionId);
+        if (joined != null) {
+            joined.remove(rideId);
+        }
+        rides.computeIfPresent(rideId, (id, ride) -> {
+            ride.members.computeIfPresent(email, (key, presence) -> {
+                if (!presence.sessions.contains(sessionId)) {
+                    return presence;
+                }
+                Set<String> sessions = new HashSet<>(presence.sessions);
+                sessions.remove(sessionId);
+                if (sessions.isEmpty()) {
+                    ride.dirty.set(true);
+                    return null;
+                }
+                return new Presence(Set.copyOf(sessions), presence.lastSeenAt, presence.typingUntil);
+            });
+            return ride; // kept until the next tick has broadcast the departure
+        });
+    }
+
+    private void broadcast(Long rideId, RidePresence ride) {
+        List<String> online = ride.members.keySet().stream().sorted().collect(Collectors.toList());
+        List<String> typing = ride.members.entrySet().stream()
+                .filter(member -> member.getValue().typingUntil > 0)
+                .map(Map.Entry::getKey)
+                .sorted()
+                .collect(Collectors.toList());
+        messagingTemplate.convertAndSend("/topic/ride." + rideId,
+                new ChatPresenceDTO(rideId, clusterMessageBus.getNodeId(), online, typing));
+    }
+
+    private static class RidePresence {
+        private final Map<String, Presence> members = new ConcurrentHashMap<>(); // keyed by email
+        private final AtomicBoolean dirty = new AtomicBoolean();
+        private volatile long lastBroadcastAt;
+    }
+
+    private static class Presence {
+        private final Set<String> sessions;
+        private final long lastSeenAt;
+        private final long typingUntil; // 0 when not typing
+
+        Presence(Set<String> sessions, long lastSeenAt, long typingUntil) {
+            this.sessions = sessions;
+            this.lastSeenAt = lastSeenAt;
+            this.typingUntil = typingUntil;
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package com.homeride.backend.service;
+
+import com.homeride.backend.event.ChatRoomChangedEvent;
+import com.homeride.backend.event.EmployeeProfileChangedEvent;
+import com.homeride.backend.repository.EmployeeRepository;
+import com.homeride.backend.repository.RideParticipantRepository;
+import com.homeride.backend.repository.RideRequestRepository;
+import com.homeride.backend.repository.projection.ChatMemberView;
+import com.homeride.backend.repository.projection.ChatRoomRideView;
+import jakarta.annotation.PostConstruct;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caches, per ride, who is in its chat: the driver and passengers with the display data stamped
+ * on their messages and the ids used for notifications. A room is loaded with three projection
+ * queries the first time it is used and dropped after a change to the ride, its passengers or a
+ * member's profile commits, on every node (PostgreSQL NOTIFY), or after it has been idle for a while.
+ */
+@Service
+public class ChatRoomService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChatRoomService.class);
+
+    private static final String CHANNEL = "chat_room_invalidations";
+    private static final String RIDE_PREFIX = "ride:";
+    private static final String MEMBER_PREFIX = "member:";
+
+    private final RideRequestRepository rideRequestRepository;
+    private final RideParticipantRepository rideParticipantRepository;
+    private final EmployeeRepository employeeRepository;
+    private final ClusterMessageBus clusterMessageBus;
+
+    private final Map<Long, ChatRoom> rooms = new ConcurrentHashMap<>();
+    // Bumped on every eviction, so a room loaded while one happened is not cached
+    private final AtomicLong invalidations = new AtomicLong();
+
+    @Value("${chat.room-cache.idle-ttl-ms:3600000}")
+    private long idleTtlMs;
+
+    @Autowired
+    public ChatRoomService(RideRequestRepository rideRequestRepository,
+                           RideParticipantRepository rideParticipantRepository,
+                           EmployeeRepository employeeRepository,
+                           ClusterMessageBus clusterMessageBus) {
+        this.rideRequestRepository = rideRequestRepository;
+        this.rideParticipantRepository = rideParticipantRepository;
+        this.employeeRepository = employeeRepository;
+        this.clusterMessageBus = clusterMessageBus;
+    }
+
+    @PostConstruct
+    public void init() {
+        clusterMessageBus.subscribe(CHANNEL, this::onInvalidation);
+        clusterMessageBus.onReconnect(() -> {
+            invalidations.incrementAndGet();
+            rooms.clear();
+        });
+    }
+
+    /**
+     * Loads outside the map so the queries do not hold a ConcurrentHashMap bin lock (which would
+     * also pin a virtual thread); two callers may load the same room, the first one is kept.
+     *
+     * @return the ride's chat room, or empty if the ride does not exist
+     */
+    public Optional<ChatRoom> getRoom(Long rideId) {
+        ChatRoom room = rooms.get(rideId);
+        if (room == null) {
+            long seen = invalidations.get();
+            ChatRoom loaded = load(rideId);
+            if (loaded == null) {
+                return Optional.empty();
+            }
+            ChatRoom existing = rooms.putIfAbsent(rideId, loaded);
+            room = existing != null ? existing : loaded;
+            if (existing == null && invalidations.get() != seen) {
+                // a change committed while loading; serve what was read but don't cache it
+                rooms.remove(rideId, loaded);
+            }
+        }
+        room.lastUsed = System.currentTimeMillis();
+        return Optional.of(room);
+    }
+
+    /**
+     * Display data for a message sender. Members come from the room; anyone else (e.g. an admin
+     * looking at the ride) costs one lookup.
+     */
+    public Optional<ChatMember> findSender(Long rideId, String email) {
+        Optional<ChatMember> member = getRoom(rideId).map(room -> room.getMembers().get(email));
+        if (member.isPresent()) {
+            return member;
+        }
+        return employeeRepository.findChatMemberByEmail(email).map(ChatRoomService::toMember);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onChatRoomChanged(ChatRoomChangedEvent event) {
+        invalidations.incrementAndGet();
+        rooms.remove(event.getRideId());
+        clusterMessageBus.publish(CHANNEL, RIDE_PREFIX + event.getRideId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEmployeeProfileChanged(EmployeeProfileChangedEvent event) {
+        evictMember(event.getEmail());
+        clusterMessageBus.publish(CHANNEL, MEMBER_PREFIX + event.getEmail());
+    }
+
+    @Scheduled(fixedDelayString = "${chat.room-cache.purge-interval-ms:300000}")
+    public void purgeIdleRooms() {
+        long cutoff = System.currentTimeMillis() - idleTtlMs;
+        rooms.values().removeIf(room -> room.lastUsed < cutoff);
+    }
+
+    private void onInvalidation(String payload) {
+        if (payload.startsWith(RIDE_PREFIX)) {
+            try {
+                invalidations.incrementAndGet();
+                rooms.remove(Long.parseLong(payload.substring(RIDE_PREFIX.length())));
+            } catch (NumberFormatException e) {
+                logger.warn("Ignoring malformed chat room invalidation: {}", payload);
+            }
+        } else if (payload.startsWith(MEMBER_PREFIX)) {
+            evictMember(payload.substring(MEMBER_PREFIX.length()));
+        }
+    }
+
+    private void evictMember(String email) {
+        invalidations.incrementAndGet();
+        rooms.values().removeIf(room -> room.getMembers().containsKey(email));
+    }
+
+    private ChatRoom load(Long rideId) {
+        Optional<ChatRoomRideView> ride = rideRequestRepository.findChatRoomRide(rideId);
+        if (ride.isEmpty()) {
+            return null;
+        }
+        Map<String, ChatMember> members = new LinkedHashMap<>();
+        rideRequestRepository.findChatRoomDriver(rideId)
+                .ifPresent(driver -> members.put(driver.getEmail(), toMember(driver)));
+        rideParticipantRepository.findChatRoomPassengers(rideId)
+                .forEach(passenger -> members.put(passenger.getEmail(), toMember(passenger)));
+        return new ChatRoom(rideId, ride.get().getOriginCity(), ride.get().getDestinationCity(), Map.copyOf(members));
+    }
+
+    private static ChatMember toMember(ChatMemberView view) {
+        return new ChatMember(view.getId(), view.getEmail(), view.getName(), view.getProfilePictureUrl());
+    }
+
+    @Getter
+    public static class ChatRoom {
+        private final Long rideId;
+        private final String originCity;
+        private final String destinationCity;
+        private final Map<String, ChatMember> members; // keyed by email
+        private volatile long lastUsed = System.currentTimeMillis();
+
+        ChatRoom(Long rideId, String originCity, String destinationCity, Map<String, ChatMember> members) {
+            this.rideId = rideId;
+            this.originCity = originCity;
+            this.destinationCity = destinationCity;
+            this.members = members;
+        }
+
+        /**
+         * Notification recipients for a message: every member except the sender, id -> email.
+         */
+        public Map<Long, String> recipientsExcept(String senderEmail) {
+            Map<Long, String> recipients = new LinkedHashMap<>();
+            members.values().stream()
+                    .filter(member -> !member.getEmail().equals(senderEmail))
+                    .forEach(member -> recipients.put(member.getId(), member.getEmail()));
+            return recipients;
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class ChatMember {
+        private final Long id;
+        private final String email;
+        private final String name;
+        private final String profilePictureUrl;
+    }
+}
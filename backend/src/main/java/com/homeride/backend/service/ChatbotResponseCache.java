@@ -0,0 +1,175 @@
+package com.homeride.backend.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Remembers chatbot replies so that the same question, asked with the same user context, is
+ * answered without another Gemini call. Keys combine the question type, the normalized message and
+ * a SHA-256 of the context sent with it, so a reply is reused only while the user's data is unchanged.
+ * <p>
+ * Identical requests that arrive while a call is in flight wait for that call instead of starting
+ * their own. Failures and blank replies are never cached.
+ */
+@Service
+public class ChatbotResponseCache {
+
+    private final Map<String, CachedReply> replies = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<String>> inFlight = new ConcurrentHashMap<>();
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter coalesced;
+
+    @Value("${chatbot.cache.max-entries:10000}")
+    private int maxEntries;
+
+    @Autowired
+    public ChatbotResponseCache(MeterRegistry meterRegistry) {
+        hits = Counter.builder("chatbot.cache.requests").tag("result", "hit")
+                .description("Chatbot replies served from the cache")
+                .register(meterRegistry);
+        misses = Counter.builder("chatbot.cache.requests").tag("result", "miss")
+                .description("Chatbot replies that needed a Gemini call")
+                .register(meterRegistry);
+        coalesced = Counter.builder("chatbot.cache.requests").tag("result", "coalesced")
+                .description("Chatbot requests that waited for an identical call already in flight")
+                .register(meterRegistry);
+        Gauge.builder("chatbot.cache.hit.ratio", this, ChatbotResponseCache::hitRatio)
+                .description("Share of chatbot requests answered without their own Gemini call")
+                .register(meterRegistry);
+        Gauge.builder("chatbot.upstream.calls.saved", this, cache -> cache.hits.count() + cache.coalesced.count())
+                .description("Gemini calls avoided by the cache and request coalescing")
+                .register(meterRegistry);
+        Gauge.builder("chatbot.cache.size", replies, Map::size)
+                .register(meterRegistry);
+    }
+
+    public static String key(String questionType, String message, String context) {
+        String normalized = message.trim().toLowerCase(Locale.ROOT)
+                .replaceAll("\\s+", " ")
+                .replaceAll("[?!.\\s]+$", "");
+        return questionType + '\n' + normalized + '\n' + sha256(context);
+    }
+
+    /**
+     * Returns the cached reply for the key, or runs the loader (once, however many callers are
+     * waiting for the same key) and caches its result for the given time.
+     */
+    public String get(String key, Duration ttl, Supplier<String> loader) {
+        CachedReply cached = replies.get(key);
+        if (cached != null && cached.expiresAt > System.currentTimeMillis()) {
+            hits.increment();
+            return cached.reply;
+        }
+
+        CompletableFuture<String> call = new CompletableFuture<>();
+        CompletableFuture<String> existing = inFlight.putIfAbsent(key, call);
+        if (existing != null) {
+            coalesced.increment();
+            return join(existing);
+        }
+
+        misses.increment();
+        try {
+            String reply = loader.get();
+            put(key, reply, ttl);
+            call.complete(reply);
+            return reply;
+        } catch (RuntimeException e) {
+            call.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, call);
+        }
+    }
+
+    /**
+     * Cache lookup for callers that produce the reply themselves (streaming); counts a hit or a miss.
+     */
+    public String getIfPresent(String key) {
+        CachedReply cached = replies.get(key);
+        if (cached != null && cached.expiresAt > System.currentTimeMillis()) {
+            hits.increment();
+            return cached.reply;
+        }
+        misses.increment();
+        return null;
+    }
+
+    @Scheduled(fixedDelayString = "${chatbot.cache.purge-interval-ms:300000}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        replies.values().removeIf(reply -> reply.expiresAt <= now);
+    }
+
+    public void put(String key, String reply, Duration ttl) {
+        if (reply == null || reply.isBlank()) {
+            return;
+        }
+        if (replies.size() >= maxEntries) {
+            purgeExpired();
+            // Still full: drop arbitrary entries rather than grow without bound
+            Iterator<String> keys = replies.keySet().iterator();
+            while (replies.size() >= maxEntries && keys.hasNext()) {
+                keys.next();
+                keys.remove();
+            }
+        }
+        replies.put(key, new CachedReply(reply, System.currentTimeMillis() + ttl.toMillis()));
+    }
+
+    private double hitRatio() {
+        double saved = hits.count() + coalesced.count();
+        double total = saved + misses.count();
+        return total == 0 ? 0 : saved / total;
+    }
+
+    private static String join(CompletableFuture<String> call) {
+        try {
+            return call.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static String sha256(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static class CachedReply {
+        private final String reply;
+        private final long expiresAt;
+
+        CachedReply(String reply, long expiresAt) {
+            this.reply = reply;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -4,52 +4,84 @@ import com.google.gson.*;
 import com.homeride.backend.dto.ChatbotRequestDTO;
 import com.homeride.backend.dto.ChatbotResponseDTO;
 import com.homeride.backend.model.Employee;
-import com.homeride.backend.model.RideRequest;
-import com.homeride.backend.model.Stopover;
-import com.homeride.backend.model.Rating;
+import com.homeride.backend.repository.ChatbotContextRepository;
 import com.homeride.backend.repository.EmployeeRepository;
-import com.homeride.backend.repository.RideRequestRepository;
-import com.homeride.backend.repository.RatingRepository;
+import com.homeride.backend.repository.projection.RatingSummaryView;
+import com.homeride.backend.repository.projection.RideRoleCountView;
+import com.homeride.backend.repository.projection.UpcomingRideView;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import jakarta.annotation.PostConstruct;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.function.Consumer;
 
 @Service
 public class ChatbotService {
 
+    private static final Logger logger = LoggerFactory.getLogger(ChatbotService.class);
+
     @Value("${gemini.api.key}")
     private String apiKey;
 
     private HttpClient httpClient;
     private static final String GEMINI_API_URL = "https://generativelanguage.googleapis.com/v1beta/models/gemini-2.5-flash:generateContent";
+    private static final String GEMINI_STREAM_URL = "https://generativelanguage.googleapis.com/v1beta/models/gemini-2.5-flash:streamGenerateContent";
+    private static final String NO_REPLY = "Sorry, I couldn't generate a response right now.";
 
     @Autowired
     private EmployeeRepository employeeRepository;
 
     @Autowired
-    private RideRequestRepository rideRequestRepository;
+    private ChatbotContextRepository contextRepository;
+
+    @Autowired
+    private ChatbotResponseCache responseCache;
 
     @Autowired
-    private RatingRepository ratingRepository;
+    private ObservationRegistry observationRegistry;
+
+    @Value("${chatbot.cache.short-ttl-ms:120000}")
+    private long shortCacheTtlMs;
+
+    @Value("${chatbot.cache.long-ttl-ms:86400000}")
+    private long longCacheTtlMs;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    private static final int MAX_UPCOMING_RIDES = 5;
 
     @PostConstruct
     public void init() {
-        System.out.println("DEBUG: API Key value = " + (apiKey == null ? "NULL" : apiKey.substring(0, Math.min(10, apiKey.length())) + "..."));
         if (apiKey == null || apiKey.trim().isEmpty() || apiKey.equals("YOUR_API_KEY")) {
-            System.err.println("Gemini API Key is not configured properly in application.properties or environment variables.");
+            logger.error("Gemini API Key is not configured properly in application.properties or environment variables.");
             return;
         }
-        this.httpClient = HttpClient.newHttpClient();
-        System.out.println("Chatbot Service Initialized Successfully with ULTRA-SMART context.");
+        HttpClient.Builder builder = HttpClient.newBuilder();
+        if (virtualThreads) {
+            // Response handlers (including streamed chunks sent over STOMP) run on virtual threads
+            // instead of the client's cached pool of platform threads
+            builder.executor(Executors.newVirtualThreadPerTaskExecutor());
+        }
+        this.httpClient = builder.build();
+        logger.info("Chatbot service initialized");
     }
 
     public ChatbotResponseDTO generateResponse(ChatbotRequestDTO request) {
@@ -57,62 +89,276 @@ public class ChatbotService {
         String userEmail = request.getUserEmail();
         String reply;
 
-        System.out.println("DEBUG: Received message: " + userMessage);
-        System.out.println("DEBUG: User email: " + userEmail);
+        logger.debug("Chatbot message from {}: {}", userEmail, userMessage);
+
+        String immediateReply = immediateReply(userEmail, userMessage);
+        if (immediateReply != null) {
+            return new ChatbotResponseDTO(immediateReply);
+        }
+
+        try {
+            // Determine question type and build appropriate context
+            QuestionType questionType = analyzeQuestion(userMessage);
+            String userContext = buildContext(userEmail, questionType);
+
+            // Same question + same context = same answer; identical concurrent requests share one call
+            String cacheKey = ChatbotResponseCache.key(questionType.name(), userMessage, userContext);
+            reply = responseCache.get(cacheKey, cacheTtl(questionType),
+                    () -> callGemini(userMessage, userContext, questionType));
+
+        } catch (NoReplyException e) {
+            reply = NO_REPLY;
+        } catch (GeminiApiException e) {
+            reply = "Sorry, there was an issue connecting to the AI service. Please try again later.";
+        } catch (Exception e) {
+            logger.error("Error calling Gemini API", e);
+            reply = "Sorry, I encountered an issue while processing your request. Please try asking differently.";
+        }
+
+        return new ChatbotResponseDTO(reply);
+    }
+
+    /**
+     * Streaming variant of {@link #generateResponse}: calls streamGenerateContent (server-sent events)
+     * with an asynchronous body subscriber and hands each text chunk to {@code onDelta} as it arrives.
+     * No thread waits for the generation; chunks are delivered on the HttpClient's threads.
+     */
+    public ChatbotStream streamResponse(String userEmail, String message, Consumer<String> onDelta) {
+        String userMessage = message.trim();
+        String immediateReply = immediateReply(userEmail, userMessage);
+        if (immediateReply != null) {
+            onDelta.accept(immediateReply);
+            return ChatbotStream.completed(immediateReply);
+        }
+
+        QuestionType questionType = analyzeQuestion(userMessage);
+        String userContext = buildContext(userEmail, questionType);
 
+        String cacheKey = ChatbotResponseCache.key(questionType.name(), userMessage, userContext);
+        String cached = responseCache.getIfPresent(cacheKey);
+        if (cached != null) {
+            onDelta.accept(cached);
+            return ChatbotStream.completed(cached);
+        }
+
+        HttpRequest httpRequest = HttpRequest.newBuilder()
+                .uri(URI.create(GEMINI_STREAM_URL + "?alt=sse&key=" + apiKey))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(buildRequest(userMessage, userContext, questionType).toString()))
+                .build();
+
+        GeminiStreamSubscriber subscriber = new GeminiStreamSubscriber(onDelta);
+        Observation observation = startGeminiObservation("stream");
+        CompletableFuture<HttpResponse<Void>> call =
+                httpClient.sendAsync(httpRequest, HttpResponse.BodyHandlers.fromLineSubscriber(subscriber));
+        CompletableFuture<String> reply = call
+                .thenCompose(response -> {
+                    if (response.statusCode() != 200) {
+                        logger.error("Gemini streaming API error. Status: {}", response.statusCode());
+                        return CompletableFuture.failedFuture(new GeminiApiException(response.statusCode()));
+                    }
+                    return subscriber.getText();
+                })
+                .thenApply(text -> {
+                    if (text.isBlank()) {
+                        // Nothing generated: tell the user, but leave the question uncached
+                        onDelta.accept(NO_REPLY);
+                        return NO_REPLY;
+                    }
+                    responseCache.put(cacheKey, text, cacheTtl(questionType));
+                    return text;
+                })
+                .whenComplete((text, error) -> {
+                    // Until the last chunk: the whole generation, not just the time to first byte
+                    if (error == null) {
+                        stopGeminiObservation(observation, "success", null);
+                    } else if (subscriber.cancelled) {
+                        stopGeminiObservation(observation, "cancelled", null);
+                    } else {
+                        stopGeminiObservation(observation, "error", error);
+                    }
+                });
+        return new ChatbotStream(reply, () -> {
+            subscriber.cancel();
+            call.cancel(true);
+        });
+    }
+
+    /**
+     * Replies that do not need Gemini (service not configured, unknown user, support requests), or null.
+     */
+    private String immediateReply(String userEmail, String userMessage) {
         if (httpClient == null) {
-            System.err.println("Chatbot service not initialized. Check API Key and configuration.");
-            return new ChatbotResponseDTO("Sorry, the AI model is not available right now. Please try again later.");
+            logger.warn("Chatbot service not initialized. Check API Key and configuration.");
+            return "Sorry, the AI model is not available right now. Please try again later.";
         }
 
         if (userEmail == null || userEmail.trim().isEmpty()) {
-            System.err.println("ERROR: User email is null or empty");
-            return new ChatbotResponseDTO("Unable to identify user. Please log in again.");
+            logger.warn("Chatbot request without a user email");
+            return "Unable to identify user. Please log in again.";
         }
 
         // CHECK FOR SUPPORT REQUEST FIRST - redirect to contact page
         if (isSupportRequest(userMessage)) {
-            return new ChatbotResponseDTO(
-                    "I'd be happy to help you get in touch with our support team! 📧\n\n" +
-                            "Please visit our Contact Page where you can send us a message directly. " +
-                            "Our team will get back to you within 24 hours.\n\n" +
-                            "You can also email us at: contacthomeride@gmail.com\n\n" +
-                            "Is there anything specific about your rides or account that I can help you with in the meantime?"
-            );
+            return "I'd be happy to help you get in touch with our support team! 📧\n\n" +
+                    "Please visit our Contact Page where you can send us a message directly. " +
+                    "Our team will get back to you within 24 hours.\n\n" +
+                    "You can also email us at: contacthomeride@gmail.com\n\n" +
+                    "Is there anything specific about your rides or account that I can help you with in the meantime?";
         }
+        return null;
+    }
 
-        try {
-            Employee user = employeeRepository.findByEmail(userEmail).orElse(null);
+    private String callGemini(String userMessage, String userContext, QuestionType questionType) {
+        JsonObject requestBody = buildRequest(userMessage, userContext, questionType);
+
+        HttpRequest httpRequest = HttpRequest.newBuilder()
+                .uri(URI.create(GEMINI_API_URL + "?key=" + apiKey))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(requestBody.toString()))
+                .build();
+
+        HttpResponse<String> response;
+        Observation observation = startGeminiObservation("unary");
+        try (Observation.Scope scope = observation.openScope()) {
+            response = httpClient.send(httpRequest, HttpResponse.BodyHandlers.ofString());
+        } catch (IOException e) {
+            stopGeminiObservation(observation, "error", e);
+            throw new UncheckedIOException(e);
+        } catch (InterruptedException e) {
+            stopGeminiObservation(observation, "error", e);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while calling Gemini", e);
+        }
 
-            // Determine question type and build appropriate context
-            QuestionType questionType = analyzeQuestion(userMessage);
-            String userContext = buildContextBasedOnQuestionType(user, userEmail, questionType);
+        if (response.statusCode() != 200) {
+            GeminiApiException error = new GeminiApiException(response.statusCode());
+            stopGeminiObservation(observation, "error", error);
+            logger.error("Gemini API error. Status: {} Body: {}", response.statusCode(), response.body());
+            throw error;
+        }
+        stopGeminiObservation(observation, "success", null);
+        JsonObject responseBody = JsonParser.parseString(response.body()).getAsJsonObject();
+        return extractReply(responseBody);
+    }
+
+    /**
+     * The user lookup and the context queries, observed as chatbot.context so they show up as their
+     * own span next to the Gemini call.
+     */
+    private String buildContext(String userEmail, QuestionType questionType) {
+        return Observation.createNotStarted("chatbot.context", observationRegistry)
+                .contextualName("chatbot context")
+                .lowCardinalityKeyValue("question.type", questionType.name())
+                .observe(() -> {
+                    Employee user = employeeRepository.findByEmail(userEmail).orElse(null);
+                    return buildContextBasedOnQuestionType(user, userEmail, questionType);
+                });
+    }
+
+    private Observation startGeminiObservation(String mode) {
+        return Observation.createNotStarted("gemini.requests", observationRegistry)
+                .contextualName("gemini " + mode)
+                .lowCardinalityKeyValue("mode", mode)
+                .start();
+    }
+
+    private static void stopGeminiObservation(Observation observation, String outcome, Throwable error) {
+        if (error != null) {
+            observation.error(error);
+        }
+        observation.lowCardinalityKeyValue("outcome", outcome).stop();
+    }
+
+    // Answers about the user's own rides and account go stale quickly; general answers do not
+    private Duration cacheTtl(QuestionType questionType) {
+        switch (questionType) {
+            case GENERAL_KNOWLEDGE:
+            case FEATURE_RELATED:
+                return Duration.ofMillis(longCacheTtlMs);
+            default:
+                return Duration.ofMillis(shortCacheTtlMs);
+        }
+    }
 
-            JsonObject requestBody = buildRequest(userMessage, userContext, questionType);
+    /**
+     * Reads the SSE body line by line ("data: {GenerateContentResponse}") and forwards the text of
+     * each event. Cancelling stops the upstream body.
+     */
+    private static class GeminiStreamSubscriber implements Flow.Subscriber<String> {
+        private static final String DATA_PREFIX = "data:";
+
+        private final Consumer<String> onDelta;
+        private final StringBuilder text = new StringBuilder();
+        private final CompletableFuture<String> done = new CompletableFuture<>();
+        private volatile Flow.Subscription subscription;
+        private volatile boolean cancelled;
+
+        GeminiStreamSubscriber(Consumer<String> onDelta) {
+            this.onDelta = onDelta;
+        }
 
-            HttpRequest httpRequest = HttpRequest.newBuilder()
-                    .uri(URI.create(GEMINI_API_URL + "?key=" + apiKey))
-                    .header("Content-Type", "application/json")
-                    .POST(HttpRequest.BodyPublishers.ofString(requestBody.toString()))
-                    .build();
+        CompletableFuture<String> getText() {
+            return done;
+        }
 
-            HttpResponse<String> response = httpClient.send(httpRequest, HttpResponse.BodyHandlers.ofString());
+        void cancel() {
+            cancelled = true;
+            Flow.Subscription current = subscription;
+            if (current != null) {
+                current.cancel();
+            }
+        }
 
-            if (response.statusCode() == 200) {
-                JsonObject responseBody = JsonParser.parseString(response.body()).getAsJsonObject();
-                reply = extractReply(responseBody);
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            if (cancelled) {
+                subscription.cancel();
             } else {
-                System.err.println("Gemini API error. Status: " + response.statusCode() + " Body: " + response.body());
-                reply = "Sorry, there was an issue connecting to the AI service. Please try again later.";
+                subscription.request(Long.MAX_VALUE);
             }
+        }
 
-        } catch (Exception e) {
-            System.err.println("Error calling Gemini API: " + e.getMessage());
-            e.printStackTrace();
-            reply = "Sorry, I encountered an issue while processing your request. Please try asking differently.";
+        @Override
+        public void onNext(String line) {
+            if (cancelled || !line.startsWith(DATA_PREFIX)) {
+                return;
+            }
+            try {
+                JsonObject event = JsonParser.parseString(line.substring(DATA_PREFIX.length()).trim()).getAsJsonObject();
+                String delta = extractText(event);
+                if (!delta.isEmpty()) {
+                    text.append(delta);
+                    onDelta.accept(delta);
+                }
+            } catch (RuntimeException e) {
+                logger.warn("Skipping unreadable Gemini stream event: {}", e.getMessage());
+            }
         }
 
-        return new ChatbotResponseDTO(reply);
+        @Override
+        public void onError(Throwable throwable) {
+            done.completeExceptionally(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            done.complete(text.toString());
+        }
+    }
+
+    private static class GeminiApiException extends RuntimeException {
+        GeminiApiException(int statusCode) {
+            super("Gemini API returned status " + statusCode);
+        }
+    }
+
+    // A 200 with no candidate text (e.g. blocked by safety settings); thrown so the cache does not keep it
+    private static class NoReplyException extends RuntimeException {
+        NoReplyException() {
+            super("Gemini returned no candidate text");
+        }
     }
 
     // Enum for question types
@@ -124,7 +370,8 @@ public class ChatbotService {
         AMBIGUOUS               // Mixed or unclear
     }
 
-    private QuestionType analyzeQuestion(String userMessage) {
+    // Package-private for the benchmarks module (QuestionClassificationBenchmark)
+    QuestionType analyzeQuestion(String userMessage) {
         String message = userMessage.toLowerCase();
 
         // General knowledge keywords
@@ -196,47 +443,10 @@ public class ChatbotService {
         StringBuilder context = new StringBuilder();
 
         if (user != null) {
-            context.append("=== USER PROFILE ===\n");
-            context.append("Name: ").append(user.getName()).append("\n");
-            context.append("Email: ").append(user.getEmail()).append("\n");
-            context.append("Gender: ").append(user.getGender() != null ? user.getGender() : "Not specified").append("\n");
-            context.append("Phone: ").append(user.getPhoneNumber() != null ? user.getPhoneNumber() : "Not provided").append("\n");
-
-            // Average rating
-            List<Rating> receivedRatings = ratingRepository.findByRateeId(user.getId());
-            Double avgRating = null;
-            if (!receivedRatings.isEmpty()) {
-                avgRating = receivedRatings.stream().mapToInt(Rating::getScore).average().orElse(0.0);
-                context.append("Average Rating: ").append(String.format("%.1f/5.0", avgRating)).append(" (").append(receivedRatings.size()).append(" ratings)\n");
-            } else {
-                context.append("Average Rating: No ratings yet\n");
-            }
-
-            context.append("Travel Credit: ₹").append(String.format("%.2f", user.getTravelCredit())).append("\n");
-            context.append("Member Since: ").append(user.getCreatedAt()).append("\n\n");
+            appendProfile(context, user);
 
             // Ride stats
-            Long userId = user.getId();
-            List<RideRequest> allRides = rideRequestRepository.findAll().stream()
-                    .filter(r -> {
-                        boolean isRequester = r.getRequester() != null && r.getRequester().getId().equals(userId);
-                        boolean isParticipant = r.getParticipants() != null && r.getParticipants().stream()
-                                .anyMatch(p -> p.getParticipant().getId().equals(userId));
-                        return isRequester || isParticipant;
-                    })
-                    .collect(Collectors.toList());
-
-            List<RideRequest> pastRides = allRides.stream()
-                    .filter(r -> r.getTravelDateTime().isBefore(LocalDateTime.now()))
-                    .collect(Collectors.toList());
-
-            context.append("=== RIDE HISTORY ===\n");
-            context.append("Total Rides: ").append(allRides.size()).append("\n");
-            context.append("Completed Rides: ").append(pastRides.size()).append("\n");
-            long offeredCount = allRides.stream().filter(r -> r.getRequester().equals(user)).count();
-            long joinedCount = allRides.stream().filter(r -> !r.getRequester().equals(user)).count();
-            context.append("Rides Offered: ").append(offeredCount).append("\n");
-            context.append("Rides Joined: ").append(joinedCount).append("\n");
+            appendRideHistory(context, contextRepository.countRidesByRole(user.getId(), LocalDateTime.now()));
         }
 
         return context.toString();
@@ -246,98 +456,51 @@ public class ChatbotService {
         StringBuilder context = new StringBuilder();
 
         if (user != null) {
-            context.append("=== USER PROFILE ===\n");
-            context.append("Name: ").append(user.getName()).append("\n");
-            context.append("Email: ").append(user.getEmail()).append("\n");
-            context.append("Gender: ").append(user.getGender() != null ? user.getGender() : "Not specified").append("\n");
-            context.append("Phone: ").append(user.getPhoneNumber() != null ? user.getPhoneNumber() : "Not provided").append("\n");
-
-            // Calculate and include average rating
-            List<Rating> receivedRatings = ratingRepository.findByRateeId(user.getId());
-            Double avgRating = null;
-            if (!receivedRatings.isEmpty()) {
-                avgRating = receivedRatings.stream().mapToInt(Rating::getScore).average().orElse(0.0);
-                context.append("Average Rating: ").append(String.format("%.1f/5.0", avgRating)).append(" (").append(receivedRatings.size()).append(" ratings)\n");
-            } else {
-                context.append("Average Rating: No ratings yet\n");
-            }
-
-            context.append("Travel Credit: ₹").append(String.format("%.2f", user.getTravelCredit())).append("\n");
-            context.append("Member Since: ").append(user.getCreatedAt()).append("\n\n");
-
-            Long userId = user.getId();
-
-            // Get ALL rides, filter for UPCOMING only
-            List<RideRequest> allRides = rideRequestRepository.findAll().stream()
-                    .filter(r -> {
-                        boolean isRequester = r.getRequester() != null && r.getRequester().getId().equals(userId);
-                        boolean isParticipant = r.getParticipants() != null && r.getParticipants().stream()
-                                .anyMatch(p -> p.getParticipant().getId().equals(userId));
-                        return isRequester || isParticipant;
-                    })
-                    .filter(r -> r.getTravelDateTime().isAfter(LocalDateTime.now())) // ONLY FUTURE RIDES
-                    .sorted((a, b) -> a.getTravelDateTime().compareTo(b.getTravelDateTime()))
-                    .collect(Collectors.toList());
-
-            System.out.println("DEBUG: Upcoming rides only: " + allRides.size());
+            appendProfile(context, user);
 
-            // Separate upcoming and past rides
-            List<RideRequest> upcomingRides = allRides.stream()
-                    .filter(r -> r.getTravelDateTime().isAfter(LocalDateTime.now()))
-                    .collect(Collectors.toList());
-
-            List<RideRequest> pastRides = allRides.stream()
-                    .filter(r -> r.getTravelDateTime().isBefore(LocalDateTime.now()))
-                    .collect(Collectors.toList());
+            LocalDateTime now = LocalDateTime.now();
+            List<RideRoleCountView> counts = contextRepository.countRidesByRole(user.getId(), now);
+            long upcomingCount = counts.stream().mapToLong(RideRoleCountView::getUpcoming).sum();
+            List<UpcomingRideView> upcomingRides = contextRepository.findUpcomingRides(user.getId(), now, MAX_UPCOMING_RIDES);
 
             // UPCOMING RIDES
-            context.append("=== UPCOMING RIDES (").append(upcomingRides.size()).append(") ===\n");
+            context.append("=== UPCOMING RIDES (").append(upcomingCount).append(") ===\n");
             if (!upcomingRides.isEmpty()) {
-                for (int i = 0; i < Math.min(5, upcomingRides.size()); i++) {
-                    RideRequest ride = upcomingRides.get(i);
+                for (int i = 0; i < upcomingRides.size(); i++) {
+                    UpcomingRideView ride = upcomingRides.get(i);
                     context.append("\n[Ride ").append(i + 1).append("]\n");
                     context.append("  Route: ").append(ride.getOriginCity()).append(" → ").append(ride.getDestinationCity()).append("\n");
                     context.append("  Date/Time: ").append(formatDateTime(ride.getTravelDateTime())).append("\n");
-                    context.append("  Role: ").append(ride.getRequester().equals(user) ? "DRIVER" : "PASSENGER").append("\n");
+                    context.append("  Role: ").append(ride.getUserIsDriver() ? "DRIVER" : "PASSENGER").append("\n");
                     context.append("  Price: ₹").append(ride.getPrice() != null ? String.format("%.2f", ride.getPrice()) : "Not set").append("\n");
                     context.append("  Distance: ").append(ride.getDistance() != null ? String.format("%.1f km", ride.getDistance()) : "N/A").append("\n");
                     context.append("  Duration: ").append(ride.getDuration() != null ? ride.getDuration() + " mins" : "N/A").append("\n");
 
-                    if (ride.getRideType().equals("OFFERED")) {
+                    if ("OFFERED".equals(ride.getRideType())) {
                         context.append("  Vehicle: ").append(ride.getVehicleModel()).append(" (").append(ride.getVehicleCapacity()).append(" total seats)\n");
-                        int bookedSeats = ride.getParticipants() != null ?
-                                (int)ride.getParticipants().stream().mapToInt(p -> p.getNumberOfSeats() != null ? p.getNumberOfSeats() : 1).sum() : 0;
-                        context.append("  Available: ").append(ride.getVehicleCapacity() - bookedSeats).append(" seats\n");
+                        if (ride.getVehicleCapacity() != null) {
+                            context.append("  Available: ").append(ride.getVehicleCapacity() - ride.getBookedSeats()).append(" seats\n");
+                        }
                         context.append("  Gender Preference: ").append(ride.getGenderPreference() != null ? ride.getGenderPreference() : "Any").append("\n");
                         if (ride.getDriverNote() != null && !ride.getDriverNote().isEmpty()) {
                             context.append("  Driver Note: ").append(ride.getDriverNote()).append("\n");
                         }
                     }
 
-                    if (ride.getStopovers() != null && !ride.getStopovers().isEmpty()) {
-                        context.append("  Stopovers: ");
-                        String stops = ride.getStopovers().stream()
-                                .map(Stopover::getCity)
-                                .collect(Collectors.joining(" → "));
-                        context.append(stops).append("\n");
+                    if (ride.getStopovers() != null) {
+                        context.append("  Stopovers: ").append(ride.getStopovers()).append("\n");
                     }
 
-                    context.append("  Driver: ").append(ride.getRequester().getName());
-                    Double driverRating = calculateAvgRating(ride.getRequester().getId());
-                    context.append(" (Rating: ").append(driverRating != null ? String.format("%.1f", driverRating) : "N/A").append(")\n");
+                    context.append("  Driver: ").append(ride.getDriverName());
+                    context.append(" (Rating: ").append(ride.getDriverRating() != null ? String.format("%.1f", ride.getDriverRating()) : "N/A").append(")\n");
                 }
             } else {
                 context.append("No upcoming rides. Time to book or offer one!\n");
             }
 
             // RIDE HISTORY STATS
-            context.append("\n=== RIDE HISTORY ===\n");
-            context.append("Total Rides: ").append(allRides.size()).append("\n");
-            context.append("Completed Rides: ").append(pastRides.size()).append("\n");
-            long offeredCount = allRides.stream().filter(r -> r.getRequester().equals(user)).count();
-            long joinedCount = allRides.stream().filter(r -> !r.getRequester().equals(user)).count();
-            context.append("Rides Offered: ").append(offeredCount).append("\n");
-            context.append("Rides Joined: ").append(joinedCount).append("\n");
+            context.append("\n");
+            appendRideHistory(context, counts);
 
         } else {
             context.append("User not found for email: ").append(userEmail).append("\n");
@@ -346,12 +509,42 @@ public class ChatbotService {
         return context.toString();
     }
 
-    private Double calculateAvgRating(Long employeeId) {
-        List<Rating> ratings = ratingRepository.findByRateeId(employeeId);
-        if (ratings == null || ratings.isEmpty()) {
-            return null;
+    private void appendProfile(StringBuilder context, Employee user) {
+        context.append("=== USER PROFILE ===\n");
+        context.append("Name: ").append(user.getName()).append("\n");
+        context.append("Email: ").append(user.getEmail()).append("\n");
+        context.append("Gender: ").append(user.getGender() != null ? user.getGender() : "Not specified").append("\n");
+        context.append("Phone: ").append(user.getPhoneNumber() != null ? user.getPhoneNumber() : "Not provided").append("\n");
+
+        // Average rating (aggregated in the database)
+        RatingSummaryView ratings = contextRepository.summarizeRatings(user.getId());
+        if (ratings.getCount() > 0) {
+            context.append("Average Rating: ").append(String.format("%.1f/5.0", ratings.getAverage())).append(" (").append(ratings.getCount()).append(" ratings)\n");
+        } else {
+            context.append("Average Rating: No ratings yet\n");
+        }
+
+        context.append("Travel Credit: ₹").append(String.format("%.2f", user.getTravelCredit())).append("\n");
+        context.append("Member Since: ").append(user.getCreatedAt()).append("\n\n");
+    }
+
+    private void appendRideHistory(StringBuilder context, List<RideRoleCountView> counts) {
+        long offeredCount = 0;
+        long joinedCount = 0;
+        long completedCount = 0;
+        for (RideRoleCountView count : counts) {
+            if ("DRIVER".equals(count.getRole())) {
+                offeredCount = count.getTotal();
+            } else {
+                joinedCount = count.getTotal();
+            }
+            completedCount += count.getCompleted();
         }
-        return ratings.stream().mapToDouble(Rating::getScore).average().orElse(0.0);
+        context.append("=== RIDE HISTORY ===\n");
+        context.append("Total Rides: ").append(offeredCount + joinedCount).append("\n");
+        context.append("Completed Rides: ").append(completedCount).append("\n");
+        context.append("Rides Offered: ").append(offeredCount).append("\n");
+        context.append("Rides Joined: ").append(joinedCount).append("\n");
     }
 
     private String formatDateTime(LocalDateTime dateTime) {
@@ -462,6 +655,15 @@ public class ChatbotService {
     }
 
     private String extractReply(JsonObject responseBody) {
+        String text = extractText(responseBody);
+        if (text.isBlank()) {
+            throw new NoReplyException();
+        }
+        return text;
+    }
+
+    // Text of the first candidate; "" when the response (or stream event) carries none
+    private static String extractText(JsonObject responseBody) {
         if (responseBody.has("candidates") && responseBody.getAsJsonArray("candidates").size() > 0) {
             JsonObject candidate = responseBody.getAsJsonArray("candidates").get(0).getAsJsonObject();
 
@@ -476,6 +678,6 @@ public class ChatbotService {
             }
         }
 
-        return "Sorry, I couldn't generate a response right now.";
+        return "";
     }
 }
\ No newline at end of file
@@ -0,0 +1,33 @@
+package com.homeride.backend.service;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A chatbot reply being streamed. Completes with the full text once the last chunk has arrived.
+ */
+public class ChatbotStream {
+
+    private final CompletableFuture<String> reply;
+    private final Runnable canceller;
+
+    ChatbotStream(CompletableFuture<String> reply, Runnable canceller) {
+        this.reply = reply;
+        this.canceller = canceller;
+    }
+
+    static ChatbotStream completed(String reply) {
+        return new ChatbotStream(CompletableFuture.completedFuture(reply), () -> { });
+    }
+
+    public CompletableFuture<String> getReply() {
+        return reply;
+    }
+
+    /**
+     * Stops reading the upstream response; no further chunks are delivered.
+     */
+    public void cancel() {
+        canceller.run();
+        reply.cancel(false);
+    }
+}
@@ -0,0 +1,100 @@
+package com.homeride.backend.service;
+
+import com.homeride.backend.dto.ChatbotStreamChunkDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Runs streamed chatbot replies for STOMP sessions and forwards their chunks to the requesting
+ * session on /user/queue/chatbot. Streams belong to their session: they are cancelled when the
+ * client asks, when it starts another request with the same id, or when the session disconnects.
+ */
+@Service
+public class ChatbotStreamService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChatbotStreamService.class);
+
+    private static final String DESTINATION = "/queue/chatbot";
+
+    private final ChatbotService chatbotService;
+    private final SimpMessagingTemplate messagingTemplate;
+
+    // STOMP session -> (requestId -> stream)
+    private final Map<String, Map<String, ChatbotStream>> streams = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ChatbotStreamService(ChatbotService chatbotService, SimpMessagingTemplate messagingTemplate) {
+        this.chatbotService = chatbotService;
+        this.messagingTemplate = messagingTemplate;
+    }
+
+    public void start(String userEmail, String sessionId, String requestId, String message) {
+        cancel(sessionId, requestId);
+        ChatbotStream stream;
+        try {
+            stream = chatbotService.streamResponse(userEmail, message,
+                    delta -> send(userEmail, sessionId, new ChatbotStreamChunkDTO(requestId, delta, false, null)));
+        } catch (RuntimeException e) {
+            logger.error("Could not start chatbot stream for {}", userEmail, e);
+            send(userEmail, sessionId, new ChatbotStreamChunkDTO(requestId, null, true,
+                    "Sorry, I encountered an issue while processing your request. Please try asking differently."));
+            return;
+        }
+
+        streams.computeIfAbsent(sessionId, id -> new ConcurrentHashMap<>()).put(requestId, stream);
+        stream.getReply().whenComplete((reply, error) -> {
+            Map<String, ChatbotStream> sessionStreams = streams.get(sessionId);
+            if (sessionStreams != null) {
+                sessionStreams.remove(requestId, stream);
+            }
+            if (unwrap(error) instanceof CancellationException) {
+                return; // nobody is listening any more
+            }
+            if (error != null) {
+                logger.warn("Chatbot stream failed for {}: {}", userEmail, error.getMessage());
+            }
+            send(userEmail, sessionId, new ChatbotStreamChunkDTO(requestId, null, true, error == null ? null
+                    : "Sorry, there was an issue connecting to the AI service. Please try again later."));
+        });
+    }
+
+    public void cancel(String sessionId, String requestId) {
+        Map<String, ChatbotStream> sessionStreams = streams.get(sessionId);
+        ChatbotStream stream = sessionStreams != null ? sessionStreams.remove(requestId) : null;
+        if (stream != null) {
+            stream.cancel();
+        }
+    }
+
+    @EventListener
+    public void onSessionDisconnect(SessionDisconnectEvent event) {
+        Map<String, ChatbotStream> sessionStreams = streams.remove(event.getSessionId());
+        if (sessionStreams != null) {
+            sessionStreams.values().forEach(ChatbotStream::cancel);
+        }
+    }
+
+    private void send(String userEmail, String sessionId, ChatbotStreamChunkDTO chunk) {
+        // Only the session that asked, not every tab the user has open
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        headers.setSessionId(sessionId);
+        headers.setLeaveMutable(true);
+        messagingTemplate.convertAndSendToUser(userEmail, DESTINATION, chunk, headers.getMessageHeaders());
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+}
@@ -0,0 +1,48 @@
+package com.homeride.backend.service;
+
+import com.cloudinary.Cloudinary;
+import com.cloudinary.utils.ObjectUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Map;
+
+@Component
+@ConditionalOnProperty(name = "storage.images.backend", havingValue = "cloudinary", matchIfMissing = true)
+public class CloudinaryImageStorageBackend implements ImageStorageBackend {
+
+    private final Cloudinary cloudinary;
+
+    public CloudinaryImageStorageBackend(
+            @Value("${cloudinary.cloud-name}") String cloudName,
+            @Value("${cloudinary.api-key}") String apiKey,
+            @Value("${cloudinary.api-secret}") String apiSecret) {
+
+        this.cloudinary = new Cloudinary(ObjectUtils.asMap(
+                "cloud_name", cloudName,
+                "api_key", apiKey,
+                "api_secret", apiSecret
+        ));
+    }
+
+    @Override
+    public String store(String key, Path file, String contentType) throws IOException {
+        // Cloudinary public ids carry no extension; the format comes from the file itself
+        int extension = key.lastIndexOf('.');
+        String publicId = extension > key.lastIndexOf('/') ? key.substring(0, extension) : key;
+
+        Map uploadResult = cloudinary.uploader().upload(
+                file.toFile(),
+                ObjectUtils.asMap(
+                        "public_id", publicId,
+                        "resource_type", "image",
+                        "overwrite", false,
+                        "unique_filename", false
+                )
+        );
+        return (String) uploadResult.get("secure_url");
+    }
+}
@@ -0,0 +1,28 @@
+package com.homeride.backend.service;
+
+import java.util.function.Consumer;
+
+/**
+ * Publish/subscribe between backend nodes. Payloads are delivered to every node, including the
+ * one that published them; subscribers that must skip their own messages compare node ids.
+ */
+public interface ClusterMessageBus {
+
+    void subscribe(String channel, Consumer<String> handler);
+
+    /**
+     * Registers a callback for after the bus reconnects, when messages may have been missed.
+     */
+    void onReconnect(Runnable handler);
+
+    void publish(String channel, String payload);
+
+    String getNodeId();
+
+    /**
+     * Largest payload, in UTF-8 bytes, that {@link #publish} can carry.
+     */
+    int getMaxPayloadBytes();
+
+    boolean isEnabled();
+}
@@ -0,0 +1,271 @@
+package com.homeride.backend.service;
+
+import com.homeride.backend.model.OutboundEmail;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.AddressException;
+import jakarta.mail.internet.MimeMessage;
+import org.eclipse.angus.mail.smtp.SMTPAddressFailedException;
+import org.eclipse.angus.mail.smtp.SMTPSendFailedException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Delivers the mail outbox. One worker thread per node claims due rows in batches and sends them over
+ * a single SMTP connection, which stays open between batches until it has been idle for a while.
+ * <p>
+ * A failed message is retried with exponential backoff (with jitter) until it has used up its attempts;
+ * then, or straight away when the server rejects it permanently (5xx, bad address), it is marked DEAD
+ * and kept for inspection. Rows are leased when claimed, so several nodes can share the outbox and a
+ * crash mid-batch only delays the messages it held.
+ */
+@Service
+public class EmailOutboxSender {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmailOutboxSender.class);
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final EmailOutboxStore store;
+    private final JavaMailSenderImpl mailSender;
+    private final int batchSize;
+    private final long pollIntervalMs;
+    private final int maxAttempts;
+    private final long initialBackoffMs;
+    private final long maxBackoffMs;
+    private final Duration lease;
+    private final long connectionIdleMs;
+
+    private final Counter sentMessages;
+    private final Counter retriedMessages;
+    private final Counter deadMessages;
+
+    private final Semaphore wakeUps = new Semaphore(0);
+    private volatile boolean running;
+    private Thread worker;
+
+    // Only touched by the worker thread
+    private Transport transport;
+    private long transportLastUsed;
+
+    @Autowired
+    public EmailOutboxSender(EmailOutboxStore store,
+                             JavaMailSenderImpl mailSender,
+                             MeterRegistry meterRegistry,
+                             @Value("${mail.outbox.batch-size:50}") int batchSize,
+                             @Value("${mail.outbox.poll-interval-ms:5000}") long pollIntervalMs,
+                             @Value("${mail.outbox.max-attempts:8}") int maxAttempts,
+                             @Value("${mail.outbox.initial-backoff-ms:30000}") long initialBackoffMs,
+                             @Value("${mail.outbox.max-backoff-ms:3600000}") long maxBackoffMs,
+                             @Value("${mail.outbox.lease-ms:300000}") long leaseMs,
+                             @Value("${mail.outbox.connection-idle-ms:30000}") long connectionIdleMs) {
+        this.store = store;
+        this.mailSender = mailSender;
+        this.batchSize = batchSize;
+        this.pollIntervalMs = pollIntervalMs;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffMs = initialBackoffMs;
+        this.maxBackoffMs = maxBackoffMs;
+        this.lease = Duration.ofMillis(leaseMs);
+        this.connectionIdleMs = connectionIdleMs;
+        this.sentMessages = Counter.builder("mail.outbox.messages").tag("result", "sent")
+                .description("Outbox messages delivered")
+                .register(meterRegistry);
+        this.retriedMessages = Counter.builder("mail.outbox.messages").tag("result", "retry")
+                .description("Outbox delivery attempts that failed and were rescheduled")
+                .register(meterRegistry);
+        this.deadMessages = Counter.builder("mail.outbox.messages").tag("result", "dead")
+                .description("Outbox messages given up on")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        worker = new Thread(this::sendLoop, "mail-outbox-sender");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * Called after a row is inserted so it goes out now rather than at the next poll.
+     */
+    public void wakeUp() {
+        wakeUps.release();
+    }
+
+    private void sendLoop() {
+        while (running) {
+            int claimed = 0;
+            try {
+                claimed = sendDueBatch();
+            } catch (Exception e) {
+                logger.error("Mail outbox pass failed", e);
+            }
+            if (claimed < batchSize) {
+                // Nothing more is due: wait for a new row or the next poll
+                try {
+                    closeIdleConnection();
+                    wakeUps.tryAcquire(pollIntervalMs, TimeUnit.MILLISECONDS);
+                    wakeUps.drainPermits();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+        closeConnection();
+    }
+
+    private int sendDueBatch() {
+        List<OutboundEmail> batch = store.claimDue(batchSize, lease);
+        for (OutboundEmail email : batch) {
+            deliver(email);
+        }
+        return batch.size();
+    }
+
+    private void deliver(OutboundEmail email) {
+        try {
+            MimeMessage message = toMimeMessage(email);
+            connection().sendMessage(message, message.getAllRecipients());
+            transportLastUsed = System.currentTimeMillis();
+        } catch (MessagingException | RuntimeException e) {
+            if (!(e instanceof SendFailedException)) {
+                // The connection may be broken; open a new one for the next message
+                closeConnection();
+            }
+            failed(email, e);
+            return;
+        }
+        store.markSent(email.getId());
+        sentMessages.increment();
+    }
+
+    private void failed(OutboundEmail email, Exception e) {
+        String error = describe(e);
+        if (isPermanent(e) || email.getAttempts() >= maxAttempts) {
+            store.markDead(email.getId(), error);
+            deadMessages.increment();
+            logger.warn("Giving up on outbox email {} to {} after {} attempt(s): {}",
+                    email.getId(), email.getToAddress(), email.getAttempts(), error);
+            return;
+        }
+        long delayMs = backoffMs(email.getAttempts());
+        store.scheduleRetry(email.getId(), LocalDateTime.now().plus(Duration.ofMillis(delayMs)), error);
+        retriedMessages.increment();
+        logger.info("Outbox email {} failed (attempt {}), retrying in {} ms: {}",
+                email.getId(), email.getAttempts(), delayMs, error);
+    }
+
+    /**
+     * initial * 2^(attempt - 1), capped, then jittered to between half and all of it so that
+     * messages that failed together do not all retry together.
+     */
+    private long backoffMs(int attempt) {
+        long delay = initialBackoffMs << Math.min(attempt - 1, 30);
+        if (delay <= 0 || delay > maxBackoffMs) {
+            delay = maxBackoffMs;
+        }
+        return delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+    }
+
+    private Transport connection() throws MessagingException {
+        closeIdleConnection();
+        if (transport == null) {
+            // Same protocol resolution as JavaMailSenderImpl
+            String protocol = mailSender.getProtocol();
+            if (protocol == null) {
+                protocol = mailSender.getSession().getProperty("mail.transport.protocol");
+            }
+            Transport connected = mailSender.getSession().getTransport(protocol != null ? protocol : "smtp");
+            connected.connect(mailSender.getHost(), mailSender.getPort(), mailSender.getUsername(), mailSender.getPassword());
+            transport = connected;
+            transportLastUsed = System.currentTimeMillis();
+        }
+        return transport;
+    }
+
+    private MimeMessage toMimeMessage(OutboundEmail email) throws MessagingException {
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, "UTF-8");
+        helper.setTo(email.getToAddress());
+        if (email.getFromAddress() != null) {
+            helper.setFrom(email.getFromAddress());
+        }
+        if (email.getReplyTo() != null) {
+            helper.setReplyTo(email.getReplyTo());
+        }
+        helper.setSubject(email.getSubject());
+        helper.setText(email.getBody());
+        helper.setSentDate(new Date());
+        return message;
+    }
+
+    private void closeIdleConnection() {
+        if (transport != null && System.currentTimeMillis() - transportLastUsed > connectionIdleMs) {
+            closeConnection();
+        }
+    }
+
+    private void closeConnection() {
+        if (transport == null) {
+            return;
+        }
+        try {
+            transport.close();
+        } catch (MessagingException e) {
+            logger.debug("Error closing SMTP connection: {}", e.getMessage());
+        }
+        transport = null;
+    }
+
+    private static boolean isPermanent(Exception e) {
+        Throwable current = e;
+        for (int depth = 0; current != null && depth < 10; depth++) {
+            if (current instanceof AddressException) {
+                return true;
+            }
+            if (current instanceof SMTPSendFailedException failed && failed.getReturnCode() >= 500) {
+                return true;
+            }
+            if (current instanceof SMTPAddressFailedException failed && failed.getReturnCode() >= 500) {
+                return true;
+            }
+            current = current.getCause();
+        }
+        return false;
+    }
+
+    private static String describe(Exception e) {
+        String error = e.getClass().getSimpleName() + ": " + e.getMessage();
+        return error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        wakeUps.release();
+        if (worker != null) {
+            worker.join(TimeUnit.SECONDS.toMillis(10));
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.homeride.backend.service;
+
+import com.homeride.backend.model.OutboundEmail;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Where the mail outbox lives. Claiming a row leases it to the caller: it is not due again until the
+ * lease ends, so a sender that dies mid-batch only delays its messages.
+ */
+public interface EmailOutboxStore {
+
+    /**
+     * Stores a PENDING row that is due immediately and returns its id.
+     */
+    long insert(OutboundEmail email);
+
+    /**
+     * Claims up to {@code limit} due PENDING rows, oldest first, counting an attempt on each.
+     * Rows claimed by another sender at the same time are skipped, not waited for.
+     */
+    List<OutboundEmail> claimDue(int limit, Duration lease);
+
+    void markSent(long id);
+
+    void scheduleRetry(long id, LocalDateTime nextAttemptAt, String error);
+
+    void markDead(long id, String error);
+}
@@ -1,35 +1,41 @@
 package com.homeride.backend.service;
 
 import com.homeride.backend.dto.ContactRequest;
+import com.homeride.backend.model.OutboundEmail;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
 
+/**
+ * Queues outgoing mail. Messages are written to the mail outbox and delivered by EmailOutboxSender,
+ * so callers return once the row is stored, however slow or unavailable the SMTP server is.
+ */
 @Service
 public class EmailService {
 
     @Autowired
-    private JavaMailSender mailSender;
+    private EmailOutboxStore emailOutboxStore;
+
+    @Autowired
+    private EmailOutboxSender emailOutboxSender;
 
     @Value("${contact.email.recipient}")
     private String recipientEmail;
 
     public void sendContactEmail(ContactRequest contactRequest) {
-        SimpleMailMessage message = new SimpleMailMessage();
+        OutboundEmail email = new OutboundEmail();
 
         // Set recipient (your business email)
-        message.setTo(recipientEmail);
+        email.setToAddress(recipientEmail);
 
         // Set from (the user's email)
-        message.setFrom(contactRequest.getEmail());
+        email.setFromAddress(contactRequest.getEmail());
 
         // Set reply-to (so you can reply directly to the user)
-        message.setReplyTo(contactRequest.getEmail());
+        email.setReplyTo(contactRequest.getEmail());
 
         // Set subject
-        message.setSubject("New Contact Form Submission from " + contactRequest.getName());
+        email.setSubject("New Contact Form Submission from " + contactRequest.getName());
 
         // Set body
         String emailBody = String.format(
@@ -44,9 +50,10 @@ public class EmailService {
                 contactRequest.getMessage()
         );
 
-        message.setText(emailBody);
+        email.setBody(emailBody);
 
-        // Send the email
-        mailSender.send(message);
+        // Store it in the outbox; the sender delivers it in the background
+        emailOutboxStore.insert(email);
+        emailOutboxSender.wakeUp();
     }
-}
\ No newline at end of file
+}
@@ -2,11 +2,14 @@ package com.homeride.backend.service;
 
 import com.homeride.backend.dto.AdminUserUpdateDTO;
 import com.homeride.backend.dto.LoginRequestDTO;
+import com.homeride.backend.dto.ProfilePictureStatusDTO;
 import com.homeride.backend.dto.RegisterRequestDTO;
 import com.homeride.backend.dto.UserProfileUpdateDTO; // NEW IMPORT
+import com.homeride.backend.event.EmployeeProfileChangedEvent;
 import com.homeride.backend.model.Employee;
 import com.homeride.backend.repository.EmployeeRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -15,8 +18,8 @@ import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
-import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.io.IOException;
 import java.util.Collections;
 import java.util.List;
 
@@ -25,13 +28,16 @@ public class EmployeeService implements UserDetailsService {
 
     private final EmployeeRepository employeeRepository;
     private final PasswordEncoder passwordEncoder;
-    private final FileStorageService fileStorageService;
+    private final ProfilePictureService profilePictureService;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Autowired
-    public EmployeeService(EmployeeRepository employeeRepository, PasswordEncoder passwordEncoder, FileStorageService fileStorageService) {
+    public EmployeeService(EmployeeRepository employeeRepository, PasswordEncoder passwordEncoder, ProfilePictureService profilePictureService,
+                           ApplicationEventPublisher eventPublisher) {
         this.employeeRepository = employeeRepository;
         this.passwordEncoder = passwordEncoder;
-        this.fileStorageService = fileStorageService;
+        this.profilePictureService = profilePictureService;
+        this.eventPublisher = eventPublisher;
     }
 
     public Employee findEmployeeByEmail(String email) {
@@ -64,24 +70,32 @@ public class EmployeeService implements UserDetailsService {
         if (updateDTO.getPhoneNumber() != null) {
             employee.setPhoneNumber(updateDTO.getPhoneNumber());
         }
-        return employeeRepository.save(employee);
+        Employee saved = employeeRepository.save(employee);
+        eventPublisher.publishEvent(new EmployeeProfileChangedEvent(email));
+        return saved;
     }
 
-    public Employee updateProfilePicture(String email, MultipartFile file) {
-        Employee employee = findEmployeeByEmail(email);
-        String filename = fileStorageService.store(file);
-        String fileDownloadUri = ServletUriComponentsBuilder.fromCurrentContextPath()
-                .path("/uploads/")
-                .path(filename)
-                .toUriString();
-        employee.setProfilePictureUrl(fileDownloadUri);
-        return employeeRepository.save(employee);
+    // The picture is resized and stored in the background; see ProfilePictureService
+    public ProfilePictureStatusDTO updateProfilePicture(String email, MultipartFile file) throws IOException {
+        findEmployeeByEmail(email);
+        return profilePictureService.accept(email, file);
+    }
+
+    public ProfilePictureStatusDTO getProfilePictureStatus(String email) {
+        ProfilePictureStatusDTO status = profilePictureService.getStatus(email);
+        if (status != null) {
+            return status;
+        }
+        // No upload on record (finished long ago, or handled by another node)
+        return new ProfilePictureStatusDTO("DONE", findEmployeeByEmail(email).getProfilePictureUrl(), null);
     }
 
     public Employee removeProfilePicture(String email) {
         Employee employee = findEmployeeByEmail(email);
         employee.setProfilePictureUrl(null);
-        return employeeRepository.save(employee);
+        Employee saved = employeeRepository.save(employee);
+        eventPublisher.publishEvent(new EmployeeProfileChangedEvent(email));
+        return saved;
     }
 
     @Override
@@ -1,43 +0,0 @@
-package com.homeride.backend.service;
-
-import com.cloudinary.Cloudinary;
-import com.cloudinary.utils.ObjectUtils;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.stereotype.Service;
-import org.springframework.web.multipart.MultipartFile;
-import java.util.Map;
-
-@Service
-public class FileStorageService {
-
-    private final Cloudinary cloudinary;
-
-    public FileStorageService(
-            @Value("${cloudinary.cloud-name}") String cloudName,
-            @Value("${cloudinary.api-key}") String apiKey,
-            @Value("${cloudinary.api-secret}") String apiSecret) {
-
-        this.cloudinary = new Cloudinary(ObjectUtils.asMap(
-                "cloud_name", cloudName,
-                "api_key", apiKey,
-                "api_secret", apiSecret
-        ));
-    }
-
-    public String store(MultipartFile file) {
-        try {
-            if (file.isEmpty()) {
-                throw new RuntimeException("Failed to store empty file.");
-            }
-
-            Map uploadResult = cloudinary.uploader().upload(
-                    file.getBytes(),
-                    ObjectUtils.asMap("resource_type", "auto")
-            );
-
-            return (String) uploadResult.get("secure_url");
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to store file: " + e.getMessage(), e);
-        }
-    }
-}
\ No newline at end of file
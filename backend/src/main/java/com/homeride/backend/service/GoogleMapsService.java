@@ -8,6 +8,8 @@ import com.google.maps.model.DirectionsRoute;
 import com.google.maps.model.GeocodingResult;
 import com.google.maps.model.LatLng;
 import com.homeride.backend.dto.TravelInfo;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -18,11 +20,18 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
+/**
+ * Google Maps Directions and Geocoding calls. Every call is observed as maps.requests (a timer, and a
+ * span such as "maps geocode"), tagged with the API and the outcome (success, no_result, error);
+ * failures are logged and answered with defaults, so the outcome tag is the only place they show up
+ * in metrics.
+ */
 @Service
 public class GoogleMapsService {
 
     private static final Logger logger = LoggerFactory.getLogger(GoogleMapsService.class);
     private final GeoApiContext geoApiContext;
+    private final ObservationRegistry observationRegistry;
 
     @Value("${google.maps.api.key:}")
     private String apiKey;
@@ -30,8 +39,9 @@ public class GoogleMapsService {
     private static final TravelInfo DEFAULT_TRAVEL_INFO = new TravelInfo(200, 180.0, "", "Default Route", new ArrayList<>());
 
     @Autowired
-    public GoogleMapsService(GeoApiContext geoApiContext) {
+    public GoogleMapsService(GeoApiContext geoApiContext, ObservationRegistry observationRegistry) {
         this.geoApiContext = geoApiContext;
+        this.observationRegistry = observationRegistry;
     }
 
     /**
@@ -43,7 +53,9 @@ public class GoogleMapsService {
             logger.warn("Google Maps API key is not configured. Returning default distance.");
             return 180.0;
         }
-        try {
+        Observation observation = start("directions");
+        String outcome = "no_result";
+        try (Observation.Scope scope = observation.openScope()) {
             DirectionsApiRequest request = DirectionsApi.newRequest(geoApiContext)
                     .origin(origin)
                     .destination(destination);
@@ -51,18 +63,23 @@ public class GoogleMapsService {
             DirectionsResult result = request.await();
 
             if (result.routes != null && result.routes.length > 0) {
+                outcome = "success";
                 DirectionsRoute route = result.routes[0];
                 long totalDistanceInMeters = Arrays.stream(route.legs)
                         .mapToLong(leg -> leg.distance.inMeters)
                         .sum();
                 double distanceInKm = totalDistanceInMeters / 1000.0;
 
-                logger.info("Direct Distance (for pricing): {} to {} = {:.2f}km",
-                        origin, destination, distanceInKm);
+                logger.info("Direct Distance (for pricing): {} to {} = {} km",
+                        origin, destination, String.format("%.2f", distanceInKm));
                 return distanceInKm;
             }
         } catch (Exception e) {
+            outcome = "error";
+            observation.error(e);
             logger.error("Error fetching direct distance from Google Maps API: {}", e.getMessage());
+        } finally {
+            stop(observation, outcome);
         }
         return DEFAULT_TRAVEL_INFO.getDistanceInKm();
     }
@@ -76,7 +93,9 @@ public class GoogleMapsService {
             logger.warn("Google Maps API key is not configured. Returning default travel info.");
             return DEFAULT_TRAVEL_INFO;
         }
-        try {
+        Observation observation = start("directions");
+        String outcome = "no_result";
+        try (Observation.Scope scope = observation.openScope()) {
             DirectionsApiRequest request = DirectionsApi.newRequest(geoApiContext)
                     .origin(origin)
                     .destination(destination);
@@ -88,6 +107,7 @@ public class GoogleMapsService {
             DirectionsResult result = request.await();
 
             if (result.routes != null && result.routes.length > 0) {
+                outcome = "success";
                 DirectionsRoute route = result.routes[0];
                 String polyline = route.overviewPolyline.getEncodedPath();
                 String summary = route.summary;
@@ -107,20 +127,26 @@ public class GoogleMapsService {
                 for (int i = 0; i < route.legs.length; i++) {
                     double segmentDistanceKm = route.legs[i].distance.inMeters / 1000.0;
                     segmentDistances.add(segmentDistanceKm);
-                    logger.debug("Segment {}: {} → {} = {:.2f}km",
-                            i + 1,
-                            route.legs[i].startAddress,
-                            route.legs[i].endAddress,
-                            segmentDistanceKm);
+                    if (logger.isDebugEnabled()) {
+                        logger.debug("Segment {}: {} → {} = {} km",
+                                i + 1,
+                                route.legs[i].startAddress,
+                                route.legs[i].endAddress,
+                                String.format("%.2f", segmentDistanceKm));
+                    }
                 }
 
-                logger.info("Route with Stopovers - Total Distance: {:.2f}km, Duration: {}min, Segments: {}",
-                        distanceInKm, durationInMinutes, segmentDistances.size());
+                logger.info("Route with Stopovers - Total Distance: {} km, Duration: {}min, Segments: {}",
+                        String.format("%.2f", distanceInKm), durationInMinutes, segmentDistances.size());
 
                 return new TravelInfo(durationInMinutes, distanceInKm, polyline, summary, segmentDistances);
             }
         } catch (Exception e) {
+            outcome = "error";
+            observation.error(e);
             logger.error("Error fetching travel info with stopovers from Google Maps API: {}", e.getMessage());
+        } finally {
+            stop(observation, outcome);
         }
         return DEFAULT_TRAVEL_INFO;
     }
@@ -138,13 +164,20 @@ public class GoogleMapsService {
             logger.warn("Google Maps API key is not configured. Geocoding disabled.");
             return null;
         }
-        try {
+        Observation observation = start("geocode");
+        String outcome = "no_result";
+        try (Observation.Scope scope = observation.openScope()) {
             GeocodingResult[] results = GeocodingApi.geocode(geoApiContext, address).await();
             if (results != null && results.length > 0) {
+                outcome = "success";
                 return results[0].geometry.location;
             }
         } catch (Exception e) {
+            outcome = "error";
+            observation.error(e);
             logger.error("Error during geocoding for address '{}': {}", address, e.getMessage());
+        } finally {
+            stop(observation, outcome);
         }
         return null;
     }
@@ -154,14 +187,32 @@ public class GoogleMapsService {
             logger.warn("Google Maps API key is not configured. Reverse geocoding disabled.");
             return "Service unavailable";
         }
-        try {
+        Observation observation = start("reverse_geocode");
+        String outcome = "no_result";
+        try (Observation.Scope scope = observation.openScope()) {
             GeocodingResult[] results = GeocodingApi.reverseGeocode(geoApiContext, location).await();
             if (results != null && results.length > 0) {
+                outcome = "success";
                 return results[0].formattedAddress;
             }
         } catch (Exception e) {
+            outcome = "error";
+            observation.error(e);
             logger.error("Error during reverse geocoding for location '{}': {}", location, e.getMessage());
+        } finally {
+            stop(observation, outcome);
         }
         return "Unknown location";
     }
+
+    private Observation start(String api) {
+        return Observation.createNotStarted("maps.requests", observationRegistry)
+                .contextualName("maps " + api)
+                .lowCardinalityKeyValue("api", api)
+                .start();
+    }
+
+    private static void stop(Observation observation, String outcome) {
+        observation.lowCardinalityKeyValue("outcome", outcome).stop();
+    }
 }
\ No newline at end of file
@@ -4,6 +4,8 @@ import com.google.maps.GeoApiContext;
 import com.google.maps.PlacesApi;
 import com.google.maps.model.AutocompletePrediction;
 import com.google.maps.model.PlaceAutocompleteType;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -15,18 +17,24 @@ import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
 
+/**
+ * Places autocomplete. Calls are observed as places.requests (a timer and a span), tagged with the
+ * outcome like GoogleMapsService's maps.requests.
+ */
 @Service
 public class GooglePlacesService {
 
     private static final Logger logger = LoggerFactory.getLogger(GooglePlacesService.class);
     private final GeoApiContext geoApiContext;
+    private final ObservationRegistry observationRegistry;
 
     @Value("${google.maps.api.key:}")
     private String apiKey;
 
     @Autowired
-    public GooglePlacesService(GeoApiContext geoApiContext) {
+    public GooglePlacesService(GeoApiContext geoApiContext, ObservationRegistry observationRegistry) {
         this.geoApiContext = geoApiContext;
+        this.observationRegistry = observationRegistry;
     }
 
     public List<String> getAutocompleteSuggestions(String query) {
@@ -39,7 +47,12 @@ public class GooglePlacesService {
             return Collections.emptyList();
         }
 
-        try {
+        Observation observation = Observation.createNotStarted("places.requests", observationRegistry)
+                .contextualName("places autocomplete")
+                .lowCardinalityKeyValue("api", "autocomplete")
+                .start();
+        String outcome = "no_result";
+        try (Observation.Scope scope = observation.openScope()) {
             AutocompletePrediction[] predictions = PlacesApi
                     .queryAutocomplete(geoApiContext, query)
                     .await();
@@ -48,13 +61,18 @@ public class GooglePlacesService {
                 return Collections.emptyList();
             }
 
+            outcome = "success";
             return Arrays.stream(predictions)
                     .map(p -> p.description)
                     .collect(Collectors.toList());
 
         } catch (Exception e) {
+            outcome = "error";
+            observation.error(e);
             logger.error("Error fetching autocomplete suggestions: {}", e.getMessage());
             return Collections.emptyList();
+        } finally {
+            observation.lowCardinalityKeyValue("outcome", outcome).stop();
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,17 @@
+package com.homeride.backend.service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Where processed images are stored (storage.images.backend). Keys are content-addressed
+ * ("avatars/{sha256}/{size}.jpg"), so storing the same key twice stores the same bytes.
+ */
+public interface ImageStorageBackend {
+
+    /**
+     * Stores the file under the key and returns the URL it is served from.
+     * The file is streamed from disk, not read into memory.
+     */
+    String store(String key, Path file, String contentType) throws IOException;
+}
@@ -0,0 +1,39 @@
+package com.homeride.backend.service;
+
+import com.homeride.backend.model.ChatMessage;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+@Component
+public class JdbcChatMessageSink implements ChatMessageSink {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO chat_messages (id, sender_name, sender_email, sender_profile_picture_url, content, " +
+            "ride_id, recipient_email, type, timestamp) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public JdbcChatMessageSink(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void insert(List<ChatMessage> messages) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, messages, messages.size(), (ps, message) -> {
+            ps.setLong(1, message.getId());
+            ps.setString(2, message.getSenderName());
+            ps.setString(3, message.getSenderEmail());
+            ps.setString(4, message.getSenderProfilePictureUrl());
+            ps.setString(5, message.getContent());
+            ps.setObject(6, message.getRideId());
+            ps.setString(7, message.getRecipientEmail());
+            ps.setString(8, message.getType());
+            ps.setTimestamp(9, message.getTimestamp() != null ? Timestamp.valueOf(message.getTimestamp()) : null);
+        });
+    }
+}
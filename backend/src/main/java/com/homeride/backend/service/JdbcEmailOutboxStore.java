@@ -0,0 +1,83 @@
+package com.homeride.backend.service;
+
+import com.homeride.backend.model.OutboundEmail;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Component
+public class JdbcEmailOutboxStore implements EmailOutboxStore {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO email_outbox (to_address, from_address, reply_to, subject, body, status, attempts, " +
+            "next_attempt_at, created_at) VALUES (?, ?, ?, ?, ?, 'PENDING', 0, ?, ?) RETURNING id";
+
+    // One statement: the row locks only keep concurrent claimers apart (SKIP LOCKED), the new
+    // next_attempt_at keeps the rows away from everyone else until the lease ends.
+    // Uses the partial index idx_email_outbox_due (schema.sql).
+    private static final String CLAIM_SQL =
+            "UPDATE email_outbox SET attempts = attempts + 1, next_attempt_at = ? " +
+            "WHERE id IN (SELECT id FROM email_outbox WHERE status = 'PENDING' AND next_attempt_at <= ? " +
+            "ORDER BY next_attempt_at, id LIMIT ? FOR UPDATE SKIP LOCKED) " +
+            "RETURNING id, to_address, from_address, reply_to, subject, body, attempts";
+
+    private static final String MARK_SENT_SQL =
+            "UPDATE email_outbox SET status = 'SENT', sent_at = ?, last_error = NULL WHERE id = ?";
+
+    private static final String SCHEDULE_RETRY_SQL =
+            "UPDATE email_outbox SET next_attempt_at = ?, last_error = ? WHERE id = ? AND status = 'PENDING'";
+
+    private static final String MARK_DEAD_SQL =
+            "UPDATE email_outbox SET status = 'DEAD', last_error = ? WHERE id = ? AND status = 'PENDING'";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public JdbcEmailOutboxStore(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public long insert(OutboundEmail email) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        return jdbcTemplate.queryForObject(INSERT_SQL, Long.class,
+                email.getToAddress(), email.getFromAddress(), email.getReplyTo(),
+                email.getSubject(), email.getBody(), now, now);
+    }
+
+    @Override
+    public List<OutboundEmail> claimDue(int limit, Duration lease) {
+        LocalDateTime now = LocalDateTime.now();
+        return jdbcTemplate.query(CLAIM_SQL, (rs, rowNum) -> {
+            OutboundEmail email = new OutboundEmail();
+            email.setId(rs.getLong("id"));
+            email.setToAddress(rs.getString("to_address"));
+            email.setFromAddress(rs.getString("from_address"));
+            email.setReplyTo(rs.getString("reply_to"));
+            email.setSubject(rs.getString("subject"));
+            email.setBody(rs.getString("body"));
+            email.setAttempts(rs.getInt("attempts"));
+            return email;
+        }, Timestamp.valueOf(now.plus(lease)), Timestamp.valueOf(now), limit);
+    }
+
+    @Override
+    public void markSent(long id) {
+        jdbcTemplate.update(MARK_SENT_SQL, Timestamp.valueOf(LocalDateTime.now()), id);
+    }
+
+    @Override
+    public void scheduleRetry(long id, LocalDateTime nextAttemptAt, String error) {
+        jdbcTemplate.update(SCHEDULE_RETRY_SQL, Timestamp.valueOf(nextAttemptAt), error, id);
+    }
+
+    @Override
+    public void markDead(long id, String error) {
+        jdbcTemplate.update(MARK_DEAD_SQL, error, id);
+    }
+}
@@ -0,0 +1,50 @@
+package com.homeride.backend.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Stores images under the local uploads directory, served by UploadsController at /uploads/**.
+ * For single-node and on-prem deployments. Files are written once and never replaced, which is
+ * what lets UploadsController serve them as immutable.
+ */
+@Component
+@ConditionalOnProperty(name = "storage.images.backend", havingValue = "local")
+public class LocalImageStorageBackend implements ImageStorageBackend {
+
+    private final Path directory;
+    private final String publicBaseUrl;
+
+    public LocalImageStorageBackend(@Value("${storage.local.directory:uploads}") String directory,
+                                    @Value("${storage.local.public-base-url:http://localhost:8080}") String publicBaseUrl) {
+        this.directory = Paths.get(directory).toAbsolutePath().normalize();
+        this.publicBaseUrl = publicBaseUrl.endsWith("/") ? publicBaseUrl.substring(0, publicBaseUrl.length() - 1) : publicBaseUrl;
+    }
+
+    @Override
+    public String store(String key, Path file, String contentType) throws IOException {
+        Path target = directory.resolve(key).normalize();
+        if (!target.startsWith(directory)) {
+            throw new IllegalArgumentException("Invalid storage key: " + key);
+        }
+        Files.createDirectories(target.getParent());
+        if (!Files.exists(target)) {
+            // Copy next to the target and rename, so a reader never sees a partial file
+            Path partial = Files.createTempFile(target.getParent(), ".upload-", ".part");
+            try {
+                Files.copy(file, partial, StandardCopyOption.REPLACE_EXISTING);
+                Files.move(partial, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                Files.deleteIfExists(partial);
+            }
+        }
+        return publicBaseUrl + "/uploads/" + directory.relativize(target).toString().replace('\\', '/');
+    }
+}
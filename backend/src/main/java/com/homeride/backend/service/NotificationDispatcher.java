@@ -0,0 +1,355 @@
+package com.homeride.backend.service;
+
+import com.homeride.backend.dto.NotificationDTO;
+import com.homeride.backend.event.NotificationEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Writes notifications in the background. Rows from committed NotificationEvents are collected in a
+ * bounded queue and inserted by a single worker thread using JDBC batch inserts, so request threads
+ * never wait on one INSERT per recipient. Once a batch is stored, each row is pushed to its recipient
+ * over STOMP with its generated id.
+ * <p>
+ * Backpressure: when the queue is full, the rows that did not fit go to the second writer thread (the
+ * one chat upserts use); when that one's queue is full too, the publishing thread writes them itself.
+ * Every write runs in its own transaction, so rows written on the publishing thread do not join its
+ * transaction, which has already committed when the listener runs.
+ * <p>
+ * A failed batch is retried with backoff; if it still fails, its rows are inserted one at a time and
+ * any row that fails on its own is logged with its content and dropped. On shutdown the worker stops
+ * and whatever is still queued is flushed before the DataSource closes.
+ */
+@Service
+public class NotificationDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationDispatcher.class);
+
+    private static final String INSERT_SQL =
+            "INSERT INTO notifications (user_id, message, link, type, ride_id, is_read, created_at) " +
+            "VALUES (?, ?, ?, ?, ?, false, ?)";
+
+    // One statement for all recipients. Relies on the partial unique index uq_notifications_unread_chat
+    // (schema.sql); xmax = 0 tells a freshly inserted row from one that was only bumped.
+    private static final String UPSERT_CHAT_SQL =
+            "INSERT INTO notifications (user_id, message, link, type, ride_id, is_read, created_at) " +
+            "SELECT u.user_id, ?, ?, 'CHAT_MESSAGE', ?, false, ? FROM unnest(?::bigint[]) AS u(user_id) " +
+            "ON CONFLICT (user_id, ride_id, type) WHERE type = 'CHAT_MESSAGE' AND NOT is_read " +
+            "DO UPDATE SET created_at = EXCLUDED.created_at " +
+            "RETURNING id, user_id, message, link, ride_id, created_at, (xmax = 0) AS inserted";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NotificationPushService notificationPushService;
+    private final UnreadNotificationCounter unreadNotificationCounter;
+    private final TransactionTemplate transactionTemplate;
+    private final BlockingQueue<PendingNotification> queue;
+
+    @Value("${notifications.batch-size:200}")
+    private int batchSize;
+
+    @Value("${notifications.write-attempts:3}")
+    private int writeAttempts;
+
+    @Value("${notifications.retry-backoff-ms:200}")
+    private long retryBackoffMs;
+
+    @Value("${notifications.chat-queue-capacity:1000}")
+    private int chatQueueCapacity;
+
+    private volatile boolean running;
+    private Thread worker;
+    private ThreadPoolExecutor chatExecutor;
+
+    @Autowired
+    public NotificationDispatcher(JdbcTemplate jdbcTemplate,
+                                  NotificationPushService notificationPushService,
+                                  UnreadNotificationCounter unreadNotificationCounter,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${notifications.queue-capacity:10000}") int queueCapacity) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.notificationPushService = notificationPushService;
+        this.unreadNotificationCounter = unreadNotificationCounter;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        worker = new Thread(this::drainLoop, "notification-writer");
+        worker.setDaemon(true);
+        worker.start();
+
+        // Chat upserts are already one statement per message; they only need to leave the STOMP thread.
+        // Notification rows that did not fit the main queue are written here too. When this queue is
+        // full, or after shutdown, the caller runs the task itself (backpressure, no loss).
+        chatExecutor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(chatQueueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "chat-notification-writer");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                (task, executor) -> task.run());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onNotificationEvent(NotificationEvent event) {
+        List<PendingNotification> overflow = new ArrayList<>();
+        for (Map.Entry<Long, String> recipient : event.getRecipients().entrySet()) {
+            PendingNotification row = new PendingNotification(recipient.getKey(), recipient.getValue(),
+                    event.getMessage(), event.getLink(), event.getType(), event.getRideId(),
+                    Timestamp.valueOf(event.getCreatedAt()));
+            if (!enqueue(row)) {
+                overflow.add(row);
+            }
+        }
+        if (!overflow.isEmpty()) {
+            logger.warn("Notification queue saturated; handing {} rows to the overflow writer", overflow.size());
+            chatExecutor.execute(() -> writeAndPush(overflow));
+        }
+    }
+
+    /**
+     * Hands a chat message's notifications to the background writer.
+     */
+    public void dispatchChatNotifications(Map<Long, String> recipients, String message, String link, Long rideId) {
+        if (recipients.isEmpty()) {
+            return;
+        }
+        LocalDateTime createdAt = LocalDateTime.now();
+        chatExecutor.execute(() -> {
+            try {
+                upsertChatNotifications(recipients, message, link, rideId, createdAt);
+            } catch (Exception e) {
+                logger.error("Failed to write chat notifications for ride {}", rideId, e);
+            }
+        });
+    }
+
+    /**
+     * Creates an unread chat notification for each recipient, or bumps the one they already have
+     * for this ride, atomically and in a single round trip. Only new rows change the unread count.
+     */
+    public void upsertChatNotifications(Map<Long, String> recipients, String message, String link, Long rideId,
+                                        LocalDateTime createdAt) {
+        if (recipients.isEmpty()) {
+            return;
+        }
+        Long[] userIds = recipients.keySet().toArray(new Long[0]);
+        List<NotificationDTO> inserted = new ArrayList<>();
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(UPSERT_CHAT_SQL);
+            ps.setString(1, message);
+            ps.setString(2, link);
+            ps.setLong(3, rideId);
+            ps.setTimestamp(4, Timestamp.valueOf(createdAt));
+            ps.setArray(5, con.createArrayOf("bigint", userIds));
+            return ps;
+        }, rs -> {
+            String email = recipients.get(rs.getLong("user_id"));
+            NotificationDTO dto = new NotificationDTO(rs.getLong("id"), rs.getString("message"), rs.getString("link"),
+                    "CHAT_MESSAGE", rs.getLong("ride_id"), false, rs.getTimestamp("created_at").toLocalDateTime());
+            boolean isNew = rs.getBoolean("inserted");
+            if (isNew) {
+                unreadNotificationCounter.add(email, 1);
+            }
+            notificationPushService.pushNotification(email, dto, isNew);
+        });
+    }
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    private boolean enqueue(PendingNotification row) {
+        if (!running) {
+            return false;
+        }
+        // Never waits: the caller's request has already committed and should not be held up
+        return queue.offer(row);
+    }
+
+    private void drainLoop() {
+        List<PendingNotification> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                PendingNotification first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                writeAndPush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                // writeAndPush handles write failures itself; this is a push or counter failure
+                logger.error("Failed to deliver {} notifications", batch.size(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (chatExecutor != null) {
+            chatExecutor.shutdown();
+            chatExecutor.awaitTermination(10, TimeUnit.SECONDS);
+        }
+        if (worker != null) {
+            worker.join(TimeUnit.SECONDS.toMillis(10));
+        }
+        List<PendingNotification> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        for (int from = 0; from < remaining.size(); from += batchSize) {
+            writeAndPush(remaining.subList(from, Math.min(from + batchSize, remaining.size())));
+        }
+        if (!remaining.isEmpty()) {
+            logger.info("Flushed {} queued notifications on shutdown", remaining.size());
+        }
+    }
+
+    private void writeAndPush(List<PendingNotification> rows) {
+        List<Long> ids = insertWithRetry(rows);
+        if (ids == null) {
+            writeAndPushOneByOne(rows);
+            return;
+        }
+        rows.stream()
+                .collect(Collectors.groupingBy(row -> row.email, Collectors.counting()))
+                .forEach(unreadNotificationCounter::add);
+        for (int i = 0; i < rows.size(); i++) {
+            PendingNotification row = rows.get(i);
+            NotificationDTO dto = new NotificationDTO(ids.get(i), row.message, row.link, row.type, row.rideId,
+                    false, row.createdAt.toLocalDateTime());
+            notificationPushService.pushNotification(row.email, dto, true);
+        }
+    }
+
+    /**
+     * Inserts the batch in its own transaction, retrying with exponential backoff.
+     * Returns the generated ids, or null if every attempt failed.
+     */
+    private List<Long> insertWithRetry(List<PendingNotification> rows) {
+        long backoffMs = retryBackoffMs;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> insertBatch(rows));
+            } catch (Exception e) {
+                if (attempt >= writeAttempts) {
+                    logger.error("Failed to write {} notifications after {} attempt(s)", rows.size(), attempt, e);
+                    return null;
+                }
+                logger.warn("Failed to write {} notifications (attempt {}), retrying in {} ms: {}",
+                        rows.size(), attempt, backoffMs, e.getMessage());
+                try {
+                    Thread.sleep(backoffMs);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return null;
+                }
+                backoffMs *= 2;
+            }
+        }
+    }
+
+    // Last resort for a batch that keeps failing, so that one bad row does not take the others with it
+    private void writeAndPushOneByOne(List<PendingNotification> rows) {
+        for (PendingNotification row : rows) {
+            List<Long> ids;
+            try {
+                ids = transactionTemplate.execute(status -> insertBatch(List.of(row)));
+            } catch (Exception e) {
+                logger.error("Dropping notification for user {} (type {}, ride {}, created {}): {} ({})",
+                        row.userId, row.type, row.rideId, row.createdAt, row.message, e.getMessage());
+                continue;
+            }
+            unreadNotificationCounter.add(row.email, 1);
+            NotificationDTO dto = new NotificationDTO(ids.get(0), row.message, row.link, row.type, row.rideId,
+                    false, row.createdAt.toLocalDateTime());
+            notificationPushService.pushNotification(row.email, dto, true);
+        }
+    }
+
+    private List<Long> insertBatch(List<PendingNotification> rows) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(con -> con.prepareStatement(INSERT_SQL, new String[]{"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        PendingNotification row = rows.get(i);
+                        ps.setLong(1, row.userId);
+                        ps.setString(2, row.message);
+                        ps.setString(3, row.link);
+                        ps.setString(4, row.type);
+                        if (row.rideId != null) {
+                            ps.setLong(5, row.rideId);
+                        } else {
+                            ps.setNull(5, Types.BIGINT);
+                        }
+                        ps.setTimestamp(6, row.createdAt);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return rows.size();
+                    }
+                }, keyHolder);
+        return keyHolder.getKeyList().stream()
+                .map(keys -> ((Number) keys.get("id")).longValue())
+                .collect(Collectors.toList());
+    }
+
+    private static class PendingNotification {
+        private final long userId;
+        private final String email;
+        private final String message;
+        private final String link;
+        private final String type;
+        private final Long rideId;
+        private final Timestamp createdAt;
+
+        PendingNotification(long userId, String email, String message, String link, String type, Long rideId,
+                            Timestamp createdAt) {
+            this.userId = userId;
+            this.email = email;
+            this.message = message;
+            this.link = link;
+            this.type = type;
+            this.rideId = rideId;
+            this.createdAt = createdAt;
+        }
+    }
+}
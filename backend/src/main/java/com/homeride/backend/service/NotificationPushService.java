@@ -0,0 +1,62 @@
+package com.homeride.backend.service;
+
+import com.homeride.backend.dto.NotificationDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.messaging.MessagingException;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Pushes notifications to the user's STOMP sessions (/user/queue/notifications) and keeps their
+ * unread badge in step through small deltas on /user/queue/notifications.unread.
+ * Push is best effort: a client that was offline catches up through the resume handshake.
+ */
+@Service
+public class NotificationPushService {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationPushService.class);
+
+    public static final String NOTIFICATIONS_QUEUE = "/queue/notifications";
+    public static final String UNREAD_QUEUE = "/queue/notifications.unread";
+
+    private final SimpMessagingTemplate messagingTemplate;
+
+    @Autowired
+    public NotificationPushService(SimpMessagingTemplate messagingTemplate) {
+        this.messagingTemplate = messagingTemplate;
+    }
+
+    /**
+     * @param countsAsUnread false when an existing unread notification was only bumped
+     */
+    public void pushNotification(String email, NotificationDTO notification, boolean countsAsUnread) {
+        send(email, NOTIFICATIONS_QUEUE, notification);
+        if (countsAsUnread) {
+            pushUnreadDelta(email, 1, notification.getId());
+        }
+    }
+
+    public void pushUnreadDelta(String email, int delta, Long notificationId) {
+        if (delta == 0) {
+            return;
+        }
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("delta", delta);
+        // Lets the client ignore a +1 for a notification it already counted from the resume snapshot
+        payload.put("notificationId", notificationId);
+        send(email, UNREAD_QUEUE, payload);
+    }
+
+    private void send(String email, String destination, Object payload) {
+        try {
+            messagingTemplate.convertAndSendToUser(email, destination, payload);
+        } catch (MessagingException e) {
+            logger.warn("Could not push to /user{} for {}: {}", destination, email, e.getMessage());
+        }
+    }
+}
@@ -1,41 +1,77 @@
 package com.homeride.backend.service;
 
+import com.homeride.backend.event.NotificationEvent;
 import com.homeride.backend.model.Employee;
-import com.homeride.backend.model.Notification;
 import com.homeride.backend.repository.NotificationRepository;
+import io.micrometer.observation.annotation.Observed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import java.time.LocalDateTime;
-import java.util.Optional;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 
 @Service
+@Observed(name = "notifications.operations")
 public class NotificationService {
 
     @Autowired
     private NotificationRepository notificationRepository;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private NotificationPushService notificationPushService;
+
+    @Autowired
+    private UnreadNotificationCounter unreadNotificationCounter;
+
+    @Autowired
+    private NotificationDispatcher notificationDispatcher;
+
     public void createNotification(Employee user, String message, String link, String type, Long rideId) {
-        Notification notification = new Notification();
-        notification.setUser(user);
-        notification.setMessage(message);
-        notification.setLink(link);
-        notification.setType(type);
-        notification.setRideId(rideId);
-        notificationRepository.save(notification);
+        createNotifications(List.of(user), message, link, type, rideId);
     }
 
-    public void createOrUpdateChatNotification(Employee user, String message, String link, Long rideId) {
-        Optional<Notification> existingNotification = notificationRepository.findFirstByUserAndRideIdAndTypeAndIsReadFalse(user, rideId, "CHAT_MESSAGE");
-
-        if (existingNotification.isPresent()) {
-            // Notification already exists, just update the timestamp to bump it up
-            Notification notification = existingNotification.get();
-            notification.setCreatedAt(LocalDateTime.now()); // Update timestamp
-            notificationRepository.save(notification);
-        } else {
-            // No unread chat notification for this ride, create a new one
-            createNotification(user, message, link, "CHAT_MESSAGE", rideId);
+    /**
+     * Queues the same notification for several users. Nothing is written on the calling thread:
+     * the rows are inserted in batches by NotificationDispatcher once the current transaction commits.
+     */
+    public void createNotifications(Collection<Employee> users, String message, String link, String type, Long rideId) {
+        if (users.isEmpty()) {
+            return;
         }
+        Map<Long, String> recipients = new LinkedHashMap<>();
+        users.forEach(user -> recipients.put(user.getId(), user.getEmail()));
+        eventPublisher.publishEvent(new NotificationEvent(recipients, message, link, type, rideId, LocalDateTime.now()));
+    }
+
+    /**
+     * Marks one notification read if it belongs to the user and is still unread.
+     */
+    public void markAsRead(Long notificationId, String email) {
+        if (notificationRepository.markAsRead(notificationId, email) > 0) {
+            unreadNotificationCounter.add(email, -1);
+            notificationPushService.pushUnreadDelta(email, -1, notificationId);
+        }
+    }
+
+    public void markAllAsRead(String email) {
+        int updated = notificationRepository.markAllAsRead(email);
+        unreadNotificationCounter.add(email, -updated);
+        notificationPushService.pushUnreadDelta(email, -updated, null);
+    }
+
+    /**
+     * Gives each recipient (id -> email) one unread chat notification per ride: new if they have
+     * none, otherwise the existing one is bumped to the top. Written asynchronously, in one
+     * statement for all recipients of a message.
+     */
+    public void createOrUpdateChatNotifications(Map<Long, String> recipients, String message, String link, Long rideId) {
+        notificationDispatcher.dispatchChatNotifications(recipients, message, link, rideId);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,215 @@
+package com.homeride.backend.service;
+
+import jakarta.annotation.PreDestroy;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Lightweight cross-node event bus on top of PostgreSQL LISTEN/NOTIFY.
+ * One dedicated connection listens on every subscribed channel and hands payloads to the
+ * registered handlers on a single background thread. When the database is not PostgreSQL
+ * the bus stays disabled and the application behaves as a single node.
+ */
+@Service
+public class PgNotifyService implements ClusterMessageBus {
+
+    private static final Logger logger = LoggerFactory.getLogger(PgNotifyService.class);
+
+    // NOTIFY payloads are limited to 8000 bytes by PostgreSQL
+    public static final int MAX_PAYLOAD_BYTES = 7999;
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final Map<String, List<Consumer<String>>> handlers = new ConcurrentHashMap<>();
+    private final List<Runnable> reconnectHandlers = new CopyOnWriteArrayList<>();
+    // Identifies this process in payloads, for subscribers that must ignore their own notifications
+    private final String nodeId = UUID.randomUUID().toString();
+
+    @Value("${pg.notify.poll-interval-ms:500}")
+    private int pollIntervalMs;
+
+    @Value("${pg.notify.reconnect-delay-ms:5000}")
+    private long reconnectDelayMs;
+
+    private volatile boolean running;
+    private volatile boolean channelsChanged;
+    private volatile Connection listenConnection;
+    private Thread listenerThread;
+
+    public PgNotifyService(DataSource dataSource) {
+        this.dataSource = dataSource;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @Override
+    public void subscribe(String channel, Consumer<String> handler) {
+        handlers.computeIfAbsent(channel, c -> new CopyOnWriteArrayList<>()).add(handler);
+        channelsChanged = true;
+    }
+
+    /**
+     * Registers a callback that runs after the listener (re)connects, so subscribers can
+     * resynchronise state for notifications that were missed while disconnected.
+     */
+    @Override
+    public void onReconnect(Runnable handler) {
+        reconnectHandlers.add(handler);
+    }
+
+    /**
+     * Publishes a payload to all nodes (including this one). When called inside a transaction
+     * the notification is only delivered once that transaction commits.
+     */
+    @Override
+    public void publish(String channel, String payload) {
+        if (!running) {
+            return;
+        }
+        jdbcTemplate.query("SELECT pg_notify(?, ?)", ps -> {
+            ps.setString(1, channel);
+            ps.setString(2, payload);
+        }, rs -> null);
+    }
+
+    @Override
+    public int getMaxPayloadBytes() {
+        return MAX_PAYLOAD_BYTES;
+    }
+
+    @Override
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return running;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        try (Connection probe = dataSource.getConnection()) {
+            if (!probe.isWrapperFor(PGConnection.class)) {
+                logger.info("DataSource is not PostgreSQL; LISTEN/NOTIFY fan-out disabled (single-node mode).");
+                return;
+            }
+        } catch (SQLException e) {
+            logger.warn("Could not probe DataSource for LISTEN/NOTIFY support: {}", e.getMessage());
+            return;
+        }
+
+        running = true;
+        listenerThread = new Thread(this::listenLoop, "pg-notify-listener");
+        listenerThread.setDaemon(true);
+        listenerThread.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (listenerThread != null) {
+            listenerThread.interrupt();
+        }
+        closeQuietly(listenConnection);
+    }
+
+    private void listenLoop() {
+        boolean firstConnect = true;
+        while (running) {
+            try (Connection connection = dataSource.getConnection()) {
+                listenConnection = connection;
+                connection.setAutoCommit(true);
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                listenAll(connection);
+                if (!firstConnect) {
+                    reconnectHandlers.forEach(this::runSafely);
+                }
+                firstConnect = false;
+
+                while (running) {
+                    if (channelsChanged) {
+                        listenAll(connection);
+                    }
+                    PGNotification[] notifications = pgConnection.getNotifications(pollIntervalMs);
+                    if (notifications == null) {
+                        continue;
+                    }
+                    for (PGNotification notification : notifications) {
+                        dispatch(notification.getName(), notification.getParameter());
+                    }
+                }
+            } catch (SQLException e) {
+                if (running) {
+                    logger.warn("LISTEN connection lost, retrying in {}ms: {}", reconnectDelayMs, e.getMessage());
+                    sleepQuietly(reconnectDelayMs);
+                }
+            } finally {
+                listenConnection = null;
+            }
+        }
+    }
+
+    private void listenAll(Connection connection) throws SQLException {
+        channelsChanged = false;
+        try (Statement statement = connection.createStatement()) {
+            for (String channel : handlers.keySet()) {
+                statement.execute("LISTEN \"" + channel.replace("\"", "") + "\"");
+            }
+        }
+    }
+
+    private void dispatch(String channel, String payload) {
+        List<Consumer<String>> channelHandlers = handlers.get(channel);
+        if (channelHandlers == null) {
+            return;
+        }
+        for (Consumer<String> handler : channelHandlers) {
+            runSafely(() -> handler.accept(payload));
+        }
+    }
+
+    private void runSafely(Runnable runnable) {
+        try {
+            runnable.run();
+        } catch (Exception e) {
+            logger.error("Error while handling LISTEN/NOTIFY event", e);
+        }
+    }
+
+    private void sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void closeQuietly(Connection connection) {
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.close();
+        } catch (SQLException ignored) {
+            // already closed by the listener thread
+        }
+    }
+}
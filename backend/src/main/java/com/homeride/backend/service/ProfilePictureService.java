@@ -0,0 +1,285 @@
+package com.homeride.backend.service;
+
+import com.homeride.backend.dto.ProfilePictureStatusDTO;
+import com.homeride.backend.event.EmployeeProfileChangedEvent;
+import com.homeride.backend.model.ProfileImage;
+import com.homeride.backend.repository.EmployeeRepository;
+import com.homeride.backend.repository.ProfileImageRepository;
+import com.homeride.backend.util.ImageResizer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Profile picture uploads. The request thread only streams the upload to a spool file (hashing it
+ * on the way) and checks the image header; resizing to the avatar sizes and storing them happens on
+ * a small worker pool, after which the employee's picture URL is updated.
+ * <p>
+ * Images are deduplicated by the SHA-256 of the uploaded file: a file that was processed before is
+ * applied immediately, and identical uploads in progress at the same time are processed once.
+ * When the worker queue is full the uploading thread processes its own image (backpressure); once
+ * the pool is shut down, new uploads fail instead of being dropped.
+ */
+@Service
+public class ProfilePictureService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProfilePictureService.class);
+
+    public static final int SMALL_SIZE = 64;
+    public static final int MEDIUM_SIZE = 128;
+    public static final int LARGE_SIZE = 256;
+
+    private static final String PROCESSING = "PROCESSING";
+    private static final String DONE = "DONE";
+    private static final String FAILED = "FAILED";
+
+    private final ImageStorageBackend storageBackend;
+    private final ProfileImageRepository profileImageRepository;
+    private final EmployeeRepository employeeRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    // content hash -> processing in progress
+    private final Map<String, CompletableFuture<ProfileImage>> inFlight = new ConcurrentHashMap<>();
+    // email -> latest upload
+    private final Map<String, Upload> uploads = new ConcurrentHashMap<>();
+
+    @Value("${storage.avatar.spool-directory:${java.io.tmpdir}}")
+    private String spoolDirectoryName;
+
+    @Value("${storage.avatar.max-pixels:40000000}")
+    private long maxPixels;
+
+    @Value("${storage.avatar.worker-threads:2}")
+    private int workerThreads;
+
+    @Value("${storage.avatar.queue-capacity:100}")
+    private int queueCapacity;
+
+    @Value("${storage.avatar.status-ttl-ms:600000}")
+    private long statusTtlMs;
+
+    private Path spoolDirectory;
+    private ThreadPoolExecutor executor;
+
+    @Autowired
+    public ProfilePictureService(ImageStorageBackend storageBackend,
+                                 ProfileImageRepository profileImageRepository,
+                                 EmployeeRepository employeeRepository,
+                                 ApplicationEventPublisher eventPublisher) {
+        this.storageBackend = storageBackend;
+        this.profileImageRepository = profileImageRepository;
+        this.employeeRepository = employeeRepository;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        spoolDirectory = Files.createDirectories(Paths.get(spoolDirectoryName));
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = new ThreadPoolExecutor(workerThreads, workerThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "profile-picture-worker-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                (task, pool) -> {
+                    // CallerRunsPolicy would silently discard the task after shutdown
+                    if (pool.isShutdown()) {
+                        throw new RejectedExecutionException("Profile picture workers are shut down");
+                    }
+                    task.run();
+                });
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(30, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Accepts a new profile picture. Returns DONE if the same image was processed before (the URL is
+     * already updated), otherwise PROCESSING. Throws IllegalArgumentException for files that are not
+     * a supported image.
+     */
+    public ProfilePictureStatusDTO accept(String email, MultipartFile file) throws IOException {
+        if (file.isEmpty()) {
+            throw new IllegalArgumentException("Failed to store empty file.");
+        }
+        Path spooled = Files.createTempFile(spoolDirectory, "avatar-", ".upload");
+        try {
+            String hash = spool(file, spooled);
+            ImageResizer.probe(spooled, maxPixels);
+
+            ProfileImage existing = profileImageRepository.findByContentHash(hash).orElse(null);
+            if (existing != null) {
+                Files.deleteIfExists(spooled);
+                applyProfilePicture(email, existing.getLargeUrl());
+                Upload done = new Upload(DONE, existing.getLargeUrl(), null);
+                uploads.put(email, done);
+                return done.toDTO();
+            }
+
+            Upload upload = new Upload(PROCESSING, null, null);
+            uploads.put(email, upload);
+            process(hash, spooled).whenComplete((image, error) -> finish(email, upload, image, error));
+            return uploads.getOrDefault(email, upload).toDTO();
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(spooled);
+            throw e;
+        }
+    }
+
+    /**
+     * Status of the caller's latest upload, or null if there is none on this node.
+     */
+    public ProfilePictureStatusDTO getStatus(String email) {
+        Upload upload = uploads.get(email);
+        return upload == null ? null : upload.toDTO();
+    }
+
+    @Scheduled(fixedDelayString = "${storage.avatar.status-purge-interval-ms:300000}")
+    public void purgeFinishedUploads() {
+        long cutoff = System.currentTimeMillis() - statusTtlMs;
+        uploads.values().removeIf(upload -> !PROCESSING.equals(upload.status) && upload.updatedAt < cutoff);
+    }
+
+    private String spool(MultipartFile file, Path target) throws IOException {
+        MessageDigest digest = sha256();
+        try (InputStream in = new DigestInputStream(file.getInputStream(), digest)) {
+            Files.copy(in, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private CompletableFuture<ProfileImage> process(String hash, Path spooled) throws IOException {
+        CompletableFuture<ProfileImage> created = new CompletableFuture<>();
+        CompletableFuture<ProfileImage> existing = inFlight.putIfAbsent(hash, created);
+        if (existing != null) {
+            Files.deleteIfExists(spooled);
+            return existing;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    created.complete(resizeAndStore(hash, spooled));
+                } catch (Exception e) {
+                    created.completeExceptionally(e);
+                } finally {
+                    inFlight.remove(hash, created);
+                    deleteQuietly(spooled);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(hash, created);
+            deleteQuietly(spooled);
+            created.completeExceptionally(e);
+        }
+        return created;
+    }
+
+    private ProfileImage resizeAndStore(String hash, Path spooled) throws IOException {
+        BufferedImage source = ImageResizer.read(spooled, LARGE_SIZE, maxPixels);
+
+        ProfileImage image = new ProfileImage();
+        image.setContentHash(hash);
+        image.setSmallUrl(storeVariant(source, hash, SMALL_SIZE));
+        image.setMediumUrl(storeVariant(source, hash, MEDIUM_SIZE));
+        image.setLargeUrl(storeVariant(source, hash, LARGE_SIZE));
+        try {
+            return profileImageRepository.save(image);
+        } catch (DataIntegrityViolationException e) {
+            // Another node processed the same image at the same time
+            return profileImageRepository.findByContentHash(hash).orElseThrow(() -> e);
+        }
+    }
+
+    private String storeVariant(BufferedImage source, String hash, int size) throws IOException {
+        Path variant = Files.createTempFile(spoolDirectory, "avatar-" + size + "-", ".jpg");
+        try {
+            ImageResizer.writeSquareJpeg(source, size, variant);
+            return storageBackend.store("avatars/" + hash + "/" + size + ".jpg", variant, "image/jpeg");
+        } finally {
+            deleteQuietly(variant);
+        }
+    }
+
+    private void finish(String email, Upload upload, ProfileImage image, Throwable error) {
+        if (error != null) {
+            logger.error("Profile picture upload for {} failed", email, error);
+            uploads.replace(email, upload, new Upload(FAILED, null, "Could not process the image. Please try another one."));
+            return;
+        }
+        // Only the latest upload may set the picture; an older one that finishes late is dropped
+        if (uploads.replace(email, upload, new Upload(DONE, image.getLargeUrl(), null))) {
+            applyProfilePicture(email, image.getLargeUrl());
+        }
+    }
+
+    private void applyProfilePicture(String email, String url) {
+        employeeRepository.updateProfilePictureUrl(email, url);
+        eventPublisher.publishEvent(new EmployeeProfileChangedEvent(email));
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("Could not delete temporary file {}: {}", file, e.getMessage());
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static class Upload {
+        private final String status;
+        private final String url;
+        private final String message;
+        private final long updatedAt = System.currentTimeMillis();
+
+        Upload(String status, String url, String message) {
+            this.status = status;
+            this.url = url;
+            this.message = message;
+        }
+
+        ProfilePictureStatusDTO toDTO() {
+            return new ProfilePictureStatusDTO(status, url, message);
+        }
+    }
+}
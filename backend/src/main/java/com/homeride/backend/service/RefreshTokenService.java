@@ -0,0 +1,139 @@
+package com.homeride.backend.service;
+
+import com.homeride.backend.dto.LoginResponseDTO;
+import com.homeride.backend.model.Employee;
+import com.homeride.backend.model.RefreshToken;
+import com.homeride.backend.repository.EmployeeRepository;
+import com.homeride.backend.repository.RefreshTokenRepository;
+import com.homeride.backend.util.JwtUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.UUID;
+
+@Service
+public class RefreshTokenService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RefreshTokenService.class);
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final EmployeeRepository employeeRepository;
+    private final TokenRevocationService tokenRevocationService;
+    private final JwtUtil jwtUtil;
+
+    @Value("${jwt.refresh-token.expiration-ms:1209600000}")
+    private long refreshTokenExpirationMs;
+
+    @Autowired
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository,
+                               EmployeeRepository employeeRepository,
+                               TokenRevocationService tokenRevocationService,
+                               JwtUtil jwtUtil) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.employeeRepository = employeeRepository;
+        this.tokenRevocationService = tokenRevocationService;
+        this.jwtUtil = jwtUtil;
+    }
+
+    /**
+     * Starts a new session after a successful login.
+     */
+    @Transactional
+    public LoginResponseDTO startSession(String email) {
+        Employee employee = employeeRepository.findByEmail(email)
+                .orElseThrow(() -> new BadCredentialsException("User not found with email: " + email));
+        return issueTokens(employee, UUID.randomUUID().toString());
+    }
+
+    /**
+     * Exchanges a refresh token for a new access/refresh pair. Each refresh token can be used once;
+     * presenting an already-rotated token means it was stolen or replayed, so the whole session is revoked.
+     * The token row is locked for the check-and-rotate, so two concurrent refreshes with the same token
+     * cannot both pass: the second waits and then sees it as already used.
+     */
+    @Transactional(noRollbackFor = BadCredentialsException.class)
+    public LoginResponseDTO rotate(String rawRefreshToken) {
+        RefreshToken current = refreshTokenRepository.findForUpdate(hash(rawRefreshToken))
+                .orElseThrow(() -> new BadCredentialsException("Invalid refresh token"));
+
+        if (current.getRevokedAt() != null) {
+            throw new BadCredentialsException("Session has been revoked");
+        }
+        if (current.getRotatedAt() != null) {
+            logger.warn("Refresh token reuse detected for session {}; revoking session", current.getSessionId());
+            revokeSession(current.getSessionId());
+            throw new BadCredentialsException("Refresh token has already been used");
+        }
+        if (current.getExpiresAt().isBefore(LocalDateTime.now())) {
+            throw new BadCredentialsException("Refresh token has expired");
+        }
+
+        current.setRotatedAt(LocalDateTime.now());
+        refreshTokenRepository.save(current);
+        return issueTokens(current.getEmployee(), current.getSessionId());
+    }
+
+    @Transactional
+    public void logout(String rawRefreshToken) {
+        refreshTokenRepository.findByTokenHashWithEmployee(hash(rawRefreshToken))
+                .ifPresent(token -> revokeSession(token.getSessionId()));
+    }
+
+    private void revokeSession(String sessionId) {
+        refreshTokenRepository.revokeSession(sessionId, LocalDateTime.now());
+        tokenRevocationService.revoke(sessionId);
+    }
+
+    @Scheduled(cron = "0 0 3 * * *")
+    @Transactional
+    public void deleteExpiredTokens() {
+        int deleted = refreshTokenRepository.deleteExpiredBefore(LocalDateTime.now());
+        logger.info("Deleted {} expired refresh tokens", deleted);
+    }
+
+    private LoginResponseDTO issueTokens(Employee employee, String sessionId) {
+        byte[] randomBytes = new byte[32];
+        RANDOM.nextBytes(randomBytes);
+        String rawRefreshToken = Base64.getUrlEncoder().withoutPadding().encodeToString(randomBytes);
+
+        RefreshToken refreshToken = new RefreshToken();
+        refreshToken.setTokenHash(hash(rawRefreshToken));
+        refreshToken.setSessionId(sessionId);
+        refreshToken.setEmployee(employee);
+        refreshToken.setExpiresAt(LocalDateTime.now().plus(Duration.ofMillis(refreshTokenExpirationMs)));
+        refreshTokenRepository.save(refreshToken);
+
+        UserDetails userDetails = new User(employee.getEmail(), "",
+                Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + employee.getRole())));
+        String accessToken = jwtUtil.generateToken(userDetails, sessionId);
+        return new LoginResponseDTO(accessToken, rawRefreshToken, jwtUtil.getAccessTokenExpirationMs() / 1000);
+    }
+
+    private static String hash(String rawToken) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(rawToken.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
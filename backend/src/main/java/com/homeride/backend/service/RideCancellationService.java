@@ -1,15 +1,20 @@
 // backend/src/main/java/com/homeride/backend/service/RideCancellationService.java
 package com.homeride.backend.service;
 
+import com.homeride.backend.event.RideActivityEvent;
 import com.homeride.backend.model.Employee;
 import com.homeride.backend.model.RideRequest;
 import com.homeride.backend.model.RideParticipant;
 import com.homeride.backend.repository.RideRequestRepository;
 import com.homeride.backend.repository.RideParticipantRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
+import java.util.stream.Collectors;
+
 @Service
 public class RideCancellationService {
 
@@ -17,17 +22,20 @@ public class RideCancellationService {
     private final RideParticipantRepository rideParticipantRepository;
     private final NotificationService notificationService;
     private final RatingService ratingService;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Autowired
     public RideCancellationService(
             RideRequestRepository rideRequestRepository,
             RideParticipantRepository rideParticipantRepository,
             NotificationService notificationService,
-            RatingService ratingService) {
+            RatingService ratingService,
+            ApplicationEventPublisher eventPublisher) {
         this.rideRequestRepository = rideRequestRepository;
         this.rideParticipantRepository = rideParticipantRepository;
         this.notificationService = notificationService;
         this.ratingService = ratingService;
+        this.eventPublisher = eventPublisher;
     }
 
     @Transactional
@@ -46,6 +54,7 @@ public class RideCancellationService {
         // Remove participant from the ride's collection and delete the record
         ride.getParticipants().remove(participantToRemove);
         rideParticipantRepository.delete(participantToRemove);
+        eventPublisher.publishEvent(RideActivityEvent.bookingCancelled(participantToRemove));
 
         // Delete only ratings associated with this specific user for this ride
         ratingService.deleteRatingsForParticipantOnRide(ride, participantUser);
@@ -76,21 +85,23 @@ public class RideCancellationService {
         // Delete all ratings associated with this ride
         ratingService.deleteAllRatingsForRide(ride);
 
-        // Notify all participants before deleting
-        for (RideParticipant participant : ride.getParticipants()) {
-            String message = "Your ride from " + ride.getOriginCity() + " to " +
-                    ride.getDestinationCity() + " has been cancelled by the driver.";
-
-            notificationService.createNotification(
-                    participant.getParticipant(),
-                    message,
-                    "/dashboard",
-                    "RIDE_CANCELLED",
-                    ride.getId()
-            );
-        }
+        // Notify all participants before deleting (written in one batch after commit)
+        String message = "Your ride from " + ride.getOriginCity() + " to " +
+                ride.getDestinationCity() + " has been cancelled by the driver.";
+        List<Employee> passengers = ride.getParticipants().stream()
+                .map(RideParticipant::getParticipant)
+                .collect(Collectors.toList());
+
+        notificationService.createNotifications(
+                passengers,
+                message,
+                "/dashboard",
+                "RIDE_CANCELLED",
+                ride.getId()
+        );
 
         // Delete the ride. Cascade settings will automatically delete associated participants.
         rideRequestRepository.delete(ride);
+        eventPublisher.publishEvent(RideActivityEvent.rideCancelled(ride));
     }
 }
\ No newline at end of file
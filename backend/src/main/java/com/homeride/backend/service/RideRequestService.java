@@ -4,6 +4,7 @@ import com.google.maps.model.LatLng;
 import com.homeride.backend.dto.RideRequestDTO;
 import com.homeride.backend.dto.StopoverDto;
 import com.homeride.backend.dto.TravelInfo;
+import com.homeride.backend.event.RideActivityEvent;
 import com.homeride.backend.model.Employee;
 import com.homeride.backend.model.RideParticipant;
 import com.homeride.backend.model.RideRequest;
@@ -11,9 +12,11 @@ import com.homeride.backend.model.Stopover;
 import com.homeride.backend.repository.EmployeeRepository;
 import com.homeride.backend.repository.RideParticipantRepository;
 import com.homeride.backend.repository.RideRequestRepository;
+import io.micrometer.observation.annotation.Observed;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -38,6 +41,7 @@ public class RideRequestService {
     private final RatingService ratingService;
     private final NotificationService notificationService;
     private final PricingService pricingService;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Autowired
     public RideRequestService(RideRequestRepository rideRequestRepository,
@@ -46,7 +50,8 @@ public class RideRequestService {
                               GoogleMapsService googleMapsService,
                               RatingService ratingService,
                               NotificationService notificationService,
-                              PricingService pricingService) {
+                              PricingService pricingService,
+                              ApplicationEventPublisher eventPublisher) {
         this.rideRequestRepository = rideRequestRepository;
         this.employeeRepository = employeeRepository;
         this.rideParticipantRepository = rideParticipantRepository;
@@ -54,9 +59,11 @@ public class RideRequestService {
         this.ratingService = ratingService;
         this.notificationService = notificationService;
         this.pricingService = pricingService;
+        this.eventPublisher = eventPublisher;
     }
 
     @Transactional
+    @Observed(name = "rides.operations", contextualName = "rides create", lowCardinalityKeyValues = {"operation", "create"})
     public RideRequest createRideOffer(RideRequestDTO rideRequestDTO, String requesterEmail) {
         Employee requester = employeeRepository.findByEmail(requesterEmail)
                 .orElseThrow(() -> new RuntimeException("Employee not found with email: " + requesterEmail));
@@ -106,7 +113,7 @@ public class RideRequestService {
                 rideRequestDTO.getOrigin(),
                 rideRequestDTO.getDestination()
         );
-        logger.info("Direct Distance (for pricing): {:.2f}km", directDistance);
+        logger.info("Direct Distance (for pricing): {} km", String.format("%.2f", directDistance));
 
         // ===== GET FULL ROUTE INFO WITH STOPOVERS (for display & segment pricing) =====
         String[] stopsArray = stopoverEntities.stream()
@@ -192,6 +199,7 @@ public class RideRequestService {
 
         // Save ride
         RideRequest savedRide = rideRequestRepository.save(newRideOffer);
+        eventPublisher.publishEvent(RideActivityEvent.rideOffered(savedRide));
 
         // Notification
         String message = "You offered a ride from " + savedRide.getOriginCity() +
@@ -218,6 +226,7 @@ public class RideRequestService {
         return ride;
     }
 
+    @Observed(name = "rides.operations", contextualName = "rides search", lowCardinalityKeyValues = {"operation", "search"})
     public List<RideRequest> getAllRideRequests(String origin, String destination, String travelDateTime, Integer passengerCount) {
         List<RideRequest> rides = rideRequestRepository.findAll().stream()
                 .filter(r -> "OFFERED".equals(r.getRideType()) && r.getTravelDateTime().isAfter(LocalDateTime.now()))
@@ -267,7 +276,8 @@ public class RideRequestService {
         return filteredRides;
     }
 
-    private boolean canAccommodateJourney(RideRequest ride, String searchOrigin, String searchDestination) {
+    // Package-private for the benchmarks module (RideMatchingBenchmark)
+    boolean canAccommodateJourney(RideRequest ride, String searchOrigin, String searchDestination) {
         List<RoutePoint> fullPath = buildFullPath(ride);
 
         logger.debug("=== Checking Ride ID: {} for Journey: '{}' -> '{}' ===", ride.getId(), searchOrigin, searchDestination);
@@ -312,7 +322,7 @@ public class RideRequestService {
         return fullPath;
     }
 
-    private boolean matchesLocation(RoutePoint routePoint, String searchLocation) {
+    boolean matchesLocation(RoutePoint routePoint, String searchLocation) {
         if (searchLocation == null || searchLocation.trim().isEmpty() || routePoint == null) {
             return false;
         }
@@ -377,17 +387,20 @@ public class RideRequestService {
             throw new IllegalStateException("You are not authorized to delete this ride.");
         }
 
-        ride.getParticipants().forEach(participant -> {
-            String message = "Your ride from " + ride.getOriginCity() + " to " + ride.getDestinationCity() + " has been canceled by the driver.";
-            notificationService.createNotification(participant.getParticipant(), message, "/dashboard", "RIDE_CANCELED", ride.getId());
-        });
+        String message = "Your ride from " + ride.getOriginCity() + " to " + ride.getDestinationCity() + " has been canceled by the driver.";
+        List<Employee> passengers = ride.getParticipants().stream()
+                .map(RideParticipant::getParticipant)
+                .collect(Collectors.toList());
+        notificationService.createNotifications(passengers, message, "/dashboard", "RIDE_CANCELED", ride.getId());
 
         ratingService.deleteAllRatingsForRide(ride);
         logger.info("User {} authorized. Deleting ride ID: {}", userEmail, rideId);
         rideRequestRepository.delete(ride);
+        eventPublisher.publishEvent(RideActivityEvent.rideCancelled(ride));
     }
 
     @Transactional
+    @Observed(name = "rides.operations", contextualName = "rides join", lowCardinalityKeyValues = {"operation", "join"})
     public RideParticipant joinRideRequest(Long rideId, String participantEmail, Map<String, Object> segmentDetails) {
         RideRequest rideRequest = rideRequestRepository.findById(rideId)
                 .orElseThrow(() -> new RuntimeException("Ride not found with id: " + rideId));
@@ -447,6 +460,7 @@ public class RideRequestService {
         rideParticipant.setNumberOfSeats(numberOfSeats);
 
         RideParticipant savedParticipant = rideParticipantRepository.save(rideParticipant);
+        eventPublisher.publishEvent(RideActivityEvent.bookingAdded(savedParticipant));
 
         String seatText = numberOfSeats > 1 ? numberOfSeats + " seats" : "1 seat";
         String driverMessage = participant.getName() + " booked " + seatText + " on your ride: " +
@@ -497,7 +511,7 @@ public class RideRequestService {
         return userRides;
     }
 
-    private static class RoutePoint {
+    static class RoutePoint {
         private final String city;
         private final String point;
 
@@ -0,0 +1,238 @@
+package com.homeride.backend.service;
+
+import com.homeride.backend.dto.RideStatsBucketDTO;
+import com.homeride.backend.dto.RouteStatsDTO;
+import com.homeride.backend.event.RideActivityEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Daily ride statistics for the admin reports, kept in ride_daily_stats and ride_route_daily_stats.
+ * <p>
+ * Rides and bookings publish a RideActivityEvent; its deltas are added to the rollup rows in the
+ * same transaction, so the rollups commit (or roll back) together with the change. Reports only
+ * read the rollup tables. A backfill recomputes a range of days from the base tables: once at
+ * startup when the tables are empty, nightly for the days around today, and on demand.
+ * <p>
+ * Incremental updates hold a shared advisory lock until they commit and the backfill takes it
+ * exclusively, so a backfill never reads the base tables while a delta for them is uncommitted.
+ * The backfill works one day per transaction, so ride writes wait for one day's recomputation at
+ * most, however long the range.
+ */
+@Service
+public class RideStatsRollupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RideStatsRollupService.class);
+
+    private static final long ROLLUP_LOCK_KEY = 0x726964657374L; // "ridest"
+
+    public static final int MAX_TOP_ROUTES = 100;
+
+    public static final int MAX_BACKFILL_DAYS = 366;
+
+    private static final Map<String, String> GRANULARITIES = Map.of("day", "day", "week", "week", "month", "month");
+
+    private static final String ADD_DAILY_SQL =
+            "INSERT INTO ride_daily_stats (stat_date, rides_offered, seats_offered, bookings, seats_booked, revenue, " +
+            "rides_cancelled, bookings_cancelled, seats_cancelled) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+            "ON CONFLICT (stat_date) DO UPDATE SET " +
+            "rides_offered = ride_daily_stats.rides_offered + EXCLUDED.rides_offered, " +
+            "seats_offered = ride_daily_stats.seats_offered + EXCLUDED.seats_offered, " +
+            "bookings = ride_daily_stats.bookings + EXCLUDED.bookings, " +
+            "seats_booked = ride_daily_stats.seats_booked + EXCLUDED.seats_booked, " +
+            "revenue = ride_daily_stats.revenue + EXCLUDED.revenue, " +
+            "rides_cancelled = ride_daily_stats.rides_cancelled + EXCLUDED.rides_cancelled, " +
+            "bookings_cancelled = ride_daily_stats.bookings_cancelled + EXCLUDED.bookings_cancelled, " +
+            "seats_cancelled = ride_daily_stats.seats_cancelled + EXCLUDED.seats_cancelled";
+
+    private static final String ADD_ROUTE_SQL =
+            "INSERT INTO ride_route_daily_stats (stat_date, origin_city, destination_city, rides_offered, seats_booked, revenue) " +
+            "VALUES (?, ?, ?, ?, ?, ?) " +
+            "ON CONFLICT (stat_date, origin_city, destination_city) DO UPDATE SET " +
+            "rides_offered = ride_route_daily_stats.rides_offered + EXCLUDED.rides_offered, " +
+            "seats_booked = ride_route_daily_stats.seats_booked + EXCLUDED.seats_booked, " +
+            "revenue = ride_route_daily_stats.revenue + EXCLUDED.revenue";
+
+    // One row per day of the range, so days whose rides are all gone are reset to zero.
+    // The cancellation counters cannot be recomputed and are left alone.
+    private static final String BACKFILL_DAILY_SQL =
+            "INSERT INTO ride_daily_stats (stat_date, rides_offered, seats_offered, bookings, seats_booked, revenue, " +
+            "rides_cancelled, bookings_cancelled, seats_cancelled) " +
+            "SELECT d.stat_date, COALESCE(r.rides, 0), COALESCE(r.seats, 0), COALESCE(b.bookings, 0), " +
+            "COALESCE(b.seats, 0), COALESCE(b.revenue, 0), 0, 0, 0 " +
+            "FROM (SELECT CAST(g AS date) AS stat_date FROM generate_series(CAST(? AS timestamp), CAST(? AS timestamp), INTERVAL '1 day') g) d " +
+            "LEFT JOIN (SELECT CAST(travel_date_time AS date) AS stat_date, COUNT(*) AS rides, " +
+            "COALESCE(SUM(vehicle_capacity), 0) AS seats FROM ride_requests " +
+            "WHERE travel_date_time >= ? AND travel_date_time < ? GROUP BY 1) r ON r.stat_date = d.stat_date " +
+            "LEFT JOIN (SELECT CAST(rr.travel_date_time AS date) AS stat_date, COUNT(*) AS bookings, " +
+            "SUM(COALESCE(p.number_of_seats, 1)) AS seats, SUM(COALESCE(p.price, 0)) AS revenue " +
+            "FROM ride_participants p JOIN ride_requests rr ON rr.id = p.ride_request_id " +
+            "WHERE rr.travel_date_time >= ? AND rr.travel_date_time < ? GROUP BY 1) b ON b.stat_date = d.stat_date " +
+            "ON CONFLICT (stat_date) DO UPDATE SET rides_offered = EXCLUDED.rides_offered, " +
+            "seats_offered = EXCLUDED.seats_offered, bookings = EXCLUDED.bookings, " +
+            "seats_booked = EXCLUDED.seats_booked, revenue = EXCLUDED.revenue";
+
+    private static final String DELETE_ROUTES_SQL =
+            "DELETE FROM ride_route_daily_stats WHERE stat_date >= ? AND stat_date <= ?";
+
+    private static final String BACKFILL_ROUTES_SQL =
+            "INSERT INTO ride_route_daily_stats (stat_date, origin_city, destination_city, rides_offered, seats_booked, revenue) " +
+            "SELECT CAST(r.travel_date_time AS date), r.origin_city, r.destination_city, COUNT(*), " +
+            "COALESCE(SUM(b.seats), 0), COALESCE(SUM(b.revenue), 0) " +
+            "FROM ride_requests r " +
+            "LEFT JOIN (SELECT ride_request_id, SUM(COALESCE(number_of_seats, 1)) AS seats, SUM(COALESCE(price, 0)) AS revenue " +
+            "FROM ride_participants GROUP BY ride_request_id) b ON b.ride_request_id = r.id " +
+            "WHERE r.travel_date_time >= ? AND r.travel_date_time < ? " +
+            "GROUP BY 1, 2, 3";
+
+    private static final String STATS_SQL =
+            "SELECT CAST(date_trunc(?, CAST(stat_date AS timestamp)) AS date) AS period_start, SUM(rides_offered) AS rides_offered, " +
+            "SUM(seats_offered) AS seats_offered, SUM(bookings) AS bookings, SUM(seats_booked) AS seats_booked, " +
+            "SUM(revenue) AS revenue, SUM(rides_cancelled) AS rides_cancelled, " +
+            "SUM(bookings_cancelled) AS bookings_cancelled, SUM(seats_cancelled) AS seats_cancelled " +
+            "FROM ride_daily_stats WHERE stat_date >= ? AND stat_date <= ? GROUP BY 1 ORDER BY 1";
+
+    private static final String TOP_ROUTES_SQL =
+            "SELECT origin_city, destination_city, SUM(rides_offered) AS rides_offered, " +
+            "SUM(seats_booked) AS seats_booked, SUM(revenue) AS revenue " +
+            "FROM ride_route_daily_stats WHERE stat_date >= ? AND stat_date <= ? " +
+            "GROUP BY origin_city, destination_city HAVING SUM(rides_offered) > 0 " +
+            "ORDER BY rides_offered DESC, seats_booked DESC, origin_city, destination_city LIMIT ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${analytics.rollup.refresh-days-back:7}")
+    private int refreshDaysBack;
+
+    @Value("${analytics.rollup.refresh-days-ahead:90}")
+    private int refreshDaysAhead;
+
+    @Autowired
+    public RideStatsRollupService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onRideActivity(RideActivityEvent event) {
+        jdbcTemplate.execute("SELECT pg_advisory_xact_lock_shared(" + ROLLUP_LOCK_KEY + ")");
+        Date day = Date.valueOf(event.getTravelDate());
+        jdbcTemplate.update(ADD_DAILY_SQL, day, event.getRidesOffered(), event.getSeatsOffered(),
+                event.getBookings(), event.getSeatsBooked(), event.getRevenue(), event.getRidesCancelled(),
+                event.getBookingsCancelled(), event.getSeatsCancelled());
+        if (event.getRidesOffered() != 0 || event.getSeatsBooked() != 0 || event.getRevenue() != 0) {
+            jdbcTemplate.update(ADD_ROUTE_SQL, day, event.getOriginCity(), event.getDestinationCity(),
+                    event.getRidesOffered(), event.getSeatsBooked(), event.getRevenue());
+        }
+    }
+
+    /**
+     * Recomputes the rollups of the travel days from..to (inclusive, at most MAX_BACKFILL_DAYS) from
+     * the base tables.
+     */
+    public void backfill(LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("'to' must not be before 'from'.");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= MAX_BACKFILL_DAYS) {
+            throw new IllegalArgumentException("A backfill can cover at most " + MAX_BACKFILL_DAYS + " days.");
+        }
+        backfillDays(from, to);
+    }
+
+    private void backfillDays(LocalDate from, LocalDate to) {
+        long startedAt = System.currentTimeMillis();
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            backfillDay(day);
+        }
+        logger.info("Backfilled ride statistics for {} to {} in {} ms", from, to, System.currentTimeMillis() - startedAt);
+    }
+
+    private void backfillDay(LocalDate day) {
+        Timestamp start = Timestamp.valueOf(day.atStartOfDay());
+        Timestamp end = Timestamp.valueOf(day.plusDays(1).atStartOfDay());
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.execute("SELECT pg_advisory_xact_lock(" + ROLLUP_LOCK_KEY + ")");
+            jdbcTemplate.update(BACKFILL_DAILY_SQL, start, start, start, end, start, end);
+            jdbcTemplate.update(DELETE_ROUTES_SQL, Date.valueOf(day), Date.valueOf(day));
+            jdbcTemplate.update(BACKFILL_ROUTES_SQL, start, end);
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfEmpty() {
+        Boolean empty = jdbcTemplate.queryForObject("SELECT NOT EXISTS (SELECT 1 FROM ride_daily_stats)", Boolean.class);
+        if (!Boolean.TRUE.equals(empty)) {
+            return;
+        }
+        Map<String, Object> range = jdbcTemplate.queryForMap(
+                "SELECT CAST(MIN(travel_date_time) AS date) AS first_day, CAST(MAX(travel_date_time) AS date) AS last_day FROM ride_requests");
+        if (range.get("first_day") != null) {
+            // The whole history, however long: not limited like an on-demand backfill
+            backfillDays(((Date) range.get("first_day")).toLocalDate(), ((Date) range.get("last_day")).toLocalDate());
+        }
+    }
+
+    /**
+     * Safety net for missed deltas (e.g. rows changed outside the application): re-derives the
+     * days around today, where rides are still being booked and cancelled.
+     */
+    @Scheduled(cron = "${analytics.rollup.refresh-cron:0 30 3 * * *}")
+    public void refreshRecentDays() {
+        LocalDate today = LocalDate.now();
+        backfill(today.minusDays(refreshDaysBack), today.plusDays(refreshDaysAhead));
+    }
+
+    /**
+     * Totals per day, week or month (by travel date) between from and to, inclusive.
+     */
+    public List<RideStatsBucketDTO> getRideStats(LocalDate from, LocalDate to, String granularity) {
+        String unit = GRANULARITIES.get(granularity == null ? "day" : granularity.toLowerCase());
+        if (unit == null) {
+            throw new IllegalArgumentException("Granularity must be day, week or month.");
+        }
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("'to' must not be before 'from'.");
+        }
+        return jdbcTemplate.query(STATS_SQL, (rs, rowNum) -> {
+            long seatsOffered = rs.getLong("seats_offered");
+            long seatsBooked = rs.getLong("seats_booked");
+            double occupancy = seatsOffered > 0 ? Math.round(seatsBooked * 1000.0 / seatsOffered) / 10.0 : 0;
+            return new RideStatsBucketDTO(rs.getDate("period_start").toLocalDate(), rs.getLong("rides_offered"),
+                    seatsOffered, rs.getLong("bookings"), seatsBooked, occupancy, rs.getDouble("revenue"),
+                    rs.getLong("rides_cancelled"), rs.getLong("bookings_cancelled"), rs.getLong("seats_cancelled"));
+        }, unit, Date.valueOf(from), Date.valueOf(to));
+    }
+
+    /**
+     * City pairs with the most rides offered between from and to, inclusive.
+     */
+    public List<RouteStatsDTO> getTopRoutes(LocalDate from, LocalDate to, int limit) {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("'to' must not be before 'from'.");
+        }
+        return jdbcTemplate.query(TOP_ROUTES_SQL, (rs, rowNum) -> new RouteStatsDTO(
+                rs.getString("origin_city"), rs.getString("destination_city"), rs.getLong("rides_offered"),
+                rs.getLong("seats_booked"), rs.getDouble("revenue")),
+                Date.valueOf(from), Date.valueOf(to), Math.max(1, Math.min(limit, MAX_TOP_ROUTES)));
+    }
+}
@@ -0,0 +1,118 @@
+package com.homeride.backend.service;
+
+import com.homeride.backend.repository.RefreshTokenRepository;
+import com.homeride.backend.util.BloomFilter;
+import com.homeride.backend.util.JwtUtil;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps the set of revoked login sessions in memory so that the authentication filter can
+ * reject revoked access tokens without a database round-trip.
+ * A Bloom filter answers the common "not revoked" case; the exact map confirms hits and
+ * holds the time after which the entry is no longer needed (all its access tokens expired).
+ * Revocations are shared between nodes through PostgreSQL LISTEN/NOTIFY.
+ */
+@Service
+public class TokenRevocationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationService.class);
+
+    private static final String CHANNEL = "token_revocations";
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+    private static final int MIN_FILTER_CAPACITY = 1024;
+
+    private final ClusterMessageBus clusterMessageBus;
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final JwtUtil jwtUtil;
+
+    // sessionId -> epoch millis after which the revocation can be forgotten
+    private final Map<String, Long> revokedSessions = new ConcurrentHashMap<>();
+    private volatile BloomFilter filter = new BloomFilter(MIN_FILTER_CAPACITY, FALSE_POSITIVE_RATE);
+
+    @Autowired
+    public TokenRevocationService(ClusterMessageBus clusterMessageBus,
+                                  RefreshTokenRepository refreshTokenRepository,
+                                  JwtUtil jwtUtil) {
+        this.clusterMessageBus = clusterMessageBus;
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.jwtUtil = jwtUtil;
+    }
+
+    @PostConstruct
+    public void init() {
+        clusterMessageBus.subscribe(CHANNEL, this::onRemoteRevocation);
+        clusterMessageBus.onReconnect(this::loadRecentRevocations);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadRecentRevocations() {
+        LocalDateTime since = LocalDateTime.now().minus(Duration.ofMillis(jwtUtil.getAccessTokenExpirationMs()));
+        long forgetAt = System.currentTimeMillis() + jwtUtil.getAccessTokenExpirationMs();
+        refreshTokenRepository.findSessionIdsRevokedSince(since)
+                .forEach(sessionId -> addLocal(sessionId, forgetAt));
+        logger.info("Loaded {} recently revoked sessions into the revocation set", revokedSessions.size());
+    }
+
+    /**
+     * Hot path: one Bloom filter probe, plus a map lookup only on a (rare) filter hit.
+     */
+    public boolean isRevoked(String sessionId) {
+        if (!filter.mightContain(sessionId)) {
+            return false;
+        }
+        Long forgetAt = revokedSessions.get(sessionId);
+        return forgetAt != null && forgetAt > System.currentTimeMillis();
+    }
+
+    public void revoke(String sessionId) {
+        long forgetAt = System.currentTimeMillis() + jwtUtil.getAccessTokenExpirationMs();
+        addLocal(sessionId, forgetAt);
+        clusterMessageBus.publish(CHANNEL, sessionId + ":" + forgetAt);
+    }
+
+    private void onRemoteRevocation(String payload) {
+        int separator = payload.lastIndexOf(':');
+        if (separator <= 0) {
+            logger.warn("Ignoring malformed revocation payload: {}", payload);
+            return;
+        }
+        try {
+            addLocal(payload.substring(0, separator), Long.parseLong(payload.substring(separator + 1)));
+        } catch (NumberFormatException e) {
+            logger.warn("Ignoring malformed revocation payload: {}", payload);
+        }
+    }
+
+    private void addLocal(String sessionId, long forgetAt) {
+        revokedSessions.merge(sessionId, forgetAt, Math::max);
+        filter.put(sessionId);
+    }
+
+    /**
+     * Bloom filters cannot delete, so expired entries are dropped from the exact map and the
+     * filter is rebuilt from what remains. Entries added while rebuilding are copied over again
+     * after the swap so none can be lost.
+     */
+    @Scheduled(fixedDelayString = "${jwt.revocation.purge-interval-ms:60000}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        revokedSessions.entrySet().removeIf(entry -> entry.getValue() <= now);
+
+        BloomFilter rebuilt = new BloomFilter(Math.max(MIN_FILTER_CAPACITY, revokedSessions.size() * 2), FALSE_POSITIVE_RATE);
+        revokedSessions.keySet().forEach(rebuilt::put);
+        filter = rebuilt;
+        revokedSessions.keySet().forEach(rebuilt::put);
+    }
+}
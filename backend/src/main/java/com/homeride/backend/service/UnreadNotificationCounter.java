@@ -0,0 +1,113 @@
+package com.homeride.backend.service;
+
+import com.homeride.backend.repository.NotificationRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Per-user unread notification counts kept in memory, so the badge never needs a COUNT query.
+ * A user's counter is loaded from the database the first time it is asked for and then adjusted
+ * on every create/read. Other nodes drop their copy when this node changes a count (via
+ * PostgreSQL NOTIFY) and reload it on next use.
+ * <p>
+ * Changes are applied after commit, so a change that arrives while a counter is being loaded may
+ * or may not be in the loaded count; such a counter is not kept. A change committed just before
+ * the load whose delta arrives after it can still be counted twice, which is why resume re-reads
+ * the count from the database ({@link #reload}).
+ */
+@Service
+public class UnreadNotificationCounter {
+
+    private static final String CHANNEL = "notification_unread";
+
+    private final NotificationRepository notificationRepository;
+    private final ClusterMessageBus clusterMessageBus;
+
+    private final Map<String, AtomicLong> counters = new ConcurrentHashMap<>();
+    // Change stamps, striped by email: bumped on every change so a load can tell it raced one
+    private final AtomicLongArray changes = new AtomicLongArray(64);
+
+    @Autowired
+    public UnreadNotificationCounter(NotificationRepository notificationRepository, ClusterMessageBus clusterMessageBus) {
+        this.notificationRepository = notificationRepository;
+        this.clusterMessageBus = clusterMessageBus;
+    }
+
+    @PostConstruct
+    public void init() {
+        clusterMessageBus.subscribe(CHANNEL, this::onRemoteChange);
+        // Changes made elsewhere while the listener was down are unknown; start over
+        clusterMessageBus.onReconnect(() -> {
+            for (int i = 0; i < changes.length(); i++) {
+                changes.incrementAndGet(i);
+            }
+            counters.clear();
+        });
+    }
+
+    public long get(String email) {
+        AtomicLong counter = counters.get(email);
+        return counter != null ? counter.get() : load(email, false);
+    }
+
+    /**
+     * Reads the count from the database and replaces the user's counter with it.
+     */
+    public long reload(String email) {
+        return load(email, true);
+    }
+
+    /**
+     * Applies a change after it has been committed. Counters that are not loaded yet are left
+     * alone: they will be read from the database, which already includes the change.
+     */
+    public void add(String email, long delta) {
+        if (delta == 0) {
+            return;
+        }
+        changes.incrementAndGet(stripe(email));
+        counters.computeIfPresent(email, (e, counter) -> {
+            counter.updateAndGet(value -> Math.max(0, value + delta));
+            return counter;
+        });
+        clusterMessageBus.publish(CHANNEL, clusterMessageBus.getNodeId() + ":" + email);
+    }
+
+    private void onRemoteChange(String payload) {
+        int separator = payload.indexOf(':');
+        if (separator > 0 && !payload.substring(0, separator).equals(clusterMessageBus.getNodeId())) {
+            String email = payload.substring(separator + 1);
+            changes.incrementAndGet(stripe(email));
+            counters.remove(email);
+        }
+    }
+
+    // The COUNT runs outside the map: computeIfAbsent would hold a bin lock (and pin a virtual thread) for it
+    private long load(String email, boolean replace) {
+        long seen = changes.get(stripe(email));
+        long count = notificationRepository.countByUser_EmailAndIsReadFalse(email);
+        AtomicLong loaded = new AtomicLong(count);
+        if (replace) {
+            counters.put(email, loaded);
+        } else {
+            AtomicLong existing = counters.putIfAbsent(email, loaded);
+            if (existing != null) {
+                return existing.get();
+            }
+        }
+        if (changes.get(stripe(email)) != seen) {
+            counters.remove(email, loaded);
+        }
+        return count;
+    }
+
+    private int stripe(String email) {
+        return email.hashCode() & (changes.length() - 1);
+    }
+}
@@ -0,0 +1,117 @@
+package com.homeride.backend.util;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Iterator;
+
+/**
+ * Square avatar thumbnails with plain ImageIO / Java2D.
+ * Large images are decoded with source subsampling, so a 12 MP photo is never fully expanded
+ * in memory just to produce a 256 px thumbnail.
+ */
+public final class ImageResizer {
+
+    private static final float JPEG_QUALITY = 0.85f;
+
+    private ImageResizer() {
+    }
+
+    /**
+     * Reads only the image header. Rejects files that are not a readable image or that would
+     * decode to more than maxPixels (decompression bombs).
+     */
+    public static void probe(Path file, long maxPixels) throws IOException {
+        withReader(file, maxPixels, reader -> null);
+    }
+
+    /**
+     * Decodes the image at roughly the smallest resolution whose shorter side is still at least
+     * twice minSide (or at full size if it is smaller than that).
+     */
+    public static BufferedImage read(Path file, int minSide, long maxPixels) throws IOException {
+        return withReader(file, maxPixels, reader -> {
+            int shorterSide = Math.min(reader.getWidth(0), reader.getHeight(0));
+            int subsampling = Math.max(1, shorterSide / (minSide * 2));
+            ImageReadParam param = reader.getDefaultReadParam();
+            param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+            return reader.read(0, param);
+        });
+    }
+
+    /**
+     * Center-crops the image to a square, scales it to size x size and writes it as a JPEG.
+     * Transparent areas become white.
+     */
+    public static void writeSquareJpeg(BufferedImage source, int size, Path target) throws IOException {
+        int side = Math.min(source.getWidth(), source.getHeight());
+        BufferedImage current = source.getSubimage(
+                (source.getWidth() - side) / 2, (source.getHeight() - side) / 2, side, side);
+
+        // Halve in steps first: a single bilinear pass from far above the target size aliases badly
+        while (current.getWidth() / 2 >= size) {
+            current = scale(current, current.getWidth() / 2);
+        }
+        current = scale(current, size);
+
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(target.toFile())) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(JPEG_QUALITY);
+            writer.setOutput(out);
+            writer.write(null, new IIOImage(current, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    private static BufferedImage scale(BufferedImage source, int size) {
+        BufferedImage scaled = new BufferedImage(size, size, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = scaled.createGraphics();
+        try {
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, size, size);
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(source, 0, 0, size, size, null);
+        } finally {
+            graphics.dispose();
+        }
+        return scaled;
+    }
+
+    private static <T> T withReader(Path file, long maxPixels, ReaderAction<T> action) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(file.toFile())) {
+            Iterator<ImageReader> readers = in == null ? null : ImageIO.getImageReaders(in);
+            if (readers == null || !readers.hasNext()) {
+                throw new IllegalArgumentException("Unsupported image format.");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                if ((long) reader.getWidth(0) * reader.getHeight(0) > maxPixels) {
+                    throw new IllegalArgumentException("Image dimensions are too large.");
+                }
+                return action.apply(reader);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private interface ReaderAction<T> {
+        T apply(ImageReader reader) throws IOException;
+    }
+}
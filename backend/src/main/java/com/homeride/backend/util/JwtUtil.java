@@ -1,10 +1,12 @@
 package com.homeride.backend.util;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
@@ -13,15 +15,33 @@ import java.security.Key;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
 import java.util.function.Function;
 
 @Component
 public class JwtUtil {
 
+    public static final String ROLE_CLAIM = "role";
+    public static final String SESSION_CLAIM = "sid";
+
     @Value("${jwt.secret}")
     private String SECRET;  // Loaded from application.properties
 
-    private final long EXPIRATION_TIME = 36000000; // 10 hours (can also move to properties if needed)
+    // Access tokens are short-lived; long sessions are kept alive with rotating refresh tokens
+    @Value("${jwt.access-token.expiration-ms:900000}")
+    private long accessTokenExpirationMs;
+
+    // The key and parser are immutable, so build them once instead of on every request
+    private Key signingKey;
+    private JwtParser parser;
+
+    @PostConstruct
+    public void init() {
+        this.signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET));
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
+    }
 
     public String extractUsername(String token) {
         return extractClaim(token, Claims::getSubject);
@@ -32,32 +52,39 @@ public class JwtUtil {
         return claimsResolver.apply(claims);
     }
 
+    /**
+     * Verifies the signature and expiry of a token and returns its claims.
+     * Throws a JwtException if the token is malformed, tampered with or expired.
+     */
+    public Claims parseToken(String token) {
+        return extractAllClaims(token);
+    }
+
     private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        return parser.parseClaimsJws(token).getBody();
     }
 
     private Boolean isTokenExpired(String token) {
         return extractClaim(token, Claims::getExpiration).before(new Date());
     }
 
-    public String generateToken(UserDetails userDetails) {
+    public String generateToken(UserDetails userDetails, String sessionId) {
         Map<String, Object> claims = new HashMap<>();
         String role = userDetails.getAuthorities().stream().findFirst().get().getAuthority();
-        claims.put("role", role);
+        claims.put(ROLE_CLAIM, role);
+        claims.put(SESSION_CLAIM, sessionId);
         return createToken(claims, userDetails.getUsername());
     }
 
     private String createToken(Map<String, Object> claims, String subject) {
+        long now = System.currentTimeMillis();
         return Jwts.builder()
                 .setClaims(claims)
                 .setSubject(subject)
-                .setIssuedAt(new Date(System.currentTimeMillis()))
-                .setExpiration(new Date(System.currentTimeMillis() + EXPIRATION_TIME))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .setId(UUID.randomUUID().toString())
+                .setIssuedAt(new Date(now))
+                .setExpiration(new Date(now + accessTokenExpirationMs))
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
@@ -66,8 +93,7 @@ public class JwtUtil {
         return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
     }
 
-    private Key getSigningKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(SECRET);
-        return Keys.hmacShaKeyFor(keyBytes);
+    public long getAccessTokenExpirationMs() {
+        return accessTokenExpirationMs;
     }
 }
@@ -0,0 +1,48 @@
+-- Runs on every startup after Hibernate has created/updated the tables
+-- (spring.jpa.defer-datasource-initialization=true), so every statement must be idempotent.
+
+-- At most one unread chat notification per user and ride. Older duplicates (created before this
+-- index existed) are removed first, keeping the most recent one.
+DELETE FROM notifications a
+    USING notifications b
+    WHERE a.type = 'CHAT_MESSAGE' AND NOT a.is_read
+      AND b.type = 'CHAT_MESSAGE' AND NOT b.is_read
+      AND a.user_id = b.user_id AND a.ride_id = b.ride_id
+      AND a.id < b.id;
+
+CREATE UNIQUE INDEX IF NOT EXISTS uq_notifications_unread_chat
+    ON notifications (user_id, ride_id, type)
+    WHERE type = 'CHAT_MESSAGE' AND NOT is_read;
+
+-- chat_messages ids used to come from an identity column. Make sure the pooled sequence hands out
+-- blocks above every existing id (ids are reserved as [value - 49, value]). A no-op once it is
+-- ahead; otherwise it is advanced with nextval, which other nodes may call concurrently (setval
+-- could move it back under them). The block is a quoted string, not $$, so the script splitter
+-- keeps it in one piece.
+DO '
+DECLARE
+    max_id bigint;
+BEGIN
+    SELECT COALESCE(MAX(id), 0) INTO max_id FROM chat_messages;
+    IF (SELECT last_value FROM chat_messages_seq) < max_id THEN
+        LOOP
+            EXIT WHEN nextval(''chat_messages_seq'') > max_id;
+        END LOOP;
+    END IF;
+END';
+
+-- chat_messages.content used to be VARCHAR(255); ddl-auto=update does not change column types.
+-- Checked first, since ALTER TABLE takes an ACCESS EXCLUSIVE lock even when there is nothing to do.
+DO '
+BEGIN
+    IF EXISTS (SELECT 1 FROM information_schema.columns
+               WHERE table_schema = current_schema() AND table_name = ''chat_messages''
+                 AND column_name = ''content'' AND data_type <> ''text'') THEN
+        ALTER TABLE chat_messages ALTER COLUMN content TYPE TEXT;
+    END IF;
+END';
+
+-- Mail outbox: senders only ever look for due PENDING rows; SENT and DEAD rows stay out of the index.
+CREATE INDEX IF NOT EXISTS idx_email_outbox_due
+    ON email_outbox (next_attempt_at, id)
+    WHERE status = 'PENDING';
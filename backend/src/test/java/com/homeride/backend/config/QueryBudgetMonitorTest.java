@@ -0,0 +1,216 @@
+package com.homeride.backend.config;
+
+import com.homeride.backend.filter.QueryBudgetFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.opentest4j.AssertionFailedError;
+import org.springframework.context.support.StaticApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.SubscribableChannel;
+import org.springframework.messaging.handler.annotation.DestinationVariable;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.annotation.support.SimpAnnotationMethodMessageHandler;
+import org.springframework.messaging.support.ExecutorChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Controller;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * QueryBudgetMonitor and QueryBudgetFilter against a proxied DataSource (the same datasource-proxy
+ * listener wiring as the application, over mocked JDBC objects), through MockMvc.
+ */
+class QueryBudgetMonitorTest {
+
+    private static final int MAX_STATEMENTS = 3;
+    private static final long MAX_TIME_MS = 40;
+    private static final long SLOW_QUERY_MS = 25;
+    private static final long SLOW_STATEMENT_SLEEP_MS = 30;
+
+    private MeterRegistry meterRegistry;
+    private JdbcTemplate jdbcTemplate;
+    private MockMvc mockMvc;
+    private QueryBudgetMonitor monitor;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        ResultSet resultSet = mock(ResultSet.class);
+        Statement statement = mock(Statement.class);
+        when(statement.executeQuery(anyString())).thenAnswer(invocation -> {
+            if (invocation.<String>getArgument(0).contains("slow")) {
+                Thread.sleep(SLOW_STATEMENT_SLEEP_MS);
+            }
+            return resultSet;
+        });
+        Connection connection = mock(Connection.class);
+        when(connection.createStatement()).thenReturn(statement);
+        DataSource target = mock(DataSource.class);
+        when(target.getConnection()).thenReturn(connection);
+
+        meterRegistry = new SimpleMeterRegistry();
+        monitor = new QueryBudgetMonitor(meterRegistry, true, MAX_STATEMENTS, MAX_TIME_MS, SLOW_QUERY_MS);
+        jdbcTemplate = new JdbcTemplate(ProxyDataSourceBuilder.create(target).listener(monitor).build());
+        mockMvc = MockMvcBuilders.standaloneSetup(new RidesController(jdbcTemplate))
+                .addFilters(new QueryBudgetFilter(monitor))
+                .build();
+    }
+
+    @Test
+    void countsTheStatementsOfEachRequest() throws Exception {
+        MvcResult result = mockMvc.perform(get("/rides/7")).andExpect(status().isOk()).andReturn();
+
+        QueryCountAssertions.assertStatements(result, 1);
+        assertEquals(1.0, meterRegistry.get("sql.statements")
+                .tags("type", "http", "operation", "GET /rides/{id}").summary().totalAmount());
+        assertTrue(meterRegistry.find("sql.budget.exceeded").counters().isEmpty());
+    }
+
+    @Test
+    void nPlusOneGoesOverTheStatementBudget() throws Exception {
+        MvcResult result = mockMvc.perform(get("/rides")).andExpect(status().isOk()).andReturn();
+
+        assertEquals(1 + RidesController.RIDES, QueryCountAssertions.statements(result));
+        assertEquals(1.0, meterRegistry.get("sql.budget.exceeded")
+                .tags("operation", "GET /rides", "budget", "statements").counter().count());
+        // The contract fails the test, which is the point of asserting it
+        assertThrows(AssertionFailedError.class, () -> QueryCountAssertions.assertAtMostStatements(result, MAX_STATEMENTS));
+    }
+
+    @Test
+    void annotatedHandlersUseTheirOwnBudget() throws Exception {
+        mockMvc.perform(get("/rides/report")).andExpect(status().isOk());
+
+        assertEquals(1.0 + RidesController.RIDES, meterRegistry.get("sql.statements")
+                .tags("operation", "GET /rides/report").summary().totalAmount());
+        assertTrue(meterRegistry.find("sql.budget.exceeded").counters().isEmpty());
+    }
+
+    @Test
+    void slowStatementsAreCountedAndGoOverTheTimeBudget() throws Exception {
+        mockMvc.perform(get("/rides/slow")).andExpect(status().isOk());
+
+        assertEquals(2.0, meterRegistry.get("sql.slow.queries").counter().count());
+        assertEquals(1.0, meterRegistry.get("sql.budget.exceeded")
+                .tags("operation", "GET /rides/slow", "budget", "time").counter().count());
+        assertTrue(meterRegistry.find("sql.budget.exceeded").tag("budget", "statements").counters().isEmpty());
+    }
+
+    @Test
+    void countsStatementsOutsideRequestsAndNestedScopes() {
+        int outer = QueryCountAssertions.countStatements(() -> {
+            jdbcTemplate.query("select 1", rs -> { });
+            QueryCountAssertions.assertStatements(2, () -> {
+                jdbcTemplate.query("select 2", rs -> { });
+                jdbcTemplate.query("select 3", rs -> { });
+            });
+        });
+
+        assertEquals(3, outer);
+        assertEquals(0, QueryCountAssertions.countStatements(() -> { }));
+    }
+
+    @Test
+    void stompMessagesAreTaggedWithTheirMappingNotTheirDestination() {
+        StaticApplicationContext context = new StaticApplicationContext();
+        context.registerSingleton("rideMessages", RideMessages.class);
+        context.refresh();
+        SimpAnnotationMethodMessageHandler handler = new SimpAnnotationMethodMessageHandler(
+                mock(SubscribableChannel.class), mock(MessageChannel.class), mock(SimpMessageSendingOperations.class));
+        handler.setDestinationPrefixes(List.of("/app"));
+        handler.setApplicationContext(context);
+        handler.afterPropertiesSet();
+        ExecutorChannelInterceptor interceptor = monitor.stompInterceptor();
+
+        for (long rideId = 1; rideId <= 3; rideId++) {
+            SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+            headers.setDestination("/app/rides/" + rideId + "/join");
+            Message<byte[]> message = MessageBuilder.createMessage(new byte[0], headers.getMessageHeaders());
+            interceptor.beforeHandle(message, null, handler);
+            jdbcTemplate.query("select * from ride_requests where id = " + rideId, rs -> { });
+            interceptor.afterMessageHandled(message, null, handler, null);
+        }
+
+        assertEquals(3, meterRegistry.get("sql.statements")
+                .tags("type", "stomp", "operation", "/app/rides/{rideId}/join").summary().count());
+        assertEquals(1, meterRegistry.find("sql.statements").tag("type", "stomp").summaries().size());
+    }
+
+    @Controller
+    static class RideMessages {
+        @MessageMapping("/rides/{rideId}/join")
+        void join(@DestinationVariable long rideId) {
+        }
+    }
+
+    @RestController
+    static class RidesController {
+
+        static final int RIDES = 4;
+
+        private final JdbcTemplate jdbcTemplate;
+
+        RidesController(JdbcTemplate jdbcTemplate) {
+            this.jdbcTemplate = jdbcTemplate;
+        }
+
+        @GetMapping("/rides/{id}")
+        String ride(@PathVariable long id) {
+            jdbcTemplate.query("select * from ride_requests where id = " + id, rs -> { });
+            return "ok";
+        }
+
+        @GetMapping("/rides")
+        String rides() {
+            loadRidesOneByOne();
+            return "ok";
+        }
+
+        @GetMapping("/rides/report")
+        @QueryBudget(maxStatements = 10)
+        String report() {
+            loadRidesOneByOne();
+            return "ok";
+        }
+
+        @GetMapping("/rides/slow")
+        String slow() {
+            jdbcTemplate.query("select slow_report_1()", rs -> { });
+            jdbcTemplate.query("select slow_report_2()", rs -> { });
+            return "ok";
+        }
+
+        private void loadRidesOneByOne() {
+            jdbcTemplate.query("select id from ride_requests", rs -> { });
+            for (int i = 0; i < RIDES; i++) {
+                jdbcTemplate.query("select * from ride_participants where ride_request_id = " + i, rs -> { });
+            }
+        }
+    }
+}
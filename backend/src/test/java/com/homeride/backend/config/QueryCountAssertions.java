@@ -0,0 +1,74 @@
+package com.homeride.backend.config;
+
+import com.homeride.backend.filter.QueryBudgetFilter;
+import org.junit.jupiter.api.function.Executable;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * SQL statement contracts for tests, so an N+1 regression fails the build instead of showing up
+ * as sql.budget.exceeded in production. Counts come from QueryBudgetMonitor, so the DataSource must
+ * be the proxied one (the application's is).
+ * <pre>
+ * MvcResult result = mockMvc.perform(get("/api/rides/search").param(...)).andReturn();
+ * QueryCountAssertions.assertAtMostStatements(result, 3);
+ *
+ * QueryCountAssertions.assertStatements(2, () -&gt; rideRequestService.getRideById(id));
+ * </pre>
+ * The MockMvc variants need QueryBudgetFilter in the filter chain (it is with @AutoConfigureMockMvc).
+ */
+public final class QueryCountAssertions {
+
+    private QueryCountAssertions() {
+    }
+
+    /**
+     * Statements run by a request made through MockMvc, including those of the filters.
+     */
+    public static int statements(MvcResult result) {
+        Object scope = result.getRequest().getAttribute(QueryBudgetFilter.SCOPE_ATTRIBUTE);
+        assertNotNull(scope, "no SQL statement counts on the request; is QueryBudgetFilter in the MockMvc filter chain?");
+        return ((QueryBudgetMonitor.Scope) scope).getStatements();
+    }
+
+    public static void assertStatements(MvcResult result, int expected) {
+        assertEquals(expected, statements(result), () -> "SQL statements for " + describe(result));
+    }
+
+    public static void assertAtMostStatements(MvcResult result, int max) {
+        int statements = statements(result);
+        assertTrue(statements <= max, () -> describe(result) + " ran " + statements + " SQL statements, expected at most " + max);
+    }
+
+    /**
+     * Statements run on the calling thread while {@code call} runs.
+     */
+    public static int countStatements(Executable call) {
+        try (QueryBudgetMonitor.Scope scope = QueryBudgetMonitor.open()) {
+            try {
+                call.execute();
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+            return scope.getStatements();
+        }
+    }
+
+    public static void assertStatements(int expected, Executable call) {
+        assertEquals(expected, countStatements(call), "SQL statements");
+    }
+
+    public static void assertAtMostStatements(int max, Executable call) {
+        int statements = countStatements(call);
+        assertTrue(statements <= max, () -> "ran " + statements + " SQL statements, expected at most " + max);
+    }
+
+    private static String describe(MvcResult result) {
+        return result.getRequest().getMethod() + " " + result.getRequest().getRequestURI();
+    }
+}
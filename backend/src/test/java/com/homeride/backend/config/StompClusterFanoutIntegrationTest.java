@@ -0,0 +1,190 @@
+package com.homeride.backend.config;
+
+import com.homeride.backend.service.ClusterMessageBus;
+import com.homeride.backend.service.InMemoryClusterMessageBus;
+import com.homeride.backend.service.TokenRevocationService;
+import com.homeride.backend.util.JwtUtil;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotatedBeanDefinitionReader;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.SubscribableChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.broker.SimpleBrokerMessageHandler;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.web.context.support.GenericWebApplicationContext;
+import org.springframework.web.socket.messaging.SessionConnectedEvent;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Two nodes, each a WebSocket message broker context built from the real WebSocketConfig in
+ * "pg" mode, connected by an in-memory cluster bus instead of PostgreSQL.
+ */
+class StompClusterFanoutIntegrationTest {
+
+    private InMemoryClusterMessageBus.Hub hub;
+    private GenericWebApplicationContext nodeA;
+    private GenericWebApplicationContext nodeB;
+
+    @BeforeEach
+    void startNodes() {
+        hub = new InMemoryClusterMessageBus.Hub();
+        nodeA = startNode(hub);
+        nodeB = startNode(hub);
+    }
+
+    @AfterEach
+    void stopNodes() {
+        nodeA.close();
+        nodeB.close();
+        hub.close();
+    }
+
+    @Test
+    void topicMessagePublishedOnOneNodeReachesSubscribersOnEveryNode() throws Exception {
+        BlockingQueue<Message<?>> receivedOnA = capture(nodeA);
+        BlockingQueue<Message<?>> receivedOnB = capture(nodeB);
+        subscribe(nodeA, "session-a", "/topic/ride.42");
+        subscribe(nodeB, "session-b", "/topic/ride.42");
+
+        template(nodeA).convertAndSend("/topic/ride.42", Map.of("content", "hello from A"));
+
+        Message<?> onB = receivedOnB.poll(5, TimeUnit.SECONDS);
+        assertNotNull(onB, "subscriber on node B should receive the message");
+        assertEquals("session-b", SimpMessageHeaderAccessor.getSessionId(onB.getHeaders()));
+        assertTrue(body(onB).contains("hello from A"));
+
+        Message<?> onA = receivedOnA.poll(5, TimeUnit.SECONDS);
+        assertNotNull(onA, "local subscriber on node A should receive the message");
+        // The copy coming back over the bus must not be delivered a second time
+        assertNull(receivedOnA.poll(500, TimeUnit.MILLISECONDS));
+        assertNull(receivedOnB.poll(100, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void userDestinationReachesTheNodeWhereTheUserIsConnected() throws Exception {
+        BlockingQueue<Message<?>> receivedOnB = capture(nodeB);
+        connectUser(nodeB, "session-bob", "bob@homeride.test");
+        subscribe(nodeB, "session-bob", "/queue/notifications-usersession-bob");
+
+        template(nodeA).convertAndSendToUser("bob@homeride.test", "/queue/notifications", Map.of("message", "ride cancelled"));
+
+        Message<?> onB = receivedOnB.poll(5, TimeUnit.SECONDS);
+        assertNotNull(onB, "bob is connected to node B only");
+        assertEquals("session-bob", SimpMessageHeaderAccessor.getSessionId(onB.getHeaders()));
+        assertTrue(body(onB).contains("ride cancelled"));
+    }
+
+    @Test
+    void sessionTargetedUserMessageStaysOnItsNode() throws Exception {
+        BlockingQueue<Message<?>> receivedOnA = capture(nodeA);
+        BlockingQueue<Message<?>> receivedOnB = capture(nodeB);
+        // bob has a tab open on each node; the reply is for the tab on node A only
+        connectUser(nodeA, "session-bob-a", "bob@homeride.test");
+        subscribe(nodeA, "session-bob-a", "/queue/chatbot-usersession-bob-a");
+        connectUser(nodeB, "session-bob-b", "bob@homeride.test");
+        subscribe(nodeB, "session-bob-b", "/queue/chatbot-usersession-bob-b");
+
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        headers.setSessionId("session-bob-a");
+        headers.setLeaveMutable(true);
+        template(nodeA).convertAndSendToUser("bob@homeride.test", "/queue/chatbot", Map.of("delta", "Hello"),
+                headers.getMessageHeaders());
+
+        Message<?> onA = receivedOnA.poll(5, TimeUnit.SECONDS);
+        assertNotNull(onA, "the session that asked should receive the reply");
+        assertEquals("session-bob-a", SimpMessageHeaderAccessor.getSessionId(onA.getHeaders()));
+        assertNull(receivedOnB.poll(500, TimeUnit.MILLISECONDS), "bob's tab on node B must not get the reply");
+    }
+
+    private static GenericWebApplicationContext startNode(InMemoryClusterMessageBus.Hub hub) {
+        GenericWebApplicationContext context = new GenericWebApplicationContext(new MockServletContext());
+        context.getEnvironment().getPropertySources()
+                .addFirst(new MapPropertySource("node", Map.of("websocket.broker.mode", "pg")));
+        context.getBeanFactory().registerSingleton("clusterMessageBus", new InMemoryClusterMessageBus(hub));
+        new AnnotatedBeanDefinitionReader(context)
+                .register(NodeConfig.class, WebSocketConfig.class, WebSocketMetrics.class, QueryBudgetMonitor.class,
+                        StompAuthChannelInterceptor.class, StompClusterFanout.class);
+        context.refresh();
+        return context;
+    }
+
+    @Configuration
+    static class NodeConfig {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
+        @Bean
+        JwtUtil jwtUtil() {
+            return mock(JwtUtil.class);
+        }
+
+        @Bean
+        TokenRevocationService tokenRevocationService() {
+            return mock(TokenRevocationService.class);
+        }
+    }
+
+    private static SimpMessagingTemplate template(GenericWebApplicationContext node) {
+        return node.getBean("brokerMessagingTemplate", SimpMessagingTemplate.class);
+    }
+
+    private static BlockingQueue<Message<?>> capture(GenericWebApplicationContext node) {
+        BlockingQueue<Message<?>> received = new LinkedBlockingQueue<>();
+        node.getBean("clientOutboundChannel", SubscribableChannel.class).subscribe(message -> {
+            if (SimpMessageHeaderAccessor.getMessageType(message.getHeaders()) == SimpMessageType.MESSAGE) {
+                received.add(message);
+            }
+        });
+        return received;
+    }
+
+    private static void subscribe(GenericWebApplicationContext node, String sessionId, String destination) {
+        SimpMessageHeaderAccessor connect = SimpMessageHeaderAccessor.create(SimpMessageType.CONNECT);
+        connect.setSessionId(sessionId);
+        node.getBean(SimpleBrokerMessageHandler.class)
+                .handleMessage(MessageBuilder.createMessage(new byte[0], connect.getMessageHeaders()));
+
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.SUBSCRIBE);
+        accessor.setSessionId(sessionId);
+        accessor.setSubscriptionId("sub-" + sessionId);
+        accessor.setDestination(destination);
+        node.getBean(SimpleBrokerMessageHandler.class)
+                .handleMessage(MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders()));
+    }
+
+    private static void connectUser(GenericWebApplicationContext node, String sessionId, String email) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.CONNECT_ACK);
+        accessor.setSessionId(sessionId);
+        Message<byte[]> connected = MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+        node.publishEvent(new SessionConnectedEvent(node, connected, new UsernamePasswordAuthenticationToken(email, null, List.of())));
+    }
+
+    private static String body(Message<?> message) {
+        return new String((byte[]) message.getPayload(), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,81 @@
+package com.homeride.backend.controller;
+
+import com.homeride.backend.config.QueryBudgetMonitor;
+import com.homeride.backend.config.SecurityConfig;
+import com.homeride.backend.service.ArrowExportService;
+import com.homeride.backend.service.EmployeeService;
+import com.homeride.backend.service.TokenRevocationService;
+import com.homeride.backend.util.JwtUtil;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The export endpoints through the application's security filter chain: admins only.
+ */
+@WebMvcTest(ExportController.class)
+@Import(SecurityConfig.class)
+class ExportControllerSecurityTest {
+
+    private static final String RIDES_EXPORT = "/api/admin/exports/rides?from=2025-06-01&to=2025-06-30";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private ArrowExportService arrowExportService;
+    @MockBean
+    private EmployeeService employeeService;
+    @MockBean
+    private PasswordEncoder passwordEncoder;
+    @MockBean
+    private JwtUtil jwtUtil;
+    @MockBean
+    private TokenRevocationService tokenRevocationService;
+    @MockBean
+    private QueryBudgetMonitor queryBudgetMonitor;
+
+    @Test
+    @WithMockUser(roles = "EMPLOYEE")
+    void nonAdminIsForbidden() throws Exception {
+        mockMvc.perform(get(RIDES_EXPORT)).andExpect(status().isForbidden());
+
+        verifyNoInteractions(arrowExportService);
+    }
+
+    @Test
+    void anonymousIsUnauthorized() throws Exception {
+        mockMvc.perform(get(RIDES_EXPORT)).andExpect(status().isUnauthorized());
+
+        verifyNoInteractions(arrowExportService);
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void adminGetsTheExport() throws Exception {
+        when(arrowExportService.resolveColumns(eq("rides"), any(), any(), any())).thenReturn(List.of("id"));
+
+        mockMvc.perform(get(RIDES_EXPORT))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", ArrowExportService.CONTENT_TYPE));
+
+        verify(arrowExportService).export(eq("rides"), anyList(), any(), any(), any());
+    }
+}
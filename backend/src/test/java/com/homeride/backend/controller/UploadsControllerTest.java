@@ -0,0 +1,66 @@
+package com.homeride.backend.controller;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UploadsControllerTest {
+
+    private static final long LENGTH = 1_000;
+    private static final long[] IGNORED = new long[0];
+
+    @Test
+    void singleRange() {
+        assertArrayEquals(new long[]{0, 99}, UploadsController.parseRange("bytes=0-99", LENGTH));
+        assertArrayEquals(new long[]{500, 500}, UploadsController.parseRange("bytes=500-500", LENGTH));
+        // The end is clamped to the last byte
+        assertArrayEquals(new long[]{900, 999}, UploadsController.parseRange("bytes=900-5000", LENGTH));
+    }
+
+    @Test
+    void suffixRange() {
+        assertArrayEquals(new long[]{900, 999}, UploadsController.parseRange("bytes=-100", LENGTH));
+        // Longer than the file: the whole file
+        assertArrayEquals(new long[]{0, 999}, UploadsController.parseRange("bytes=-5000", LENGTH));
+    }
+
+    @Test
+    void openEndedRange() {
+        assertArrayEquals(new long[]{500, 999}, UploadsController.parseRange("bytes=500-", LENGTH));
+        assertArrayEquals(new long[]{0, 999}, UploadsController.parseRange("bytes=0-", LENGTH));
+    }
+
+    @Test
+    void unsatisfiableRange() {
+        assertNull(UploadsController.parseRange("bytes=1000-", LENGTH));
+        assertNull(UploadsController.parseRange("bytes=2000-3000", LENGTH));
+        assertNull(UploadsController.parseRange("bytes=-0", LENGTH));
+        assertNull(UploadsController.parseRange("bytes=-10", 0));
+    }
+
+    @Test
+    void multipleRangesAreIgnored() {
+        assertArrayEquals(IGNORED, UploadsController.parseRange("bytes=0-99,200-299", LENGTH));
+        assertArrayEquals(IGNORED, UploadsController.parseRange("bytes=0-99, -100", LENGTH));
+    }
+
+    @Test
+    void malformedRangesAreIgnored() {
+        assertArrayEquals(IGNORED, UploadsController.parseRange("items=0-99", LENGTH));
+        assertArrayEquals(IGNORED, UploadsController.parseRange("bytes=99", LENGTH));
+        assertArrayEquals(IGNORED, UploadsController.parseRange("bytes=abc-", LENGTH));
+        assertArrayEquals(IGNORED, UploadsController.parseRange("bytes=99-10", LENGTH));
+    }
+
+    @Test
+    void onlyContentHashedNamesAreImmutable() {
+        String hash = "3a7bd3e2360a3d29eea436fcfb7e44c735d117c42d1c1835420b6b9942dd4f1b";
+        assertTrue(UploadsController.isContentAddressed("avatars/" + hash + "/128.jpg"));
+        assertFalse(UploadsController.isContentAddressed("avatars/42.jpg"));
+        assertFalse(UploadsController.isContentAddressed("profile-pictures/user-42/avatar.png"));
+        assertFalse(UploadsController.isContentAddressed("avatars/" + hash.substring(1) + "/128.jpg"));
+    }
+}
@@ -0,0 +1,68 @@
+package com.homeride.backend.model;
+
+import com.homeride.backend.event.ChatRoomChangedEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ChatRoomEntityListenerTest {
+
+    private final List<Long> published = new ArrayList<>();
+    private final ChatRoomEntityListener listener =
+            new ChatRoomEntityListener(event -> published.add(((ChatRoomChangedEvent) event).getRideId()));
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void rideUpdatesAndPassengerChangesInvalidateTheRoom() {
+        RideRequest ride = ride(7L);
+
+        listener.onUpdate(ride);
+        listener.onPersist(participant(ride));
+        listener.onRemove(participant(ride));
+
+        assertEquals(List.of(7L, 7L, 7L), published);
+    }
+
+    @Test
+    void newRidesDoNotInvalidateAnything() {
+        listener.onPersist(ride(7L));
+
+        assertEquals(List.of(), published);
+    }
+
+    @Test
+    void deletingARideWithItsPassengersPublishesOncePerTransaction() {
+        TransactionSynchronizationManager.initSynchronization();
+        RideRequest ride = ride(7L);
+
+        listener.onRemove(participant(ride));
+        listener.onRemove(participant(ride));
+        listener.onRemove(ride);
+        listener.onUpdate(ride(8L));
+
+        assertEquals(List.of(7L, 8L), published);
+    }
+
+    private static RideRequest ride(Long id) {
+        RideRequest ride = new RideRequest();
+        ride.setId(id);
+        return ride;
+    }
+
+    private static RideParticipant participant(RideRequest ride) {
+        RideParticipant participant = new RideParticipant();
+        participant.setRideRequest(ride);
+        return participant;
+    }
+}
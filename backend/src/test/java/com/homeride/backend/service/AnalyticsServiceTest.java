@@ -0,0 +1,63 @@
+package com.homeride.backend.service;
+
+import com.homeride.backend.config.QueryBudgetMonitor;
+import com.homeride.backend.config.QueryCountAssertions;
+import com.homeride.backend.dto.AdminEmployeePageDTO;
+import com.homeride.backend.repository.EmployeeRepository;
+import com.homeride.backend.repository.RideRequestRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Statement contract for the admin employee list, over a proxied DataSource on mocked JDBC objects
+ * (see QueryBudgetMonitorTest): the page costs the same number of statements however many employees
+ * and rides there are.
+ */
+class AnalyticsServiceTest {
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 25, 200})
+    void employeePageIsOneStatementWhateverItsSize(int employees) throws Exception {
+        AnalyticsService service = new AnalyticsService(mock(EmployeeRepository.class), mock(RideRequestRepository.class),
+                jdbcTemplate(employees));
+
+        AdminEmployeePageDTO[] page = new AdminEmployeePageDTO[1];
+        QueryCountAssertions.assertStatements(1, () -> page[0] = service.getEmployeesWithRideCounts(0, employees, "ridesTraveled", true, "a"));
+
+        assertEquals(employees, page[0].getEmployees().size());
+        assertEquals(employees, page[0].getTotalElements());
+    }
+
+    // Every query returns `rows` employee rows
+    private static JdbcTemplate jdbcTemplate(int rows) throws Exception {
+        AtomicInteger row = new AtomicInteger();
+        ResultSet resultSet = mock(ResultSet.class);
+        when(resultSet.next()).thenAnswer(invocation -> row.incrementAndGet() <= rows);
+        when(resultSet.getLong("id")).thenAnswer(invocation -> (long) row.get());
+        when(resultSet.getString("email")).thenAnswer(invocation -> "employee" + row.get() + "@homeride.test");
+        when(resultSet.getLong("total")).thenReturn((long) rows);
+        PreparedStatement statement = mock(PreparedStatement.class);
+        when(statement.executeQuery()).thenReturn(resultSet);
+        Connection connection = mock(Connection.class);
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+        DataSource target = mock(DataSource.class);
+        when(target.getConnection()).thenReturn(connection);
+
+        QueryBudgetMonitor monitor = new QueryBudgetMonitor(new SimpleMeterRegistry(), true, 25, 500, 200);
+        return new JdbcTemplate(ProxyDataSourceBuilder.create(target).listener(monitor).build());
+    }
+}
@@ -0,0 +1,136 @@
+package com.homeride.backend.service;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.ipc.ArrowStreamReader;
+import org.apache.arrow.vector.types.TimeUnit;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.sql.DataSource;
+import javax.sql.rowset.CachedRowSet;
+import javax.sql.rowset.RowSetMetaDataImpl;
+import javax.sql.rowset.RowSetProvider;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Writes a small result set with ArrowExportService.write and reads it back with Arrow's own
+ * stream reader.
+ */
+class ArrowExportServiceTest {
+
+    private static final List<ArrowExportService.Column> COLUMNS = List.of(
+            new ArrowExportService.Column("id", "r.id", ArrowExportService.Kind.BIGINT),
+            new ArrowExportService.Column("vehicle_capacity", "r.vehicle_capacity", ArrowExportService.Kind.INT),
+            new ArrowExportService.Column("price", "r.price", ArrowExportService.Kind.DOUBLE),
+            new ArrowExportService.Column("origin_city", "r.origin_city", ArrowExportService.Kind.VARCHAR),
+            new ArrowExportService.Column("travel_date_time", "r.travel_date_time", ArrowExportService.Kind.TIMESTAMP));
+
+    private static final LocalDateTime DEPARTURE = LocalDateTime.of(2025, 6, 2, 7, 30, 15, 123_456_000);
+
+    @Test
+    void roundTripsRowsAcrossBatches() throws Exception {
+        Object[][] rows = {
+                {1001L, 4, 280.0, "Bengaluru", DEPARTURE},
+                {1002L, null, 150.5, "Chennai", DEPARTURE.plusHours(5)},
+                {1003L, 3, null, "Kochi – Edappally", null},
+                {1004L, 6, 90.0, null, DEPARTURE.plusDays(1)},
+                {1005L, 2, 410.0, "Puducherry", DEPARTURE.plusDays(2)},
+        };
+        ArrowExportService service = new ArrowExportService(mock(DataSource.class));
+        ReflectionTestUtils.setField(service, "fetchSize", 2); // three batches: 2, 2, 1
+        ReflectionTestUtils.setField(service, "memoryLimitBytes", 16L * 1024 * 1024);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long written = service.write(resultSet(rows), COLUMNS, out);
+        assertEquals(rows.length, written);
+
+        List<Object[]> read = new ArrayList<>();
+        int batches = 0;
+        try (BufferAllocator allocator = new RootAllocator();
+             ArrowStreamReader reader = new ArrowStreamReader(new ByteArrayInputStream(out.toByteArray()), allocator)) {
+            VectorSchemaRoot root = reader.getVectorSchemaRoot();
+            assertEquals(List.of("id", "vehicle_capacity", "price", "origin_city", "travel_date_time"),
+                    root.getSchema().getFields().stream().map(field -> field.getName()).toList());
+            assertEquals(new ArrowType.Timestamp(TimeUnit.MICROSECOND, null),
+                    root.getSchema().findField("travel_date_time").getType());
+            while (reader.loadNextBatch()) {
+                batches++;
+                for (int row = 0; row < root.getRowCount(); row++) {
+                    Object[] values = new Object[COLUMNS.size()];
+                    for (int column = 0; column < values.length; column++) {
+                        Object value = root.getVector(column).getObject(row);
+                        // VarCharVector returns Arrow's Text
+                        values[column] = value == null || value instanceof Number || value instanceof LocalDateTime
+                                ? value : value.toString();
+                    }
+                    read.add(values);
+                }
+            }
+        }
+
+        assertEquals(3, batches);
+        assertEquals(rows.length, read.size());
+        for (int i = 0; i < rows.length; i++) {
+            assertEquals(Arrays.asList(rows[i]), Arrays.asList(read.get(i)), "row " + i);
+        }
+    }
+
+    @Test
+    void emptyResultWritesSchemaOnly() throws Exception {
+        ArrowExportService service = new ArrowExportService(mock(DataSource.class));
+        ReflectionTestUtils.setField(service, "fetchSize", 2);
+        ReflectionTestUtils.setField(service, "memoryLimitBytes", 16L * 1024 * 1024);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertEquals(0, service.write(resultSet(new Object[0][]), COLUMNS, out));
+
+        try (BufferAllocator allocator = new RootAllocator();
+             ArrowStreamReader reader = new ArrowStreamReader(new ByteArrayInputStream(out.toByteArray()), allocator)) {
+            assertEquals(COLUMNS.size(), reader.getVectorSchemaRoot().getSchema().getFields().size());
+            assertEquals(false, reader.loadNextBatch());
+        }
+    }
+
+    private static CachedRowSet resultSet(Object[][] rows) throws SQLException {
+        RowSetMetaDataImpl metaData = new RowSetMetaDataImpl();
+        int[] types = {Types.BIGINT, Types.INTEGER, Types.DOUBLE, Types.VARCHAR, Types.TIMESTAMP};
+        metaData.setColumnCount(types.length);
+        for (int i = 0; i < types.length; i++) {
+            metaData.setColumnType(i + 1, types[i]);
+            metaData.setNullable(i + 1, RowSetMetaDataImpl.columnNullable);
+        }
+        CachedRowSet rowSet = RowSetProvider.newFactory().createCachedRowSet();
+        rowSet.setMetaData(metaData);
+        // insertRow puts the row before the current one, so insert from the last row back
+        for (int r = rows.length - 1; r >= 0; r--) {
+            Object[] row = rows[r];
+            rowSet.moveToInsertRow();
+            for (int i = 0; i < row.length; i++) {
+                Object value = row[i] instanceof LocalDateTime dateTime ? Timestamp.valueOf(dateTime) : row[i];
+                if (value == null) {
+                    rowSet.updateNull(i + 1);
+                } else {
+                    rowSet.updateObject(i + 1, value);
+                }
+            }
+            rowSet.insertRow();
+            rowSet.moveToCurrentRow();
+        }
+        rowSet.beforeFirst();
+        return rowSet;
+    }
+}
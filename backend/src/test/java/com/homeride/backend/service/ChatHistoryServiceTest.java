@@ -0,0 +1,96 @@
+package com.homeride.backend.service;
+
+import com.homeride.backend.dto.ChatHistoryPageDTO;
+import com.homeride.backend.dto.ChatMessageSummaryDTO;
+import com.homeride.backend.model.ChatMessage;
+import com.homeride.backend.repository.ChatMessageRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ChatHistoryServiceTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2025, 6, 2, 7, 30, 15, 123_456_000);
+
+    private final ChatMessageRepository repository = mock(ChatMessageRepository.class);
+
+    @Test
+    void pagesFollowSendOrderNotIdOrder() {
+        // Node B's block (ids 51..) was handed out before node A's (ids 1..)
+        when(repository.findByRideIdOrderByTimestampDescIdDesc(eq(7L), any(Limit.class)))
+                .thenReturn(List.of(message(2, 3), message(52, 2), message(1, 1), message(51, 0)));
+        ChatHistoryService service = new ChatHistoryService(repository, syncWriter());
+
+        ChatHistoryPageDTO page = service.getPage(7L, null, 3);
+
+        assertEquals(List.of(1L, 52L, 2L), page.getMessages().stream().map(ChatMessageSummaryDTO::getId).collect(Collectors.toList()));
+        assertEquals(true, page.isHasMore());
+        assertEquals("2025-06-02T07:30:16.123456_1", page.getNextCursor());
+    }
+
+    @Test
+    void cursorRoundTripsIntoTheNextQuery() {
+        ChatHistoryService service = new ChatHistoryService(repository, syncWriter());
+
+        service.getPage(7L, ChatHistoryService.Cursor.parse("2025-06-02T07:30:16.123456_1"), 50);
+
+        verify(repository).findPageBefore(eq(7L), eq(T0.plusSeconds(1)), eq(1L), any(Limit.class));
+    }
+
+    @Test
+    void bufferedMessagesAreMergedByPosition() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        ChatMessageWriter writer = new ChatMessageWriter(messages -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, ChatMessageWriter.Mode.WRITE_BEHIND, 64, 8, 5, 1, 1);
+        writer.start();
+        writer.persist(message(60, 1));
+        writer.persist(message(61, 5));
+        when(repository.findPageBefore(eq(7L), any(), any(), any(Limit.class)))
+                .thenReturn(List.of(message(3, 2), message(2, 0)));
+        ChatHistoryService service = new ChatHistoryService(repository, writer);
+
+        ChatHistoryPageDTO page = service.getPage(7L, ChatHistoryService.Cursor.parse(T0.plusSeconds(4) + "_9"), 50);
+
+        assertEquals(List.of(2L, 60L, 3L), page.getMessages().stream().map(ChatMessageSummaryDTO::getId).collect(Collectors.toList()));
+        release.countDown();
+        writer.stop();
+    }
+
+    @Test
+    void malformedCursorsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> ChatHistoryService.Cursor.parse("42"));
+        assertThrows(IllegalArgumentException.class, () -> ChatHistoryService.Cursor.parse("yesterday_42"));
+        assertThrows(IllegalArgumentException.class, () -> ChatHistoryService.Cursor.parse("2025-06-02T07:30:16_x"));
+    }
+
+    private static ChatMessageWriter syncWriter() {
+        return new ChatMessageWriter(messages -> { }, ChatMessageWriter.Mode.SYNC, 1, 1, 1, 1, 1);
+    }
+
+    private static ChatMessage message(long id, int secondsAfterT0) {
+        ChatMessage message = new ChatMessage();
+        message.setId(id);
+        message.setRideId(7L);
+        message.setSenderEmail("sender@homeride.test");
+        message.setContent("message " + id);
+        message.setTimestamp(T0.plusSeconds(secondsAfterT0));
+        return message;
+    }
+}
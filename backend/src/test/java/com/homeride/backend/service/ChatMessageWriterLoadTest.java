@@ -0,0 +1,209 @@
+package com.homeride.backend.service;
+
+import com.homeride.backend.model.ChatMessage;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Drives the write-behind pipeline from many sender threads against a sink that costs a fixed
+ * round trip per batch, like a JDBC batch insert would. The throughput case is tagged "load" and
+ * only runs with {@code mvn -P load-tests test}.
+ */
+class ChatMessageWriterLoadTest {
+
+    private static final int SENDERS = 8;
+    private static final int MESSAGES_PER_SENDER = 5_000;
+    private static final long ROUND_TRIP_MS = 2;
+
+    @Test
+    void storesEveryMessageOnceInBatches() throws Exception {
+        RecordingSink sink = new RecordingSink(ROUND_TRIP_MS);
+        ChatMessageWriter writer = new ChatMessageWriter(sink, ChatMessageWriter.Mode.WRITE_BEHIND, 8192, 500, 50, 3, 10);
+        writer.start();
+
+        runSenders(writer);
+        writer.stop();
+
+        int total = SENDERS * MESSAGES_PER_SENDER;
+        assertEquals(total, sink.ids.size(), "every message stored exactly once");
+        assertTrue(sink.batches.get() < total / 10, "messages should be written in batches");
+    }
+
+    @Test
+    @Tag("load")
+    void sustainsThousandsOfMessagesPerSecond() throws Exception {
+        RecordingSink sink = new RecordingSink(ROUND_TRIP_MS);
+        ChatMessageWriter writer = new ChatMessageWriter(sink, ChatMessageWriter.Mode.WRITE_BEHIND, 8192, 500, 50, 3, 10);
+        writer.start();
+
+        long elapsedNanos = runSenders(writer);
+        writer.stop();
+
+        double perSecond = SENDERS * MESSAGES_PER_SENDER / (elapsedNanos / 1e9);
+        assertTrue(perSecond > 5_000, "expected > 5000 msg/s, got " + perSecond);
+    }
+
+    @Test
+    void fullBufferFallsBackToCallerWithoutLoss() throws Exception {
+        RecordingSink sink = new RecordingSink(ROUND_TRIP_MS);
+        ChatMessageWriter writer = new ChatMessageWriter(sink, ChatMessageWriter.Mode.WRITE_BEHIND, 16, 8, 50, 3, 10);
+        writer.start();
+
+        runSenders(writer);
+        writer.stop();
+
+        assertEquals(SENDERS * MESSAGES_PER_SENDER, sink.ids.size());
+    }
+
+    @Test
+    void pendingMessagesAreVisibleBeforeTheyAreStored() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        ChatMessageSink blockedSink = messages -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        ChatMessageWriter writer = new ChatMessageWriter(blockedSink, ChatMessageWriter.Mode.WRITE_BEHIND, 64, 8, 5, 3, 10);
+        writer.start();
+
+        writer.persist(message(1L, 7L));
+        writer.persist(message(2L, 8L));
+        writer.persist(message(3L, 7L));
+
+        assertEquals(2, writer.pendingForRide(7L).size());
+        release.countDown();
+        writer.stop();
+    }
+
+    @Test
+    void failingBatchIsRetriedThenWrittenOneByOne() throws Exception {
+        RecordingSink stored = new RecordingSink(0);
+        AtomicInteger batchAttempts = new AtomicInteger();
+        ChatMessageSink sink = messages -> {
+            if (messages.size() > 1) {
+                batchAttempts.incrementAndGet();
+            }
+            // A message the database rejects (e.g. a constraint violation) fails every batch it is in
+            if (messages.stream().anyMatch(message -> message.getId() == 3L)) {
+                throw new IllegalStateException("value too long for type character varying(255)");
+            }
+            stored.insert(messages);
+        };
+        // The idle writer sleeps for the flush interval, so all five are buffered and stop() flushes them as one batch
+        ChatMessageWriter writer = new ChatMessageWriter(sink, ChatMessageWriter.Mode.WRITE_BEHIND, 64, 8, 500, 3, 1);
+        writer.start();
+        for (long id = 1; id <= 5; id++) {
+            writer.persist(message(id, 7L));
+        }
+        writer.stop();
+
+        assertEquals(3, batchAttempts.get(), "the batch is retried before falling back");
+        assertEquals(Set.of(1L, 2L, 4L, 5L), stored.ids, "only the bad message is dead-lettered");
+        assertEquals(0, writer.getBufferDepth());
+    }
+
+    @Test
+    void stopWaitsForTheBatchInRetryInsteadOfWritingItAgain() throws Exception {
+        RecordingSink stored = new RecordingSink(0);
+        CountDownLatch firstAttemptFailed = new CountDownLatch(1);
+        ChatMessageSink sink = messages -> {
+            if (firstAttemptFailed.getCount() > 0) {
+                firstAttemptFailed.countDown();
+                throw new IllegalStateException("connection reset");
+            }
+            stored.insert(messages);
+        };
+        // Long enough that stop() runs while the worker is backing off
+        ChatMessageWriter writer = new ChatMessageWriter(sink, ChatMessageWriter.Mode.WRITE_BEHIND, 64, 8, 5, 3, 300);
+        writer.start();
+        for (long id = 1; id <= 5; id++) {
+            writer.persist(message(id, 7L));
+        }
+        assertTrue(firstAttemptFailed.await(5, TimeUnit.SECONDS));
+        writer.stop();
+
+        assertEquals(Set.of(1L, 2L, 3L, 4L, 5L), stored.ids);
+        assertEquals(0, stored.duplicates.get(), "no message is inserted twice");
+        assertEquals(0, writer.getBufferDepth());
+    }
+
+    private long runSenders(ChatMessageWriter writer) throws InterruptedException {
+        AtomicLong nextId = new AtomicLong(1);
+        ExecutorService senders = Executors.newFixedThreadPool(SENDERS);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int s = 0; s < SENDERS; s++) {
+            long rideId = s;
+            senders.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int i = 0; i < MESSAGES_PER_SENDER; i++) {
+                    writer.persist(message(nextId.getAndIncrement(), rideId));
+                }
+            });
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        senders.shutdown();
+        assertTrue(senders.awaitTermination(60, TimeUnit.SECONDS));
+        return System.nanoTime() - begin;
+    }
+
+    private static ChatMessage message(long id, long rideId) {
+        ChatMessage message = new ChatMessage();
+        message.setId(id);
+        message.setRideId(rideId);
+        message.setSenderEmail("sender" + rideId + "@homeride.test");
+        message.setSenderName("Sender " + rideId);
+        message.setContent("message " + id);
+        message.setType("GROUP");
+        message.setTimestamp(LocalDateTime.now());
+        return message;
+    }
+
+    private static class RecordingSink implements ChatMessageSink {
+        private final long roundTripMs;
+        private final Set<Long> ids = ConcurrentHashMap.newKeySet();
+        private final AtomicInteger batches = new AtomicInteger();
+        private final AtomicInteger duplicates = new AtomicInteger();
+
+        RecordingSink(long roundTripMs) {
+            this.roundTripMs = roundTripMs;
+        }
+
+        @Override
+        public void insert(List<ChatMessage> messages) {
+            try {
+                Thread.sleep(roundTripMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            batches.incrementAndGet();
+            messages.forEach(message -> {
+                if (!ids.add(message.getId())) {
+                    duplicates.incrementAndGet();
+                    throw new IllegalStateException("Duplicate insert of message " + message.getId());
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.homeride.backend.service;
+
+import com.homeride.backend.event.ChatRoomChangedEvent;
+import com.homeride.backend.repository.EmployeeRepository;
+import com.homeride.backend.repository.RideParticipantRepository;
+import com.homeride.backend.repository.RideRequestRepository;
+import com.homeride.backend.repository.projection.ChatMemberView;
+import com.homeride.backend.repository.projection.ChatRoomRideView;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ChatRoomServiceTest {
+
+    private final RideRequestRepository rideRequestRepository = mock(RideRequestRepository.class);
+    private final RideParticipantRepository rideParticipantRepository = mock(RideParticipantRepository.class);
+    private final ChatRoomService service = new ChatRoomService(rideRequestRepository, rideParticipantRepository,
+            mock(EmployeeRepository.class), mock(ClusterMessageBus.class));
+
+    @BeforeEach
+    void ride() {
+        ChatRoomRideView ride = mock(ChatRoomRideView.class);
+        when(ride.getOriginCity()).thenReturn("Ljubljana");
+        when(ride.getDestinationCity()).thenReturn("Maribor");
+        when(rideRequestRepository.findChatRoomRide(7L)).thenReturn(Optional.of(ride));
+        ChatMemberView driver = member(1L, "driver@homeride.test");
+        when(rideRequestRepository.findChatRoomDriver(7L)).thenReturn(Optional.of(driver));
+    }
+
+    @Test
+    void roomIsLoadedOnce() {
+        ChatMemberView ana = member(2L, "ana@homeride.test");
+        when(rideParticipantRepository.findChatRoomPassengers(7L)).thenReturn(List.of(ana));
+
+        service.getRoom(7L);
+        ChatRoomService.ChatRoom room = service.getRoom(7L).orElseThrow();
+
+        assertEquals(Set.of("driver@homeride.test", "ana@homeride.test"), room.getMembers().keySet());
+        verify(rideRequestRepository, times(1)).findChatRoomRide(7L);
+    }
+
+    @Test
+    void roomLoadedWhileTheRideChangedIsNotCached() {
+        ChatMemberView ana = member(2L, "ana@homeride.test");
+        // ana joins (and the change commits) after the room's ride was read but before it is cached
+        when(rideParticipantRepository.findChatRoomPassengers(7L)).thenAnswer(invocation -> {
+            service.onChatRoomChanged(new ChatRoomChangedEvent(7L));
+            return List.of();
+        }).thenReturn(List.of(ana));
+
+        assertTrue(service.getRoom(7L).orElseThrow().getMembers().containsKey("driver@homeride.test"));
+        ChatRoomService.ChatRoom room = service.getRoom(7L).orElseThrow();
+
+        assertTrue(room.getMembers().containsKey("ana@homeride.test"));
+        verify(rideRequestRepository, times(2)).findChatRoomRide(7L);
+    }
+
+    @Test
+    void missingRideIsNotCached() {
+        assertTrue(service.getRoom(8L).isEmpty());
+        assertTrue(service.getRoom(8L).isEmpty());
+
+        verify(rideRequestRepository, times(2)).findChatRoomRide(8L);
+    }
+
+    private static ChatMemberView member(Long id, String email) {
+        ChatMemberView view = mock(ChatMemberView.class);
+        when(view.getId()).thenReturn(id);
+        when(view.getEmail()).thenReturn(email);
+        return view;
+    }
+}
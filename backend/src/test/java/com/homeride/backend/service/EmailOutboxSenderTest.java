@@ -0,0 +1,207 @@
+package com.homeride.backend.service;
+
+import com.homeride.backend.model.OutboundEmail;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Runs the outbox sender against an in-process SMTP server, with an in-memory outbox that leases
+ * claimed rows the way the JDBC store does.
+ */
+class EmailOutboxSenderTest {
+
+    private SmtpStubServer smtp;
+    private InMemoryOutboxStore store;
+    private SimpleMeterRegistry meterRegistry;
+    private EmailOutboxSender sender;
+
+    @BeforeEach
+    void startSmtp() throws Exception {
+        smtp = new SmtpStubServer();
+        store = new InMemoryOutboxStore();
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void stop() throws Exception {
+        if (sender != null) {
+            sender.stop();
+        }
+        smtp.close();
+    }
+
+    @Test
+    void deliversQueuedMessagesInBatchesOverOneConnection() throws Exception {
+        startSender(3);
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            ids.add(store.insert(email("Message " + i)));
+        }
+        sender.wakeUp();
+
+        for (Long id : ids) {
+            awaitStatus(id, OutboundEmail.Status.SENT);
+        }
+        assertEquals(25, smtp.getMessages().size());
+        assertEquals(1, smtp.getConnections(), "the connection should be reused across messages and batches");
+        assertTrue(smtp.getMessages().get(0).contains("Subject: Message 0"));
+        assertEquals(25, meterRegistry.counter("mail.outbox.messages", "result", "sent").count());
+    }
+
+    @Test
+    void retriesTemporaryFailureWithBackoff() throws Exception {
+        startSender(3);
+        smtp.replyToNextData("451 4.3.0 Try again later");
+        long id = store.insert(email("Retry me"));
+        sender.wakeUp();
+
+        OutboundEmail sent = awaitStatus(id, OutboundEmail.Status.SENT);
+        assertEquals(2, sent.getAttempts());
+        assertEquals(1, smtp.getMessages().size());
+        assertEquals(1, meterRegistry.counter("mail.outbox.messages", "result", "retry").count());
+    }
+
+    @Test
+    void deadLettersPermanentRejectionWithoutRetrying() throws Exception {
+        startSender(3);
+        smtp.replyToNextData("554 5.7.1 Message rejected");
+        long id = store.insert(email("Rejected"));
+        sender.wakeUp();
+
+        OutboundEmail dead = awaitStatus(id, OutboundEmail.Status.DEAD);
+        assertEquals(1, dead.getAttempts());
+        assertTrue(dead.getLastError().contains("554"), dead.getLastError());
+        assertTrue(smtp.getMessages().isEmpty());
+    }
+
+    @Test
+    void deadLettersAfterMaxAttempts() throws Exception {
+        startSender(3);
+        smtp.replyToNextData("451 busy", "451 busy", "451 busy", "451 busy");
+        long id = store.insert(email("Never accepted"));
+        sender.wakeUp();
+
+        OutboundEmail dead = awaitStatus(id, OutboundEmail.Status.DEAD);
+        assertEquals(3, dead.getAttempts());
+        assertEquals(2, meterRegistry.counter("mail.outbox.messages", "result", "retry").count());
+        assertEquals(1, meterRegistry.counter("mail.outbox.messages", "result", "dead").count());
+    }
+
+    @Test
+    void keepsMessagesWhileServerIsUnavailable() throws Exception {
+        smtp.setGreeting("421 4.3.2 Service not available");
+        startSender(10);
+        long id = store.insert(email("Queued during outage"));
+        sender.wakeUp();
+
+        waitUntil(() -> store.get(id).getAttempts() >= 2);
+        assertEquals(OutboundEmail.Status.PENDING, store.get(id).getStatus());
+
+        smtp.setGreeting("220 stub ESMTP");
+        awaitStatus(id, OutboundEmail.Status.SENT);
+        assertEquals(1, smtp.getMessages().size());
+    }
+
+    private void startSender(int maxAttempts) {
+        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("127.0.0.1");
+        mailSender.setPort(smtp.getPort());
+        mailSender.getJavaMailProperties().put("mail.smtp.timeout", "5000");
+        sender = new EmailOutboxSender(store, mailSender, meterRegistry,
+                10, 20, maxAttempts, 20, 100, 60_000, 30_000);
+        sender.start();
+    }
+
+    private static OutboundEmail email(String subject) {
+        OutboundEmail email = new OutboundEmail();
+        email.setToAddress("support@homeride.test");
+        email.setFromAddress("rider@homeride.test");
+        email.setReplyTo("rider@homeride.test");
+        email.setSubject(subject);
+        email.setBody("Hello from " + subject);
+        return email;
+    }
+
+    private OutboundEmail awaitStatus(long id, OutboundEmail.Status status) throws InterruptedException {
+        waitUntil(() -> store.get(id).getStatus() == status);
+        return store.get(id);
+    }
+
+    private static void waitUntil(java.util.function.BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("condition not reached within 10 s");
+            }
+            Thread.sleep(10);
+        }
+    }
+
+    private static class InMemoryOutboxStore implements EmailOutboxStore {
+
+        private final Map<Long, OutboundEmail> rows = new ConcurrentHashMap<>();
+        private final AtomicLong ids = new AtomicLong();
+
+        OutboundEmail get(long id) {
+            return rows.get(id);
+        }
+
+        @Override
+        public long insert(OutboundEmail email) {
+            long id = ids.incrementAndGet();
+            email.setId(id);
+            email.setStatus(OutboundEmail.Status.PENDING);
+            email.setNextAttemptAt(LocalDateTime.now());
+            rows.put(id, email);
+            return id;
+        }
+
+        @Override
+        public synchronized List<OutboundEmail> claimDue(int limit, Duration lease) {
+            LocalDateTime now = LocalDateTime.now();
+            List<OutboundEmail> due = rows.values().stream()
+                    .filter(row -> row.getStatus() == OutboundEmail.Status.PENDING && !row.getNextAttemptAt().isAfter(now))
+                    .sorted(Comparator.comparing(OutboundEmail::getNextAttemptAt).thenComparing(OutboundEmail::getId))
+                    .limit(limit)
+                    .toList();
+            due.forEach(row -> {
+                row.setAttempts(row.getAttempts() + 1);
+                row.setNextAttemptAt(now.plus(lease));
+            });
+            return due;
+        }
+
+        @Override
+        public synchronized void markSent(long id) {
+            rows.get(id).setStatus(OutboundEmail.Status.SENT);
+        }
+
+        @Override
+        public synchronized void scheduleRetry(long id, LocalDateTime nextAttemptAt, String error) {
+            rows.get(id).setNextAttemptAt(nextAttemptAt);
+            rows.get(id).setLastError(error);
+        }
+
+        @Override
+        public synchronized void markDead(long id, String error) {
+            rows.get(id).setStatus(OutboundEmail.Status.DEAD);
+            rows.get(id).setLastError(error);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.homeride.backend.service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * ClusterMessageBus for tests: several "nodes" in one JVM share a {@link Hub}. Like LISTEN/NOTIFY,
+ * payloads reach every node (the publisher included) asynchronously, on a single delivery thread.
+ */
+public class InMemoryClusterMessageBus implements ClusterMessageBus {
+
+    private final Hub hub;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Map<String, List<Consumer<String>>> handlers = new ConcurrentHashMap<>();
+
+    public InMemoryClusterMessageBus(Hub hub) {
+        this.hub = hub;
+        hub.nodes.add(this);
+    }
+
+    @Override
+    public void subscribe(String channel, Consumer<String> handler) {
+        handlers.computeIfAbsent(channel, c -> new CopyOnWriteArrayList<>()).add(handler);
+    }
+
+    @Override
+    public void onReconnect(Runnable handler) {
+        // never disconnects
+    }
+
+    @Override
+    public void publish(String channel, String payload) {
+        for (InMemoryClusterMessageBus node : hub.nodes) {
+            hub.delivery.execute(() -> node.handlers.getOrDefault(channel, List.of()).forEach(h -> h.accept(payload)));
+        }
+    }
+
+    @Override
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    @Override
+    public int getMaxPayloadBytes() {
+        return PgNotifyService.MAX_PAYLOAD_BYTES;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+
+    public static class Hub implements AutoCloseable {
+        private final List<InMemoryClusterMessageBus> nodes = new CopyOnWriteArrayList<>();
+        private final ExecutorService delivery = Executors.newSingleThreadExecutor();
+
+        @Override
+        public void close() {
+            delivery.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.homeride.backend.service;
+
+import com.homeride.backend.dto.ProfilePictureStatusDTO;
+import com.homeride.backend.event.EmployeeProfileChangedEvent;
+import com.homeride.backend.model.ProfileImage;
+import com.homeride.backend.repository.EmployeeRepository;
+import com.homeride.backend.repository.ProfileImageRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * The upload pipeline with mocked repositories and an in-memory storage backend.
+ */
+class ProfilePictureServiceTest {
+
+    private static final String EMAIL = "anjali@homeride.test";
+
+    @TempDir
+    Path spoolDirectory;
+
+    private final Map<String, byte[]> stored = new ConcurrentHashMap<>();
+    private ProfileImageRepository profileImageRepository;
+    private EmployeeRepository employeeRepository;
+    private ApplicationEventPublisher eventPublisher;
+    private ProfilePictureService service;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        profileImageRepository = mock(ProfileImageRepository.class);
+        employeeRepository = mock(EmployeeRepository.class);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        when(profileImageRepository.findByContentHash(anyString())).thenReturn(Optional.empty());
+        when(profileImageRepository.save(any(ProfileImage.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        ImageStorageBackend storageBackend = (key, file, contentType) -> {
+            stored.put(key, Files.readAllBytes(file));
+            return "http://localhost:8080/uploads/" + key;
+        };
+
+        service = new ProfilePictureService(storageBackend, profileImageRepository, employeeRepository, eventPublisher);
+        ReflectionTestUtils.setField(service, "spoolDirectoryName", spoolDirectory.toString());
+        ReflectionTestUtils.setField(service, "maxPixels", 40_000_000L);
+        ReflectionTestUtils.setField(service, "workerThreads", 1);
+        ReflectionTestUtils.setField(service, "queueCapacity", 4);
+        ReflectionTestUtils.setField(service, "statusTtlMs", 600_000L);
+        service.start();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        service.stop();
+    }
+
+    @Test
+    void storesEveryAvatarSizeAndUpdatesThePicture() throws Exception {
+        ProfilePictureStatusDTO accepted = service.accept(EMAIL, png(600, 400));
+        assertEquals("PROCESSING", accepted.getStatus());
+
+        ProfilePictureStatusDTO status = awaitFinished();
+        assertEquals("DONE", status.getStatus());
+        assertEquals(3, stored.size());
+        for (int size : List.of(ProfilePictureService.SMALL_SIZE, ProfilePictureService.MEDIUM_SIZE, ProfilePictureService.LARGE_SIZE)) {
+            String key = stored.keySet().stream().filter(k -> k.endsWith("/" + size + ".jpg")).findFirst().orElseThrow();
+            BufferedImage variant = ImageIO.read(new ByteArrayInputStream(stored.get(key)));
+            assertEquals(size, variant.getWidth());
+            assertEquals(size, variant.getHeight());
+        }
+        String largeUrl = status.getProfilePictureUrl();
+        assertTrue(largeUrl.matches(".*/uploads/avatars/[0-9a-f]{64}/256\\.jpg"), largeUrl);
+        verify(employeeRepository).updateProfilePictureUrl(EMAIL, largeUrl);
+        verify(eventPublisher).publishEvent(any(EmployeeProfileChangedEvent.class));
+        assertSpoolDirectoryEmpty();
+    }
+
+    @Test
+    void reusesAnImageProcessedBefore() throws Exception {
+        ProfileImage existing = new ProfileImage();
+        existing.setLargeUrl("http://localhost:8080/uploads/avatars/abc/256.jpg");
+        when(profileImageRepository.findByContentHash(anyString())).thenReturn(Optional.of(existing));
+
+        ProfilePictureStatusDTO status = service.accept(EMAIL, png(300, 300));
+
+        assertEquals("DONE", status.getStatus());
+        assertEquals(existing.getLargeUrl(), status.getProfilePictureUrl());
+        assertTrue(stored.isEmpty());
+        verify(employeeRepository).updateProfilePictureUrl(EMAIL, existing.getLargeUrl());
+        assertSpoolDirectoryEmpty();
+    }
+
+    @Test
+    void rejectsFilesThatAreNotImages() throws Exception {
+        MockMultipartFile text = new MockMultipartFile("file", "avatar.png", "image/png", "not an image".getBytes());
+
+        assertThrows(IllegalArgumentException.class, () -> service.accept(EMAIL, text));
+
+        assertTrue(stored.isEmpty());
+        verify(employeeRepository, never()).updateProfilePictureUrl(anyString(), anyString());
+        assertNull(service.getStatus(EMAIL));
+        assertSpoolDirectoryEmpty();
+    }
+
+    @Test
+    void uploadAfterShutdownFailsInsteadOfStayingProcessing() throws Exception {
+        service.stop();
+
+        ProfilePictureStatusDTO status = service.accept(EMAIL, png(300, 300));
+
+        assertEquals("FAILED", status.getStatus());
+        assertEquals("FAILED", service.getStatus(EMAIL).getStatus());
+        assertTrue(stored.isEmpty());
+        verify(employeeRepository, never()).updateProfilePictureUrl(anyString(), anyString());
+        assertSpoolDirectoryEmpty();
+    }
+
+    private ProfilePictureStatusDTO awaitFinished() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (System.currentTimeMillis() < deadline) {
+            ProfilePictureStatusDTO status = service.getStatus(EMAIL);
+            if (!"PROCESSING".equals(status.getStatus())) {
+                return status;
+            }
+            Thread.sleep(20);
+        }
+        fail("upload still processing after 10 s");
+        return null;
+    }
+
+    private void assertSpoolDirectoryEmpty() throws IOException {
+        try (Stream<Path> files = Files.list(spoolDirectory)) {
+            assertEquals(List.of(), files.toList(), "spool files left behind");
+        }
+    }
+
+    private static MockMultipartFile png(int width, int height) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(Color.ORANGE);
+        graphics.fillRect(0, 0, width, height);
+        graphics.dispose();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return new MockMultipartFile("file", "avatar.png", "image/png", out.toByteArray());
+    }
+}
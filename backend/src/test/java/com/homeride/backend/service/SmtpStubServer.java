@@ -0,0 +1,123 @@
+package com.homeride.backend.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Minimal in-process SMTP server for tests: enough of RFC 5321 for JavaMail without auth or TLS.
+ * Accepted messages are recorded; replies to DATA and the greeting can be scripted to simulate
+ * temporary and permanent failures.
+ */
+class SmtpStubServer implements AutoCloseable {
+
+    private final ServerSocket serverSocket;
+    private final Thread acceptor;
+    private final List<String> messages = new CopyOnWriteArrayList<>();
+    private final Queue<String> dataReplies = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger connections = new AtomicInteger();
+    private volatile String greeting = "220 stub ESMTP";
+
+    SmtpStubServer() throws IOException {
+        serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        acceptor = new Thread(this::acceptLoop, "smtp-stub");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    List<String> getMessages() {
+        return messages;
+    }
+
+    int getConnections() {
+        return connections.get();
+    }
+
+    /**
+     * Replies to the next DATA commands, in order, instead of accepting the message.
+     */
+    void replyToNextData(String... replies) {
+        dataReplies.addAll(List.of(replies));
+    }
+
+    void setGreeting(String greeting) {
+        this.greeting = greeting;
+    }
+
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                connections.incrementAndGet();
+                Thread.ofVirtual().start(() -> handle(socket));
+            } catch (IOException e) {
+                return;
+            }
+        }
+    }
+
+    private void handle(Socket socket) {
+        try (socket;
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+             OutputStream out = socket.getOutputStream()) {
+            String currentGreeting = greeting;
+            reply(out, currentGreeting);
+            if (!currentGreeting.startsWith("220")) {
+                return;
+            }
+            String line;
+            while ((line = in.readLine()) != null) {
+                String command = line.length() >= 4 ? line.substring(0, 4).toUpperCase() : line.toUpperCase();
+                switch (command) {
+                    case "EHLO", "HELO" -> reply(out, "250 stub");
+                    case "MAIL", "RCPT", "RSET", "NOOP" -> reply(out, "250 OK");
+                    case "DATA" -> {
+                        reply(out, "354 End data with <CR><LF>.<CR><LF>");
+                        StringBuilder data = new StringBuilder();
+                        while ((line = in.readLine()) != null && !line.equals(".")) {
+                            data.append(line.startsWith("..") ? line.substring(1) : line).append("\r\n");
+                        }
+                        String scripted = dataReplies.poll();
+                        if (scripted != null) {
+                            reply(out, scripted);
+                        } else {
+                            messages.add(data.toString());
+                            reply(out, "250 OK queued");
+                        }
+                    }
+                    case "QUIT" -> {
+                        reply(out, "221 Bye");
+                        return;
+                    }
+                    default -> reply(out, "502 Command not implemented");
+                }
+            }
+        } catch (IOException e) {
+            // client went away
+        }
+    }
+
+    private static void reply(OutputStream out, String line) throws IOException {
+        out.write((line + "\r\n").getBytes(StandardCharsets.US_ASCII));
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+    }
+}
@@ -0,0 +1,212 @@
+package com.homeride.backend.service;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import com.google.maps.GeoApiContext;
+import com.google.maps.model.LatLng;
+import com.homeride.backend.config.ApplicationConfig;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.observation.annotation.Observed;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.actuate.autoconfigure.metrics.CompositeMeterRegistryAutoConfiguration;
+import org.springframework.boot.actuate.autoconfigure.metrics.MetricsAutoConfiguration;
+import org.springframework.boot.actuate.autoconfigure.metrics.export.simple.SimpleMetricsExportAutoConfiguration;
+import org.springframework.boot.actuate.autoconfigure.observation.ObservationAutoConfiguration;
+import org.springframework.boot.actuate.autoconfigure.tracing.MicrometerTracingAutoConfiguration;
+import org.springframework.boot.actuate.autoconfigure.tracing.OpenTelemetryAutoConfiguration;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.aop.AopAutoConfiguration;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that an @Observed service method and the Maps calls it makes end up as one trace, exported
+ * to an in-memory span exporter, and that log lines written inside a span carry its trace ID.
+ * Uses the same tracing auto-configuration as the application, sampling every trace unless a test
+ * lowers it.
+ */
+class TracingSpansTest {
+
+    private static final String DIRECTIONS_RESPONSE =
+            "{\"status\":\"OK\",\"routes\":[{\"legs\":[{\"distance\":{\"value\":12345,\"text\":\"12.3 km\"}}]}]}";
+    private static final String GEOCODE_RESPONSE =
+            "{\"status\":\"OK\",\"results\":[{\"geometry\":{\"location\":{\"lat\":9.93,\"lng\":76.26}}}]}";
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withConfiguration(AutoConfigurations.of(
+                    AopAutoConfiguration.class,
+                    MetricsAutoConfiguration.class,
+                    CompositeMeterRegistryAutoConfiguration.class,
+                    SimpleMetricsExportAutoConfiguration.class,
+                    ObservationAutoConfiguration.class,
+                    org.springframework.boot.actuate.autoconfigure.opentelemetry.OpenTelemetryAutoConfiguration.class,
+                    MicrometerTracingAutoConfiguration.class,
+                    OpenTelemetryAutoConfiguration.class))
+            .withPropertyValues(
+                    "management.observations.annotations.enabled=true",
+                    "management.tracing.sampling.probability=1.0",
+                    "google.maps.api.key=AIzaTracingTestKey")
+            .withUserConfiguration(TracingTestConfig.class);
+
+    private HttpServer mapsStub;
+    private GeoApiContext geoApiContext;
+    private ListAppender<ILoggingEvent> mapsLog;
+
+    @BeforeEach
+    void startMapsStub() throws Exception {
+        mapsStub = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        mapsStub.createContext("/", exchange -> {
+            String path = exchange.getRequestURI().getPath();
+            byte[] body = (path.contains("/geocode/") ? GEOCODE_RESPONSE : DIRECTIONS_RESPONSE)
+                    .getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        mapsStub.start();
+        geoApiContext = ApplicationConfig.mapsContextBuilder("AIzaTracingTestKey", 10)
+                .baseUrlOverride("http://127.0.0.1:" + mapsStub.getAddress().getPort())
+                .disableRetries()
+                .build();
+
+        mapsLog = new ListAppender<>();
+        mapsLog.start();
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger(GoogleMapsService.class)).addAppender(mapsLog);
+    }
+
+    @AfterEach
+    void stopMapsStub() {
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger(GoogleMapsService.class)).detachAppender(mapsLog);
+        geoApiContext.shutdown();
+        mapsStub.stop(0);
+    }
+
+    @Test
+    void mapsCallsAreChildSpansOfTheObservedOperation() {
+        contextRunner.withBean(GeoApiContext.class, () -> geoApiContext).run(context -> {
+            context.getBean(RoutePlanner.class).plan("Kochi", "Bengaluru");
+            List<SpanData> spans = finishedSpans(context.getBean(SdkTracerProvider.class),
+                    context.getBean(InMemorySpanExporter.class));
+
+            SpanData operation = span(spans, "rides create");
+            SpanData directions = span(spans, "maps directions");
+            SpanData geocode = span(spans, "maps geocode");
+            assertEquals(3, spans.size(), "spans: " + spans);
+            for (SpanData child : List.of(directions, geocode)) {
+                assertEquals(operation.getTraceId(), child.getTraceId());
+                assertEquals(operation.getSpanId(), child.getParentSpanId());
+                assertEquals("success", child.getAttributes().get(AttributeKey.stringKey("outcome")));
+            }
+            assertEquals("geocode", geocode.getAttributes().get(AttributeKey.stringKey("api")));
+
+            // The same observations still feed the maps.requests timer
+            MeterRegistry meterRegistry = context.getBean(MeterRegistry.class);
+            assertEquals(1, meterRegistry.get("maps.requests").tags("api", "directions", "outcome", "success").timer().count());
+        });
+    }
+
+    @Test
+    void logLinesInsideASpanCarryItsTraceId() {
+        contextRunner.withBean(GeoApiContext.class, () -> geoApiContext).run(context -> {
+            context.getBean(RoutePlanner.class).plan("Kochi", "Bengaluru");
+            List<SpanData> spans = finishedSpans(context.getBean(SdkTracerProvider.class),
+                    context.getBean(InMemorySpanExporter.class));
+            SpanData directions = span(spans, "maps directions");
+
+            ILoggingEvent distanceLog = mapsLog.list.stream()
+                    .filter(event -> event.getFormattedMessage().startsWith("Direct Distance"))
+                    .findFirst()
+                    .orElseThrow();
+            Map<String, String> mdc = distanceLog.getMDCPropertyMap();
+            assertEquals(directions.getTraceId(), mdc.get("traceId"));
+            assertEquals(directions.getSpanId(), mdc.get("spanId"));
+        });
+    }
+
+    @Test
+    void unsampledTracesExportNoSpansButKeepMetrics() {
+        contextRunner.withBean(GeoApiContext.class, () -> geoApiContext)
+                .withPropertyValues("management.tracing.sampling.probability=0.0")
+                .run(context -> {
+                    context.getBean(RoutePlanner.class).plan("Kochi", "Bengaluru");
+                    List<SpanData> spans = finishedSpans(context.getBean(SdkTracerProvider.class),
+                            context.getBean(InMemorySpanExporter.class));
+                    assertTrue(spans.isEmpty(), "spans: " + spans);
+                    assertFalse(context.getBean(MeterRegistry.class).get("maps.requests").timers().isEmpty());
+                });
+    }
+
+    private static List<SpanData> finishedSpans(SdkTracerProvider tracerProvider, InMemorySpanExporter exporter) {
+        // Spans go through a batch processor; flush so they reach the exporter before asserting
+        tracerProvider.forceFlush().join(5, TimeUnit.SECONDS);
+        return exporter.getFinishedSpanItems();
+    }
+
+    private static SpanData span(List<SpanData> spans, String name) {
+        return spans.stream()
+                .filter(span -> span.getName().equals(name))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("no span named '" + name + "' in " + spans));
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    static class TracingTestConfig {
+
+        // Picked up by the OpenTelemetry auto-configuration like the OTLP exporter in production
+        @Bean
+        InMemorySpanExporter inMemorySpanExporter() {
+            return InMemorySpanExporter.create();
+        }
+
+        @Bean
+        GoogleMapsService googleMapsService(GeoApiContext geoApiContext,
+                                            ObservationRegistry observationRegistry) {
+            return new GoogleMapsService(geoApiContext, observationRegistry);
+        }
+
+        @Bean
+        RoutePlanner routePlanner(GoogleMapsService mapsService) {
+            return new RoutePlanner(mapsService);
+        }
+    }
+
+    /**
+     * Stands in for RideRequestService.createRideOffer, which needs the database: the same
+     * annotation around a distance lookup and a geocode.
+     */
+    static class RoutePlanner {
+
+        private final GoogleMapsService mapsService;
+
+        RoutePlanner(GoogleMapsService mapsService) {
+            this.mapsService = mapsService;
+        }
+
+        @Observed(name = "rides.operations", contextualName = "rides create", lowCardinalityKeyValues = {"operation", "create"})
+        public LatLng plan(String origin, String destination) {
+            mapsService.getDirectDistance(origin, destination);
+            return mapsService.geocodeAddress(origin);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.homeride.backend.service;
+
+import com.homeride.backend.repository.NotificationRepository;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UnreadNotificationCounterTest {
+
+    private static final String EMAIL = "ana@homeride.test";
+
+    private final NotificationRepository repository = mock(NotificationRepository.class);
+    private final UnreadNotificationCounter counter = new UnreadNotificationCounter(repository, mock(ClusterMessageBus.class));
+
+    @Test
+    void countIsLoadedOnceAndThenAdjusted() {
+        when(repository.countByUser_EmailAndIsReadFalse(EMAIL)).thenReturn(3L);
+
+        assertEquals(3, counter.get(EMAIL));
+        counter.add(EMAIL, 1);
+        counter.add(EMAIL, -2);
+
+        assertEquals(2, counter.get(EMAIL));
+        verify(repository, times(1)).countByUser_EmailAndIsReadFalse(EMAIL);
+    }
+
+    @Test
+    void counterLoadedWhileACountChangedIsNotKept() {
+        // The new notification committed before the COUNT saw it; its delta arrives while loading
+        when(repository.countByUser_EmailAndIsReadFalse(EMAIL)).thenAnswer(invocation -> {
+            counter.add(EMAIL, 1);
+            return 4L;
+        }).thenReturn(4L);
+
+        assertEquals(4, counter.get(EMAIL));
+        assertEquals(4, counter.get(EMAIL));
+        counter.add(EMAIL, 1);
+
+        assertEquals(5, counter.get(EMAIL));
+        verify(repository, times(2)).countByUser_EmailAndIsReadFalse(EMAIL);
+    }
+
+    @Test
+    void reloadReplacesTheCounterWithTheDatabaseCount() {
+        when(repository.countByUser_EmailAndIsReadFalse(EMAIL)).thenReturn(3L, 1L);
+        counter.get(EMAIL);
+
+        assertEquals(1, counter.reload(EMAIL));
+        assertEquals(1, counter.get(EMAIL));
+    }
+}
@@ -0,0 +1,137 @@
+package com.homeride.backend.service;
+
+import com.google.maps.GeoApiContext;
+import com.homeride.backend.config.ApplicationConfig;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.support.PropertiesLoaderUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Sends a burst of requests that each block on a slow Maps call, using Tomcat's default pool of
+ * 200 platform threads and then one virtual thread per request. The Directions API is a local stub
+ * that answers after a fixed delay (a degraded upstream).
+ * <p>
+ * The client runs with the production query rate limit, which also caps its calls in flight, so
+ * Maps throughput is the same either way. What changes is everything else: with platform threads,
+ * callers waiting for the client hold every request thread and a request that never touches Maps
+ * queues behind them; with virtual threads it runs at once.
+ * <p>
+ * Takes a couple of minutes, so it only runs with {@code mvn -P load-tests test}.
+ */
+@Tag("load")
+class VirtualThreadMapsLoadTest {
+
+    private static final int PLATFORM_THREADS = 200; // server.tomcat.threads.max default
+    private static final int REQUESTS = 1_000;
+    private static final long MAPS_LATENCY_MS = 1_000;
+    private static final int WARMUP_REQUESTS = 20;
+    private static final String DIRECTIONS_RESPONSE =
+            "{\"status\":\"OK\",\"routes\":[{\"legs\":[{\"distance\":{\"value\":12345,\"text\":\"12.3 km\"}}]}]}";
+
+    private HttpServer mapsStub;
+    private GeoApiContext geoApiContext;
+    private GoogleMapsService mapsService;
+    private int queryRateLimit;
+
+    @BeforeEach
+    void startMapsStub() throws Exception {
+        mapsStub = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 4096);
+        mapsStub.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        mapsStub.createContext("/", exchange -> {
+            try {
+                Thread.sleep(MAPS_LATENCY_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] body = DIRECTIONS_RESPONSE.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        mapsStub.start();
+
+        queryRateLimit = Integer.parseInt(PropertiesLoaderUtils
+                .loadProperties(new ClassPathResource("application.properties"))
+                .getProperty("google.maps.query-rate-limit"));
+        geoApiContext = ApplicationConfig.mapsContextBuilder("AIzaLoadTestKey", queryRateLimit)
+                .baseUrlOverride("http://127.0.0.1:" + mapsStub.getAddress().getPort())
+                .disableRetries()
+                .build();
+        mapsService = new GoogleMapsService(geoApiContext, ObservationRegistry.NOOP);
+        ReflectionTestUtils.setField(mapsService, "apiKey", "AIzaLoadTestKey");
+
+        // Warm up the client (connection pool, JSON parsing) before timing anything
+        runRequests(Executors.newFixedThreadPool(PLATFORM_THREADS), WARMUP_REQUESTS);
+    }
+
+    @AfterEach
+    void stopMapsStub() {
+        geoApiContext.shutdown();
+        mapsStub.stop(0);
+    }
+
+    @Test
+    void virtualThreadsKeepServingOtherRequestsWhenMapsIsSlow() throws Exception {
+        Run platform = runRequests(Executors.newFixedThreadPool(PLATFORM_THREADS), REQUESTS);
+        Run virtual = runRequests(Executors.newVirtualThreadPerTaskExecutor(), REQUESTS);
+
+        // At most queryRateLimit calls in flight, each taking the stub's latency
+        double clientLimitPerSecond = queryRateLimit * 1000.0 / MAPS_LATENCY_MS;
+        assertTrue(platform.mapsPerSecond() <= clientLimitPerSecond * 1.1,
+                "platform pool should be bounded by the Maps client, got " + platform.mapsPerSecond() + " req/s");
+        assertTrue(virtual.mapsPerSecond() <= clientLimitPerSecond * 1.1,
+                "virtual threads should be bounded by the Maps client, got " + virtual.mapsPerSecond() + " req/s");
+
+        assertTrue(platform.otherRequestWaitMs() > MAPS_LATENCY_MS,
+                "expected the platform pool to be exhausted, but the other request waited only "
+                        + platform.otherRequestWaitMs() + " ms");
+        assertTrue(virtual.otherRequestWaitMs() < 100,
+                "expected the other request to start at once on a virtual thread, but it waited "
+                        + virtual.otherRequestWaitMs() + " ms");
+    }
+
+    /**
+     * Submits {@code requests} Maps calls, then one request that does not call Maps, and waits for
+     * all of them.
+     */
+    private Run runRequests(ExecutorService executor, int requests) throws Exception {
+        long start = System.nanoTime();
+        List<Future<Double>> results = new ArrayList<>(requests);
+        for (int i = 0; i < requests; i++) {
+            results.add(executor.submit(() -> mapsService.getDirectDistance("Kochi", "Bengaluru")));
+        }
+        long otherSubmitted = System.nanoTime();
+        Future<Long> otherStarted = executor.submit(System::nanoTime);
+
+        for (Future<Double> result : results) {
+            // Anything else is the service's fallback distance, i.e. the call failed
+            assertEquals(12.345, result.get(30, TimeUnit.SECONDS), 0.0001);
+        }
+        long elapsed = System.nanoTime() - start;
+        long otherWait = otherStarted.get() - otherSubmitted;
+        executor.shutdown();
+        return new Run(requests / (elapsed / 1e9), TimeUnit.NANOSECONDS.toMillis(otherWait));
+    }
+
+    private record Run(double mapsPerSecond, long otherRequestWaitMs) {
+    }
+}
@@ -0,0 +1,82 @@
+#!/usr/bin/env python3
+"""Compare two JMH JSON result files (java -jar target/benchmarks.jar -rf json -rff <file>).
+
+    python3 compare.py baseline/results.json results.json [--threshold 10]
+
+For every benchmark and parameter combination in both files, prints the baseline and current
+scores and the change. A change is flagged when it is larger than --threshold percent and the
+two 99.9% confidence intervals do not overlap, so noise within the error bounds is not reported.
+Exits with status 1 when any benchmark got slower, so it can gate a CI job.
+"""
+
+import argparse
+import json
+import sys
+
+
+def load(path):
+    with open(path, encoding="utf-8") as f:
+        results = {}
+        for run in json.load(f):
+            params = run.get("params") or {}
+            key = run["benchmark"] + "".join(f" {k}={v}" for k, v in sorted(params.items()))
+            metric = run["primaryMetric"]
+            results[key] = (run["mode"], metric["score"], metric["scoreConfidence"], metric["scoreUnit"])
+        return results
+
+
+def short_name(key):
+    # com.homeride.backend.service.RideMatchingBenchmark.searchFilter -> RideMatchingBenchmark.searchFilter
+    name, _, params = key.partition(" ")
+    name = ".".join(name.split(".")[-2:])
+    return f"{name} {params}".strip()
+
+
+def main():
+    parser = argparse.ArgumentParser(description="Compare two JMH JSON result files.")
+    parser.add_argument("baseline")
+    parser.add_argument("current")
+    parser.add_argument("--threshold", type=float, default=10.0,
+                        help="smallest change in percent worth flagging (default 10)")
+    args = parser.parse_args()
+
+    baseline = load(args.baseline)
+    current = load(args.current)
+
+    rows = []
+    regressions = 0
+    for key in sorted(baseline.keys() & current.keys()):
+        mode, old, (old_low, old_high), unit = baseline[key]
+        _, new, (new_low, new_high), new_unit = current[key]
+        if unit != new_unit or old == 0:
+            rows.append((short_name(key), f"{old:.3f} {unit}", f"{new:.3f} {new_unit}", "n/a", "units differ"))
+            continue
+        change = (new - old) / old * 100
+        # Lower is better for time per operation, higher for operations per time
+        slower = change > 0 if mode in ("avgt", "sample", "ss") else change < 0
+        overlap = new_low <= old_high and old_low <= new_high
+        verdict = ""
+        if abs(change) >= args.threshold and not overlap:
+            verdict = "SLOWER" if slower else "faster"
+            regressions += slower
+        rows.append((short_name(key), f"{old:.3f} {unit}", f"{new:.3f} {unit}", f"{change:+.1f}%", verdict))
+
+    headers = ("benchmark", "baseline", "current", "change", "")
+    widths = [max(len(str(r[i])) for r in rows + [headers]) for i in range(len(headers))]
+    for row in [headers] + rows:
+        print("  ".join(str(cell).ljust(width) for cell, width in zip(row, widths)).rstrip())
+
+    for key in sorted(baseline.keys() - current.keys()):
+        print(f"only in baseline: {short_name(key)}")
+    for key in sorted(current.keys() - baseline.keys()):
+        print(f"only in current: {short_name(key)}")
+
+    if regressions:
+        print(f"\n{regressions} benchmark(s) slower than the baseline beyond the error bounds "
+              f"and the {args.threshold:g}% threshold")
+        return 1
+    return 0
+
+
+if __name__ == "__main__":
+    sys.exit(main())
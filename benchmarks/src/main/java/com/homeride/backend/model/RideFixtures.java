@@ -0,0 +1,125 @@
+package com.homeride.backend.model;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Offered rides as the search and ride pages see them: intercity routes out of the office cities,
+ * with Places-style point names and up to four stopovers, and a few booked passengers each.
+ * Deterministic, so runs are comparable.
+ * <p>
+ * The stopover and participant back-references are left unset: they are @JsonBackReference (not
+ * serialized) and not read by the code being measured, and Lombok's hashCode recurses through them.
+ */
+public final class RideFixtures {
+
+    // {city, point} from origin to destination
+    private static final String[][][] ROUTES = {
+            {{"Bengaluru", "Electronic City, Bengaluru, Karnataka, India"}, {"Hosur", "Hosur Bus Stand, Hosur, Tamil Nadu, India"},
+                    {"Krishnagiri", "Krishnagiri, Tamil Nadu, India"}, {"Vellore", "Katpadi Junction, Vellore, Tamil Nadu, India"},
+                    {"Chennai", "Guindy, Chennai, Tamil Nadu, India"}},
+            {{"Bengaluru", "Whitefield, Bengaluru, Karnataka, India"}, {"Salem", "Salem New Bus Stand, Salem, Tamil Nadu, India"},
+                    {"Coimbatore", "Gandhipuram, Coimbatore, Tamil Nadu, India"}, {"Palakkad", "Palakkad, Kerala, India"},
+                    {"Thrissur", "Thrissur Round, Thrissur, Kerala, India"}, {"Kochi", "Kakkanad, Kochi, Kerala, India"}},
+            {{"Bengaluru", "Koramangala, Bengaluru, Karnataka, India"}, {"Mandya", "Mandya, Karnataka, India"},
+                    {"Mysuru", "Mysuru Palace, Mysuru, Karnataka, India"}},
+            {{"Chennai", "Siruseri SIPCOT IT Park, Chennai, Tamil Nadu, India"}, {"Villupuram", "Villupuram, Tamil Nadu, India"},
+                    {"Puducherry", "White Town, Puducherry, India"}},
+            {{"Hyderabad", "HITEC City, Hyderabad, Telangana, India"}, {"Kurnool", "Kurnool, Andhra Pradesh, India"},
+                    {"Anantapur", "Anantapur, Andhra Pradesh, India"}, {"Bengaluru", "Hebbal, Bengaluru, Karnataka, India"}},
+            {{"Pune", "Hinjawadi Phase 1, Pune, Maharashtra, India"}, {"Lonavala", "Lonavala, Maharashtra, India"},
+                    {"Mumbai", "Andheri East, Mumbai, Maharashtra, India"}},
+            {{"Chennai", "Tambaram, Chennai, Tamil Nadu, India"}, {"Vellore", "Vellore, Tamil Nadu, India"},
+                    {"Bengaluru", "Marathahalli, Bengaluru, Karnataka, India"}},
+            {{"Kochi", "Edappally, Kochi, Kerala, India"}, {"Thrissur", "Thrissur, Kerala, India"},
+                    {"Kozhikode", "Mavoor Road, Kozhikode, Kerala, India"}},
+    };
+
+    private static final String[] NAMES = {"Anjali Menon", "Rahul Sharma", "Priya Iyer", "Arjun Reddy", "Sneha Kulkarni",
+            "Vikram Nair", "Divya Rao", "Karthik Subramanian", "Meera Pillai", "Rohan Deshpande"};
+
+    private static final LocalDateTime START = LocalDateTime.of(2025, 6, 2, 7, 30);
+
+    private RideFixtures() {
+    }
+
+    /**
+     * {@code count} offered rides, cycling through the routes.
+     */
+    public static List<RideRequest> offeredRides(int count) {
+        List<RideRequest> rides = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            rides.add(offeredRide(i));
+        }
+        return rides;
+    }
+
+    public static RideRequest offeredRide(int index) {
+        String[][] route = ROUTES[index % ROUTES.length];
+        String[] origin = route[0];
+        String[] destination = route[route.length - 1];
+
+        RideRequest ride = new RideRequest();
+        ride.setId(1000L + index);
+        ride.setOriginCity(origin[0]);
+        ride.setOrigin(origin[1]);
+        ride.setDestinationCity(destination[0]);
+        ride.setDestination(destination[1]);
+        ride.setRideType("OFFERED");
+        ride.setStatus("PENDING");
+        ride.setTravelDateTime(START.plusHours(index * 5L));
+        ride.setVehicleModel(index % 2 == 0 ? "Hyundai Creta" : "Maruti Swift Dzire");
+        ride.setVehicleCapacity(4);
+        ride.setGenderPreference("ANY");
+        ride.setDistance(140.0 + 45 * (route.length - 2) + index % 30);
+        ride.setDuration((int) (ride.getDistance() * 1.4));
+        ride.setPrice(Math.round(ride.getDistance() * 2.0 / 10) * 10.0);
+        ride.setPricePerKm(2.0);
+        ride.setDriverNote("Leaving from the office gate, one stop for breakfast. Small bags only.");
+        ride.setRoutePolyline("_p~iF~ps|U_ulLnnqC_mqNvxq`@".repeat(40));
+        ride.setRequester(employee(index));
+        ride.setDriver(ride.getRequester());
+
+        for (int s = 1; s < route.length - 1; s++) {
+            Stopover stopover = new Stopover();
+            stopover.setId(5000L + index * 10L + s);
+            stopover.setCity(route[s][0]);
+            stopover.setPoint(route[s][1]);
+            stopover.setLat(12.0 + s * 0.4);
+            stopover.setLng(77.5 + s * 0.3);
+            ride.getStopovers().add(stopover);
+            ride.getStopoverPrices().add(ride.getPrice() * s / (route.length - 1));
+        }
+
+        int passengers = index % 4;
+        for (int p = 0; p < passengers; p++) {
+            RideParticipant participant = new RideParticipant();
+            participant.setId(9000L + index * 10L + p);
+            participant.setParticipant(employee(index + p + 1));
+            participant.setPickupPoint(origin[1]);
+            participant.setDropoffPoint(route[Math.min(p + 1, route.length - 1)][1]);
+            participant.setPrice(ride.getPrice());
+            participant.setNumberOfSeats(1);
+            participant.setJoinedAt(START.minusDays(2).plusMinutes(index * 7L + p));
+            ride.getParticipants().add(participant);
+        }
+        return ride;
+    }
+
+    private static Employee employee(int index) {
+        Employee employee = new Employee();
+        employee.setId(100L + index % 50);
+        employee.setName(NAMES[index % NAMES.length]);
+        employee.setEmail("employee" + index % 50 + "@homeride.example");
+        employee.setPassword("$2a$10$7EqJtq98hPqEX7fNZaFWoOhi5BWX4Z1d5fC0s9Y8d3cDbQ1mE2rQe");
+        employee.setGender(index % 2 == 0 ? "FEMALE" : "MALE");
+        employee.setPhoneNumber("+91 98450 " + String.format("%05d", index % 50));
+        employee.setProfilePictureUrl("https://res.cloudinary.com/homeride/image/upload/avatars/" + index % 50 + ".jpg");
+        employee.setTravelCredit(1500.0);
+        employee.setRole("EMPLOYEE");
+        employee.setCreatedAt(START.minusMonths(6));
+        employee.setAverageRating(4.0 + index % 10 / 10.0);
+        return employee;
+    }
+}
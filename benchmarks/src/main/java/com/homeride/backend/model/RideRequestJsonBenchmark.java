@@ -0,0 +1,60 @@
+package com.homeride.backend.model;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writing ride graphs (stopovers, participants, requester and driver) to JSON, as the ride details
+ * and search endpoints return them. The ObjectMapper is configured like Spring Boot's default one.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class RideRequestJsonBenchmark {
+
+    private static final int SEARCH_PAGE = 50;
+
+    private ObjectWriter writer;
+    private RideRequest ride;
+    private List<RideRequest> searchResults;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        writer = objectMapper.writer();
+        // A ride with stopovers and three passengers
+        ride = RideFixtures.offeredRide(3);
+        searchResults = RideFixtures.offeredRides(SEARCH_PAGE);
+    }
+
+    @Benchmark
+    public byte[] rideDetails() throws JsonProcessingException {
+        return writer.writeValueAsBytes(ride);
+    }
+
+    @Benchmark
+    public byte[] searchResults() throws JsonProcessingException {
+        return writer.writeValueAsBytes(searchResults);
+    }
+}
@@ -0,0 +1,51 @@
+package com.homeride.backend.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Price ranges for a ride offer: the total range and one segment range per stopover, over
+ * distances covering the short, medium and long rate bands.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class PricingBenchmark {
+
+    private static final double[] DISTANCES_KM = {12.5, 48.0, 96.3, 143.7, 210.0, 298.9, 345.2, 512.8, 687.4, 1020.0};
+
+    private PricingService pricingService;
+
+    @Setup
+    public void setUp() {
+        pricingService = new PricingService();
+    }
+
+    @Benchmark
+    public void totalPriceRange(Blackhole blackhole) {
+        for (double distance : DISTANCES_KM) {
+            blackhole.consume(pricingService.getTotalPriceRange(distance));
+        }
+    }
+
+    @Benchmark
+    public void segmentPriceRange(Blackhole blackhole) {
+        for (double distance : DISTANCES_KM) {
+            blackhole.consume(pricingService.getSegmentPriceRange(distance));
+        }
+    }
+}
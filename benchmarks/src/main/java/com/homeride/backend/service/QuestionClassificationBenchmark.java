@@ -0,0 +1,54 @@
+package com.homeride.backend.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The keyword and regex classification run on every chatbot message before the context is built.
+ * Each kind of message stops at a different rule, so each pays for a different number of checks.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class QuestionClassificationBenchmark {
+
+    @Param({"distance", "general", "ride", "account", "feature", "ambiguous"})
+    public String kind;
+
+    private ChatbotService chatbotService;
+    private String message;
+
+    @Setup
+    public void setUp() {
+        // Classification uses none of the injected collaborators
+        chatbotService = new ChatbotService();
+        message = switch (kind) {
+            case "distance" -> "What is the distance between Bengaluru and Chennai by road?";
+            case "general" -> "Tell me which places are worth visiting around Mysuru in the monsoon season";
+            case "ride" -> "When does my ride to Chennai on Friday leave, and who is the driver?";
+            case "account" -> "How many travel credits do I have left and what is my rating?";
+            case "feature" -> "Can I change the pickup point after I have joined?";
+            case "ambiguous" -> "Thanks a lot, that was useful. See you next week at the office!";
+            default -> throw new IllegalArgumentException("Unknown kind: " + kind);
+        };
+    }
+
+    @Benchmark
+    public Object analyzeQuestion() {
+        return chatbotService.analyzeQuestion(message);
+    }
+}
@@ -0,0 +1,91 @@
+package com.homeride.backend.service;
+
+import com.homeride.backend.model.RideFixtures;
+import com.homeride.backend.model.RideRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The in-memory part of ride search: canAccommodateJourney over every candidate ride, as the
+ * searchRides filter does once the date and seat filters have passed, and a single matchesLocation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class RideMatchingBenchmark {
+
+    private static final int RIDES = 200;
+
+    /**
+     * direct: origin and destination cities; stopover: boards at a stopover; place: full Places
+     * names as the autocomplete sends them; miss: no ride serves it, so every point is compared.
+     */
+    @Param({"direct", "stopover", "place", "miss"})
+    public String journey;
+
+    private RideRequestService rideRequestService;
+    private List<RideRequest> rides;
+    private String origin;
+    private String destination;
+    private RideRequestService.RoutePoint routePoint;
+
+    @Setup
+    public void setUp() {
+        // Matching only reads the ride, none of the collaborators
+        rideRequestService = new RideRequestService(null, null, null, null, null, null, null, null);
+        rides = RideFixtures.offeredRides(RIDES);
+        switch (journey) {
+            case "direct" -> {
+                origin = "Bengaluru";
+                destination = "Chennai";
+            }
+            case "stopover" -> {
+                origin = "Hosur";
+                destination = "Vellore";
+            }
+            case "place" -> {
+                origin = "Whitefield, Bengaluru, Karnataka, India";
+                destination = "Kakkanad, Kochi, Kerala, India";
+            }
+            case "miss" -> {
+                origin = "Mangaluru, Karnataka, India";
+                destination = "Goa, India";
+            }
+            default -> throw new IllegalArgumentException("Unknown journey: " + journey);
+        }
+        routePoint = new RideRequestService.RoutePoint("Chennai", "Guindy, Chennai, Tamil Nadu, India");
+    }
+
+    @Benchmark
+    public int searchFilter() {
+        int matches = 0;
+        for (RideRequest ride : rides) {
+            if (rideRequestService.canAccommodateJourney(ride, origin, destination)) {
+                matches++;
+            }
+        }
+        return matches;
+    }
+
+    @Benchmark
+    public void matchesLocation(Blackhole blackhole) {
+        blackhole.consume(rideRequestService.matchesLocation(routePoint, origin));
+        blackhole.consume(rideRequestService.matchesLocation(routePoint, destination));
+    }
+}
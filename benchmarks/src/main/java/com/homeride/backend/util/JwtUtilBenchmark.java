@@ -0,0 +1,84 @@
+package com.homeride.backend.util;
+
+import io.jsonwebtoken.JwtException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.lang.reflect.Field;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token work done on every authenticated request (parse and validate in JwtAuthFilter, and on
+ * STOMP CONNECT) and on every login and refresh (generate).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class JwtUtilBenchmark {
+
+    // 256-bit HS256 key, base64 like JWT_SECRET
+    private static final String SECRET = "dGhpcy1pcy1hLWJlbmNobWFyay1vbmx5LXNlY3JldC1mb3ItaHMyNTYtdG9rZW5z";
+
+    private JwtUtil jwtUtil;
+    private UserDetails userDetails;
+    private String token;
+    private String tamperedToken;
+
+    @Setup
+    public void setUp() throws ReflectiveOperationException {
+        jwtUtil = new JwtUtil();
+        set("SECRET", SECRET);
+        // Long enough that tokens made in setUp outlive the run
+        set("accessTokenExpirationMs", TimeUnit.HOURS.toMillis(12));
+        jwtUtil.init();
+
+        userDetails = User.withUsername("employee7@homeride.example").password("x").authorities("ROLE_EMPLOYEE").build();
+        token = jwtUtil.generateToken(userDetails, "4f1c2a9e-7b3d-4e8a-9c51-2d6f0b8e3a17");
+        // Same header and claims, last signature character changed
+        char last = token.charAt(token.length() - 1);
+        tamperedToken = token.substring(0, token.length() - 1) + (last == 'A' ? 'B' : 'A');
+    }
+
+    private void set(String name, Object value) throws ReflectiveOperationException {
+        Field field = JwtUtil.class.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(jwtUtil, value);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtUtil.generateToken(userDetails, "4f1c2a9e-7b3d-4e8a-9c51-2d6f0b8e3a17");
+    }
+
+    @Benchmark
+    public Object parseToken() {
+        return jwtUtil.parseToken(token);
+    }
+
+    @Benchmark
+    public Object parseTamperedToken() {
+        try {
+            return jwtUtil.parseToken(tamperedToken);
+        } catch (JwtException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public Boolean validateToken() {
+        return jwtUtil.validateToken(token, userDetails);
+    }
+}
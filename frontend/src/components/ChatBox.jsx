@@ -2,12 +2,17 @@ import React, { useState, useEffect, useRef } from 'react';
 import { Stomp } from '@stomp/stompjs';
 import SockJS from 'sockjs-client';
 import axios from 'axios';
+import { getFreshAccessToken } from '../utils/authSession.js';
 import Button from './Button';
 import Input from './Input';
 import { FiSend, FiUsers } from 'react-icons/fi';
 import './ChatBox.css';
 import { FaUserCircle } from 'react-icons/fa';
 
+const PRESENCE_HEARTBEAT_MS = 15000;
+const PRESENCE_STALE_MS = 40000;
+const TYPING_THROTTLE_MS = 2000;
+
 function ChatBox({ rideId, currentUser, participants }) {
     const [messages, setMessages] = useState([]);
     const [inputMessage, setInputMessage] = useState('');
@@ -17,16 +22,64 @@ function ChatBox({ rideId, currentUser, participants }) {
     const messagesEndRef = useRef(null);
     const reconnectTimeoutRef = useRef(null);
     
-    // Fetch chat history on component mount
+    const [hasMore, setHasMore] = useState(false);
+    const [nextCursor, setNextCursor] = useState(null);
+    const [isLoadingMore, setIsLoadingMore] = useState(false);
+
+    // Presence snapshots from the server, keyed by node: { [node]: { online, typing, receivedAt } }
+    const [presenceByNode, setPresenceByNode] = useState({});
+    const clientRef = useRef(null);
+    const heartbeatRef = useRef(null);
+    const lastTypingSentRef = useRef(0);
+
+    // History pages carry each sender's name/picture once; expand them onto the messages
+    const requestHistoryPage = async (before) => {
+        const token = localStorage.getItem('token');
+        const response = await axios.get(`http://localhost:8080/api/chat/rides/${rideId}/messages`, {
+            headers: { 'Authorization': `Bearer ${token}` },
+            params: before ? { before } : {}
+        });
+        const { messages: page = [], senders = {}, hasMore: more, nextCursor: cursor } = response.data || {};
+        const expanded = page.map(msg => ({
+            ...msg,
+            senderName: senders[msg.senderEmail]?.name,
+            senderProfilePictureUrl: senders[msg.senderEmail]?.profilePictureUrl
+        }));
+        return { page: expanded, more, cursor };
+    };
+
+    const fetchHistoryPage = async (before) => {
+        const { page, more, cursor } = await requestHistoryPage(before);
+        setHasMore(more);
+        setNextCursor(cursor);
+        return page;
+    };
+
+    // A message can be stored after the first page was read, yet have been broadcast before we
+    // subscribed; re-read the newest page once subscribed and add whatever we do not have yet
+    const mergeLatestPage = async () => {
+        try {
+            const { page } = await requestHistoryPage(null);
+            setMessages(prev => {
+                const known = new Set(prev.map(msg => msg.id));
+                const missing = page.filter(msg => !known.has(msg.id));
+                if (missing.length === 0) {
+                    return prev;
+                }
+                return [...prev, ...missing].sort((a, b) =>
+                    (new Date(a.timestamp) - new Date(b.timestamp)) || (a.id - b.id));
+            });
+        } catch (error) {
+            console.error('Failed to refresh chat history:', error);
+        }
+    };
+
+    // Fetch the latest page of chat history on component mount
     useEffect(() => {
         const fetchChatHistory = async () => {
-            const token = localStorage.getItem('token');
             try {
                 setIsLoading(true);
-                const response = await axios.get(`http://localhost:8080/api/chat/history/${rideId}`, {
-                    headers: { 'Authorization': `Bearer ${token}` }
-                });
-                setMessages(response.data || []);
+                setMessages(await fetchHistoryPage(null));
             } catch (error) {
                 console.error('Failed to fetch chat history:', error);
                 setMessages([]);
@@ -39,13 +92,27 @@ function ChatBox({ rideId, currentUser, participants }) {
             fetchChatHistory();
         }
     }, [rideId]);
+
+    const loadEarlierMessages = async () => {
+        if (!nextCursor || isLoadingMore) return;
+        try {
+            setIsLoadingMore(true);
+            const earlier = await fetchHistoryPage(nextCursor);
+            setMessages(prev => [...earlier, ...prev]);
+        } catch (error) {
+            console.error('Failed to load earlier messages:', error);
+        } finally {
+            setIsLoadingMore(false);
+        }
+    };
     
     // Set up WebSocket connection with authentication
     useEffect(() => {
         if (!rideId || !currentUser) return;
 
-        const connectWebSocket = () => {
-            const token = localStorage.getItem('token');
+        const connectWebSocket = async () => {
+            // The server rejects CONNECT frames carrying an expired token
+            const token = await getFreshAccessToken().catch(() => localStorage.getItem('token'));
             const socket = new SockJS('http://localhost:8080/ws');
             const client = Stomp.over(socket);
 
@@ -63,6 +130,15 @@ function ChatBox({ rideId, currentUser, participants }) {
                     // Subscribe to the ride's group chat topic
                     client.subscribe(`/topic/ride.${rideId}`, (message) => {
                         const receivedMessage = JSON.parse(message.body);
+
+                        // Presence/typing snapshots share the topic but are not chat messages
+                        if (receivedMessage.type === 'PRESENCE') {
+                            setPresenceByNode(prev => ({
+                                ...prev,
+                                [receivedMessage.node]: { ...receivedMessage, receivedAt: Date.now() }
+                            }));
+                            return;
+                        }
                         
                         // Add message to state (backend handles deduplication by saving first)
                         setMessages(prev => {
@@ -81,11 +157,21 @@ function ChatBox({ rideId, currentUser, participants }) {
                             return [...prev, receivedMessage];
                         });
                     });
+
+                    mergeLatestPage();
+
+                    // Join the room and keep our presence alive (the server expires silent members)
+                    clientRef.current = client;
+                    sendPresence('JOIN');
+                    clearInterval(heartbeatRef.current);
+                    heartbeatRef.current = setInterval(() => sendPresence('HEARTBEAT'), PRESENCE_HEARTBEAT_MS);
                 },
                 (error) => {
                     console.error('WebSocket connection error:', error);
                     setIsConnected(false);
                     setStompClient(null);
+                    clientRef.current = null;
+                    clearInterval(heartbeatRef.current);
                     
                     // Attempt to reconnect after 3 seconds
                     if (reconnectTimeoutRef.current) {
@@ -102,16 +188,37 @@ function ChatBox({ rideId, currentUser, participants }) {
             if (reconnectTimeoutRef.current) {
                 clearTimeout(reconnectTimeoutRef.current);
             }
+            clearInterval(heartbeatRef.current);
+            sendPresence('LEAVE');
+            clientRef.current = null;
             if (stompClient && stompClient.connected) {
                 stompClient.disconnect();
             }
         };
     }, [rideId, currentUser]);
 
-    // Auto-scroll to bottom when new messages arrive
+    // Auto-scroll to bottom when new messages arrive (not when earlier ones are prepended)
+    const lastMessage = messages[messages.length - 1];
+    const lastMessageKey = lastMessage ? `${lastMessage.id}-${lastMessage.timestamp}` : null;
     useEffect(() => {
         messagesEndRef.current?.scrollIntoView({ behavior: "smooth" });
-    }, [messages]);
+    }, [lastMessageKey]);
+
+    const sendPresence = (presenceEvent) => {
+        const client = clientRef.current;
+        if (!client || !client.connected) return;
+        client.send('/app/chat.presence', {}, JSON.stringify({ rideId, event: presenceEvent }));
+    };
+
+    // Throttled: the server keeps the typing flag for a few seconds after each TYPING event
+    const handleInputChange = (e) => {
+        setInputMessage(e.target.value);
+        const now = Date.now();
+        if (e.target.value && now - lastTypingSentRef.current > TYPING_THROTTLE_MS) {
+            lastTypingSentRef.current = now;
+            sendPresence('TYPING');
+        }
+    };
 
     const handleSendMessage = (event) => {
         event.preventDefault();
@@ -137,6 +244,8 @@ function ChatBox({ rideId, currentUser, participants }) {
         try {
             stompClient.send(`/app/chat.sendMessage`, {}, JSON.stringify(messagePayload));
             setInputMessage('');
+            lastTypingSentRef.current = 0;
+            sendPresence('STOPPED_TYPING');
         } catch (error) {
             console.error('Failed to send message:', error);
             alert('Failed to send message. Please try again.');
@@ -171,6 +280,14 @@ function ChatBox({ rideId, currentUser, participants }) {
         return participant?.name || 'Unknown User';
     };
 
+    // Merge the snapshots of all nodes, ignoring nodes that stopped sending keepalives
+    const freshSnapshots = Object.values(presenceByNode)
+        .filter(snapshot => Date.now() - snapshot.receivedAt < PRESENCE_STALE_MS);
+    const onlineEmails = new Set(freshSnapshots.flatMap(snapshot => snapshot.online));
+    const typingNames = [...new Set(freshSnapshots.flatMap(snapshot => snapshot.typing))]
+        .filter(email => email !== currentUser.email)
+        .map(getSenderName);
+
     if (isLoading) {
         return (
             <div className="chat-box-container">
@@ -190,6 +307,9 @@ function ChatBox({ rideId, currentUser, participants }) {
             <div className="chat-header">
                 <h3>Ride Chat</h3>
                 <div className="chat-status">
+                    {isConnected && onlineEmails.size > 0 && (
+                        <span className="status-online-count">{onlineEmails.size} online</span>
+                    )}
                     {isConnected ? (
                         <span className="status-connected">Connected</span>
                     ) : (
@@ -199,6 +319,11 @@ function ChatBox({ rideId, currentUser, participants }) {
             </div>
             
             <div className="chat-messages">
+                {hasMore && (
+                    <button type="button" className="chat-load-earlier" onClick={loadEarlierMessages} disabled={isLoadingMore}>
+                        {isLoadingMore ? 'Loading...' : 'Load earlier messages'}
+                    </button>
+                )}
                 {messages.length === 0 ? (
                     <div className="empty-chat">
                         <FiUsers size={48} />
@@ -262,13 +387,19 @@ function ChatBox({ rideId, currentUser, participants }) {
                 )}
                 <div ref={messagesEndRef} />
             </div>
+
+            {typingNames.length > 0 && (
+                <div className="chat-typing-indicator">
+                    {typingNames.join(', ')} {typingNames.length === 1 ? 'is' : 'are'} typing...
+                </div>
+            )}
             
             <form onSubmit={handleSendMessage} className="chat-input-form">
                 <Input
                     type="text"
                     placeholder={isConnected ? "Type your message..." : "Connecting..."}
                     value={inputMessage}
-                    onChange={(e) => setInputMessage(e.target.value)}
+                    onChange={handleInputChange}
                     disabled={!isConnected}
                     maxLength={500}
                 />
@@ -1,5 +1,8 @@
 import React, { useState, useEffect, useRef } from 'react';
 import axios from 'axios';
+import { Stomp } from '@stomp/stompjs';
+import SockJS from 'sockjs-client';
+import { getFreshAccessToken } from '../utils/authSession.js';
 import { useNavigate } from 'react-router-dom';
 import { FiMessageSquare, FiX, FiSend, FiLoader } from 'react-icons/fi';
 import { RiRobot2Fill, RiUser3Fill } from 'react-icons/ri';
@@ -14,6 +17,76 @@ function Chatbot() {
     const [isLoading, setIsLoading] = useState(false);
     const messagesEndRef = useRef(null);
     const navigate = useNavigate();
+    const clientRef = useRef(null);
+    const pendingRequestRef = useRef(null);
+
+    // Replies stream in over STOMP while the window is open; closing it disconnects,
+    // which also cancels a reply that is still being generated.
+    useEffect(() => {
+        if (!isOpen) return;
+        let closed = false;
+
+        const connect = async () => {
+            const token = await getFreshAccessToken().catch(() => localStorage.getItem('token'));
+            if (!token || closed) return;
+            const client = Stomp.over(new SockJS('http://localhost:8080/ws'));
+            client.debug = () => {};
+            client.connect({ 'Authorization': `Bearer ${token}` },
+                () => {
+                    if (closed) {
+                        client.disconnect();
+                        return;
+                    }
+                    clientRef.current = client;
+                    client.subscribe('/user/queue/chatbot', (frame) => handleChunk(JSON.parse(frame.body)));
+                },
+                () => {
+                    clientRef.current = null;
+                }
+            );
+        };
+
+        connect();
+
+        return () => {
+            closed = true;
+            if (clientRef.current && clientRef.current.connected) {
+                clientRef.current.disconnect();
+            }
+            clientRef.current = null;
+            pendingRequestRef.current = null;
+        };
+    }, [isOpen]);
+
+    const handleChunk = (chunk) => {
+        if (chunk.requestId !== pendingRequestRef.current) return;
+
+        if (chunk.delta) {
+            // The first chunk replaces the loading indicator with the reply being written
+            setIsLoading(false);
+            setMessages(prev => {
+                if (!prev.some(msg => msg.requestId === chunk.requestId)) {
+                    return [...prev, { sender: 'bot', text: chunk.delta, requestId: chunk.requestId }];
+                }
+                return prev.map(msg => msg.requestId === chunk.requestId
+                    ? { ...msg, text: msg.text + chunk.delta }
+                    : msg);
+            });
+        }
+
+        if (chunk.done) {
+            pendingRequestRef.current = null;
+            setIsLoading(false);
+            setMessages(prev => {
+                if (chunk.error) {
+                    return [...prev.filter(msg => msg.requestId !== chunk.requestId), { sender: 'bot', text: chunk.error }];
+                }
+                return prev.map(msg => msg.requestId === chunk.requestId
+                    ? { ...msg, isContactMessage: msg.text.includes('Contact Page') }
+                    : msg);
+            });
+        }
+    };
 
     const scrollToBottom = () => {
         messagesEndRef.current?.scrollIntoView({ behavior: "smooth" });
@@ -81,6 +154,18 @@ function Chatbot() {
             return;
         }
 
+        const client = clientRef.current;
+        if (client && client.connected) {
+            if (pendingRequestRef.current) {
+                client.send('/app/chatbot.cancel', {}, JSON.stringify({ requestId: pendingRequestRef.current }));
+            }
+            const requestId = `${Date.now()}-${Math.random().toString(36).slice(2)}`;
+            pendingRequestRef.current = requestId;
+            client.send('/app/chatbot.stream', {}, JSON.stringify({ requestId, message: userMessage }));
+            return;
+        }
+
+        // Not connected (yet): fall back to the request/response endpoint
         try {
             const response = await axios.post(
                 'http://localhost:8080/api/chatbot/message',
@@ -5,6 +5,7 @@ import { useNotification } from '../context/NotificationContext.jsx';
 import { FaCarSide } from 'react-icons/fa'; 
 import { FiLogOut, FiUser, FiPlusCircle, FiSearch, FiMap, FiSettings, FiUserCheck } from 'react-icons/fi';
 import Notifications from './Notifications';
+import { logoutSession } from '../utils/authSession.js';
 import './Navbar.css';
 
 function Navbar() {
@@ -32,7 +33,7 @@ function Navbar() {
 
     const handleLogout = () => {
         showConfirmation('Are you sure you want to logout?', () => {
-            localStorage.removeItem('token');
+            logoutSession();
             setIsDropdownOpen(false);
             navigate('/login'); 
         });
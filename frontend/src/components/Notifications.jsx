@@ -1,33 +1,89 @@
 import React, { useState, useEffect, useRef } from 'react';
 import { useNavigate } from 'react-router-dom';
 import axios from 'axios';
+import { Stomp } from '@stomp/stompjs';
+import SockJS from 'sockjs-client';
+import { getFreshAccessToken } from '../utils/authSession.js';
 import { FiBell, FiX } from 'react-icons/fi';
 import './Notifications.css';
 
 function Notifications() {
     const [notifications, setNotifications] = useState([]);
+    const [unreadCount, setUnreadCount] = useState(0);
     const [isOpen, setIsOpen] = useState(false);
     const navigate = useNavigate();
     const dropdownRef = useRef(null);
+    const lastSeenIdRef = useRef(null);
 
-    const fetchNotifications = async () => {
-        const token = localStorage.getItem('token');
-        if (token) {
-            try {
-                const response = await axios.get('http://localhost:8080/api/notifications', {
-                    headers: { 'Authorization': `Bearer ${token}` }
-                });
-                setNotifications(response.data);
-            } catch (error) {
-                console.error('Failed to fetch notifications:', error);
+    // Newest first, one entry per id (a bumped chat notification replaces its older copy)
+    const mergeNotifications = (incoming) => {
+        setNotifications(prev => {
+            const byId = new Map(prev.map(n => [n.id, n]));
+            incoming.forEach(n => byId.set(n.id, n));
+            return [...byId.values()].sort((a, b) => new Date(b.createdAt) - new Date(a.createdAt));
+        });
+        incoming.forEach(n => {
+            if (lastSeenIdRef.current === null || n.id > lastSeenIdRef.current) {
+                lastSeenIdRef.current = n.id;
             }
-        }
+        });
     };
 
+    // Notifications are pushed over STOMP instead of polled. After every (re)connect the client
+    // sends the highest id it has seen and gets back what it missed plus the exact unread count.
     useEffect(() => {
-        fetchNotifications();
-        const interval = setInterval(fetchNotifications, 30000); // Poll for new notifications every 30 seconds
-        return () => clearInterval(interval);
+        let client = null;
+        let reconnectTimeout = null;
+        let cancelled = false;
+        let synced = false;
+        const knownIds = new Set();
+
+        const connect = async () => {
+            const token = await getFreshAccessToken().catch(() => null);
+            if (!token || cancelled) return;
+
+            client = Stomp.over(new SockJS('http://localhost:8080/ws'));
+            client.debug = () => {};
+            client.connect({ 'Authorization': `Bearer ${token}` },
+                () => {
+                    synced = false;
+                    client.subscribe('/user/queue/notifications.sync', (message) => {
+                        const sync = JSON.parse(message.body);
+                        sync.notifications.forEach(n => knownIds.add(n.id));
+                        mergeNotifications(sync.notifications);
+                        setUnreadCount(sync.unreadCount);
+                        synced = true;
+                    });
+                    client.subscribe('/user/queue/notifications', (message) => {
+                        const notification = JSON.parse(message.body);
+                        mergeNotifications([notification]);
+                    });
+                    client.subscribe('/user/queue/notifications.unread', (message) => {
+                        const { delta, notificationId } = JSON.parse(message.body);
+                        // Deltas before the snapshot, or for notifications already in it, are already counted
+                        if (!synced || (delta > 0 && knownIds.has(notificationId))) return;
+                        if (notificationId !== null) knownIds.add(notificationId);
+                        setUnreadCount(count => Math.max(0, count + delta));
+                    });
+                    client.send('/app/notifications.resume', {}, JSON.stringify({ lastSeenId: lastSeenIdRef.current }));
+                },
+                () => {
+                    if (!cancelled) {
+                        reconnectTimeout = setTimeout(connect, 5000);
+                    }
+                }
+            );
+        };
+
+        connect();
+
+        return () => {
+            cancelled = true;
+            clearTimeout(reconnectTimeout);
+            if (client && client.connected) {
+                client.disconnect();
+            }
+        };
     }, []);
 
     const handleNotificationClick = async (notification) => {
@@ -37,15 +93,16 @@ function Notifications() {
 
     const handleOpen = async () => {
         setIsOpen(!isOpen);
-        if (!isOpen && notifications.length > 0) {
+        if (!isOpen && unreadCount > 0) {
             const token = localStorage.getItem('token');
             try {
                 await axios.post('http://localhost:8080/api/notifications/read-all', {}, {
                     headers: { 'Authorization': `Bearer ${token}` }
                 });
                 // Optimistically update the UI to remove the badge immediately
-                const readNotifications = notifications.map(n => ({ ...n, isRead: true }));
+                const readNotifications = notifications.map(n => ({ ...n, read: true }));
                 setNotifications(readNotifications);
+                setUnreadCount(0);
             } catch (error) {
                 console.error('Failed to mark notifications as read:', error);
             }
@@ -89,8 +146,6 @@ function Notifications() {
         return notificationDate.toLocaleDateString();
     };
 
-    const unreadCount = notifications.filter(n => !n.isRead).length;
-
     return (
         <div className="notification-container" ref={dropdownRef}>
             <button onClick={handleOpen} className="notification-button">
@@ -108,7 +163,7 @@ function Notifications() {
                     <div className="notification-list">
                         {notifications.length > 0 ? (
                             notifications.map(notification => (
-                                <div key={notification.id} className={`notification-item ${notification.isRead ? 'read' : ''}`} onClick={() => handleNotificationClick(notification)}>
+                                <div key={notification.id} className={`notification-item ${notification.read ? 'read' : ''}`} onClick={() => handleNotificationClick(notification)}>
                                     <p>{notification.message}</p>
                                     <span className="notification-time">
                                         {formatRelativeTime(notification.createdAt)}
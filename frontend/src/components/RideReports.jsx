@@ -0,0 +1,121 @@
+import React, { useState, useEffect, useCallback } from 'react';
+import axios from 'axios';
+import Input from './Input.jsx';
+
+const toIsoDate = (date) => date.toISOString().slice(0, 10);
+
+function RideReports() {
+  const [from, setFrom] = useState(() => toIsoDate(new Date(Date.now() - 29 * 24 * 60 * 60 * 1000)));
+  const [to, setTo] = useState(() => toIsoDate(new Date()));
+  const [granularity, setGranularity] = useState('week');
+  const [buckets, setBuckets] = useState([]);
+  const [topRoutes, setTopRoutes] = useState([]);
+  const [error, setError] = useState('');
+
+  const fetchReports = useCallback(async () => {
+    const token = localStorage.getItem('token');
+    if (!token || !from || !to) {
+      return;
+    }
+    try {
+      const config = { headers: { 'Authorization': `Bearer ${token}` } };
+      const [statsResponse, routesResponse] = await Promise.all([
+        axios.get('http://localhost:8080/api/admin/reports/rides', { ...config, params: { from, to, granularity } }),
+        axios.get('http://localhost:8080/api/admin/reports/top-routes', { ...config, params: { from, to, limit: 10 } })
+      ]);
+      setBuckets(statsResponse.data);
+      setTopRoutes(routesResponse.data);
+      setError('');
+    } catch (err) {
+      setError('Failed to load ride reports.');
+    }
+  }, [from, to, granularity]);
+
+  useEffect(() => {
+    fetchReports();
+  }, [fetchReports]);
+
+  const maxRides = Math.max(1, ...buckets.map(bucket => bucket.ridesOffered));
+
+  return (
+    <div>
+      <h2>Ride Reports</h2>
+      <div style={{ display: 'flex', gap: '15px', alignItems: 'center', flexWrap: 'wrap' }}>
+        <Input type="date" value={from} onChange={(e) => setFrom(e.target.value)} />
+        <Input type="date" value={to} onChange={(e) => setTo(e.target.value)} />
+        <select className="custom-input" value={granularity} onChange={(e) => setGranularity(e.target.value)} style={{ width: 'auto' }}>
+          <option value="day">Daily</option>
+          <option value="week">Weekly</option>
+          <option value="month">Monthly</option>
+        </select>
+      </div>
+
+      {error && <p style={{color: 'var(--danger-color)'}}>{error}</p>}
+
+      <div style={{ overflowX: 'auto' }}>
+        <table className="employee-table">
+          <thead>
+            <tr>
+              <th>Period</th>
+              <th>Rides Offered</th>
+              <th>Seats Booked</th>
+              <th>Occupancy</th>
+              <th>Revenue</th>
+              <th>Rides Cancelled</th>
+              <th>Bookings Cancelled</th>
+            </tr>
+          </thead>
+          <tbody>
+            {buckets.map(bucket => (
+              <tr key={bucket.periodStart}>
+                <td>{bucket.periodStart}</td>
+                <td>
+                  <div style={{
+                    width: `${(bucket.ridesOffered / maxRides) * 100}%`,
+                    minWidth: '2px',
+                    height: '6px',
+                    backgroundColor: 'var(--primary-color)',
+                    borderRadius: '3px',
+                    marginBottom: '4px'
+                  }} />
+                  {bucket.ridesOffered}
+                </td>
+                <td>{bucket.seatsBooked} / {bucket.seatsOffered}</td>
+                <td>{bucket.occupancyPercent.toFixed(1)}%</td>
+                <td>₹{bucket.revenue.toFixed(2)}</td>
+                <td>{bucket.ridesCancelled}</td>
+                <td>{bucket.bookingsCancelled}</td>
+              </tr>
+            ))}
+          </tbody>
+        </table>
+      </div>
+
+      <h3>Top Routes</h3>
+      <div style={{ overflowX: 'auto' }}>
+        <table className="employee-table">
+          <thead>
+            <tr>
+              <th>Route</th>
+              <th>Rides Offered</th>
+              <th>Seats Booked</th>
+              <th>Revenue</th>
+            </tr>
+          </thead>
+          <tbody>
+            {topRoutes.map(route => (
+              <tr key={`${route.originCity}-${route.destinationCity}`}>
+                <td>{route.originCity} → {route.destinationCity}</td>
+                <td>{route.ridesOffered}</td>
+                <td>{route.seatsBooked}</td>
+                <td>₹{route.revenue.toFixed(2)}</td>
+              </tr>
+            ))}
+          </tbody>
+        </table>
+      </div>
+    </div>
+  );
+}
+
+export default RideReports;
@@ -1,6 +1,7 @@
 import React from 'react';
 import { Navigate, useLocation } from 'react-router-dom';
 import { jwtDecode } from 'jwt-decode';
+import { clearSession, hasRefreshToken } from '../utils/authSession.js';
 
 // Helper function to check if a token is expired
 const isTokenExpired = (token) => {
@@ -29,8 +30,9 @@ function RouteGuard({ children, adminOnly = false }) {
   const location = useLocation();
 
   // 1. Check if the user is logged in at all.
-  if (!token || isTokenExpired(token)) {
-    localStorage.removeItem('token'); // Clean up any invalid token
+  // An expired access token is fine while a refresh token exists; the next API call renews it.
+  if (!token || (isTokenExpired(token) && !hasRefreshToken())) {
+    clearSession(); // Clean up any invalid token
     return <Navigate to="/login" state={{ from: location }} replace />;
   }
 
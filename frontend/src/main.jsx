@@ -3,6 +3,9 @@ import ReactDOM from 'react-dom/client';
 import App from './App.jsx';
 import './index.css';
 import { BrowserRouter } from 'react-router-dom'; // <-- 1. Import the router
+import { installAuthInterceptor } from './utils/authSession.js';
+
+installAuthInterceptor();
 
 ReactDOM.createRoot(document.getElementById('root')).render(
   <React.StrictMode>
@@ -1,15 +1,43 @@
 import React, { useState, useEffect, useCallback } from 'react';
 import axios from 'axios';
 import Button from '../components/Button.jsx';
+import Input from '../components/Input.jsx';
 import EditUserModal from '../components/EditUserModal.jsx';
+import RideReports from '../components/RideReports.jsx';
 import '../App.css';
 import { FiUsers, FiNavigation } from 'react-icons/fi';
 
+const PAGE_SIZE = 25;
+
+const COLUMNS = [
+  { key: 'id', label: 'ID' },
+  { key: 'name', label: 'Name' },
+  { key: 'email', label: 'Email' },
+  { key: 'role', label: 'Role' },
+  { key: 'travelCredit', label: 'Travel Credit' },
+  { key: 'ridesTraveled', label: 'Rides Traveled' },
+];
+
 function AdminDashboardPage() {
   const [employees, setEmployees] = useState([]);
   const [stats, setStats] = useState(null);
   const [selectedUser, setSelectedUser] = useState(null);
   const [error, setError] = useState('');
+  const [page, setPage] = useState(0);
+  const [totalPages, setTotalPages] = useState(0);
+  const [totalElements, setTotalElements] = useState(0);
+  const [sort, setSort] = useState({ key: 'name', direction: 'asc' });
+  const [searchInput, setSearchInput] = useState('');
+  const [search, setSearch] = useState('');
+
+  // Wait for the admin to stop typing before searching
+  useEffect(() => {
+    const timer = setTimeout(() => {
+      setSearch(searchInput.trim());
+      setPage(0);
+    }, 300);
+    return () => clearTimeout(timer);
+  }, [searchInput]);
 
   const fetchData = useCallback(async () => {
     const token = localStorage.getItem('token');
@@ -19,21 +47,35 @@ function AdminDashboardPage() {
     }
     try {
       const config = { headers: { 'Authorization': `Bearer ${token}` } };
+      const params = { page, size: PAGE_SIZE, sort: sort.key, direction: sort.direction };
+      if (search) {
+        params.search = search;
+      }
       const [statsResponse, employeesResponse] = await Promise.all([
         axios.get('http://localhost:8080/api/admin/stats', config),
-        axios.get('http://localhost:8080/api/admin/employees', config)
+        axios.get('http://localhost:8080/api/admin/employees', { ...config, params })
       ]);
       setStats(statsResponse.data);
-      setEmployees(employeesResponse.data);
+      setEmployees(employeesResponse.data.employees);
+      setTotalPages(employeesResponse.data.totalPages);
+      setTotalElements(employeesResponse.data.totalElements);
     } catch (err) {
       setError('Failed to fetch admin data. You may not have permission.');
     }
-  }, []);
+  }, [page, sort, search]);
 
   useEffect(() => {
     fetchData();
   }, [fetchData]);
 
+  const handleSort = (key) => {
+    setSort(current => ({
+      key,
+      direction: current.key === key && current.direction === 'asc' ? 'desc' : 'asc'
+    }));
+    setPage(0);
+  };
+
   const handleUserUpdate = async (userId, updateData) => {
     const token = localStorage.getItem('token');
     try {
@@ -69,17 +111,25 @@ function AdminDashboardPage() {
         </div>
       </div>
 
+      <RideReports />
+
       <h2>All Employees</h2>
+      <Input
+        type="text"
+        placeholder="Search by name or email"
+        value={searchInput}
+        onChange={(e) => setSearchInput(e.target.value)}
+      />
       <div style={{ overflowX: 'auto' }}>
         <table className="employee-table">
           <thead>
             <tr>
-              <th>ID</th>
-              <th>Name</th>
-              <th>Email</th>
-              <th>Role</th>
-              <th>Travel Credit</th>
-              <th>Rides Traveled</th>
+              {COLUMNS.map(column => (
+                <th key={column.key} onClick={() => handleSort(column.key)} style={{ cursor: 'pointer' }}>
+                  {column.label}
+                  {sort.key === column.key && (sort.direction === 'asc' ? ' ▲' : ' ▼')}
+                </th>
+              ))}
               <th>Actions</th>
             </tr>
           </thead>
@@ -100,6 +150,14 @@ function AdminDashboardPage() {
           </tbody>
         </table>
       </div>
+
+      <div style={{ display: 'flex', alignItems: 'center', gap: '15px', marginTop: '15px' }}>
+        <Button onClick={() => setPage(page - 1)} disabled={page === 0}>Previous</Button>
+        <span>
+          Page {totalPages === 0 ? 0 : page + 1} of {totalPages} ({totalElements} employees)
+        </span>
+        <Button onClick={() => setPage(page + 1)} disabled={page + 1 >= totalPages}>Next</Button>
+      </div>
       
       {selectedUser && (
         <EditUserModal 
@@ -7,6 +7,7 @@ import '../App.css';
 import axios from 'axios';
 import { FiLogIn } from 'react-icons/fi';
 import { jwtDecode } from 'jwt-decode';
+import { storeSession } from '../utils/authSession.js';
 
 function LoginPage() {
   const [email, setEmail] = useState('');
@@ -25,7 +26,7 @@ function LoginPage() {
       });
       
       const token = response.data.token;
-      localStorage.setItem('token', token);
+      storeSession(response.data);
 
       showNotification('Login successful!'); // New notification
 
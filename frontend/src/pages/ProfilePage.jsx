@@ -172,10 +172,19 @@ function ProfilePage() {
             'Content-Type': 'multipart/form-data'
           }
         });
-        setUser(response.data);
+        if (response.status === 202) {
+          // Still being resized and stored on the server; wait for the new URL
+          const status = await waitForProfilePicture(token);
+          if (status.status !== 'DONE') {
+            throw new Error(status.message || 'Profile picture processing failed');
+          }
+          setUser(prev => ({ ...prev, profilePictureUrl: status.profilePictureUrl }));
+        } else {
+          setUser(response.data);
+        }
         showNotification('Profile picture updated successfully!');
       } catch (error) {
-        showNotification('Failed to update profile picture. Please try again.', 'error');
+        showNotification(error.response?.data?.message || 'Failed to update profile picture. Please try again.', 'error');
         console.error("Error updating profile picture:", error);
       } finally {
         setIsCropperOpen(false);
@@ -185,6 +194,19 @@ function ProfilePage() {
   };
 
 
+  const waitForProfilePicture = async (token) => {
+    for (let attempt = 0; attempt < 30; attempt++) {
+      await new Promise(resolve => setTimeout(resolve, 1000));
+      const response = await axios.get('http://localhost:8080/api/employees/me/profile-picture/status', {
+        headers: { 'Authorization': `Bearer ${token}` }
+      });
+      if (response.data.status !== 'PROCESSING') {
+        return response.data;
+      }
+    }
+    return { status: 'FAILED', message: 'Profile picture is taking too long. Please check again later.' };
+  };
+
   const handleChangePicture = () => {
     fileInputRef.current.click();
   };
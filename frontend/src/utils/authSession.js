@@ -0,0 +1,94 @@
+import axios from 'axios';
+import { jwtDecode } from 'jwt-decode';
+
+const API_BASE = 'http://localhost:8080';
+
+// Access tokens are short-lived. When an API call comes back 401, exchange the stored
+// refresh token for a new pair once and replay the original request.
+let refreshPromise = null;
+
+export const storeSession = ({ token, refreshToken }) => {
+    localStorage.setItem('token', token);
+    if (refreshToken) {
+        localStorage.setItem('refreshToken', refreshToken);
+    }
+};
+
+export const clearSession = () => {
+    localStorage.removeItem('token');
+    localStorage.removeItem('refreshToken');
+};
+
+export const hasRefreshToken = () => !!localStorage.getItem('refreshToken');
+
+export const refreshSession = () => {
+    if (!refreshPromise) {
+        const refreshToken = localStorage.getItem('refreshToken');
+        refreshPromise = axios
+            .post(`${API_BASE}/api/auth/refresh`, { refreshToken }, { skipAuthRefresh: true })
+            .then((response) => {
+                storeSession(response.data);
+                return response.data.token;
+            })
+            .catch((error) => {
+                clearSession();
+                throw error;
+            })
+            .finally(() => {
+                refreshPromise = null;
+            });
+    }
+    return refreshPromise;
+};
+
+// Returns an access token that is valid for at least a few more seconds, refreshing it first
+// if needed. Used before opening a WebSocket, where there is no 401 to retry on.
+export const getFreshAccessToken = async () => {
+    const token = localStorage.getItem('token');
+    if (!token) {
+        return null;
+    }
+    try {
+        const { exp } = jwtDecode(token);
+        if (exp * 1000 - Date.now() > 10000 || !hasRefreshToken()) {
+            return token;
+        }
+    } catch (error) {
+        return token;
+    }
+    return refreshSession();
+};
+
+export const logoutSession = async () => {
+    const refreshToken = localStorage.getItem('refreshToken');
+    clearSession();
+    if (refreshToken) {
+        try {
+            await axios.post(`${API_BASE}/api/auth/logout`, { refreshToken }, { skipAuthRefresh: true });
+        } catch (error) {
+            console.error('Failed to revoke session on logout:', error);
+        }
+    }
+};
+
+export const installAuthInterceptor = () => {
+    axios.interceptors.response.use(
+        (response) => response,
+        async (error) => {
+            const original = error.config;
+            if (
+                error.response?.status !== 401 ||
+                !original ||
+                original.skipAuthRefresh ||
+                original._retried ||
+                !hasRefreshToken()
+            ) {
+                return Promise.reject(error);
+            }
+            original._retried = true;
+            const token = await refreshSession();
+            original.headers = { ...original.headers, Authorization: `Bearer ${token}` };
+            return axios(original);
+        }
+    );
+};